@@ -0,0 +1,100 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d.benchmarks;
+
+import com.github.tmyroadctfig.jsteer2d.BatchKernels;
+import com.github.tmyroadctfig.jsteer2d.GetBatchSteeringComponents;
+import com.github.tmyroadctfig.jsteer2d.SteeringBatch;
+import com.github.tmyroadctfig.jsteer2d.ThrustPreferenceSteering;
+import com.github.tmyroadctfig.jsteer2d.Vector2Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the scalar and Vector API kernels for the steering components of a {@link SteeringBatch}. Each operation is
+ * the whole batch. Needs a JDK with the {@code jdk.incubator.vector} module.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+@State(Scope.Thread)
+public class BatchKernelBenchmark
+{
+    @Param({ "1000", "20000" })
+    public int vehicleCount;
+
+    @Param({ "scalar", "vector" })
+    public String kernel;
+
+    private GetBatchSteeringComponents strategy;
+    private SteeringBatch batch;
+
+    @Setup
+    public void setUp()
+    {
+        if ("vector".equals(kernel))
+        {
+            if (!BatchKernels.isVectorised())
+            {
+                throw new IllegalStateException("The Vector API kernels aren't available");
+            }
+            strategy = BatchKernels.createThrustPreferenceSteering();
+        }
+        else
+        {
+            strategy = new ThrustPreferenceSteering(Vector2Utils.FAST_ANGLE);
+        }
+
+        float extent = Scenarios.getExtent(vehicleCount, 10);
+        List<BenchmarkVehicle> vehicles = Scenarios.createVehicles(vehicleCount, extent, 1);
+        batch = new SteeringBatch(vehicleCount, strategy);
+
+        float[] targetX = new float[vehicleCount];
+        float[] targetY = new float[vehicleCount];
+        for (int i = 0; i < vehicleCount; i++)
+        {
+            batch.add(vehicles.get(i));
+            targetX[i] = extent - vehicles.get(i).position.x;
+            targetY[i] = extent - vehicles.get(i).position.y;
+        }
+
+        // Fills the force columns that the kernels read
+        batch.seek(targetX, targetY, 16);
+    }
+
+    @Benchmark
+    public float[] getComponents()
+    {
+        strategy.getComponents(batch, 0, vehicleCount, 16);
+        return batch.getThrust();
+    }
+}
@@ -0,0 +1,119 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d.benchmarks;
+
+import com.badlogic.gdx.math.Vector2;
+import com.github.tmyroadctfig.jsteer2d.BoidNeighbourIndex;
+import com.github.tmyroadctfig.jsteer2d.Obstacle;
+import com.github.tmyroadctfig.jsteer2d.SpatialGridCollisionDetector;
+import com.github.tmyroadctfig.jsteer2d.Steering;
+import com.github.tmyroadctfig.jsteer2d.SteeringBlend;
+import com.github.tmyroadctfig.jsteer2d.SteeringComponents;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a seek, avoid obstacles and separate stack, either as three separate behaviour calls or as a single
+ * {@link SteeringBlend}. Each operation is one tick of the whole fleet, including building the neighbour index.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BlendBenchmark
+{
+    private static final float DETECTION_PERIOD = 500;
+
+    @Param({ "thrust", "rotation" })
+    public String strategy;
+
+    @Param({ "1000", "10000" })
+    public int vehicleCount;
+
+    private List<BenchmarkVehicle> vehicles;
+    private Steering[] steerings;
+    private SpatialGridCollisionDetector grid;
+    private BoidNeighbourIndex index;
+    private Vector2 target;
+    private SteeringComponents seek;
+    private SteeringComponents avoid;
+    private SteeringComponents separate;
+
+    @Setup
+    public void setUp()
+    {
+        float extent = Scenarios.getExtent(vehicleCount, 40);
+        vehicles = Scenarios.createVehicles(vehicleCount, extent, 1);
+
+        grid = new SpatialGridCollisionDetector(Scenarios.SPEED * DETECTION_PERIOD);
+        for (Obstacle obstacle : Scenarios.createObstacles(vehicleCount / 10, extent, 2))
+        {
+            grid.add(obstacle);
+        }
+
+        steerings = new Steering[vehicleCount];
+        for (int i = 0; i < vehicleCount; i++)
+        {
+            steerings[i] = new Steering(vehicles.get(i), Scenarios.createStrategy(strategy), grid);
+        }
+
+        index = new BoidNeighbourIndex(400);
+        target = new Vector2(extent / 2, extent / 2);
+        seek = new SteeringComponents();
+        avoid = new SteeringComponents();
+        separate = new SteeringComponents();
+    }
+
+    @Benchmark
+    public void separateCalls(Blackhole blackhole)
+    {
+        index.build(vehicles);
+        for (Steering steering : steerings)
+        {
+            blackhole.consume(steering.avoidObstacles(grid, DETECTION_PERIOD, 16, avoid).getRotation());
+            blackhole.consume(steering.seek(target, 16, seek).getRotation());
+            blackhole.consume(steering.separate(index, 16, separate).getRotation());
+        }
+    }
+
+    @Benchmark
+    public void blended(Blackhole blackhole)
+    {
+        index.build(vehicles);
+        for (Steering steering : steerings)
+        {
+            blackhole.consume(steering.blend(16).avoidObstacles(grid, DETECTION_PERIOD, 1).priority()
+                    .seek(target, 1).separate(index, 2).getComponents(seek).getRotation());
+        }
+    }
+}
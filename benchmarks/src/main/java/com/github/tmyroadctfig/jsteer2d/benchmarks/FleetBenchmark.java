@@ -0,0 +1,142 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d.benchmarks;
+
+import com.badlogic.gdx.math.Vector2;
+import com.github.tmyroadctfig.jsteer2d.FleetSteering;
+import com.github.tmyroadctfig.jsteer2d.Steering;
+import com.github.tmyroadctfig.jsteer2d.SteeringBatch;
+import com.github.tmyroadctfig.jsteer2d.SteeringComponents;
+import com.github.tmyroadctfig.jsteer2d.ThrustPreferenceSteering;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the ways of seeking a whole fleet to a target: per-vehicle {@link Steering}, {@link SteeringBatch} and
+ * {@link FleetSteering} on one or all cores. Each operation is one tick of the whole fleet.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FleetBenchmark
+{
+    @Param({ "1000", "20000" })
+    public int vehicleCount;
+
+    private Steering[] steerings;
+    private Vector2 target;
+    private SteeringComponents result;
+    private SteeringBatch batch;
+    private float[] targetX;
+    private float[] targetY;
+    private FleetSteering fleet;
+    private FleetSteering.Behaviour seek;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp()
+    {
+        float extent = Scenarios.getExtent(vehicleCount, 10);
+        List<BenchmarkVehicle> vehicles = Scenarios.createVehicles(vehicleCount, extent, 1);
+        ThrustPreferenceSteering strategy = new ThrustPreferenceSteering();
+
+        target = new Vector2(extent / 2, extent / 2);
+        result = new SteeringComponents();
+        steerings = new Steering[vehicleCount];
+        batch = new SteeringBatch(vehicleCount, strategy);
+        fleet = new FleetSteering(strategy);
+
+        for (int i = 0; i < vehicleCount; i++)
+        {
+            steerings[i] = new Steering(vehicles.get(i), strategy);
+            batch.add(vehicles.get(i));
+            fleet.add(vehicles.get(i));
+        }
+
+        targetX = new float[vehicleCount];
+        targetY = new float[vehicleCount];
+        Arrays.fill(targetX, target.x);
+        Arrays.fill(targetY, target.y);
+
+        seek = new FleetSteering.Behaviour()
+        {
+            @Override
+            public void steer(int index, Steering steering, float elapsedTime, SteeringComponents result)
+            {
+                steering.seek(target, elapsedTime, result);
+            }
+        };
+
+        pool = new ForkJoinPool();
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public void perVehicle(Blackhole blackhole)
+    {
+        for (Steering steering : steerings)
+        {
+            blackhole.consume(steering.seek(target, 16, result).getRotation());
+        }
+    }
+
+    @Benchmark
+    public float[] batch()
+    {
+        batch.seek(targetX, targetY, 16);
+        return batch.getRotation();
+    }
+
+    @Benchmark
+    public FleetSteering fleetSerial()
+    {
+        fleet.tick(seek, 16);
+        return fleet;
+    }
+
+    @Benchmark
+    public FleetSteering fleetForkJoin()
+    {
+        fleet.tick(seek, 16, pool);
+        return fleet;
+    }
+}
@@ -0,0 +1,156 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d.benchmarks;
+
+import com.github.tmyroadctfig.jsteer2d.BoidDistance;
+import com.github.tmyroadctfig.jsteer2d.BoidNeighbourIndex;
+import com.github.tmyroadctfig.jsteer2d.Steering;
+import com.github.tmyroadctfig.jsteer2d.SteeringComponents;
+import com.github.tmyroadctfig.jsteer2d.Vehicle;
+import com.github.tmyroadctfig.jsteer2d.VerletNeighbourList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks flocking. Each operation is one tick of the whole flock, including building the neighbour index.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FlockingBenchmark
+{
+    @Param({ "1000", "10000" })
+    public int flockSize;
+
+    @Param({ "thrust", "rotation" })
+    public String strategy;
+
+    private List<BenchmarkVehicle> flock;
+    private Steering[] steerings;
+    private BoidNeighbourIndex index;
+    private VerletNeighbourList neighbourList;
+    private SteeringComponents result;
+
+    @Setup
+    public void setUp()
+    {
+        // Roughly 20 boids within the default maximum boid distance of each other
+        flock = Scenarios.createVehicles(flockSize, Scenarios.getExtent(flockSize, 40), 1);
+
+        steerings = new Steering[flockSize];
+        for (int i = 0; i < flockSize; i++)
+        {
+            steerings[i] = new Steering(flock.get(i), Scenarios.createStrategy(strategy));
+        }
+
+        index = new BoidNeighbourIndex(400);
+        neighbourList = new VerletNeighbourList(400, 40);
+        result = new SteeringComponents();
+    }
+
+    @Benchmark
+    public void flockWithIndex(Blackhole blackhole)
+    {
+        index.build(flock);
+        for (Steering steering : steerings)
+        {
+            blackhole.consume(steering.flock(index, 16, result).getRotation());
+        }
+    }
+
+    /**
+     * The flock doesn't move between ticks so after the first tick this measures the cost of a tick between rebuilds.
+     */
+    @Benchmark
+    public void flockWithVerletList(Blackhole blackhole)
+    {
+        neighbourList.update(flock);
+        for (Steering steering : steerings)
+        {
+            blackhole.consume(steering.flock(neighbourList, 16, result).getRotation());
+        }
+    }
+
+    @Benchmark
+    public void flockWithLinearScan(Blackhole blackhole)
+    {
+        for (Steering steering : steerings)
+        {
+            blackhole.consume(steering.flock(flock, 16, result).getRotation());
+        }
+    }
+
+    /**
+     * Sorts the whole flock by distance for every boid and flocks with the closest, as the original port did. This is
+     * quadratic with a large constant, expect seconds per operation for the larger flock.
+     */
+    @Benchmark
+    public void flockWithSorting(Blackhole blackhole)
+    {
+        Comparator<BoidDistance> byDistance = new Comparator<BoidDistance>()
+        {
+            @Override
+            public int compare(BoidDistance o1, BoidDistance o2)
+            {
+                return Float.compare(o1.getDistanceSquared(), o2.getDistanceSquared());
+            }
+        };
+
+        for (Steering steering : steerings)
+        {
+            Vehicle vehicle = steering.getVehicle();
+            List<BoidDistance> sorted = new ArrayList<BoidDistance>(flockSize);
+            for (BenchmarkVehicle boid : flock)
+            {
+                if (boid != vehicle)
+                {
+                    sorted.add(new BoidDistance(boid, boid.getPosition().dst2(vehicle.getPosition())));
+                }
+            }
+
+            Collections.sort(sorted, byDistance);
+
+            List<Vehicle> closest = new ArrayList<Vehicle>();
+            for (int i = 0; i < Math.min(steering.getMaximumCloseBoids(), sorted.size()); i++)
+            {
+                closest.add(sorted.get(i).getBoid());
+            }
+
+            blackhole.consume(steering.flock(closest, 16, result).getRotation());
+        }
+    }
+}
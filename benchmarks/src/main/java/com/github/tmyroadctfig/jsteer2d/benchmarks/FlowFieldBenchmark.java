@@ -0,0 +1,130 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d.benchmarks;
+
+import com.badlogic.gdx.math.Vector2;
+import com.github.tmyroadctfig.jsteer2d.BvhCollisionDetector;
+import com.github.tmyroadctfig.jsteer2d.FlowField;
+import com.github.tmyroadctfig.jsteer2d.FlowFieldCache;
+import com.github.tmyroadctfig.jsteer2d.GetBatchSteeringComponents;
+import com.github.tmyroadctfig.jsteer2d.Obstacle;
+import com.github.tmyroadctfig.jsteer2d.Steering;
+import com.github.tmyroadctfig.jsteer2d.SteeringBatch;
+import com.github.tmyroadctfig.jsteer2d.SteeringComponents;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks sending every vehicle to one goal, either with per-vehicle arrive and obstacle avoidance or by following
+ * a shared flow field. Each operation is one tick of every vehicle, except {@link #buildFlowField()} which is the
+ * one-off cost per goal.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FlowFieldBenchmark
+{
+    private static final int OBSTACLE_COUNT = 500;
+
+    private static final float DETECTION_PERIOD = 500;
+
+    private static final float CELL_SIZE = 50;
+
+    @Param({ "1000", "10000" })
+    public int vehicleCount;
+
+    private List<Obstacle> obstacleList;
+    private BvhCollisionDetector bvh;
+    private Steering[] steerings;
+    private SteeringBatch batch;
+    private FlowFieldCache cache;
+    private int columns;
+    private Vector2 goal;
+    private SteeringComponents result;
+
+    @Setup
+    public void setUp()
+    {
+        float extent = Scenarios.getExtent(OBSTACLE_COUNT, 4);
+        obstacleList = Scenarios.createObstacles(OBSTACLE_COUNT, extent, 1);
+        List<BenchmarkVehicle> vehicles = Scenarios.createVehicles(vehicleCount, extent, 2);
+        bvh = new BvhCollisionDetector(obstacleList);
+
+        steerings = new Steering[vehicleCount];
+        batch = new SteeringBatch(vehicleCount, (GetBatchSteeringComponents) Scenarios.createStrategy("thrust"));
+        for (int i = 0; i < vehicleCount; i++)
+        {
+            steerings[i] = new Steering(vehicles.get(i), Scenarios.createStrategy("thrust"), bvh);
+            batch.add(vehicles.get(i));
+        }
+
+        columns = (int) Math.ceil(extent / CELL_SIZE);
+        cache = new FlowFieldCache(0, 0, columns, columns, CELL_SIZE, obstacleList, 10, 4);
+        goal = new Vector2(extent / 2, extent / 2);
+        result = new SteeringComponents();
+    }
+
+    @Benchmark
+    public void arriveAndAvoid(Blackhole blackhole)
+    {
+        for (Steering steering : steerings)
+        {
+            blackhole.consume(steering.avoidObstacles(bvh, DETECTION_PERIOD, 16, result).getRotation());
+            blackhole.consume(steering.arriveAt(goal, 16, result).getRotation());
+        }
+    }
+
+    @Benchmark
+    public void followFlowField(Blackhole blackhole)
+    {
+        FlowField field = cache.get(goal.x, goal.y);
+        for (Steering steering : steerings)
+        {
+            blackhole.consume(steering.followFlowField(field, 16, result).getRotation());
+        }
+    }
+
+    @Benchmark
+    public void followFlowFieldBatch(Blackhole blackhole)
+    {
+        batch.followFlowField(cache.get(goal.x, goal.y), 16);
+        blackhole.consume(batch.getRotation());
+    }
+
+    @Benchmark
+    public FlowField buildFlowField()
+    {
+        return new FlowField(0, 0, columns, columns, CELL_SIZE).build(goal.x, goal.y, obstacleList, 10);
+    }
+}
@@ -0,0 +1,153 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d.benchmarks;
+
+import com.github.tmyroadctfig.jsteer2d.BvhCollisionDetector;
+import com.github.tmyroadctfig.jsteer2d.CachingCollisionDetector;
+import com.github.tmyroadctfig.jsteer2d.CollisionUtils;
+import com.github.tmyroadctfig.jsteer2d.Obstacle;
+import com.github.tmyroadctfig.jsteer2d.PotentialCollisionDetector;
+import com.github.tmyroadctfig.jsteer2d.SpatialGridCollisionDetector;
+import com.github.tmyroadctfig.jsteer2d.Steering;
+import com.github.tmyroadctfig.jsteer2d.SteeringComponents;
+import com.github.tmyroadctfig.jsteer2d.SweptCircleCollisionDetector;
+import com.github.tmyroadctfig.jsteer2d.Vehicle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link Steering#avoidObstacles(Iterable, float, float, SteeringComponents)} with each detector. Each
+ * operation is one tick of 1000 vehicles.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ObstacleAvoidanceBenchmark
+{
+    private static final int VEHICLE_COUNT = 1000;
+
+    private static final float DETECTION_PERIOD = 500;
+
+    @Param({ "linear", "grid", "swept", "bvh", "caching" })
+    public String detector;
+
+    @Param({ "500", "5000" })
+    public int obstacleCount;
+
+    /**
+     * The number of obstacles per 1000x1000 area.
+     */
+    @Param({ "1", "20" })
+    public float density;
+
+    private Steering[] steerings;
+    private Iterable<Obstacle> obstacles;
+    private SteeringComponents result;
+
+    @Setup
+    public void setUp()
+    {
+        float extent = Scenarios.getExtent(obstacleCount, density);
+        List<Obstacle> obstacleList = Scenarios.createObstacles(obstacleCount, extent, 1);
+        List<BenchmarkVehicle> vehicles = Scenarios.createVehicles(VEHICLE_COUNT, extent, 2);
+
+        PotentialCollisionDetector potentialCollisionDetector = createDetector(obstacleList);
+
+        steerings = new Steering[VEHICLE_COUNT];
+        for (int i = 0; i < VEHICLE_COUNT; i++)
+        {
+            steerings[i] = new Steering(vehicles.get(i), Scenarios.createStrategy("thrust"),
+                    potentialCollisionDetector);
+        }
+
+        result = new SteeringComponents();
+    }
+
+    @Benchmark
+    public void avoidObstacles(Blackhole blackhole)
+    {
+        for (Steering steering : steerings)
+        {
+            blackhole.consume(steering.avoidObstacles(obstacles, DETECTION_PERIOD, 16, result).getRotation());
+        }
+    }
+
+    private PotentialCollisionDetector createDetector(List<Obstacle> obstacleList)
+    {
+        obstacles = obstacleList;
+
+        if ("linear".equals(detector))
+        {
+            return new PotentialCollisionDetector()
+            {
+                @Override
+                public Obstacle findNearestPotentialCollision(Vehicle vehicle, Iterable<Obstacle> obstacles,
+                                                              float detectionPeriod)
+                {
+                    return CollisionUtils.findNearestObstacleInPath(vehicle, obstacles, detectionPeriod);
+                }
+            };
+        }
+        else if ("grid".equals(detector))
+        {
+            SpatialGridCollisionDetector grid = new SpatialGridCollisionDetector(Scenarios.SPEED * DETECTION_PERIOD);
+            for (Obstacle obstacle : obstacleList)
+            {
+                grid.add(obstacle);
+            }
+
+            obstacles = grid;
+            return grid;
+        }
+        else if ("swept".equals(detector))
+        {
+            return new SweptCircleCollisionDetector();
+        }
+        else if ("bvh".equals(detector))
+        {
+            BvhCollisionDetector bvh = new BvhCollisionDetector(obstacleList);
+            obstacles = bvh;
+            return bvh;
+        }
+        else if ("caching".equals(detector))
+        {
+            // The vehicles don't move between ticks so this measures the cost of reusing the candidates
+            BvhCollisionDetector bvh = new BvhCollisionDetector(obstacleList);
+            obstacles = bvh;
+            return new CachingCollisionDetector(bvh, Scenarios.SPEED * 16 * 4);
+        }
+
+        throw new IllegalArgumentException("Unknown detector: " + detector);
+    }
+}
@@ -0,0 +1,153 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d.benchmarks;
+
+import com.badlogic.gdx.math.Vector2;
+import com.github.tmyroadctfig.jsteer2d.FleetSteering;
+import com.github.tmyroadctfig.jsteer2d.Obstacle;
+import com.github.tmyroadctfig.jsteer2d.Steering;
+import com.github.tmyroadctfig.jsteer2d.SteeringComponents;
+import com.github.tmyroadctfig.jsteer2d.SteeringObjective;
+import com.github.tmyroadctfig.jsteer2d.SteeringRecorder;
+import com.github.tmyroadctfig.jsteer2d.SteeringReplay;
+import com.github.tmyroadctfig.jsteer2d.SweptCircleCollisionDetector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a {@link SteeringRecorder} recording, each vehicle avoiding the tick's obstacles or otherwise seeking its
+ * target. Each operation is the whole recording.
+ *
+ * <p>Pass a recording captured from a real game with {@code -p recording=/path/to/file}; by default a synthetic
+ * recording of 1000 vehicles for 100 ticks is generated.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReplayBenchmark
+{
+    private static final int VEHICLE_COUNT = 1000;
+    private static final int OBSTACLE_COUNT = 200;
+    private static final int TICK_COUNT = 100;
+
+    @Param({ "" })
+    public String recording;
+
+    @Param({ "thrust", "rotation" })
+    public String strategy;
+
+    private SteeringReplay replay;
+    private FleetSteering.Behaviour behaviour;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        File file;
+        if (recording.isEmpty())
+        {
+            file = File.createTempFile("steering", ".replay");
+            file.deleteOnExit();
+            record(file);
+        }
+        else
+        {
+            file = new File(recording);
+        }
+
+        replay = SteeringReplay.open(file);
+        behaviour = new FleetSteering.Behaviour()
+        {
+            @Override
+            public void steer(int index, Steering steering, float elapsedTime, SteeringComponents result)
+            {
+                steering.avoidObstacles(replay.getObstacles(), 1000, elapsedTime, result);
+
+                Vector2 target = replay.getTarget(index);
+                if (result.getSteeringObjective() == SteeringObjective.NO_STEERING && target != null)
+                {
+                    steering.seek(target, elapsedTime, result);
+                }
+            }
+        };
+    }
+
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        replay.close();
+    }
+
+    @Benchmark
+    public SteeringReplay.Result replay()
+    {
+        return replay.run(behaviour, Scenarios.createStrategy(strategy),
+                new SweptCircleCollisionDetector());
+    }
+
+    /**
+     * Records vehicles drifting over a field of obstacles towards the centre of the world.
+     */
+    private static void record(File file) throws IOException
+    {
+        float extent = Scenarios.getExtent(VEHICLE_COUNT, 10);
+        List<BenchmarkVehicle> vehicles = Scenarios.createVehicles(VEHICLE_COUNT, extent, 1);
+        List<Obstacle> obstacles = Scenarios.createObstacles(OBSTACLE_COUNT, extent, 2);
+        Vector2 target = new Vector2(extent / 2, extent / 2);
+
+        SteeringRecorder recorder = SteeringRecorder.open(file);
+        try
+        {
+            for (int tick = 0; tick < TICK_COUNT; tick++)
+            {
+                recorder.beginTick(16);
+                for (BenchmarkVehicle vehicle : vehicles)
+                {
+                    recorder.addVehicle(vehicle, target);
+                    vehicle.position.mulAdd(vehicle.velocity, 16);
+                }
+                for (Obstacle obstacle : obstacles)
+                {
+                    recorder.addObstacle(obstacle);
+                }
+                recorder.endTick();
+            }
+        }
+        finally
+        {
+            recorder.close();
+        }
+    }
+}
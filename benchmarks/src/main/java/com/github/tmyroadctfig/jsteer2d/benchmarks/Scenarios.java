@@ -0,0 +1,119 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d.benchmarks;
+
+import com.github.tmyroadctfig.jsteer2d.GetSteeringComponents;
+import com.github.tmyroadctfig.jsteer2d.Obstacle;
+import com.github.tmyroadctfig.jsteer2d.RotationPreferenceSteering;
+import com.github.tmyroadctfig.jsteer2d.ThrustPreferenceSteering;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds the reproducible worlds used by the benchmarks.
+ */
+public class Scenarios
+{
+    /**
+     * The speed of the vehicles in world units per millisecond.
+     */
+    public static final float SPEED = 0.2f;
+
+    /**
+     * Gets a steering strategy by name.
+     *
+     * @param name "thrust" or "rotation".
+     * @return the strategy.
+     */
+    public static GetSteeringComponents createStrategy(String name)
+    {
+        if ("thrust".equals(name))
+        {
+            return new ThrustPreferenceSteering();
+        }
+        else if ("rotation".equals(name))
+        {
+            return new RotationPreferenceSteering();
+        }
+
+        throw new IllegalArgumentException("Unknown strategy: " + name);
+    }
+
+    /**
+     * Gets the width and height of a square world that holds the given number of objects at the given density.
+     *
+     * @param count the number of objects.
+     * @param density the number of objects per 1000x1000 area.
+     * @return the world extent.
+     */
+    public static float getExtent(int count, float density)
+    {
+        return (float) Math.sqrt(count / density) * 1000;
+    }
+
+    /**
+     * Creates vehicles spread uniformly over the world, heading in random directions.
+     *
+     * @param count the number of vehicles.
+     * @param extent the width and height of the world.
+     * @param seed the random seed.
+     * @return the vehicles.
+     */
+    public static List<BenchmarkVehicle> createVehicles(int count, float extent, long seed)
+    {
+        Random random = new Random(seed);
+        List<BenchmarkVehicle> vehicles = new ArrayList<BenchmarkVehicle>(count);
+
+        for (int i = 0; i < count; i++)
+        {
+            BenchmarkVehicle vehicle = new BenchmarkVehicle();
+            vehicle.position.set(random.nextFloat() * extent, random.nextFloat() * extent);
+            vehicle.direction.set(1, 0).rotateRad(random.nextFloat() * (float) Math.PI * 2);
+            vehicle.velocity.set(vehicle.direction).scl(SPEED);
+            vehicles.add(vehicle);
+        }
+
+        return vehicles;
+    }
+
+    /**
+     * Creates static obstacles spread uniformly over the world with radii from 5 to 50.
+     *
+     * @param count the number of obstacles.
+     * @param extent the width and height of the world.
+     * @param seed the random seed.
+     * @return the obstacles.
+     */
+    public static List<Obstacle> createObstacles(int count, float extent, long seed)
+    {
+        Random random = new Random(seed);
+        List<Obstacle> obstacles = new ArrayList<Obstacle>(count);
+
+        for (int i = 0; i < count; i++)
+        {
+            BenchmarkObstacle obstacle = new BenchmarkObstacle();
+            obstacle.position.set(random.nextFloat() * extent, random.nextFloat() * extent);
+            obstacle.radius = 5 + random.nextFloat() * 45;
+            obstacles.add(obstacle);
+        }
+
+        return obstacles;
+    }
+}
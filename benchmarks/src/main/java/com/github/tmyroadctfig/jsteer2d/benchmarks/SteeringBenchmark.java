@@ -0,0 +1,152 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d.benchmarks;
+
+import com.badlogic.gdx.math.Vector2;
+import com.github.tmyroadctfig.jsteer2d.Steering;
+import com.github.tmyroadctfig.jsteer2d.SteeringComponents;
+import com.github.tmyroadctfig.jsteer2d.Vehicle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks each {@link Steering} behaviour over a fleet of vehicles. Each operation is one tick of the whole fleet.
+ * The {@code allocating} variants use the methods that return a new {@link SteeringComponents}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SteeringBenchmark
+{
+    @Param({ "thrust", "rotation" })
+    public String strategy;
+
+    @Param({ "1000", "20000" })
+    public int vehicleCount;
+
+    private Steering[] steerings;
+    private Vehicle[] targets;
+    private Vector2 target;
+    private SteeringComponents result;
+
+    @Setup
+    public void setUp()
+    {
+        float extent = Scenarios.getExtent(vehicleCount, 10);
+        List<BenchmarkVehicle> vehicles = Scenarios.createVehicles(vehicleCount, extent, 1);
+
+        steerings = new Steering[vehicleCount];
+        targets = new Vehicle[vehicleCount];
+        for (int i = 0; i < vehicleCount; i++)
+        {
+            steerings[i] = new Steering(vehicles.get(i), Scenarios.createStrategy(strategy));
+            targets[i] = vehicles.get((i * 31 + 7) % vehicleCount);
+        }
+
+        target = new Vector2(extent / 2, extent / 2);
+        result = new SteeringComponents();
+    }
+
+    @Benchmark
+    public void seek(Blackhole blackhole)
+    {
+        for (Steering steering : steerings)
+        {
+            blackhole.consume(steering.seek(target, 16, result).getRotation());
+        }
+    }
+
+    @Benchmark
+    public void seekAllocating(Blackhole blackhole)
+    {
+        for (Steering steering : steerings)
+        {
+            blackhole.consume(steering.seek(target, 16));
+        }
+    }
+
+    @Benchmark
+    public void arriveAt(Blackhole blackhole)
+    {
+        for (Steering steering : steerings)
+        {
+            blackhole.consume(steering.arriveAt(target, 16, result).getRotation());
+        }
+    }
+
+    @Benchmark
+    public void arriveAtAllocating(Blackhole blackhole)
+    {
+        for (Steering steering : steerings)
+        {
+            blackhole.consume(steering.arriveAt(target, 16));
+        }
+    }
+
+    @Benchmark
+    public void pursue(Blackhole blackhole)
+    {
+        for (int i = 0; i < steerings.length; i++)
+        {
+            blackhole.consume(steerings[i].pursue(targets[i], 16, result).getRotation());
+        }
+    }
+
+    @Benchmark
+    public void pursueAllocating(Blackhole blackhole)
+    {
+        for (int i = 0; i < steerings.length; i++)
+        {
+            blackhole.consume(steerings[i].pursue(targets[i], 16));
+        }
+    }
+
+    @Benchmark
+    public void evade(Blackhole blackhole)
+    {
+        for (int i = 0; i < steerings.length; i++)
+        {
+            blackhole.consume(steerings[i].evade(targets[i], 16, result).getRotation());
+        }
+    }
+
+    @Benchmark
+    public void evadeAllocating(Blackhole blackhole)
+    {
+        for (int i = 0; i < steerings.length; i++)
+        {
+            blackhole.consume(steerings[i].evade(targets[i], 16));
+        }
+    }
+}
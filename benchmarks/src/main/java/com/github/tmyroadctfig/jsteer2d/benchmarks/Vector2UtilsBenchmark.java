@@ -0,0 +1,98 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d.benchmarks;
+
+import com.badlogic.gdx.math.Vector2;
+import com.github.tmyroadctfig.jsteer2d.Vector2Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link Vector2Utils}. Each operation is a single call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class Vector2UtilsBenchmark
+{
+    private static final int COUNT = 1024;
+
+    private Vector2[] first;
+    private Vector2[] second;
+
+    @Setup
+    public void setUp()
+    {
+        Random random = new Random(1);
+        first = new Vector2[COUNT];
+        second = new Vector2[COUNT];
+
+        for (int i = 0; i < COUNT; i++)
+        {
+            first[i] = new Vector2(random.nextFloat() * 2 - 1, random.nextFloat() * 2 - 1);
+            second[i] = new Vector2(random.nextFloat() * 200 - 100, random.nextFloat() * 200 - 100);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public void findAngleBetweenTwoVectors(Blackhole blackhole)
+    {
+        for (int i = 0; i < COUNT; i++)
+        {
+            blackhole.consume(Vector2Utils.findAngleBetweenTwoVectors(first[i], second[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public void findAngleBetweenTwoVectorsFast(Blackhole blackhole)
+    {
+        for (int i = 0; i < COUNT; i++)
+        {
+            blackhole.consume(Vector2Utils.findAngleBetweenTwoVectorsFast(first[i].x, first[i].y, second[i].x,
+                second[i].y));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public void equalsWithin(Blackhole blackhole)
+    {
+        for (int i = 0; i < COUNT; i++)
+        {
+            blackhole.consume(Vector2Utils.equalsWithin(first[i], second[i], 50));
+        }
+    }
+}
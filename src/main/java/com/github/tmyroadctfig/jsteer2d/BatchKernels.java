@@ -0,0 +1,89 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+/**
+ * Selects the fastest available {@link GetBatchSteeringComponents} at runtime.
+ *
+ * <p>The optional {@code jsteer2d-vector} module has kernels written with the Java Vector API
+ * ({@code jdk.incubator.vector}), which process a whole SIMD register of vehicles per instruction. They are used when
+ * the module is on the class path, the JVM was started with {@code --add-modules jdk.incubator.vector} and the CPU
+ * has registers of at least four floats. Otherwise, or if the {@code jsteer2d.vector} system property is
+ * {@code false}, the scalar strategies in this library are used.</p>
+ */
+public class BatchKernels
+{
+    /**
+     * The class of the vectorised {@link ThrustPreferenceSteering}.
+     */
+    public static final String VECTOR_THRUST_PREFERENCE_STEERING =
+            "com.github.tmyroadctfig.jsteer2d.vector.VectorThrustPreferenceSteering";
+
+    /**
+     * Creates a batch strategy that preferences thrust over rotation, the same as
+     * {@code new ThrustPreferenceSteering(Vector2Utils.FAST_ANGLE)}. The vectorised and scalar strategies give
+     * identical results.
+     *
+     * @return the strategy.
+     */
+    public static GetBatchSteeringComponents createThrustPreferenceSteering()
+    {
+        GetBatchSteeringComponents vectorised = createVectorised(VECTOR_THRUST_PREFERENCE_STEERING);
+        return vectorised != null ? vectorised : new ThrustPreferenceSteering(Vector2Utils.FAST_ANGLE);
+    }
+
+    /**
+     * Checks whether {@link #createThrustPreferenceSteering()} will use the Vector API.
+     *
+     * @return {@code true} if the vectorised kernels are available.
+     */
+    public static boolean isVectorised()
+    {
+        return createVectorised(VECTOR_THRUST_PREFERENCE_STEERING) != null;
+    }
+
+    /**
+     * Creates a vectorised strategy if it is available and supported.
+     *
+     * @param className the class of the strategy, which has a static {@code isSupported()} method.
+     * @return the strategy, or {@code null} to fall back to the scalar strategy.
+     */
+    private static GetBatchSteeringComponents createVectorised(String className)
+    {
+        if (!Boolean.parseBoolean(System.getProperty("jsteer2d.vector", "true")))
+        {
+            return null;
+        }
+
+        try
+        {
+            Class<?> type = Class.forName(className);
+            if (!(Boolean) type.getMethod("isSupported").invoke(null))
+            {
+                return null;
+            }
+
+            return (GetBatchSteeringComponents) type.getConstructor().newInstance();
+        }
+        catch (ReflectiveOperationException | LinkageError e)
+        {
+            // Missing module, or the JVM wasn't started with the incubator module
+            return null;
+        }
+    }
+}
@@ -32,6 +32,25 @@ public class BoidDistance
      */
     private float distanceSquared;
 
+    /**
+     * Creates a new instance with no boid.
+     */
+    public BoidDistance()
+    {
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param boid the boid.
+     * @param distanceSquared the distance squared to the boid.
+     */
+    public BoidDistance(Vehicle boid, float distanceSquared)
+    {
+        this.boid = boid;
+        this.distanceSquared = distanceSquared;
+    }
+
     /**
      * Gets the boid.
      *
@@ -51,4 +70,113 @@ public class BoidDistance
     {
         return distanceSquared;
     }
-}
\ No newline at end of file
+
+    /**
+     * Sets the boid and the distance to it.
+     *
+     * @param boid the boid.
+     * @param distanceSquared the distance squared to the boid.
+     */
+    public void set(Vehicle boid, float distanceSquared)
+    {
+        this.boid = boid;
+        this.distanceSquared = distanceSquared;
+    }
+
+    /**
+     * Offers a boid to a bounded max-heap of the closest boids. The heap keeps the {@code heap.length} closest boids
+     * seen so far with the furthest of them at the root, so each offer is O(log k) and nothing is sorted until
+     * {@link #sortHeap(BoidDistance[], int)} is called.
+     *
+     * <p>Empty slots in the array are filled with new instances as required, after that no allocation is
+     * performed.</p>
+     *
+     * @param heap the heap.
+     * @param size the number of boids currently in the heap.
+     * @param boid the boid to offer.
+     * @param distanceSquared the distance squared to the boid.
+     * @return the new number of boids in the heap.
+     */
+    public static int offer(BoidDistance[] heap, int size, Vehicle boid, float distanceSquared)
+    {
+        if (size < heap.length)
+        {
+            if (heap[size] == null)
+            {
+                heap[size] = new BoidDistance();
+            }
+            heap[size].set(boid, distanceSquared);
+
+            // Sift up
+            int child = size;
+            while (child > 0)
+            {
+                int parent = (child - 1) >> 1;
+                if (heap[parent].distanceSquared >= heap[child].distanceSquared)
+                {
+                    break;
+                }
+                swap(heap, parent, child);
+                child = parent;
+            }
+
+            return size + 1;
+        }
+
+        if (size > 0 && distanceSquared < heap[0].distanceSquared)
+        {
+            heap[0].set(boid, distanceSquared);
+            siftDown(heap, 0, size);
+        }
+
+        return size;
+    }
+
+    /**
+     * Sorts a heap built by {@link #offer(BoidDistance[], int, Vehicle, float)} so the closest boid is first.
+     *
+     * @param heap the heap.
+     * @param size the number of boids in the heap.
+     */
+    public static void sortHeap(BoidDistance[] heap, int size)
+    {
+        for (int end = size - 1; end > 0; end--)
+        {
+            swap(heap, 0, end);
+            siftDown(heap, 0, end);
+        }
+    }
+
+    private static void siftDown(BoidDistance[] heap, int parent, int size)
+    {
+        while (true)
+        {
+            int largest = parent;
+            int left = 2 * parent + 1;
+            int right = left + 1;
+
+            if (left < size && heap[left].distanceSquared > heap[largest].distanceSquared)
+            {
+                largest = left;
+            }
+            if (right < size && heap[right].distanceSquared > heap[largest].distanceSquared)
+            {
+                largest = right;
+            }
+            if (largest == parent)
+            {
+                return;
+            }
+
+            swap(heap, parent, largest);
+            parent = largest;
+        }
+    }
+
+    private static void swap(BoidDistance[] heap, int i, int j)
+    {
+        BoidDistance temp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = temp;
+    }
+}
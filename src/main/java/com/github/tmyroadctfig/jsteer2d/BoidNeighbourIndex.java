@@ -0,0 +1,326 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+
+/**
+ * A neighbour index for flocking. The boid positions are captured once per tick into a uniform grid, after which
+ * each {@link #findCloseBoids(Vehicle, float, BoidDistance[])} query only looks at the cells within the maximum
+ * distance and keeps the closest boids in a bounded heap instead of sorting the whole flock.
+ *
+ * <p>The grid covers the bounding box of the flock. If the flock is very spread out the cell size is increased so
+ * the number of cells stays proportional to the number of boids. Queries don't modify the index so they can be run
+ * from several threads once {@link #build(Iterable)} has returned.</p>
+ */
+public class BoidNeighbourIndex implements BoidNeighbourSource
+{
+    ///////////////////////////////////////////////////////////////////////////
+    // Fields
+
+    /**
+     * The preferred width and height of each cell.
+     */
+    protected final float preferredCellSize;
+
+    /**
+     * The width and height of each cell for the current build.
+     */
+    protected float cellSize;
+
+    protected float minimumX;
+    protected float minimumY;
+    protected int columns = 1;
+    protected int rows = 1;
+
+    /**
+     * The boids in the index.
+     */
+    protected final Array<Vehicle> boids = new Array<Vehicle>(false, 16, Vehicle.class);
+
+    /**
+     * The captured position of each boid.
+     */
+    protected float[] positionX = new float[0];
+    protected float[] positionY = new float[0];
+
+    /**
+     * The cell of each boid.
+     */
+    protected int[] boidCell = new int[0];
+
+    /**
+     * The boid indices sorted by cell.
+     */
+    protected int[] cellBoids = new int[0];
+
+    /**
+     * The offset into {@link #cellBoids} of the first boid in each cell, with an extra trailing entry.
+     */
+    protected int[] cellStart = new int[2];
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Constructor
+
+    /**
+     * Creates a new instance.
+     *
+     * @param cellSize the preferred width and height of each cell. Usually the maximum boid distance.
+     */
+    public BoidNeighbourIndex(float cellSize)
+    {
+        if (cellSize <= 0)
+        {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        }
+
+        this.preferredCellSize = cellSize;
+        this.cellSize = cellSize;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Methods
+
+    /**
+     * Rebuilds the index from the current positions of the flock. This should be called once per tick before
+     * querying.
+     *
+     * @param flock the flock.
+     */
+    public void build(Iterable<? extends Vehicle> flock)
+    {
+        boids.clear();
+        for (Vehicle boid : flock)
+        {
+            boids.add(boid);
+        }
+
+        int size = boids.size;
+        if (positionX.length < size)
+        {
+            positionX = new float[size];
+            positionY = new float[size];
+            boidCell = new int[size];
+            cellBoids = new int[size];
+        }
+
+        float maximumX = Float.NEGATIVE_INFINITY;
+        float maximumY = Float.NEGATIVE_INFINITY;
+        minimumX = Float.POSITIVE_INFINITY;
+        minimumY = Float.POSITIVE_INFINITY;
+
+        for (int i = 0; i < size; i++)
+        {
+            float x = boids.items[i].getPositionX();
+            float y = boids.items[i].getPositionY();
+            positionX[i] = x;
+            positionY[i] = y;
+
+            minimumX = Math.min(minimumX, x);
+            minimumY = Math.min(minimumY, y);
+            maximumX = Math.max(maximumX, x);
+            maximumY = Math.max(maximumY, y);
+        }
+
+        if (size == 0)
+        {
+            minimumX = minimumY = maximumX = maximumY = 0;
+        }
+
+        // Keep the number of cells proportional to the number of boids
+        float width = maximumX - minimumX;
+        float height = maximumY - minimumY;
+        int maximumCells = 4 * size + 16;
+        cellSize = preferredCellSize;
+        if ((width / cellSize + 1) * (height / cellSize + 1) > maximumCells)
+        {
+            cellSize = Math.max(cellSize, (float) Math.sqrt(width * height / maximumCells));
+            cellSize = Math.max(cellSize, Math.max(width, height) / maximumCells);
+        }
+
+        columns = (int) (width / cellSize) + 1;
+        rows = (int) (height / cellSize) + 1;
+
+        int cellCount = columns * rows;
+        if (cellStart.length < cellCount + 1)
+        {
+            cellStart = new int[cellCount + 1];
+        }
+        else
+        {
+            Arrays.fill(cellStart, 0, cellCount + 1, 0);
+        }
+
+        // Counting sort the boids by cell
+        for (int i = 0; i < size; i++)
+        {
+            int cell = getColumn(positionX[i]) + getRow(positionY[i]) * columns;
+            boidCell[i] = cell;
+            cellStart[cell + 1]++;
+        }
+
+        for (int cell = 0; cell < cellCount; cell++)
+        {
+            cellStart[cell + 1] += cellStart[cell];
+        }
+
+        for (int i = 0; i < size; i++)
+        {
+            int cell = boidCell[i];
+            cellBoids[cellStart[cell]++] = i;
+        }
+
+        // Placing the boids advanced each start to the next cell's start, shift them back
+        for (int cell = cellCount; cell > 0; cell--)
+        {
+            cellStart[cell] = cellStart[cell - 1];
+        }
+        cellStart[0] = 0;
+    }
+
+    /**
+     * Gets the number of boids in the index.
+     *
+     * @return the number of boids.
+     */
+    public int size()
+    {
+        return boids.size;
+    }
+
+    @Override
+    public int findCloseBoids(Vehicle boid, float maximumDistance, BoidDistance[] closeBoids)
+    {
+        float x = boid.getPositionX();
+        float y = boid.getPositionY();
+        float maximumDistanceSquared = maximumDistance * maximumDistance;
+
+        int minimumColumn = getColumn(x - maximumDistance);
+        int maximumColumn = getColumn(x + maximumDistance);
+        int minimumRow = getRow(y - maximumDistance);
+        int maximumRow = getRow(y + maximumDistance);
+
+        int count = 0;
+
+        for (int row = minimumRow; row <= maximumRow; row++)
+        {
+            for (int column = minimumColumn; column <= maximumColumn; column++)
+            {
+                int cell = column + row * columns;
+
+                for (int i = cellStart[cell], end = cellStart[cell + 1]; i < end; i++)
+                {
+                    int other = cellBoids[i];
+                    Vehicle otherBoid = boids.items[other];
+                    if (VehicleUtils.isSameVehicle(boid, otherBoid))
+                    {
+                        continue;
+                    }
+
+                    float offsetX = positionX[other] - x;
+                    float offsetY = positionY[other] - y;
+                    float distanceSquared = offsetX * offsetX + offsetY * offsetY;
+
+                    if (distanceSquared < maximumDistanceSquared)
+                    {
+                        count = BoidDistance.offer(closeBoids, count, otherBoid, distanceSquared);
+                    }
+                }
+            }
+        }
+
+        BoidDistance.sortHeap(closeBoids, count);
+        return count;
+    }
+
+    /**
+     * Finds every boid within a distance of a boid in the index, in no particular order. The boid itself is
+     * excluded.
+     *
+     * @param index the index of the boid, in the order the flock was passed to {@link #build(Iterable)}.
+     * @param maximumDistance the distance beyond which boids are ignored.
+     * @param result the array to add the indices of the boids to.
+     * @return the number of boids found.
+     */
+    public int findBoidsWithin(int index, float maximumDistance, IntArray result)
+    {
+        float x = positionX[index];
+        float y = positionY[index];
+        Vehicle boid = boids.items[index];
+        float maximumDistanceSquared = maximumDistance * maximumDistance;
+
+        int minimumColumn = getColumn(x - maximumDistance);
+        int maximumColumn = getColumn(x + maximumDistance);
+        int minimumRow = getRow(y - maximumDistance);
+        int maximumRow = getRow(y + maximumDistance);
+
+        int count = 0;
+
+        for (int row = minimumRow; row <= maximumRow; row++)
+        {
+            for (int column = minimumColumn; column <= maximumColumn; column++)
+            {
+                int cell = column + row * columns;
+
+                for (int i = cellStart[cell], end = cellStart[cell + 1]; i < end; i++)
+                {
+                    int other = cellBoids[i];
+                    if (other == index || VehicleUtils.isSameVehicle(boid, boids.items[other]))
+                    {
+                        continue;
+                    }
+
+                    float offsetX = positionX[other] - x;
+                    float offsetY = positionY[other] - y;
+                    if (offsetX * offsetX + offsetY * offsetY < maximumDistanceSquared)
+                    {
+                        result.add(other);
+                        count++;
+                    }
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Gets the column for an x coordinate, clamped to the grid.
+     *
+     * @param x the x coordinate.
+     * @return the column.
+     */
+    protected int getColumn(float x)
+    {
+        return (int) MathHelper.clamp((float) Math.floor((x - minimumX) / cellSize), 0, columns - 1);
+    }
+
+    /**
+     * Gets the row for a y coordinate, clamped to the grid.
+     *
+     * @param y the y coordinate.
+     * @return the row.
+     */
+    protected int getRow(float y)
+    {
+        return (int) MathHelper.clamp((float) Math.floor((y - minimumY) / cellSize), 0, rows - 1);
+    }
+}
@@ -0,0 +1,35 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+/**
+ * The interface for a class that can find the boids close to a given boid for flocking.
+ */
+public interface BoidNeighbourSource
+{
+    /**
+     * Finds the boids closest to the given boid. The boid itself is excluded.
+     *
+     * @param boid the boid to find the neighbours of.
+     * @param maximumDistance the distance beyond which boids are ignored.
+     * @param closeBoids the array to fill with the close boids, closest first. At most {@code closeBoids.length}
+     *                   boids are found. Any {@code null} elements are filled with new instances.
+     * @return the number of close boids found.
+     */
+    int findCloseBoids(Vehicle boid, float maximumDistance, BoidDistance[] closeBoids);
+}
@@ -0,0 +1,626 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.utils.Array;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A potential collision detector backed by a bounding volume hierarchy of obstacle circles, for large static obstacle
+ * fields. Unlike a uniform grid the hierarchy adapts to obstacles whose radii vary by orders of magnitude, and its
+ * memory only depends on the number of obstacles.
+ *
+ * <p>The hierarchy is bulk built by recursively splitting the obstacles at the median centre along the longest axis,
+ * and packed into flat arrays in depth-first order. A query sweeps the vehicle's path, a capsule of length
+ * {@code speed * detectionPeriod} inflated by the vehicle's radius, through the hierarchy nearest node first, and
+ * stops descending into nodes that the path enters after the nearest collision found so far.</p>
+ *
+ * <p>The obstacle positions and radii are captured when the hierarchy is built, so it must be rebuilt with
+ * {@link #build(Iterable)} if any obstacle moves. Queries don't modify the hierarchy so they can be made from any
+ * number of threads at once. The detector is also an {@link Iterable} of its obstacles so it can be passed straight
+ * to {@link Steering#avoidObstacles(Iterable, float, float)}.</p>
+ */
+public class BvhCollisionDetector implements PotentialCollisionDetector, ObstacleBroadPhase
+{
+    ///////////////////////////////////////////////////////////////////////////
+    // Fields
+
+    /**
+     * The default maximum number of obstacles in a leaf node.
+     */
+    public static final int DEFAULT_LEAF_SIZE = 4;
+
+    /**
+     * The maximum number of obstacles in a leaf node.
+     */
+    protected final int leafSize;
+
+    /**
+     * The obstacles, in leaf order.
+     */
+    protected Obstacle[] obstacles = new Obstacle[0];
+
+    /**
+     * The captured centre and radius of each obstacle, in leaf order.
+     */
+    protected float[] obstacleX = new float[0];
+    protected float[] obstacleY = new float[0];
+    protected float[] obstacleRadius = new float[0];
+
+    /**
+     * The bounds of each node: min x, min y, max x, max y.
+     */
+    protected float[] nodeBounds = new float[0];
+
+    /**
+     * Two entries per node. For a leaf: the index of its first obstacle and the number of obstacles. For an interior
+     * node: the index of its second child and 0. The first child of an interior node always directly follows it.
+     */
+    protected int[] nodeData = new int[0];
+
+    /**
+     * The number of nodes.
+     */
+    protected int nodeCount;
+
+    /**
+     * The depth of the deepest leaf, the root being depth 0.
+     */
+    protected int depth;
+
+    /**
+     * The traversal stack for each querying thread.
+     */
+    private final ThreadLocal<int[]> stacks = new ThreadLocal<int[]>();
+
+    /**
+     * The sink for instrumentation, or {@code null} if instrumentation is disabled.
+     */
+    protected SteeringMetrics metrics;
+
+    /**
+     * Incremented on each build.
+     */
+    protected int modificationCount;
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Constructors
+
+    /**
+     * Creates an empty detector with the default leaf size.
+     */
+    public BvhCollisionDetector()
+    {
+        this(DEFAULT_LEAF_SIZE);
+    }
+
+    /**
+     * Creates an empty detector.
+     *
+     * @param leafSize the maximum number of obstacles in a leaf node.
+     */
+    public BvhCollisionDetector(int leafSize)
+    {
+        if (leafSize < 1)
+        {
+            throw new IllegalArgumentException("Leaf size must be at least 1: " + leafSize);
+        }
+
+        this.leafSize = leafSize;
+    }
+
+    /**
+     * Creates a detector and builds it from the obstacles, using the default leaf size.
+     *
+     * @param obstacles the obstacles.
+     */
+    public BvhCollisionDetector(Iterable<? extends Obstacle> obstacles)
+    {
+        this(DEFAULT_LEAF_SIZE);
+        build(obstacles);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Methods
+
+    /**
+     * Builds the hierarchy, replacing any existing obstacles.
+     *
+     * @param obstacles the obstacles.
+     */
+    public void build(Iterable<? extends Obstacle> obstacles)
+    {
+        List<Obstacle> list = new ArrayList<Obstacle>();
+        for (Obstacle obstacle : obstacles)
+        {
+            list.add(obstacle);
+        }
+
+        int count = list.size();
+        float[] centreX = new float[count];
+        float[] centreY = new float[count];
+        float[] radius = new float[count];
+        int[] order = new int[count];
+
+        for (int i = 0; i < count; i++)
+        {
+            Obstacle obstacle = list.get(i);
+            centreX[i] = obstacle.getPositionX();
+            centreY[i] = obstacle.getPositionY();
+            radius[i] = obstacle.getRadius();
+            order[i] = i;
+        }
+
+        // A binary tree with at most leafSize obstacles per leaf has fewer than 2 * count nodes
+        int maximumNodes = Math.max(1, 2 * count);
+        nodeBounds = new float[maximumNodes * 4];
+        nodeData = new int[maximumNodes * 2];
+        nodeCount = 0;
+        depth = 0;
+
+        if (count > 0)
+        {
+            buildNode(order, 0, count, 0, centreX, centreY, radius);
+        }
+
+        nodeBounds = Arrays.copyOf(nodeBounds, nodeCount * 4);
+        nodeData = Arrays.copyOf(nodeData, nodeCount * 2);
+
+        this.obstacles = new Obstacle[count];
+        obstacleX = new float[count];
+        obstacleY = new float[count];
+        obstacleRadius = new float[count];
+
+        for (int i = 0; i < count; i++)
+        {
+            int index = order[i];
+            this.obstacles[i] = list.get(index);
+            obstacleX[i] = centreX[index];
+            obstacleY[i] = centreY[index];
+            obstacleRadius[i] = radius[index];
+        }
+
+        modificationCount++;
+    }
+
+    /**
+     * Gets the number of obstacles.
+     *
+     * @return the number of obstacles.
+     */
+    public int size()
+    {
+        return obstacles.length;
+    }
+
+    /**
+     * Gets the number of nodes in the hierarchy.
+     *
+     * @return the number of nodes.
+     */
+    public int getNodeCount()
+    {
+        return nodeCount;
+    }
+
+    /**
+     * Gets the depth of the deepest leaf.
+     *
+     * @return the depth, 0 if the root is a leaf.
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * Sets the sink to record each query with.
+     *
+     * @param metrics the metrics, or {@code null} to disable instrumentation.
+     */
+    public void setMetrics(SteeringMetrics metrics)
+    {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Iterator<Obstacle> iterator()
+    {
+        return Arrays.asList(obstacles).iterator();
+    }
+
+    @Override
+    public int findObstacles(float minX, float minY, float maxX, float maxY, Array<Obstacle> result)
+    {
+        if (nodeCount == 0)
+        {
+            return 0;
+        }
+
+        int[] stack = getStack();
+        int stackSize = 0;
+        stack[stackSize++] = 0;
+        int found = 0;
+
+        while (stackSize > 0)
+        {
+            int node = stack[--stackSize];
+
+            int offset = node * 4;
+            if (nodeBounds[offset] > maxX || nodeBounds[offset + 1] > maxY || nodeBounds[offset + 2] < minX ||
+                    nodeBounds[offset + 3] < minY)
+            {
+                continue;
+            }
+
+            int first = nodeData[node * 2];
+            int count = nodeData[node * 2 + 1];
+
+            if (count > 0)
+            {
+                for (int i = first; i < first + count; i++)
+                {
+                    if (CollisionUtils.circleOverlapsRectangle(obstacleX[i], obstacleY[i], obstacleRadius[i], minX,
+                            minY, maxX, maxY))
+                    {
+                        result.add(obstacles[i]);
+                        found++;
+                    }
+                }
+
+                continue;
+            }
+
+            stack[stackSize++] = first;
+            stack[stackSize++] = node + 1;
+        }
+
+        return found;
+    }
+
+    @Override
+    public int getModificationCount()
+    {
+        return modificationCount;
+    }
+
+    /**
+     * Finds the nearest obstacle that will potentially collide with the vehicle.
+     *
+     * @param vehicle the vehicle that detection is being performed for.
+     * @param obstacles the possible obstacles. If this is {@code null} or this detector then the hierarchy is
+     *                  queried, otherwise the given obstacles are tested directly.
+     * @param detectionPeriod the time window to perform detection in (in milliseconds). E.g. 500ms from current
+     *                        position.
+     * @return the nearest potential obstacle or null if no obstacles are in the vehicle's path.
+     */
+    @Override
+    public Obstacle findNearestPotentialCollision(Vehicle vehicle, Iterable<Obstacle> obstacles, float detectionPeriod)
+    {
+        if (obstacles != null && obstacles != this)
+        {
+            return CollisionUtils.findNearestObstacleInPath(vehicle, obstacles, detectionPeriod, metrics);
+        }
+
+        if (nodeCount == 0)
+        {
+            if (metrics != null)
+            {
+                metrics.recordCollisionQuery(0, false);
+            }
+            return null;
+        }
+
+        float startX = vehicle.getPositionX();
+        float startY = vehicle.getPositionY();
+        float deltaX = vehicle.getVelocityX() * detectionPeriod;
+        float deltaY = vehicle.getVelocityY() * detectionPeriod;
+        float inverseDeltaX = 1 / deltaX;
+        float inverseDeltaY = 1 / deltaY;
+        float vehicleRadius = vehicle.getRadius();
+
+        int[] stack = getStack();
+        int stackSize = 0;
+        stack[stackSize++] = 0;
+
+        int nearest = -1;
+        float nearestFraction = Float.POSITIVE_INFINITY;
+        int candidates = 0;
+
+        while (stackSize > 0)
+        {
+            int node = stack[--stackSize];
+
+            // The node may have been pushed before a nearer collision was found
+            if (intersectNode(node, startX, startY, deltaX, deltaY, inverseDeltaX, inverseDeltaY,
+                    vehicleRadius) >= nearestFraction)
+            {
+                continue;
+            }
+
+            int first = nodeData[node * 2];
+            int count = nodeData[node * 2 + 1];
+
+            if (count > 0)
+            {
+                for (int i = first; i < first + count; i++)
+                {
+                    if (VehicleUtils.isSameVehicle(vehicle, this.obstacles[i]))
+                    {
+                        continue;
+                    }
+
+                    candidates++;
+                    float fraction = CollisionUtils.findSegmentCircleIntersection(startX, startY, deltaX, deltaY,
+                            obstacleX[i], obstacleY[i], obstacleRadius[i] + vehicleRadius);
+
+                    if (fraction < nearestFraction)
+                    {
+                        nearest = i;
+                        nearestFraction = fraction;
+                    }
+                }
+
+                continue;
+            }
+
+            int left = node + 1;
+            int right = first;
+            float leftEntry = intersectNode(left, startX, startY, deltaX, deltaY, inverseDeltaX, inverseDeltaY,
+                    vehicleRadius);
+            float rightEntry = intersectNode(right, startX, startY, deltaX, deltaY, inverseDeltaX, inverseDeltaY,
+                    vehicleRadius);
+
+            // Push the further child first so the nearer one is visited first
+            if (leftEntry <= rightEntry)
+            {
+                if (rightEntry < nearestFraction)
+                {
+                    stack[stackSize++] = right;
+                }
+                if (leftEntry < nearestFraction)
+                {
+                    stack[stackSize++] = left;
+                }
+            }
+            else
+            {
+                if (leftEntry < nearestFraction)
+                {
+                    stack[stackSize++] = left;
+                }
+                if (rightEntry < nearestFraction)
+                {
+                    stack[stackSize++] = right;
+                }
+            }
+        }
+
+        if (metrics != null)
+        {
+            metrics.recordCollisionQuery(candidates, nearest >= 0);
+        }
+
+        return nearest >= 0 ? this.obstacles[nearest] : null;
+    }
+
+    /**
+     * Finds where the vehicle's path first enters a node's bounds inflated by the vehicle's radius.
+     *
+     * @return the fraction along the path [0, 1], or {@link Float#POSITIVE_INFINITY} if the path misses the node.
+     */
+    private float intersectNode(int node, float startX, float startY, float deltaX, float deltaY,
+                                float inverseDeltaX, float inverseDeltaY, float vehicleRadius)
+    {
+        int offset = node * 4;
+        float minX = nodeBounds[offset] - vehicleRadius;
+        float minY = nodeBounds[offset + 1] - vehicleRadius;
+        float maxX = nodeBounds[offset + 2] + vehicleRadius;
+        float maxY = nodeBounds[offset + 3] + vehicleRadius;
+
+        float entry = 0;
+        float exit = 1;
+
+        if (deltaX == 0)
+        {
+            if (startX < minX || startX > maxX)
+            {
+                return Float.POSITIVE_INFINITY;
+            }
+        }
+        else
+        {
+            float t0 = (minX - startX) * inverseDeltaX;
+            float t1 = (maxX - startX) * inverseDeltaX;
+            entry = Math.max(entry, Math.min(t0, t1));
+            exit = Math.min(exit, Math.max(t0, t1));
+        }
+
+        if (deltaY == 0)
+        {
+            if (startY < minY || startY > maxY)
+            {
+                return Float.POSITIVE_INFINITY;
+            }
+        }
+        else
+        {
+            float t0 = (minY - startY) * inverseDeltaY;
+            float t1 = (maxY - startY) * inverseDeltaY;
+            entry = Math.max(entry, Math.min(t0, t1));
+            exit = Math.min(exit, Math.max(t0, t1));
+        }
+
+        return entry <= exit ? entry : Float.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Gets the traversal stack for the calling thread, large enough for the current hierarchy.
+     *
+     * @return the stack.
+     */
+    private int[] getStack()
+    {
+        // Each level pushes at most two children and pops one
+        int required = depth + 2;
+
+        int[] stack = stacks.get();
+        if (stack == null || stack.length < required)
+        {
+            stack = new int[required];
+            stacks.set(stack);
+        }
+
+        return stack;
+    }
+
+    /**
+     * Builds a node over a range of the obstacle order, then its children.
+     *
+     * @return the index of the node.
+     */
+    private int buildNode(int[] order, int start, int end, int nodeDepth, float[] centreX, float[] centreY,
+                          float[] radius)
+    {
+        int node = nodeCount++;
+        depth = Math.max(depth, nodeDepth);
+
+        float minX = Float.POSITIVE_INFINITY;
+        float minY = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY;
+        float maxY = Float.NEGATIVE_INFINITY;
+        float minCentreX = Float.POSITIVE_INFINITY;
+        float minCentreY = Float.POSITIVE_INFINITY;
+        float maxCentreX = Float.NEGATIVE_INFINITY;
+        float maxCentreY = Float.NEGATIVE_INFINITY;
+
+        for (int i = start; i < end; i++)
+        {
+            int index = order[i];
+            float x = centreX[index];
+            float y = centreY[index];
+            float r = radius[index];
+
+            minX = Math.min(minX, x - r);
+            minY = Math.min(minY, y - r);
+            maxX = Math.max(maxX, x + r);
+            maxY = Math.max(maxY, y + r);
+            minCentreX = Math.min(minCentreX, x);
+            minCentreY = Math.min(minCentreY, y);
+            maxCentreX = Math.max(maxCentreX, x);
+            maxCentreY = Math.max(maxCentreY, y);
+        }
+
+        int offset = node * 4;
+        nodeBounds[offset] = minX;
+        nodeBounds[offset + 1] = minY;
+        nodeBounds[offset + 2] = maxX;
+        nodeBounds[offset + 3] = maxY;
+
+        int count = end - start;
+        if (count <= leafSize)
+        {
+            nodeData[node * 2] = start;
+            nodeData[node * 2 + 1] = count;
+            return node;
+        }
+
+        // Split at the median centre along the longest axis
+        float[] keys = maxCentreX - minCentreX >= maxCentreY - minCentreY ? centreX : centreY;
+        int middle = (start + end) >>> 1;
+        select(order, start, end - 1, middle, keys);
+
+        buildNode(order, start, middle, nodeDepth + 1, centreX, centreY, radius);
+        int right = buildNode(order, middle, end, nodeDepth + 1, centreX, centreY, radius);
+
+        nodeData[node * 2] = right;
+        nodeData[node * 2 + 1] = 0;
+        return node;
+    }
+
+    /**
+     * Partially sorts a range of the order so that the kth entry is in its sorted position, with smaller keys before
+     * it and larger keys after it.
+     */
+    private static void select(int[] order, int left, int right, int k, float[] keys)
+    {
+        while (right > left)
+        {
+            // Median of three pivot
+            int middle = (left + right) >>> 1;
+            if (keys[order[middle]] < keys[order[left]])
+            {
+                swap(order, middle, left);
+            }
+            if (keys[order[right]] < keys[order[left]])
+            {
+                swap(order, right, left);
+            }
+            if (keys[order[right]] < keys[order[middle]])
+            {
+                swap(order, right, middle);
+            }
+
+            float pivot = keys[order[middle]];
+            int i = left;
+            int j = right;
+
+            while (i <= j)
+            {
+                while (keys[order[i]] < pivot)
+                {
+                    i++;
+                }
+                while (keys[order[j]] > pivot)
+                {
+                    j--;
+                }
+                if (i <= j)
+                {
+                    swap(order, i, j);
+                    i++;
+                    j--;
+                }
+            }
+
+            if (k <= j)
+            {
+                right = j;
+            }
+            else if (k >= i)
+            {
+                left = i;
+            }
+            else
+            {
+                return;
+            }
+        }
+    }
+
+    private static void swap(int[] order, int i, int j)
+    {
+        int temp = order[i];
+        order[i] = order[j];
+        order[j] = temp;
+    }
+}
@@ -0,0 +1,302 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IdentityMap;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A potential collision detector that caches each vehicle's candidate obstacles between queries, for maps where the
+ * obstacles rarely change.
+ *
+ * <p>Each vehicle's candidates are gathered from an {@link ObstacleBroadPhase} for the region swept by the vehicle
+ * during the detection period, inflated by a skin margin (as with Verlet neighbour lists). Later queries only test
+ * the cached candidates, until the start or end of the vehicle's swept path has moved by more than the skin, e.g. by
+ * moving, turning or changing speed, or the broad phase's {@link ObstacleBroadPhase#getModificationCount()} changes.
+ * Every point of the new path is then within the skin of the cached path, so any obstacle it could hit is still a
+ * candidate and the result is the same as querying the broad phase directly. A larger skin rebuilds less often but
+ * tests more candidates per query.</p>
+ *
+ * <p>Queries for different vehicles may run concurrently, as long as the broad phase isn't modified at the same
+ * time. Call {@link #remove(Obstacle)} when a vehicle is discarded so its cache can be collected.</p>
+ */
+public class CachingCollisionDetector implements PotentialCollisionDetector
+{
+    ///////////////////////////////////////////////////////////////////////////
+    // Fields
+
+    /**
+     * The index to gather candidates from.
+     */
+    protected final ObstacleBroadPhase broadPhase;
+
+    /**
+     * How far the vehicle's path can drift before the candidates are gathered again.
+     */
+    protected final float skin;
+
+    /**
+     * The cached candidates for each vehicle.
+     */
+    protected final IdentityMap<Obstacle, CachedCandidates> cache = new IdentityMap<Obstacle, CachedCandidates>();
+
+    private final AtomicLong queryCount = new AtomicLong();
+    private final AtomicLong rebuildCount = new AtomicLong();
+
+    /**
+     * The sink for instrumentation, or {@code null} if instrumentation is disabled.
+     */
+    protected SteeringMetrics metrics;
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Constructor
+
+    /**
+     * Creates a new instance.
+     *
+     * @param broadPhase the index to gather candidates from, e.g. a {@link SpatialGridCollisionDetector} or
+     *                   {@link BvhCollisionDetector}.
+     * @param skin how far the start or end of a vehicle's path can move before its candidates are gathered again. A
+     *             good starting point is a few ticks' travel.
+     */
+    public CachingCollisionDetector(ObstacleBroadPhase broadPhase, float skin)
+    {
+        if (skin < 0)
+        {
+            throw new IllegalArgumentException("Skin must not be negative: " + skin);
+        }
+
+        this.broadPhase = broadPhase;
+        this.skin = skin;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Methods
+
+    /**
+     * Gets the broad phase that candidates are gathered from.
+     *
+     * @return the broad phase.
+     */
+    public ObstacleBroadPhase getBroadPhase()
+    {
+        return broadPhase;
+    }
+
+    /**
+     * Discards the cached candidates of a vehicle.
+     *
+     * @param vehicle the vehicle.
+     */
+    public void remove(Obstacle vehicle)
+    {
+        synchronized (cache)
+        {
+            cache.remove(VehicleUtils.unwrap(vehicle));
+        }
+    }
+
+    /**
+     * Discards all cached candidates.
+     */
+    public void clear()
+    {
+        synchronized (cache)
+        {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Gets the number of queries that used the cached candidates or gathered new ones.
+     *
+     * @return the number of queries.
+     */
+    public long getQueryCount()
+    {
+        return queryCount.get();
+    }
+
+    /**
+     * Gets the number of queries that had to gather candidates again.
+     *
+     * @return the number of rebuilds.
+     */
+    public long getRebuildCount()
+    {
+        return rebuildCount.get();
+    }
+
+    /**
+     * Sets the sink to record each query with.
+     *
+     * @param metrics the metrics, or {@code null} to disable instrumentation.
+     */
+    public void setMetrics(SteeringMetrics metrics)
+    {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Finds the nearest obstacle that will potentially collide with the vehicle.
+     *
+     * @param vehicle the vehicle that detection is being performed for.
+     * @param obstacles the possible obstacles. If this is {@code null} or the broad phase then the cached candidates
+     *                  are used, otherwise the given obstacles are tested directly.
+     * @param detectionPeriod the time window to perform detection in (in milliseconds). E.g. 500ms from current
+     *                        position.
+     * @return the nearest potential obstacle or null if no obstacles are in the vehicle's path.
+     */
+    @Override
+    public Obstacle findNearestPotentialCollision(Vehicle vehicle, Iterable<Obstacle> obstacles, float detectionPeriod)
+    {
+        if (obstacles != null && obstacles != broadPhase)
+        {
+            return CollisionUtils.findNearestObstacleInPath(vehicle, obstacles, detectionPeriod, metrics);
+        }
+
+        queryCount.incrementAndGet();
+
+        float startX = vehicle.getPositionX();
+        float startY = vehicle.getPositionY();
+        float deltaX = vehicle.getVelocityX() * detectionPeriod;
+        float deltaY = vehicle.getVelocityY() * detectionPeriod;
+        float vehicleRadius = vehicle.getRadius();
+
+        CachedCandidates cached = getCachedCandidates(vehicle);
+        if (!cached.covers(startX, startY, startX + deltaX, startY + deltaY, vehicleRadius,
+                broadPhase.getModificationCount()))
+        {
+            cached.rebuild(startX, startY, startX + deltaX, startY + deltaY, vehicleRadius);
+            rebuildCount.incrementAndGet();
+        }
+
+        Obstacle[] candidates = cached.candidates.items;
+        int count = cached.candidates.size;
+        Obstacle nearest = null;
+        float nearestFraction = Float.POSITIVE_INFINITY;
+        int examined = 0;
+
+        for (int i = 0; i < count; i++)
+        {
+            Obstacle candidate = candidates[i];
+            if (VehicleUtils.isSameVehicle(vehicle, candidate))
+            {
+                continue;
+            }
+
+            examined++;
+            float fraction = CollisionUtils.findSegmentCircleIntersection(startX, startY, deltaX, deltaY,
+                    candidate.getPositionX(), candidate.getPositionY(), candidate.getRadius() + vehicleRadius);
+
+            if (fraction < nearestFraction)
+            {
+                nearest = candidate;
+                nearestFraction = fraction;
+            }
+        }
+
+        if (metrics != null)
+        {
+            metrics.recordCollisionQuery(examined, nearest != null);
+        }
+
+        return nearest;
+    }
+
+    /**
+     * Gets the cache entry for a vehicle, creating it if needed. A {@link VehicleKinematics} snapshot shares the entry
+     * of the vehicle it was captured from.
+     *
+     * @param vehicle the vehicle.
+     * @return the entry.
+     */
+    protected CachedCandidates getCachedCandidates(Vehicle vehicle)
+    {
+        Obstacle key = VehicleUtils.unwrap(vehicle);
+
+        synchronized (cache)
+        {
+            CachedCandidates cached = cache.get(key);
+            if (cached == null)
+            {
+                cached = new CachedCandidates();
+                cache.put(key, cached);
+            }
+
+            return cached;
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Cached candidates
+
+    /**
+     * The candidates gathered for a vehicle and the path they were gathered for.
+     */
+    protected class CachedCandidates
+    {
+        protected final Array<Obstacle> candidates = new Array<Obstacle>(false, 16, Obstacle.class);
+
+        protected float startX;
+        protected float startY;
+        protected float endX;
+        protected float endY;
+        protected float radius;
+
+        /**
+         * The broad phase's modification count when gathered, one less than the current count when never gathered.
+         */
+        protected int modificationCount = broadPhase.getModificationCount() - 1;
+
+        /**
+         * Checks whether the candidates still cover a path.
+         *
+         * @return {@code true} if the candidates can be reused.
+         */
+        protected boolean covers(float startX, float startY, float endX, float endY, float radius,
+                                 int modificationCount)
+        {
+            float skinSquared = skin * skin;
+            return modificationCount == this.modificationCount && radius == this.radius &&
+                    Vector2.dst2(startX, startY, this.startX, this.startY) <= skinSquared &&
+                    Vector2.dst2(endX, endY, this.endX, this.endY) <= skinSquared;
+        }
+
+        /**
+         * Gathers the candidates for a path.
+         */
+        protected void rebuild(float startX, float startY, float endX, float endY, float radius)
+        {
+            this.startX = startX;
+            this.startY = startY;
+            this.endX = endX;
+            this.endY = endY;
+            this.radius = radius;
+            modificationCount = broadPhase.getModificationCount();
+
+            float margin = radius + skin;
+            candidates.clear();
+            broadPhase.findObstacles(Math.min(startX, endX) - margin, Math.min(startY, endY) - margin,
+                    Math.max(startX, endX) + margin, Math.max(startY, endY) + margin, candidates);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+/**
+ * Collision detection utilities.
+ */
+public class CollisionUtils
+{
+    /**
+     * Finds when a point moving along a line segment first touches a circle.
+     *
+     * @param startX the x position at the start of the segment.
+     * @param startY the y position at the start of the segment.
+     * @param deltaX the x offset from the start to the end of the segment.
+     * @param deltaY the y offset from the start to the end of the segment.
+     * @param centreX the x position of the circle's centre.
+     * @param centreY the y position of the circle's centre.
+     * @param radius the radius of the circle.
+     * @return the fraction along the segment [0, 1] where the point first touches the circle, 0 if the point starts
+     *         inside the circle or {@link Float#POSITIVE_INFINITY} if the segment doesn't touch the circle.
+     */
+    public static float findSegmentCircleIntersection(float startX, float startY, float deltaX, float deltaY,
+                                                      float centreX, float centreY, float radius)
+    {
+        float offsetX = startX - centreX;
+        float offsetY = startY - centreY;
+
+        float c = offsetX * offsetX + offsetY * offsetY - radius * radius;
+        if (c <= 0)
+        {
+            // Already touching
+            return 0;
+        }
+
+        float a = deltaX * deltaX + deltaY * deltaY;
+        float b = offsetX * deltaX + offsetY * deltaY;
+        if (a == 0 || b >= 0)
+        {
+            // Not moving, or moving away from the circle
+            return Float.POSITIVE_INFINITY;
+        }
+
+        float discriminant = b * b - a * c;
+        if (discriminant < 0)
+        {
+            return Float.POSITIVE_INFINITY;
+        }
+
+        float t = (-b - (float) Math.sqrt(discriminant)) / a;
+        return t <= 1 ? t : Float.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Finds when two moving circles first touch. The calculation is done relative to the first circle so only the
+     * relative position and velocity of the second circle are required.
+     *
+     * <p>Solves {@code |p + w t| = r} for the smallest {@code t >= 0}, where {@code p} is the relative position,
+     * {@code w} is the relative velocity and {@code r} is the combined radius.</p>
+     *
+     * @param offsetX the x position of the second circle relative to the first.
+     * @param offsetY the y position of the second circle relative to the first.
+     * @param velocityX the x velocity of the second circle relative to the first.
+     * @param velocityY the y velocity of the second circle relative to the first.
+     * @param radius the sum of the two radii.
+     * @param maximumTime the time to stop looking for a collision after.
+     * @return the time until the circles first touch, 0 if they already overlap or {@link Float#POSITIVE_INFINITY} if
+     *         they don't touch before the maximum time.
+     */
+    public static float findTimeToCollision(float offsetX, float offsetY, float velocityX, float velocityY,
+                                            float radius, float maximumTime)
+    {
+        float c = offsetX * offsetX + offsetY * offsetY - radius * radius;
+        if (c <= 0)
+        {
+            // Already touching
+            return 0;
+        }
+
+        float b = offsetX * velocityX + offsetY * velocityY;
+        if (b >= 0)
+        {
+            // Not closing on each other
+            return Float.POSITIVE_INFINITY;
+        }
+
+        // The separation is convex in time, so it can't reach zero before its tangent at t = 0 does. This is a cheap
+        // lower bound that avoids the square root for circles that are too far away.
+        if (c / (-2 * b) > maximumTime)
+        {
+            return Float.POSITIVE_INFINITY;
+        }
+
+        float a = velocityX * velocityX + velocityY * velocityY;
+        float discriminant = b * b - a * c;
+        if (discriminant < 0)
+        {
+            // The closest approach misses
+            return Float.POSITIVE_INFINITY;
+        }
+
+        float t = (-b - (float) Math.sqrt(discriminant)) / a;
+        return t <= maximumTime ? t : Float.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Checks whether a circle overlaps a rectangle, by the distance from the circle's centre to the nearest point in
+     * the rectangle.
+     *
+     * @param centreX the x position of the circle's centre.
+     * @param centreY the y position of the circle's centre.
+     * @param radius the radius of the circle.
+     * @param minX the left of the rectangle.
+     * @param minY the bottom of the rectangle.
+     * @param maxX the right of the rectangle.
+     * @param maxY the top of the rectangle.
+     * @return {@code true} if they overlap or touch.
+     */
+    public static boolean circleOverlapsRectangle(float centreX, float centreY, float radius, float minX, float minY,
+                                                  float maxX, float maxY)
+    {
+        float offsetX = centreX - MathHelper.clamp(centreX, minX, maxX);
+        float offsetY = centreY - MathHelper.clamp(centreY, minY, maxY);
+        return offsetX * offsetX + offsetY * offsetY <= radius * radius;
+    }
+
+    /**
+     * Finds the nearest obstacle in the vehicle's path by testing every obstacle.
+     *
+     * @param vehicle the vehicle that detection is being performed for.
+     * @param obstacles the possible obstacles.
+     * @param detectionPeriod the time window to perform detection in (in milliseconds).
+     * @return the nearest potential obstacle or {@code null} if no obstacles are in the vehicle's path.
+     */
+    public static Obstacle findNearestObstacleInPath(Vehicle vehicle, Iterable<Obstacle> obstacles,
+                                                     float detectionPeriod)
+    {
+        return findNearestObstacleInPath(vehicle, obstacles, detectionPeriod, null);
+    }
+
+    /**
+     * Finds the nearest obstacle in the vehicle's path by testing every obstacle.
+     *
+     * @param vehicle the vehicle that detection is being performed for.
+     * @param obstacles the possible obstacles.
+     * @param detectionPeriod the time window to perform detection in (in milliseconds).
+     * @param metrics the sink to record the query with, or {@code null}.
+     * @return the nearest potential obstacle or {@code null} if no obstacles are in the vehicle's path.
+     */
+    public static Obstacle findNearestObstacleInPath(Vehicle vehicle, Iterable<Obstacle> obstacles,
+                                                     float detectionPeriod, SteeringMetrics metrics)
+    {
+        float startX = vehicle.getPositionX();
+        float startY = vehicle.getPositionY();
+        float deltaX = vehicle.getVelocityX() * detectionPeriod;
+        float deltaY = vehicle.getVelocityY() * detectionPeriod;
+        float vehicleRadius = vehicle.getRadius();
+
+        Obstacle nearest = null;
+        float nearestFraction = Float.POSITIVE_INFINITY;
+        int candidates = 0;
+
+        for (Obstacle obstacle : obstacles)
+        {
+            if (VehicleUtils.isSameVehicle(vehicle, obstacle))
+            {
+                continue;
+            }
+
+            candidates++;
+            float fraction = findSegmentCircleIntersection(startX, startY, deltaX, deltaY,
+                    obstacle.getPositionX(), obstacle.getPositionY(), obstacle.getRadius() + vehicleRadius);
+
+            if (fraction < nearestFraction)
+            {
+                nearest = obstacle;
+                nearestFraction = fraction;
+            }
+        }
+
+        if (metrics != null)
+        {
+            metrics.recordCollisionQuery(candidates, nearest != null);
+        }
+
+        return nearest;
+    }
+}
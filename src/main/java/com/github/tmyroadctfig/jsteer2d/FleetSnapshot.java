@@ -0,0 +1,533 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.math.Vector2;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * A compact binary snapshot of the steering state of a {@link FleetSteering}: each vehicle's kinematics, the
+ * configuration of its {@link Steering} and its last {@link SteeringComponents}. Used to checkpoint a simulation or
+ * migrate it to another node.
+ *
+ * <p>The format is little-endian and versioned. A header and the table of steering objective names are followed by
+ * one fixed size record per vehicle, so a snapshot is read in place: an instance wraps a buffer, e.g. a memory mapped
+ * file from {@link #map(File)}, and each accessor reads straight from it. Objectives are stored by name in the table
+ * so snapshots can be restored on a node that registered its objectives in a different order. Reading a snapshot
+ * never registers objectives; a name that isn't registered on this node is only rejected when a vehicle using it is
+ * read.</p>
+ *
+ * <p>The strategies, collision detectors and vehicle objects themselves aren't captured; restore into a fleet set up
+ * the same way with {@link #restore(FleetSteering)}, then update the vehicles from the kinematics accessors.</p>
+ *
+ * <p>Instances are not thread-safe since restoring results reuses scratch vectors.</p>
+ */
+public class FleetSnapshot
+{
+    ///////////////////////////////////////////////////////////////////////////
+    // Fields
+
+    /**
+     * The first four bytes of a snapshot: "JS2D".
+     */
+    public static final int MAGIC = 0x4432534A;
+
+    /**
+     * The current version of the format.
+     */
+    public static final short VERSION = 1;
+
+    /**
+     * The size of the fixed part of the header in bytes.
+     */
+    private static final int HEADER_SIZE = 24;
+
+    /**
+     * The offsets of the values in a vehicle record.
+     */
+    private static final int POSITION_X = 0;
+    private static final int POSITION_Y = 4;
+    private static final int VELOCITY_X = 8;
+    private static final int VELOCITY_Y = 12;
+    private static final int DIRECTION_X = 16;
+    private static final int DIRECTION_Y = 20;
+    private static final int RADIUS = 24;
+    private static final int MAXIMUM_THRUST = 28;
+    private static final int MAXIMUM_REVERSE_THRUST = 32;
+    private static final int ROTATION_RATE = 36;
+    private static final int MAXIMUM_SPEED = 40;
+    private static final int MAXIMUM_BOID_DISTANCE = 44;
+    private static final int MINIMUM_BOID_DISTANCE = 48;
+    private static final int BOID_COHESION_DISTANCE = 52;
+    private static final int AVOIDANCE_FACTOR = 56;
+    private static final int MAXIMUM_CLOSE_BOIDS = 60;
+    private static final int OBJECTIVE = 64;
+    private static final int ROTATION = 68;
+    private static final int THRUST = 72;
+    private static final int TARGET_X = 76;
+    private static final int TARGET_Y = 80;
+    private static final int FORCE_X = 84;
+    private static final int FORCE_Y = 88;
+
+    /**
+     * The size of a vehicle record in bytes.
+     */
+    public static final int RECORD_SIZE = 92;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * The snapshot, positioned at its start.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * The number of vehicles.
+     */
+    private final int count;
+
+    /**
+     * The size of each vehicle record, which may be larger than {@link #RECORD_SIZE} in later versions.
+     */
+    private final int recordSize;
+
+    /**
+     * The offset of the first vehicle record.
+     */
+    private final int recordsOffset;
+
+    /**
+     * The names of the objectives by their code in the snapshot.
+     */
+    private final String[] objectiveNames;
+
+    /**
+     * The objectives by their code in the snapshot, resolved on first use.
+     */
+    private final SteeringObjective[] objectives;
+
+    /**
+     * Scratch vectors for restoring results. Reused between calls to avoid allocation.
+     */
+    private final Vector2 target = new Vector2();
+    private final Vector2 force = new Vector2();
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Constructor
+
+    /**
+     * Wraps a snapshot without copying it.
+     *
+     * @param buffer the snapshot, from its position onwards. The buffer's position and byte order aren't changed.
+     * @throws IllegalArgumentException if the buffer doesn't hold a snapshot in a supported version.
+     */
+    public FleetSnapshot(ByteBuffer buffer)
+    {
+        this.buffer = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+
+        if (this.buffer.remaining() < HEADER_SIZE || this.buffer.getInt(0) != MAGIC)
+        {
+            throw new IllegalArgumentException("Not a fleet snapshot");
+        }
+
+        short version = this.buffer.getShort(4);
+        if (version != VERSION)
+        {
+            throw new IllegalArgumentException("Unsupported fleet snapshot version: " + version);
+        }
+
+        count = this.buffer.getInt(8);
+        recordSize = this.buffer.getInt(12);
+        recordsOffset = this.buffer.getInt(16);
+        int objectiveCount = this.buffer.getInt(20);
+
+        if (objectiveCount < 0 || objectiveCount > SteeringObjective.MAXIMUM_OBJECTIVES)
+        {
+            throw new IllegalArgumentException("Invalid fleet snapshot objective count: " + objectiveCount);
+        }
+        if (recordSize < RECORD_SIZE || (long) recordsOffset + (long) count * recordSize > this.buffer.limit())
+        {
+            throw new IllegalArgumentException("Truncated fleet snapshot");
+        }
+
+        ByteBuffer names = this.buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        names.position(HEADER_SIZE);
+        objectiveNames = new String[objectiveCount];
+        objectives = new SteeringObjective[objectiveCount];
+
+        try
+        {
+            for (int i = 0; i < objectiveCount; i++)
+            {
+                byte[] name = new byte[names.getShort() & 0xffff];
+                names.get(name);
+                objectiveNames[i] = new String(name, UTF_8);
+            }
+        }
+        catch (BufferUnderflowException e)
+        {
+            throw new IllegalArgumentException("Truncated fleet snapshot");
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Methods
+
+    /**
+     * Gets the size of a snapshot of a fleet.
+     *
+     * @param fleet the fleet.
+     * @return the size in bytes.
+     */
+    public static int getSize(FleetSteering fleet)
+    {
+        return getSize(fleet, SteeringObjective.getCount());
+    }
+
+    private static int getSize(FleetSteering fleet, int objectiveCount)
+    {
+        return getRecordsOffset(objectiveCount) + fleet.size() * RECORD_SIZE;
+    }
+
+    /**
+     * Writes a snapshot of a fleet.
+     *
+     * @param fleet the fleet.
+     * @param buffer the buffer to write to from its position, with at least {@link #getSize(FleetSteering)} bytes
+     *               remaining. The position is moved past the snapshot.
+     */
+    public static void write(FleetSteering fleet, ByteBuffer buffer)
+    {
+        write(fleet, buffer, SteeringObjective.getCount());
+    }
+
+    /**
+     * Writes a snapshot of a fleet with the objectives registered so far, so objectives registered meanwhile by other
+     * threads don't change its size.
+     */
+    private static void write(FleetSteering fleet, ByteBuffer buffer, int objectiveCount)
+    {
+        int start = buffer.position();
+        ByteBuffer output = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        int count = fleet.size();
+        int recordsOffset = getRecordsOffset(objectiveCount);
+
+        output.putInt(MAGIC);
+        output.putShort(VERSION);
+        output.putShort((short) 0);
+        output.putInt(count);
+        output.putInt(RECORD_SIZE);
+        output.putInt(recordsOffset);
+        output.putInt(objectiveCount);
+
+        for (int code = 0; code < objectiveCount; code++)
+        {
+            byte[] name = SteeringObjective.forCode(code).getName().getBytes(UTF_8);
+            output.putShort((short) name.length);
+            output.put(name);
+        }
+
+        for (int i = 0; i < count; i++)
+        {
+            writeRecord(output, recordsOffset + i * RECORD_SIZE, fleet.getVehicle(i), fleet.getSteering(i),
+                    fleet.getResult(i));
+        }
+
+        buffer.position(start + recordsOffset + count * RECORD_SIZE);
+    }
+
+    /**
+     * Writes a snapshot of a fleet to a file, replacing its contents.
+     *
+     * @param fleet the fleet.
+     * @param file the file.
+     * @throws IOException if the file can't be written.
+     */
+    public static void write(FleetSteering fleet, File file) throws IOException
+    {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try
+        {
+            FileChannel channel = randomAccessFile.getChannel();
+            int objectiveCount = SteeringObjective.getCount();
+            int size = getSize(fleet, objectiveCount);
+
+            channel.truncate(0);
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            write(fleet, mapped, objectiveCount);
+            mapped.force();
+        }
+        finally
+        {
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * Memory maps a snapshot file for reading in place.
+     *
+     * @param file the file.
+     * @return the snapshot.
+     * @throws IOException if the file can't be read.
+     */
+    public static FleetSnapshot map(File file) throws IOException
+    {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try
+        {
+            FileChannel channel = randomAccessFile.getChannel();
+
+            // The mapping stays valid after the channel is closed
+            return new FleetSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        finally
+        {
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * Gets the number of vehicles in the snapshot.
+     *
+     * @return the number of vehicles.
+     */
+    public int size()
+    {
+        return count;
+    }
+
+    public Vector2 getPosition(int index, Vector2 result)
+    {
+        return getVector(index, POSITION_X, result);
+    }
+
+    public Vector2 getVelocity(int index, Vector2 result)
+    {
+        return getVector(index, VELOCITY_X, result);
+    }
+
+    public Vector2 getDirection(int index, Vector2 result)
+    {
+        return getVector(index, DIRECTION_X, result);
+    }
+
+    public float getRadius(int index)
+    {
+        return getFloat(index, RADIUS);
+    }
+
+    public float getMaximumThrust(int index)
+    {
+        return getFloat(index, MAXIMUM_THRUST);
+    }
+
+    public float getMaximumReverseThrust(int index)
+    {
+        return getFloat(index, MAXIMUM_REVERSE_THRUST);
+    }
+
+    public float getRotationRate(int index)
+    {
+        return getFloat(index, ROTATION_RATE);
+    }
+
+    /**
+     * Gets the maximum speed of a vehicle.
+     *
+     * @param index the index of the vehicle.
+     * @return the maximum speed, or {@code null} if the vehicle has no maximum speed.
+     */
+    public Float getMaximumSpeed(int index)
+    {
+        float maximumSpeed = getFloat(index, MAXIMUM_SPEED);
+        return Float.isNaN(maximumSpeed) ? null : maximumSpeed;
+    }
+
+    /**
+     * Gets the last steering result of a vehicle.
+     *
+     * @param index the index of the vehicle.
+     * @param result the steering components to write the result into.
+     * @return the result.
+     */
+    public SteeringComponents getResult(int index, SteeringComponents result)
+    {
+        int offset = getOffset(index);
+        float targetX = buffer.getFloat(offset + TARGET_X);
+        float targetY = buffer.getFloat(offset + TARGET_Y);
+        float forceX = buffer.getFloat(offset + FORCE_X);
+        float forceY = buffer.getFloat(offset + FORCE_Y);
+
+        // The result copies the vectors into its own storage
+        return result.set(getObjective(index), Float.isNaN(targetX) ? null : target.set(targetX, targetY),
+                Float.isNaN(forceX) ? null : force.set(forceX, forceY), buffer.getFloat(offset + ROTATION),
+                buffer.getFloat(offset + THRUST));
+    }
+
+    /**
+     * Gets the objective of the last steering result of a vehicle.
+     *
+     * @param index the index of the vehicle.
+     * @return the objective.
+     * @throws IllegalArgumentException if the snapshot's code for the objective is invalid.
+     * @throws IllegalStateException if the objective isn't registered on this node.
+     */
+    public SteeringObjective getObjective(int index)
+    {
+        int code = buffer.getInt(getOffset(index) + OBJECTIVE);
+        if (code < 0 || code >= objectives.length)
+        {
+            throw new IllegalArgumentException("Invalid steering objective code in fleet snapshot: " + code);
+        }
+
+        SteeringObjective objective = objectives[code];
+        if (objective == null)
+        {
+            objective = SteeringObjective.forName(objectiveNames[code]);
+            if (objective == null)
+            {
+                throw new IllegalStateException("Steering objective isn't registered: " + objectiveNames[code]);
+            }
+
+            objectives[code] = objective;
+        }
+
+        return objective;
+    }
+
+    /**
+     * Restores the steering configuration of a vehicle.
+     *
+     * @param index the index of the vehicle.
+     * @param steering the steering to restore.
+     */
+    public void restore(int index, Steering steering)
+    {
+        int offset = getOffset(index);
+        steering.setMaximumBoidDistance(buffer.getFloat(offset + MAXIMUM_BOID_DISTANCE));
+        steering.setMinimumBoidDistance(buffer.getFloat(offset + MINIMUM_BOID_DISTANCE));
+        steering.setBoidCohesionDistance(buffer.getFloat(offset + BOID_COHESION_DISTANCE));
+        steering.setAvoidanceFactor(buffer.getFloat(offset + AVOIDANCE_FACTOR));
+
+        int maximumCloseBoids = buffer.getInt(offset + MAXIMUM_CLOSE_BOIDS);
+        if (steering.getMaximumCloseBoids() != maximumCloseBoids)
+        {
+            steering.setMaximumCloseBoids(maximumCloseBoids);
+        }
+    }
+
+    /**
+     * Restores the steering configuration and last result of every vehicle in a fleet. The vehicles themselves are
+     * left to the caller.
+     *
+     * @param fleet the fleet, with the same number of vehicles as the snapshot.
+     */
+    public void restore(FleetSteering fleet)
+    {
+        if (fleet.size() != count)
+        {
+            throw new IllegalArgumentException("Fleet has " + fleet.size() + " vehicles but the snapshot has " +
+                    count);
+        }
+
+        for (int i = 0; i < count; i++)
+        {
+            restore(i, fleet.getSteering(i));
+            getResult(i, fleet.getResult(i));
+        }
+    }
+
+    private static int getRecordsOffset(int objectiveCount)
+    {
+        int size = HEADER_SIZE;
+        for (int code = 0; code < objectiveCount; code++)
+        {
+            size += 2 + SteeringObjective.forCode(code).getName().getBytes(UTF_8).length;
+        }
+
+        // Align the records to the size of their values
+        return (size + 3) & ~3;
+    }
+
+    private static void writeRecord(ByteBuffer output, int offset, Vehicle vehicle, Steering steering,
+                                    SteeringComponents result)
+    {
+        float maximumSpeed = vehicle.getSpeedLimit();
+        Vector2 target = result.getSteeringTarget();
+        Vector2 force = result.getSteeringForce();
+
+        putVector(output, offset + POSITION_X, vehicle.getPositionX(), vehicle.getPositionY());
+        putVector(output, offset + VELOCITY_X, vehicle.getVelocityX(), vehicle.getVelocityY());
+        putVector(output, offset + DIRECTION_X, vehicle.getDirectionX(), vehicle.getDirectionY());
+        output.putFloat(offset + RADIUS, vehicle.getRadius());
+        output.putFloat(offset + MAXIMUM_THRUST, vehicle.getMaximumThrust());
+        output.putFloat(offset + MAXIMUM_REVERSE_THRUST, vehicle.getMaximumReverseThrust());
+        output.putFloat(offset + ROTATION_RATE, vehicle.getRotationRate());
+        output.putFloat(offset + MAXIMUM_SPEED, maximumSpeed != Vehicle.NO_MAXIMUM_SPEED ? maximumSpeed : Float.NaN);
+
+        output.putFloat(offset + MAXIMUM_BOID_DISTANCE, steering.getMaximumBoidDistance());
+        output.putFloat(offset + MINIMUM_BOID_DISTANCE, steering.getMinimumBoidDistance());
+        output.putFloat(offset + BOID_COHESION_DISTANCE, steering.getBoidCohesionDistance());
+        output.putFloat(offset + AVOIDANCE_FACTOR, steering.getAvoidanceFactor());
+        output.putInt(offset + MAXIMUM_CLOSE_BOIDS, steering.getMaximumCloseBoids());
+
+        output.putInt(offset + OBJECTIVE, result.getSteeringObjective().getCode());
+        output.putFloat(offset + ROTATION, result.getRotation());
+        output.putFloat(offset + THRUST, result.getThrust());
+        output.putFloat(offset + TARGET_X, target != null ? target.x : Float.NaN);
+        output.putFloat(offset + TARGET_Y, target != null ? target.y : Float.NaN);
+        output.putFloat(offset + FORCE_X, force != null ? force.x : Float.NaN);
+        output.putFloat(offset + FORCE_Y, force != null ? force.y : Float.NaN);
+    }
+
+    private static void putVector(ByteBuffer output, int offset, float x, float y)
+    {
+        output.putFloat(offset, x);
+        output.putFloat(offset + 4, y);
+    }
+
+    private int getOffset(int index)
+    {
+        if (index < 0 || index >= count)
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + count);
+        }
+
+        return recordsOffset + index * recordSize;
+    }
+
+    private float getFloat(int index, int field)
+    {
+        return buffer.getFloat(getOffset(index) + field);
+    }
+
+    private Vector2 getVector(int index, int field, Vector2 result)
+    {
+        int offset = getOffset(index);
+        return result.set(buffer.getFloat(offset + field), buffer.getFloat(offset + field + 4));
+    }
+}
@@ -0,0 +1,401 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.utils.Array;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Steers a whole fleet of vehicles, optionally in parallel.
+ *
+ * <p>At the start of each tick the state of every vehicle is copied into a {@link SteeringBatch} snapshot. Each
+ * vehicle's {@link Steering} reads from this snapshot rather than the live vehicle, and the results are written to a
+ * separate {@link SteeringComponents} per vehicle. The live vehicles can then be updated from the results after the
+ * tick without affecting what any other vehicle saw during it.</p>
+ *
+ * <p>Since each vehicle's result only depends on the snapshot and its own {@link Steering}, the results are
+ * bit-identical however the fleet is partitioned across threads. This relies on the {@link Behaviour} only reading
+ * shared state: the snapshot, {@link #getSnapshotVehicle(int)}, a {@link BoidNeighbourIndex} built before the tick,
+ * and so on.</p>
+ */
+public class FleetSteering
+{
+    /**
+     * A steering behaviour applied to each vehicle in the fleet.
+     */
+    public interface Behaviour
+    {
+        /**
+         * Steers a single vehicle. This may be called concurrently for different vehicles.
+         *
+         * @param index the index of the vehicle in the fleet.
+         * @param steering the steering for the vehicle, operating on the snapshot.
+         * @param elapsedTime the elapsed time.
+         * @param result the steering components to write the result into.
+         */
+        void steer(int index, Steering steering, float elapsedTime, SteeringComponents result);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Fields
+
+    /**
+     * The default minimum number of vehicles processed by each parallel task.
+     */
+    public static final int DEFAULT_PARTITION_SIZE = 256;
+
+    /**
+     * The utility for getting the steering components.
+     */
+    protected final GetSteeringComponents getSteeringComponents;
+
+    /**
+     * The potential collision detector passed to each vehicle's steering.
+     */
+    protected final PotentialCollisionDetector potentialCollisionDetector;
+
+    /**
+     * The live vehicles.
+     */
+    protected final Array<Vehicle> vehicles = new Array<Vehicle>(true, 16, Vehicle.class);
+
+    /**
+     * The snapshot of the vehicles taken at the start of each tick.
+     */
+    protected final SteeringBatch snapshot;
+
+    /**
+     * The views over the snapshot.
+     */
+    protected final Array<Vehicle> snapshotVehicles = new Array<Vehicle>(true, 16, Vehicle.class);
+
+    /**
+     * The steering for each vehicle, operating on the snapshot.
+     */
+    protected final Array<Steering> steerings = new Array<Steering>(true, 16, Steering.class);
+
+    /**
+     * The result for each vehicle from the last tick.
+     */
+    protected final Array<SteeringComponents> results = new Array<SteeringComponents>(true, 16,
+            SteeringComponents.class);
+
+    /**
+     * The minimum number of vehicles processed by each parallel task.
+     */
+    protected int partitionSize = DEFAULT_PARTITION_SIZE;
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Constructors
+
+    /**
+     * Creates a new instance.
+     *
+     * @param getSteeringComponents the utility for getting the steering components. Shared by every vehicle so it
+     *                              must be thread-safe.
+     */
+    public FleetSteering(GetSteeringComponents getSteeringComponents)
+    {
+        this(getSteeringComponents, null);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param getSteeringComponents the utility for getting the steering components. Shared by every vehicle so it
+     *                              must be thread-safe.
+     * @param potentialCollisionDetector the potential collision detector. Shared by every vehicle so queries must be
+     *                                   thread-safe.
+     */
+    public FleetSteering(GetSteeringComponents getSteeringComponents,
+                         PotentialCollisionDetector potentialCollisionDetector)
+    {
+        this.getSteeringComponents = getSteeringComponents;
+        this.potentialCollisionDetector = potentialCollisionDetector;
+
+        // The snapshot is only used for its columns and views, never for batch steering
+        snapshot = new SteeringBatch(16, null);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Methods
+
+    /**
+     * Adds a vehicle to the fleet.
+     *
+     * @param vehicle the vehicle to add.
+     * @return the index of the vehicle in the fleet.
+     */
+    public int add(Vehicle vehicle)
+    {
+        int index = snapshot.add(vehicle);
+        Vehicle snapshotVehicle = snapshot.getVehicle(index);
+
+        vehicles.add(vehicle);
+        snapshotVehicles.add(snapshotVehicle);
+        steerings.add(createSteering(snapshotVehicle));
+        results.add(new SteeringComponents());
+
+        return index;
+    }
+
+    /**
+     * Gets the number of vehicles in the fleet.
+     *
+     * @return the number of vehicles.
+     */
+    public int size()
+    {
+        return vehicles.size;
+    }
+
+    /**
+     * Gets a live vehicle.
+     *
+     * @param index the index of the vehicle.
+     * @return the vehicle.
+     */
+    public Vehicle getVehicle(int index)
+    {
+        return vehicles.get(index);
+    }
+
+    /**
+     * Gets the snapshot of a vehicle as it was at the start of the current tick. Use this when a behaviour refers to
+     * another vehicle, e.g. as a pursuit target.
+     *
+     * @param index the index of the vehicle.
+     * @return the snapshot view of the vehicle.
+     */
+    public Vehicle getSnapshotVehicle(int index)
+    {
+        return snapshotVehicles.get(index);
+    }
+
+    /**
+     * Gets the steering for a vehicle. This can be used to configure the steering, e.g. the boid distances.
+     *
+     * @param index the index of the vehicle.
+     * @return the steering.
+     */
+    public Steering getSteering(int index)
+    {
+        return steerings.get(index);
+    }
+
+    /**
+     * Gets the result for a vehicle from the last tick.
+     *
+     * @param index the index of the vehicle.
+     * @return the steering components.
+     */
+    public SteeringComponents getResult(int index)
+    {
+        return results.get(index);
+    }
+
+    /**
+     * Sets the minimum number of vehicles processed by each parallel task.
+     *
+     * @param partitionSize the partition size.
+     */
+    public void setPartitionSize(int partitionSize)
+    {
+        if (partitionSize < 1)
+        {
+            throw new IllegalArgumentException("Partition size must be at least 1: " + partitionSize);
+        }
+
+        this.partitionSize = partitionSize;
+    }
+
+    /**
+     * Copies the current state of all the live vehicles into the snapshot. This is done automatically at the start of
+     * each tick but can be called early, e.g. to build a {@link BoidNeighbourIndex} over
+     * {@link #getSnapshotVehicle(int)}.
+     */
+    public void takeSnapshot()
+    {
+        for (int i = 0; i < vehicles.size; i++)
+        {
+            snapshot.set(i, vehicles.items[i]);
+        }
+    }
+
+    /**
+     * Steers every vehicle on the calling thread.
+     *
+     * @param behaviour the behaviour to apply.
+     * @param elapsedTime the elapsed time.
+     */
+    public void tick(Behaviour behaviour, float elapsedTime)
+    {
+        takeSnapshot();
+        steer(behaviour, 0, vehicles.size, elapsedTime);
+    }
+
+    /**
+     * Steers every vehicle, splitting the fleet across the given fork-join pool.
+     *
+     * @param behaviour the behaviour to apply.
+     * @param elapsedTime the elapsed time.
+     * @param pool the pool to run on, e.g. {@link ForkJoinPool#commonPool()}.
+     */
+    public void tick(Behaviour behaviour, float elapsedTime, ForkJoinPool pool)
+    {
+        takeSnapshot();
+        pool.invoke(new SteerAction(behaviour, 0, vehicles.size, elapsedTime));
+    }
+
+    /**
+     * Steers every vehicle, splitting the fleet into partitions that are run on the given executor. This method
+     * blocks until every partition has finished.
+     *
+     * @param behaviour the behaviour to apply.
+     * @param elapsedTime the elapsed time.
+     * @param executor the executor to run on.
+     */
+    public void tick(final Behaviour behaviour, final float elapsedTime, Executor executor)
+    {
+        takeSnapshot();
+
+        int size = vehicles.size;
+        int partitions = Math.max(1, (size + partitionSize - 1) / partitionSize);
+        final CountDownLatch latch = new CountDownLatch(partitions);
+        final Throwable[] failure = new Throwable[1];
+
+        for (int partition = 0; partition < partitions; partition++)
+        {
+            final int start = partition * partitionSize;
+            final int end = Math.min(size, start + partitionSize);
+
+            executor.execute(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        steer(behaviour, start, end, elapsedTime);
+                    }
+                    catch (Throwable t)
+                    {
+                        synchronized (failure)
+                        {
+                            if (failure[0] == null)
+                            {
+                                failure[0] = t;
+                            }
+                        }
+                    }
+                    finally
+                    {
+                        latch.countDown();
+                    }
+                }
+            });
+        }
+
+        try
+        {
+            latch.await();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the fleet to steer", e);
+        }
+
+        synchronized (failure)
+        {
+            if (failure[0] != null)
+            {
+                throw new IllegalStateException("Failed to steer the fleet", failure[0]);
+            }
+        }
+    }
+
+    /**
+     * Creates the steering for a vehicle.
+     *
+     * @param snapshotVehicle the view of the vehicle in the snapshot.
+     * @return the steering.
+     */
+    protected Steering createSteering(Vehicle snapshotVehicle)
+    {
+        return new Steering(snapshotVehicle, getSteeringComponents, potentialCollisionDetector);
+    }
+
+    /**
+     * Steers a range of vehicles.
+     *
+     * @param behaviour the behaviour to apply.
+     * @param start the index of the first vehicle (inclusive).
+     * @param end the index of the last vehicle (exclusive).
+     * @param elapsedTime the elapsed time.
+     */
+    protected void steer(Behaviour behaviour, int start, int end, float elapsedTime)
+    {
+        for (int i = start; i < end; i++)
+        {
+            behaviour.steer(i, steerings.items[i], elapsedTime, results.items[i]);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Fork-join action
+
+    /**
+     * Recursively splits a range of vehicles until it is no larger than the partition size.
+     */
+    protected class SteerAction extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final Behaviour behaviour;
+        private final int start;
+        private final int end;
+        private final float elapsedTime;
+
+        public SteerAction(Behaviour behaviour, int start, int end, float elapsedTime)
+        {
+            this.behaviour = behaviour;
+            this.start = start;
+            this.end = end;
+            this.elapsedTime = elapsedTime;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (end - start <= partitionSize)
+            {
+                steer(behaviour, start, end, elapsedTime);
+                return;
+            }
+
+            int middle = (start + end) >>> 1;
+            invokeAll(new SteerAction(behaviour, start, middle, elapsedTime),
+                    new SteerAction(behaviour, middle, end, elapsedTime));
+        }
+    }
+}
@@ -0,0 +1,467 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.math.Vector2;
+
+import java.util.Arrays;
+
+/**
+ * A grid over the world holding, for each cell, the direction to move in to reach a shared goal around static
+ * obstacles.
+ *
+ * <p>{@link #build(float, float, Iterable, float)} first marks the cells covered by obstacles as blocked. It then runs
+ * Dijkstra's algorithm outward from the goal's cell over the 8-connected grid to find each cell's path distance to
+ * the goal (the integration field). Diagonal moves aren't allowed to cut the corner of a blocked cell. Each cell then
+ * points at its neighbour with the smallest distance. The cost of navigation is paid once per goal; after that any
+ * number of vehicles can look up their direction in constant time, e.g. with {@link Steering#followFlowField}.</p>
+ *
+ * <p>Building isn't thread-safe, but once built a field can be sampled from any number of threads.</p>
+ */
+public class FlowField
+{
+    ///////////////////////////////////////////////////////////////////////////
+    // Fields
+
+    /**
+     * The offsets to the 8 neighbouring cells, orthogonal neighbours first.
+     */
+    private static final int[] NEIGHBOUR_COLUMN = { 1, 0, -1, 0, 1, -1, -1, 1 };
+    private static final int[] NEIGHBOUR_ROW = { 0, 1, 0, -1, 1, 1, -1, -1 };
+
+    private static final float DIAGONAL = (float) Math.sqrt(2);
+
+    /**
+     * The minimum corner of the grid.
+     */
+    protected final float minX;
+    protected final float minY;
+
+    /**
+     * The width and height of each cell.
+     */
+    protected final float cellSize;
+
+    /**
+     * The number of columns and rows of cells.
+     */
+    protected final int columns;
+    protected final int rows;
+
+    /**
+     * The goal of the last build.
+     */
+    protected float goalX;
+    protected float goalY;
+
+    /**
+     * The cell containing the goal, or -1 if the goal is outside the grid or nothing has been built.
+     */
+    protected int goalCell = -1;
+
+    /**
+     * The path distance from the centre of each cell to the centre of the goal's cell, infinite if the cell is
+     * blocked or can't reach the goal.
+     */
+    protected final float[] distance;
+
+    /**
+     * The unit direction to move in from each cell, zero if the cell is blocked, can't reach the goal or contains it.
+     */
+    protected final float[] directionX;
+    protected final float[] directionY;
+
+    /**
+     * Which cells are covered by obstacles.
+     */
+    protected final boolean[] blocked;
+
+    /**
+     * The open cells of the search as a binary min-heap on their distance, with stale entries skipped when popped.
+     */
+    private int[] heapCells = new int[64];
+    private float[] heapDistances = new float[64];
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Constructor
+
+    /**
+     * Creates a new instance.
+     *
+     * @param minX the minimum x coordinate of the grid.
+     * @param minY the minimum y coordinate of the grid.
+     * @param columns the number of columns of cells.
+     * @param rows the number of rows of cells.
+     * @param cellSize the width and height of each cell. Smaller cells follow gaps between obstacles more closely but
+     *                 cost more memory and a longer build.
+     */
+    public FlowField(float minX, float minY, int columns, int rows, float cellSize)
+    {
+        if (cellSize <= 0)
+        {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        }
+        if (columns <= 0 || rows <= 0)
+        {
+            throw new IllegalArgumentException("Grid must have at least one cell: " + columns + "x" + rows);
+        }
+
+        this.minX = minX;
+        this.minY = minY;
+        this.columns = columns;
+        this.rows = rows;
+        this.cellSize = cellSize;
+
+        int cells = columns * rows;
+        distance = new float[cells];
+        directionX = new float[cells];
+        directionY = new float[cells];
+        blocked = new boolean[cells];
+        Arrays.fill(distance, Float.POSITIVE_INFINITY);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Methods
+
+    /**
+     * Builds the field for a goal, replacing any earlier build.
+     *
+     * @param goalX the x coordinate of the goal.
+     * @param goalY the y coordinate of the goal.
+     * @param obstacles the static obstacles to route around.
+     * @param clearance the distance to keep from the obstacles, usually the radius of the largest vehicle. A cell is
+     *                  blocked if its centre is within an obstacle's radius plus the clearance.
+     * @return this instance.
+     */
+    public FlowField build(float goalX, float goalY, Iterable<? extends Obstacle> obstacles, float clearance)
+    {
+        this.goalX = goalX;
+        this.goalY = goalY;
+
+        Arrays.fill(distance, Float.POSITIVE_INFINITY);
+        Arrays.fill(directionX, 0);
+        Arrays.fill(directionY, 0);
+        Arrays.fill(blocked, false);
+
+        for (Obstacle obstacle : obstacles)
+        {
+            block(obstacle.getPositionX(), obstacle.getPositionY(), obstacle.getRadius() + clearance);
+        }
+
+        goalCell = getCell(goalX, goalY);
+        if (goalCell >= 0)
+        {
+            // The goal itself is always reachable, even if an obstacle's clearance covers it
+            blocked[goalCell] = false;
+            integrate(goalCell);
+            findDirections();
+        }
+
+        return this;
+    }
+
+    /**
+     * Gets the direction to move in from a position.
+     *
+     * @param x the x coordinate of the position.
+     * @param y the y coordinate of the position.
+     * @param result the vector to store the unit direction in.
+     * @return {@code true} if the position is in a cell with a direction, or {@code false} if it is outside the grid,
+     *         blocked, can't reach the goal or is in the goal's cell, in which case the result is unchanged.
+     */
+    public boolean getDirection(float x, float y, Vector2 result)
+    {
+        int cell = getCell(x, y);
+        if (cell < 0 || directionX[cell] == 0 && directionY[cell] == 0)
+        {
+            return false;
+        }
+
+        result.set(directionX[cell], directionY[cell]);
+        return true;
+    }
+
+    /**
+     * Gets the path distance to the goal from a position, measured between cell centres.
+     *
+     * @param x the x coordinate of the position.
+     * @param y the y coordinate of the position.
+     * @return the distance, zero in the goal's cell, or infinite if the position is outside the grid, blocked or
+     *         can't reach the goal.
+     */
+    public float getDistance(float x, float y)
+    {
+        int cell = getCell(x, y);
+        return cell >= 0 ? distance[cell] : Float.POSITIVE_INFINITY;
+    }
+
+    public float getGoalX()
+    {
+        return goalX;
+    }
+
+    public float getGoalY()
+    {
+        return goalY;
+    }
+
+    public float getMinX()
+    {
+        return minX;
+    }
+
+    public float getMinY()
+    {
+        return minY;
+    }
+
+    public int getColumns()
+    {
+        return columns;
+    }
+
+    public int getRows()
+    {
+        return rows;
+    }
+
+    public float getCellSize()
+    {
+        return cellSize;
+    }
+
+    /**
+     * Gets the cell containing a position.
+     *
+     * @param x the x coordinate of the position.
+     * @param y the y coordinate of the position.
+     * @return the index of the cell, or -1 if the position is outside the grid.
+     */
+    protected int getCell(float x, float y)
+    {
+        float column = (x - minX) / cellSize;
+        float row = (y - minY) / cellSize;
+
+        // Written so that NaN is also outside the grid
+        if (!(column >= 0 && column < columns && row >= 0 && row < rows))
+        {
+            return -1;
+        }
+
+        return (int) column + (int) row * columns;
+    }
+
+    /**
+     * Marks the cells with centres within a circle as blocked.
+     *
+     * @param x the x coordinate of the circle's centre.
+     * @param y the y coordinate of the circle's centre.
+     * @param radius the radius of the circle.
+     */
+    protected void block(float x, float y, float radius)
+    {
+        // Cells with centres within the circle, the centre of column c being minX + (c + 0.5) * cellSize
+        int minimumColumn = Math.max((int) Math.ceil((x - radius - minX) / cellSize - 0.5f), 0);
+        int maximumColumn = Math.min((int) Math.floor((x + radius - minX) / cellSize - 0.5f), columns - 1);
+        int minimumRow = Math.max((int) Math.ceil((y - radius - minY) / cellSize - 0.5f), 0);
+        int maximumRow = Math.min((int) Math.floor((y + radius - minY) / cellSize - 0.5f), rows - 1);
+        float radiusSquared = radius * radius;
+
+        for (int row = minimumRow; row <= maximumRow; row++)
+        {
+            float offsetY = minY + (row + 0.5f) * cellSize - y;
+
+            for (int column = minimumColumn; column <= maximumColumn; column++)
+            {
+                float offsetX = minX + (column + 0.5f) * cellSize - x;
+                if (offsetX * offsetX + offsetY * offsetY <= radiusSquared)
+                {
+                    blocked[column + row * columns] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Fills in the path distance of each cell that can reach the goal.
+     *
+     * @param startCell the goal's cell.
+     */
+    protected void integrate(int startCell)
+    {
+        int heapSize = 0;
+        distance[startCell] = 0;
+        heapSize = push(heapSize, startCell, 0);
+
+        while (heapSize > 0)
+        {
+            int cell = heapCells[0];
+            float cellDistance = heapDistances[0];
+            heapSize = pop(heapSize);
+
+            if (cellDistance > distance[cell])
+            {
+                continue;
+            }
+
+            int column = cell % columns;
+            int row = cell / columns;
+
+            for (int i = 0; i < NEIGHBOUR_COLUMN.length; i++)
+            {
+                int neighbour = getPassableNeighbour(column, row, i);
+                if (neighbour < 0)
+                {
+                    continue;
+                }
+
+                float neighbourDistance = cellDistance + (i < 4 ? cellSize : cellSize * DIAGONAL);
+                if (neighbourDistance < distance[neighbour])
+                {
+                    distance[neighbour] = neighbourDistance;
+                    heapSize = push(heapSize, neighbour, neighbourDistance);
+                }
+            }
+        }
+    }
+
+    /**
+     * Points each reachable cell at its neighbour closest to the goal.
+     */
+    protected void findDirections()
+    {
+        for (int row = 0; row < rows; row++)
+        {
+            for (int column = 0; column < columns; column++)
+            {
+                int cell = column + row * columns;
+                float best = distance[cell];
+                if (cell == goalCell || best == Float.POSITIVE_INFINITY)
+                {
+                    continue;
+                }
+
+                int bestDirection = -1;
+                for (int i = 0; i < NEIGHBOUR_COLUMN.length; i++)
+                {
+                    int neighbour = getPassableNeighbour(column, row, i);
+                    if (neighbour >= 0 && distance[neighbour] < best)
+                    {
+                        best = distance[neighbour];
+                        bestDirection = i;
+                    }
+                }
+
+                if (bestDirection >= 0)
+                {
+                    float length = bestDirection < 4 ? 1 : DIAGONAL;
+                    directionX[cell] = NEIGHBOUR_COLUMN[bestDirection] / length;
+                    directionY[cell] = NEIGHBOUR_ROW[bestDirection] / length;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets a neighbour of a cell if it can be moved to. Diagonal moves need both of the orthogonal cells they pass to
+     * be open too.
+     *
+     * @param column the column of the cell.
+     * @param row the row of the cell.
+     * @param direction the index into the neighbour offsets.
+     * @return the index of the neighbour, or -1 if it is outside the grid or blocked.
+     */
+    protected int getPassableNeighbour(int column, int row, int direction)
+    {
+        int neighbourColumn = column + NEIGHBOUR_COLUMN[direction];
+        int neighbourRow = row + NEIGHBOUR_ROW[direction];
+
+        if (neighbourColumn < 0 || neighbourColumn >= columns || neighbourRow < 0 || neighbourRow >= rows ||
+                blocked[neighbourColumn + neighbourRow * columns])
+        {
+            return -1;
+        }
+
+        if (direction >= 4 && (blocked[neighbourColumn + row * columns] || blocked[column + neighbourRow * columns]))
+        {
+            return -1;
+        }
+
+        return neighbourColumn + neighbourRow * columns;
+    }
+
+    private int push(int heapSize, int cell, float cellDistance)
+    {
+        if (heapSize == heapCells.length)
+        {
+            heapCells = Arrays.copyOf(heapCells, heapSize * 2);
+            heapDistances = Arrays.copyOf(heapDistances, heapSize * 2);
+        }
+
+        int i = heapSize;
+        while (i > 0)
+        {
+            int parent = (i - 1) >>> 1;
+            if (heapDistances[parent] <= cellDistance)
+            {
+                break;
+            }
+
+            heapCells[i] = heapCells[parent];
+            heapDistances[i] = heapDistances[parent];
+            i = parent;
+        }
+
+        heapCells[i] = cell;
+        heapDistances[i] = cellDistance;
+        return heapSize + 1;
+    }
+
+    private int pop(int heapSize)
+    {
+        heapSize--;
+        int cell = heapCells[heapSize];
+        float cellDistance = heapDistances[heapSize];
+
+        int i = 0;
+        while (true)
+        {
+            int child = 2 * i + 1;
+            if (child >= heapSize)
+            {
+                break;
+            }
+            if (child + 1 < heapSize && heapDistances[child + 1] < heapDistances[child])
+            {
+                child++;
+            }
+            if (heapDistances[child] >= cellDistance)
+            {
+                break;
+            }
+
+            heapCells[i] = heapCells[child];
+            heapDistances[i] = heapDistances[child];
+            i = child;
+        }
+
+        heapCells[i] = cell;
+        heapDistances[i] = cellDistance;
+        return heapSize;
+    }
+}
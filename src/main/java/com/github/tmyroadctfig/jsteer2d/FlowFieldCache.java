@@ -0,0 +1,317 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Caches {@link FlowField}s by goal so that every vehicle ordered to the same goal shares one field.
+ *
+ * <p>Fields are keyed by the exact goal coordinates and the least recently used field is evicted once the capacity
+ * is reached. If the obstacles are an {@link ObstacleBroadPhase} the cache is cleared whenever its modification count
+ * changes; otherwise call {@link #clear()} after changing the obstacles. Fields already handed out are never modified,
+ * so they stay valid, if out of date, after being evicted.</p>
+ *
+ * <p>This class is thread-safe. Fields are built outside the cache's lock so a miss doesn't hold up lookups of other
+ * goals, and concurrent lookups of the same missing goal wait for a single build. The obstacles are copied under the
+ * lock when first needed and again after each {@link #clear()}, and fields are built from the copy, so the obstacles
+ * only need to support iteration by one thread at a time.</p>
+ */
+public class FlowFieldCache
+{
+    ///////////////////////////////////////////////////////////////////////////
+    // Fields
+
+    /**
+     * The grid shared by each field.
+     */
+    protected final float minX;
+    protected final float minY;
+    protected final int columns;
+    protected final int rows;
+    protected final float cellSize;
+
+    /**
+     * The static obstacles to route around.
+     */
+    protected final Iterable<? extends Obstacle> obstacles;
+
+    /**
+     * The copy of the obstacles that fields are built from, or {@code null} until it is next needed. Guarded by this
+     * instance's lock; the list itself is never modified once published.
+     */
+    protected List<Obstacle> obstacleCopy;
+
+    /**
+     * The distance to keep from the obstacles.
+     */
+    protected final float clearance;
+
+    /**
+     * The maximum number of fields to keep.
+     */
+    protected final int capacity;
+
+    /**
+     * The fields by packed goal coordinates, least recently used first. Guarded by this instance's lock.
+     */
+    protected final LinkedHashMap<Long, FlowField> fields;
+
+    /**
+     * The builds in progress by packed goal coordinates. Guarded by this instance's lock.
+     */
+    protected final Map<Long, FutureTask<FlowField>> builds = new HashMap<Long, FutureTask<FlowField>>();
+
+    /**
+     * The obstacles' modification count when the fields were built, if the obstacles are a broad phase.
+     */
+    protected int modificationCount;
+
+    /**
+     * Incremented whenever the fields are thrown away, so that a build started before then isn't cached.
+     */
+    protected int generation;
+
+    private long buildCount;
+
+    private long hitCount;
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Constructor
+
+    /**
+     * Creates a new instance.
+     *
+     * @param minX the minimum x coordinate of the grid.
+     * @param minY the minimum y coordinate of the grid.
+     * @param columns the number of columns of cells.
+     * @param rows the number of rows of cells.
+     * @param cellSize the width and height of each cell.
+     * @param obstacles the static obstacles to route around.
+     * @param clearance the distance to keep from the obstacles, usually the radius of the largest vehicle.
+     * @param capacity the maximum number of fields to keep.
+     */
+    public FlowFieldCache(float minX, float minY, int columns, int rows, float cellSize,
+                          Iterable<? extends Obstacle> obstacles, float clearance, final int capacity)
+    {
+        if (capacity <= 0)
+        {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+
+        if (cellSize <= 0)
+        {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        }
+        if (columns <= 0 || rows <= 0)
+        {
+            throw new IllegalArgumentException("Grid must have at least one cell: " + columns + "x" + rows);
+        }
+
+        this.minX = minX;
+        this.minY = minY;
+        this.columns = columns;
+        this.rows = rows;
+        this.cellSize = cellSize;
+        this.obstacles = obstacles;
+        this.clearance = clearance;
+        this.capacity = capacity;
+
+        fields = new LinkedHashMap<Long, FlowField>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, FlowField> eldest)
+            {
+                return size() > capacity;
+            }
+        };
+
+        if (obstacles instanceof ObstacleBroadPhase)
+        {
+            modificationCount = ((ObstacleBroadPhase) obstacles).getModificationCount();
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Methods
+
+    /**
+     * Gets the field for a goal, building it if it isn't cached.
+     *
+     * @param goalX the x coordinate of the goal.
+     * @param goalY the y coordinate of the goal.
+     * @return the field.
+     */
+    public FlowField get(final float goalX, final float goalY)
+    {
+        Long key = ((long) Float.floatToIntBits(goalX) << 32) | (Float.floatToIntBits(goalY) & 0xFFFFFFFFL);
+        FutureTask<FlowField> build;
+        boolean builder;
+        int buildGeneration = 0;
+
+        synchronized (this)
+        {
+            if (obstacles instanceof ObstacleBroadPhase)
+            {
+                int currentCount = ((ObstacleBroadPhase) obstacles).getModificationCount();
+                if (currentCount != modificationCount)
+                {
+                    clear();
+                    modificationCount = currentCount;
+                }
+            }
+
+            FlowField field = fields.get(key);
+            if (field != null)
+            {
+                hitCount++;
+                return field;
+            }
+
+            build = builds.get(key);
+            if (build != null)
+            {
+                // Another thread is building the field, wait for it below
+                hitCount++;
+                builder = false;
+            }
+            else
+            {
+                final List<Obstacle> buildObstacles = getObstacleCopy();
+                build = new FutureTask<FlowField>(new Callable<FlowField>()
+                {
+                    @Override
+                    public FlowField call()
+                    {
+                        return new FlowField(minX, minY, columns, rows, cellSize).build(goalX, goalY,
+                                buildObstacles, clearance);
+                    }
+                });
+
+                builds.put(key, build);
+                buildCount++;
+                builder = true;
+                buildGeneration = generation;
+            }
+        }
+
+        if (builder)
+        {
+            build.run();
+            FlowField field = null;
+
+            try
+            {
+                field = FutureUtils.getUninterruptibly(build);
+            }
+            finally
+            {
+                synchronized (this)
+                {
+                    if (builds.get(key) == build)
+                    {
+                        builds.remove(key);
+                    }
+
+                    // Failed builds and builds started before the fields were thrown away aren't cached
+                    if (field != null && buildGeneration == generation)
+                    {
+                        fields.put(key, field);
+                    }
+                }
+            }
+
+            return field;
+        }
+
+        return FutureUtils.getUninterruptibly(build);
+    }
+
+    /**
+     * Removes every field, e.g. after the obstacles have changed. Builds in progress finish but aren't cached.
+     */
+    public synchronized void clear()
+    {
+        fields.clear();
+        builds.clear();
+        obstacleCopy = null;
+        generation++;
+    }
+
+    /**
+     * Gets the copy of the obstacles to build from, copying them if they have changed. Must be called holding this
+     * instance's lock.
+     *
+     * @return the copy.
+     */
+    protected List<Obstacle> getObstacleCopy()
+    {
+        if (obstacleCopy == null)
+        {
+            List<Obstacle> copy = new ArrayList<Obstacle>();
+            for (Obstacle obstacle : obstacles)
+            {
+                copy.add(obstacle);
+            }
+            obstacleCopy = copy;
+        }
+
+        return obstacleCopy;
+    }
+
+    /**
+     * Gets the number of cached fields.
+     *
+     * @return the number of fields.
+     */
+    public synchronized int size()
+    {
+        return fields.size();
+    }
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * Gets the number of fields built, i.e. the number of cache misses.
+     *
+     * @return the number of builds.
+     */
+    public synchronized long getBuildCount()
+    {
+        return buildCount;
+    }
+
+    /**
+     * Gets the number of requests answered from the cache, including those that waited for another thread's build.
+     *
+     * @return the number of hits.
+     */
+    public synchronized long getHitCount()
+    {
+        return hitCount;
+    }
+}
@@ -0,0 +1,36 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+/**
+ * The interface for a class that can find the angle between two vectors. See {@link Vector2Utils#ACCURATE_ANGLE} and
+ * {@link Vector2Utils#FAST_ANGLE}.
+ */
+public interface GetAngleBetweenVectors
+{
+    /**
+     * Finds the signed angle to rotate the second vector by to line it up with the first.
+     *
+     * @param x1 the x component of the first vector.
+     * @param y1 the y component of the first vector.
+     * @param x2 the x component of the second vector.
+     * @param y2 the y component of the second vector.
+     * @return the angle in radians in the range (-PI, PI].
+     */
+    float getAngle(float x1, float y1, float x2, float y2);
+}
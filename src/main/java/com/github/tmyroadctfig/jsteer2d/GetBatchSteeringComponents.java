@@ -0,0 +1,48 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+/**
+ * The interface for a class that can get steering components for a whole {@link SteeringBatch} at once.
+ */
+public interface GetBatchSteeringComponents
+{
+    /**
+     * Gets the steering components for a range of vehicles in the batch. The steering force is read from the batch's
+     * force columns and the rotation and thrust are written to the batch's output columns.
+     *
+     * @param batch the batch to operate on.
+     * @param start the index of the first vehicle (inclusive).
+     * @param end the index of the last vehicle (exclusive).
+     * @param elapsedTime the elapsed time (in milliseconds).
+     */
+    void getComponents(SteeringBatch batch, int start, int end, float elapsedTime);
+
+    /**
+     * Arrives at the target for a single vehicle in the batch. This is called after
+     * {@link #getComponents(SteeringBatch, int, int, float)} has populated the outputs for the vehicle.
+     *
+     * @param batch the batch to operate on.
+     * @param index the index of the vehicle.
+     * @param distanceToTarget the distance to the target.
+     * @param stoppingDistance the minimum stopping distance.
+     * @param elapsedTime the elapsed time (in milliseconds).
+     */
+    void arriveAtImpl(SteeringBatch batch, int index, float distanceToTarget, float stoppingDistance,
+                      float elapsedTime);
+}
@@ -28,14 +28,28 @@ public interface GetSteeringComponents
      * Gets the steering components for the steering force and vehicle.
      *
      * @param vehicle the vehicle the steering force is operating on.
-     * @param steeringObjective a string describing the steering force.
+     * @param steeringObjective the objective of the steering force.
      * @param steeringForce the steering force.
      * @param elapsedTime the elapsed time (in milliseconds).
      * @return the steering components.
      */
-    SteeringComponents getComponents(Vehicle vehicle, String steeringObjective, Vector2 steeringForce,
+    SteeringComponents getComponents(Vehicle vehicle, SteeringObjective steeringObjective, Vector2 steeringForce,
                                      float elapsedTime);
 
+    /**
+     * Gets the steering components for the steering force and vehicle, writing them into the given result instead of
+     * allocating a new instance.
+     *
+     * @param vehicle the vehicle the steering force is operating on.
+     * @param steeringObjective the objective of the steering force.
+     * @param steeringForce the steering force.
+     * @param elapsedTime the elapsed time (in milliseconds).
+     * @param result the steering components to write the result into.
+     * @return the result.
+     */
+    SteeringComponents getComponents(Vehicle vehicle, SteeringObjective steeringObjective, Vector2 steeringForce,
+                                     float elapsedTime, SteeringComponents result);
+
     /**
      * Arrives at the target based on the given parameters.
      *
@@ -48,4 +62,19 @@ public interface GetSteeringComponents
      */
     SteeringComponents arriveAtImpl(Vehicle vehicle, float distanceToTarget, float stoppingDistance,
                                     Vector2 steeringForce, float elapsedTime);
+
+    /**
+     * Arrives at the target based on the given parameters, writing the steering components into the given result
+     * instead of allocating a new instance.
+     *
+     * @param vehicle the vehicle the steering force is operating on.
+     * @param distanceToTarget the distance to the target.
+     * @param stoppingDistance the minimum stopping distance.
+     * @param steeringForce the steering force.
+     * @param elapsedTime the elapsed time (in milliseconds).
+     * @param result the steering components to write the result into.
+     * @return the result.
+     */
+    SteeringComponents arriveAtImpl(Vehicle vehicle, float distanceToTarget, float stoppingDistance,
+                                    Vector2 steeringForce, float elapsedTime, SteeringComponents result);
 }
@@ -30,4 +30,24 @@ public interface MovingObstacle extends Obstacle
      * @return the velocity.
      */
     Vector2 getVelocity();
+
+    /**
+     * Gets the x component of the velocity of the obstacle.
+     *
+     * @return the x component.
+     */
+    default float getVelocityX()
+    {
+        return getVelocity().x;
+    }
+
+    /**
+     * Gets the y component of the velocity of the obstacle.
+     *
+     * @return the y component.
+     */
+    default float getVelocityY()
+    {
+        return getVelocity().y;
+    }
 }
\ No newline at end of file
@@ -37,4 +37,25 @@ public interface Obstacle
      * @return the center.
      */
     Vector2 getPosition();
+
+    /**
+     * Gets the x coordinate of the center of the obstacle. Implementations that don't hold their position in a
+     * {@link Vector2} should override this and {@link #getPositionY()} to avoid building one.
+     *
+     * @return the x coordinate.
+     */
+    default float getPositionX()
+    {
+        return getPosition().x;
+    }
+
+    /**
+     * Gets the y coordinate of the center of the obstacle.
+     *
+     * @return the y coordinate.
+     */
+    default float getPositionY()
+    {
+        return getPosition().y;
+    }
 }
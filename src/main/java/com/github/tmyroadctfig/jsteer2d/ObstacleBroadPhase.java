@@ -0,0 +1,47 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * An index of obstacles that can find the obstacles in a region, e.g. for {@link CachingCollisionDetector} to gather
+ * the candidates near a vehicle.
+ */
+public interface ObstacleBroadPhase extends Iterable<Obstacle>
+{
+    /**
+     * Finds the obstacles whose circles overlap a rectangle. Each obstacle is added to the result at most once.
+     *
+     * @param minX the left of the rectangle.
+     * @param minY the bottom of the rectangle.
+     * @param maxX the right of the rectangle.
+     * @param maxY the top of the rectangle.
+     * @param result the array to add the obstacles to.
+     * @return the number of obstacles added.
+     */
+    int findObstacles(float minX, float minY, float maxX, float maxY, Array<Obstacle> result);
+
+    /**
+     * Gets a count that changes whenever an obstacle is added, moved or removed, so results of
+     * {@link #findObstacles(float, float, float, float, Array)} can be cached until it changes.
+     *
+     * @return the modification count.
+     */
+    int getModificationCount();
+}
@@ -0,0 +1,449 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Finds collision free velocities with optimal reciprocal collision avoidance (ORCA). Each neighbour within the time
+ * horizon adds a half-plane of permitted velocities, and a small 2D linear program finds the velocity closest to the
+ * preferred velocity that satisfies all of them within the vehicle's maximum speed. If they can't all be satisfied the
+ * velocity that least violates them is used instead.
+ *
+ * <p>Unlike avoiding the single nearest obstacle, every neighbour and its velocity is taken into account at once so
+ * vehicles in dense crowds move smoothly around each other rather than oscillating. See van den Berg et al.,
+ * "Reciprocal n-Body Collision Avoidance" (2011); the linear program follows their RVO2 library.</p>
+ *
+ * <p>This class is not thread-safe since it reuses its constraint arrays between calls. Use one instance per
+ * thread, e.g. through {@link Steering#avoidNeighbours(BoidNeighbourSource, Vector2, float, float)}.</p>
+ */
+public class OrcaAvoidance
+{
+    ///////////////////////////////////////////////////////////////////////////
+    // Fields
+
+    /**
+     * A threshold for treating constraint lines as parallel.
+     */
+    private static final float EPSILON = 0.00001f;
+
+    /**
+     * The share of the avoidance this vehicle takes on. 0.5 assumes the neighbours avoid this vehicle in turn.
+     */
+    protected float responsibility = 0.5f;
+
+    /**
+     * The constraint lines: a point on each line and its unit direction. Permitted velocities are to the left of the
+     * direction.
+     */
+    private float[] pointX = new float[0];
+    private float[] pointY = new float[0];
+    private float[] directionX = new float[0];
+    private float[] directionY = new float[0];
+
+    /**
+     * The constraint lines projected onto a line that is being violated, when the constraints are infeasible.
+     */
+    private float[] projectedPointX = new float[0];
+    private float[] projectedPointY = new float[0];
+    private float[] projectedDirectionX = new float[0];
+    private float[] projectedDirectionY = new float[0];
+
+    /**
+     * The number of constraint lines.
+     */
+    private int lineCount;
+
+    /**
+     * The components of the result of the linear program.
+     */
+    private float resultX;
+    private float resultY;
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Methods
+
+    /**
+     * Gets the share of the avoidance this vehicle takes on.
+     *
+     * @return the responsibility.
+     */
+    public float getResponsibility()
+    {
+        return responsibility;
+    }
+
+    /**
+     * Sets the share of the avoidance this vehicle takes on. The default of 0.5 assumes the neighbours also use ORCA;
+     * use 1 if they don't avoid this vehicle at all.
+     *
+     * @param responsibility the responsibility (0, 1].
+     */
+    public void setResponsibility(float responsibility)
+    {
+        this.responsibility = responsibility;
+    }
+
+    /**
+     * Finds the collision free velocity closest to the preferred velocity.
+     *
+     * <p>A vehicle without a maximum speed is limited to the fastest of its preferred speed, its current speed and its
+     * neighbours' speeds, so a stopped vehicle can still give way to the neighbours approaching it as they expect.</p>
+     *
+     * @param vehicle the vehicle.
+     * @param neighbours the neighbours to avoid, e.g. from a {@link BoidNeighbourSource}.
+     * @param count the number of neighbours.
+     * @param preferredVelocity the velocity the vehicle would take without any neighbours.
+     * @param timeHorizon the time ahead that collisions are avoided for (in milliseconds).
+     * @param timeStep the time until the velocity is next updated (in milliseconds).
+     * @param result the vector to write the velocity into.
+     * @return the result.
+     */
+    public Vector2 findVelocity(Vehicle vehicle, BoidDistance[] neighbours, int count, Vector2 preferredVelocity,
+                                float timeHorizon, float timeStep, Vector2 result)
+    {
+        ensureCapacity(count);
+        lineCount = 0;
+
+        float positionX = vehicle.getPositionX();
+        float positionY = vehicle.getPositionY();
+        float velocityX = vehicle.getVelocityX();
+        float velocityY = vehicle.getVelocityY();
+        float radius = vehicle.getRadius();
+
+        float inverseTimeHorizon = 1 / timeHorizon;
+        float inverseTimeStep = 1 / (timeStep > 0 ? timeStep : timeHorizon);
+
+        float fallbackSpeedSquared = Math.max(preferredVelocity.len2(), velocityX * velocityX + velocityY * velocityY);
+
+        for (int i = 0; i < count; i++)
+        {
+            Vehicle other = neighbours[i].getBoid();
+            fallbackSpeedSquared = Math.max(fallbackSpeedSquared,
+                    Vector2.len2(other.getVelocityX(), other.getVelocityY()));
+
+            float relativePositionX = other.getPositionX() - positionX;
+            float relativePositionY = other.getPositionY() - positionY;
+            float relativeVelocityX = velocityX - other.getVelocityX();
+            float relativeVelocityY = velocityY - other.getVelocityY();
+            float distanceSquared = relativePositionX * relativePositionX + relativePositionY * relativePositionY;
+            float combinedRadius = radius + other.getRadius();
+            float combinedRadiusSquared = combinedRadius * combinedRadius;
+
+            float lineDirectionX;
+            float lineDirectionY;
+            float uX;
+            float uY;
+
+            if (distanceSquared > combinedRadiusSquared)
+            {
+                // The vector from the cutoff centre to the relative velocity
+                float wX = relativeVelocityX - inverseTimeHorizon * relativePositionX;
+                float wY = relativeVelocityY - inverseTimeHorizon * relativePositionY;
+                float wLengthSquared = wX * wX + wY * wY;
+                float dotProduct = wX * relativePositionX + wY * relativePositionY;
+
+                if (dotProduct < 0 && dotProduct * dotProduct > combinedRadiusSquared * wLengthSquared)
+                {
+                    // Project on the cutoff circle
+                    float wLength = (float) Math.sqrt(wLengthSquared);
+                    float unitWX = wX / wLength;
+                    float unitWY = wY / wLength;
+
+                    lineDirectionX = unitWY;
+                    lineDirectionY = -unitWX;
+                    uX = (combinedRadius * inverseTimeHorizon - wLength) * unitWX;
+                    uY = (combinedRadius * inverseTimeHorizon - wLength) * unitWY;
+                }
+                else
+                {
+                    // Project on the nearest leg of the velocity obstacle cone
+                    float leg = (float) Math.sqrt(distanceSquared - combinedRadiusSquared);
+
+                    if (relativePositionX * wY - relativePositionY * wX > 0)
+                    {
+                        lineDirectionX = (relativePositionX * leg - relativePositionY * combinedRadius) /
+                                distanceSquared;
+                        lineDirectionY = (relativePositionX * combinedRadius + relativePositionY * leg) /
+                                distanceSquared;
+                    }
+                    else
+                    {
+                        lineDirectionX = -(relativePositionX * leg + relativePositionY * combinedRadius) /
+                                distanceSquared;
+                        lineDirectionY = -(-relativePositionX * combinedRadius + relativePositionY * leg) /
+                                distanceSquared;
+                    }
+
+                    float projection = relativeVelocityX * lineDirectionX + relativeVelocityY * lineDirectionY;
+                    uX = projection * lineDirectionX - relativeVelocityX;
+                    uY = projection * lineDirectionY - relativeVelocityY;
+                }
+            }
+            else
+            {
+                // Already colliding, so separate within the time step
+                float wX = relativeVelocityX - inverseTimeStep * relativePositionX;
+                float wY = relativeVelocityY - inverseTimeStep * relativePositionY;
+                float wLength = (float) Math.sqrt(wX * wX + wY * wY);
+
+                if (wLength == 0)
+                {
+                    // Exactly on top of each other with the same velocity: there is no direction to separate in
+                    continue;
+                }
+
+                float unitWX = wX / wLength;
+                float unitWY = wY / wLength;
+
+                lineDirectionX = unitWY;
+                lineDirectionY = -unitWX;
+                uX = (combinedRadius * inverseTimeStep - wLength) * unitWX;
+                uY = (combinedRadius * inverseTimeStep - wLength) * unitWY;
+            }
+
+            pointX[lineCount] = velocityX + responsibility * uX;
+            pointY[lineCount] = velocityY + responsibility * uY;
+            directionX[lineCount] = lineDirectionX;
+            directionY[lineCount] = lineDirectionY;
+            lineCount++;
+        }
+
+        float maximumSpeed = vehicle.getSpeedLimit();
+        if (maximumSpeed == Vehicle.NO_MAXIMUM_SPEED)
+        {
+            maximumSpeed = (float) Math.sqrt(fallbackSpeedSquared);
+        }
+
+        int failedLine = linearProgram2(pointX, pointY, directionX, directionY, lineCount, maximumSpeed,
+                preferredVelocity.x, preferredVelocity.y, false);
+
+        if (failedLine < lineCount)
+        {
+            linearProgram3(failedLine, maximumSpeed);
+        }
+
+        return result.set(resultX, resultY);
+    }
+
+    /**
+     * Solves a one-dimensional linear program on a constraint line, subject to the earlier lines and the maximum
+     * speed.
+     *
+     * @return {@code false} if the program is infeasible, leaving the result unchanged.
+     */
+    private boolean linearProgram1(float[] pointX, float[] pointY, float[] directionX, float[] directionY, int line,
+                                   float radius, float optimalX, float optimalY, boolean optimiseDirection)
+    {
+        float dotProduct = pointX[line] * directionX[line] + pointY[line] * directionY[line];
+        float discriminant = dotProduct * dotProduct + radius * radius -
+                (pointX[line] * pointX[line] + pointY[line] * pointY[line]);
+
+        if (discriminant < 0)
+        {
+            // The maximum speed circle completely invalidates the line
+            return false;
+        }
+
+        float sqrtDiscriminant = (float) Math.sqrt(discriminant);
+        float tLeft = -dotProduct - sqrtDiscriminant;
+        float tRight = -dotProduct + sqrtDiscriminant;
+
+        for (int i = 0; i < line; i++)
+        {
+            float denominator = directionX[line] * directionY[i] - directionY[line] * directionX[i];
+            float numerator = directionX[i] * (pointY[line] - pointY[i]) - directionY[i] * (pointX[line] - pointX[i]);
+
+            if (Math.abs(denominator) <= EPSILON)
+            {
+                // The lines are parallel
+                if (numerator < 0)
+                {
+                    return false;
+                }
+
+                continue;
+            }
+
+            float t = numerator / denominator;
+            if (denominator >= 0)
+            {
+                // Line i bounds line on the right
+                tRight = Math.min(tRight, t);
+            }
+            else
+            {
+                // Line i bounds line on the left
+                tLeft = Math.max(tLeft, t);
+            }
+
+            if (tLeft > tRight)
+            {
+                return false;
+            }
+        }
+
+        float t;
+        if (optimiseDirection)
+        {
+            t = optimalX * directionX[line] + optimalY * directionY[line] > 0 ? tRight : tLeft;
+        }
+        else
+        {
+            t = directionX[line] * (optimalX - pointX[line]) + directionY[line] * (optimalY - pointY[line]);
+            t = MathHelper.clamp(t, tLeft, tRight);
+        }
+
+        resultX = pointX[line] + t * directionX[line];
+        resultY = pointY[line] + t * directionY[line];
+        return true;
+    }
+
+    /**
+     * Solves a two-dimensional linear program subject to the constraint lines and the maximum speed.
+     *
+     * @return the number of lines if successful, otherwise the line it failed on.
+     */
+    private int linearProgram2(float[] pointX, float[] pointY, float[] directionX, float[] directionY, int count,
+                               float radius, float optimalX, float optimalY, boolean optimiseDirection)
+    {
+        float optimalLengthSquared = optimalX * optimalX + optimalY * optimalY;
+
+        if (optimiseDirection)
+        {
+            // The optimal direction is a unit vector
+            resultX = optimalX * radius;
+            resultY = optimalY * radius;
+        }
+        else if (optimalLengthSquared > radius * radius)
+        {
+            float scale = radius / (float) Math.sqrt(optimalLengthSquared);
+            resultX = optimalX * scale;
+            resultY = optimalY * scale;
+        }
+        else
+        {
+            resultX = optimalX;
+            resultY = optimalY;
+        }
+
+        for (int i = 0; i < count; i++)
+        {
+            if (directionX[i] * (pointY[i] - resultY) - directionY[i] * (pointX[i] - resultX) > 0)
+            {
+                // The result doesn't satisfy constraint i
+                float previousX = resultX;
+                float previousY = resultY;
+
+                if (!linearProgram1(pointX, pointY, directionX, directionY, i, radius, optimalX, optimalY,
+                        optimiseDirection))
+                {
+                    resultX = previousX;
+                    resultY = previousY;
+                    return i;
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Finds the velocity that minimises the maximum violation of the constraint lines, from the line where the
+     * two-dimensional program failed.
+     */
+    private void linearProgram3(int beginLine, float radius)
+    {
+        float distance = 0;
+
+        for (int i = beginLine; i < lineCount; i++)
+        {
+            if (directionX[i] * (pointY[i] - resultY) - directionY[i] * (pointX[i] - resultX) > distance)
+            {
+                // The result doesn't satisfy line i by more than the current violation
+                int projectedCount = 0;
+
+                for (int j = 0; j < i; j++)
+                {
+                    float determinant = directionX[i] * directionY[j] - directionY[i] * directionX[j];
+                    float projectedX;
+                    float projectedY;
+
+                    if (Math.abs(determinant) <= EPSILON)
+                    {
+                        if (directionX[i] * directionX[j] + directionY[i] * directionY[j] > 0)
+                        {
+                            // The lines point in the same direction
+                            continue;
+                        }
+
+                        // The lines point in opposite directions
+                        projectedX = 0.5f * (pointX[i] + pointX[j]);
+                        projectedY = 0.5f * (pointY[i] + pointY[j]);
+                    }
+                    else
+                    {
+                        float t = (directionX[j] * (pointY[i] - pointY[j]) - directionY[j] * (pointX[i] - pointX[j])) /
+                                determinant;
+                        projectedX = pointX[i] + t * directionX[i];
+                        projectedY = pointY[i] + t * directionY[i];
+                    }
+
+                    float lineX = directionX[j] - directionX[i];
+                    float lineY = directionY[j] - directionY[i];
+                    float length = (float) Math.sqrt(lineX * lineX + lineY * lineY);
+
+                    projectedPointX[projectedCount] = projectedX;
+                    projectedPointY[projectedCount] = projectedY;
+                    projectedDirectionX[projectedCount] = lineX / length;
+                    projectedDirectionY[projectedCount] = lineY / length;
+                    projectedCount++;
+                }
+
+                float previousX = resultX;
+                float previousY = resultY;
+
+                if (linearProgram2(projectedPointX, projectedPointY, projectedDirectionX, projectedDirectionY,
+                        projectedCount, radius, -directionY[i], directionX[i], true) < projectedCount)
+                {
+                    // This should in principle not happen; the result is by definition already in the feasible
+                    // region of this program. If it does it's due to small floating point error
+                    resultX = previousX;
+                    resultY = previousY;
+                }
+
+                distance = directionX[i] * (pointY[i] - resultY) - directionY[i] * (pointX[i] - resultX);
+            }
+        }
+    }
+
+    private void ensureCapacity(int count)
+    {
+        if (pointX.length < count)
+        {
+            pointX = new float[count];
+            pointY = new float[count];
+            directionX = new float[count];
+            directionY = new float[count];
+            projectedPointX = new float[count];
+            projectedPointY = new float[count];
+            projectedDirectionX = new float[count];
+            projectedDirectionY = new float[count];
+        }
+    }
+}
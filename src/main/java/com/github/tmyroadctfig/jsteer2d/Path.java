@@ -0,0 +1,309 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.math.Vector2;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A polyline path for vehicles to follow with {@link Steering#followPath(PathCursor, float, float)}.
+ *
+ * <p>The points are copied into flat arrays along with the cumulative length of the path at each point, so a point at
+ * a distance along the path is found with a binary search, and the unit tangent of each segment. Zero length segments
+ * are dropped. Paths are immutable and can be shared by any number of vehicles and threads, e.g. through a
+ * {@link RouteCache}; each vehicle tracks its own progress with a {@link PathCursor}.</p>
+ */
+public class Path
+{
+    ///////////////////////////////////////////////////////////////////////////
+    // Fields
+
+    /**
+     * The coordinates of the points.
+     */
+    protected final float[] x;
+    protected final float[] y;
+
+    /**
+     * The length of the path from the first point to each point.
+     */
+    protected final float[] distance;
+
+    /**
+     * The unit tangent of each segment.
+     */
+    protected final float[] tangentX;
+    protected final float[] tangentY;
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Constructors
+
+    /**
+     * Creates a new path.
+     *
+     * @param points the points of the path, at least one.
+     */
+    public Path(List<Vector2> points)
+    {
+        this(toArray(points));
+    }
+
+    /**
+     * Creates a new path.
+     *
+     * @param coordinates the coordinates of the points as x, y pairs, at least one point.
+     */
+    public Path(float... coordinates)
+    {
+        if (coordinates.length < 2 || coordinates.length % 2 != 0)
+        {
+            throw new IllegalArgumentException("A path needs at least one point as x, y pairs: " +
+                    coordinates.length + " coordinates");
+        }
+
+        int pointCount = coordinates.length / 2;
+        float[] pointX = new float[pointCount];
+        float[] pointY = new float[pointCount];
+        float[] pointDistance = new float[pointCount];
+
+        pointX[0] = coordinates[0];
+        pointY[0] = coordinates[1];
+        int count = 1;
+
+        for (int i = 1; i < pointCount; i++)
+        {
+            float segmentLength = Vector2.dst(pointX[count - 1], pointY[count - 1], coordinates[i * 2],
+                    coordinates[i * 2 + 1]);
+
+            if (segmentLength > 0)
+            {
+                pointX[count] = coordinates[i * 2];
+                pointY[count] = coordinates[i * 2 + 1];
+                pointDistance[count] = pointDistance[count - 1] + segmentLength;
+                count++;
+            }
+        }
+
+        x = Arrays.copyOf(pointX, count);
+        y = Arrays.copyOf(pointY, count);
+        distance = Arrays.copyOf(pointDistance, count);
+
+        tangentX = new float[count - 1];
+        tangentY = new float[count - 1];
+        for (int i = 0; i < count - 1; i++)
+        {
+            float segmentLength = distance[i + 1] - distance[i];
+            tangentX[i] = (x[i + 1] - x[i]) / segmentLength;
+            tangentY[i] = (y[i + 1] - y[i]) / segmentLength;
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Methods
+
+    /**
+     * Gets the number of points in the path.
+     *
+     * @return the number of points.
+     */
+    public int getPointCount()
+    {
+        return x.length;
+    }
+
+    /**
+     * Gets the number of segments in the path. Segment {@code i} runs from point {@code i} to point {@code i + 1}.
+     *
+     * @return the number of segments, 0 for a single point.
+     */
+    public int getSegmentCount()
+    {
+        return x.length - 1;
+    }
+
+    /**
+     * Gets the total length of the path.
+     *
+     * @return the length.
+     */
+    public float getLength()
+    {
+        return distance[distance.length - 1];
+    }
+
+    /**
+     * Gets a point of the path.
+     *
+     * @param index the index of the point.
+     * @param result the vector to write the point into.
+     * @return the result.
+     */
+    public Vector2 getPoint(int index, Vector2 result)
+    {
+        return result.set(x[index], y[index]);
+    }
+
+    /**
+     * Gets the length of the path from the first point to a point.
+     *
+     * @param index the index of the point.
+     * @return the distance along the path.
+     */
+    public float getDistance(int index)
+    {
+        return distance[index];
+    }
+
+    /**
+     * Gets the unit tangent of a segment, i.e. the direction of travel along it.
+     *
+     * @param segment the index of the segment.
+     * @param result the vector to write the tangent into.
+     * @return the result.
+     */
+    public Vector2 getTangent(int segment, Vector2 result)
+    {
+        return result.set(tangentX[segment], tangentY[segment]);
+    }
+
+    /**
+     * Gets an estimate of the memory used by the path.
+     *
+     * @return the estimated size in bytes.
+     */
+    public long getMemoryUsage()
+    {
+        // The object and its five references, plus five arrays with 16 byte headers
+        return 32 + 5 * 16 + 4L * (x.length + y.length + distance.length + tangentX.length + tangentY.length);
+    }
+
+    /**
+     * Finds the segment containing a distance along the path.
+     *
+     * @param distanceAlongPath the distance along the path, clamped to the path.
+     * @return the index of the segment, or 0 for a single point.
+     */
+    public int findSegment(float distanceAlongPath)
+    {
+        int low = 0;
+        int high = x.length - 2;
+
+        // Find the last segment starting at or before the distance
+        while (low < high)
+        {
+            int middle = (low + high + 1) >>> 1;
+            if (distance[middle] <= distanceAlongPath)
+            {
+                low = middle;
+            }
+            else
+            {
+                high = middle - 1;
+            }
+        }
+
+        return Math.max(low, 0);
+    }
+
+    /**
+     * Gets the point at a distance along the path.
+     *
+     * @param distanceAlongPath the distance along the path, clamped to the path.
+     * @param result the vector to write the point into.
+     * @return the result.
+     */
+    public Vector2 getPointAt(float distanceAlongPath, Vector2 result)
+    {
+        return getPointAt(findSegment(distanceAlongPath), distanceAlongPath, result);
+    }
+
+    /**
+     * Gets the point at a distance along a segment of the path.
+     *
+     * @param segment the index of the segment.
+     * @param distanceAlongPath the distance along the path, clamped to the segment.
+     * @param result the vector to write the point into.
+     * @return the result.
+     */
+    public Vector2 getPointAt(int segment, float distanceAlongPath, Vector2 result)
+    {
+        if (x.length == 1)
+        {
+            return result.set(x[0], y[0]);
+        }
+
+        float segmentLength = distance[segment + 1] - distance[segment];
+        float fraction = MathHelper.clamp((distanceAlongPath - distance[segment]) / segmentLength, 0, 1);
+
+        return result.set(x[segment] + (x[segment + 1] - x[segment]) * fraction,
+                y[segment] + (y[segment + 1] - y[segment]) * fraction);
+    }
+
+    /**
+     * Projects a point onto a segment of the path.
+     *
+     * @param segment the index of the segment.
+     * @param pointX the x coordinate of the point.
+     * @param pointY the y coordinate of the point.
+     * @return the fraction along the segment of the nearest point on the segment [0, 1].
+     */
+    public float project(int segment, float pointX, float pointY)
+    {
+        if (x.length == 1)
+        {
+            return 0;
+        }
+
+        float segmentLength = distance[segment + 1] - distance[segment];
+        float fraction = ((pointX - x[segment]) * tangentX[segment] + (pointY - y[segment]) * tangentY[segment]) /
+                segmentLength;
+
+        return MathHelper.clamp(fraction, 0, 1);
+    }
+
+    /**
+     * Gets the squared distance from a point to a segment of the path.
+     *
+     * @param segment the index of the segment.
+     * @param pointX the x coordinate of the point.
+     * @param pointY the y coordinate of the point.
+     * @return the squared distance to the nearest point on the segment.
+     */
+    public float getDistanceSquared(int segment, float pointX, float pointY)
+    {
+        float fraction = project(segment, pointX, pointY);
+        float nearestX = x.length == 1 ? x[0] : x[segment] + (x[segment + 1] - x[segment]) * fraction;
+        float nearestY = x.length == 1 ? y[0] : y[segment] + (y[segment + 1] - y[segment]) * fraction;
+
+        return Vector2.dst2(pointX, pointY, nearestX, nearestY);
+    }
+
+    private static float[] toArray(List<Vector2> points)
+    {
+        float[] coordinates = new float[points.size() * 2];
+        for (int i = 0; i < points.size(); i++)
+        {
+            coordinates[i * 2] = points.get(i).x;
+            coordinates[i * 2 + 1] = points.get(i).y;
+        }
+
+        return coordinates;
+    }
+}
@@ -0,0 +1,196 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Tracks a vehicle's progress along a {@link Path}.
+ *
+ * <p>The cursor remembers the segment the vehicle was last nearest to and only moves forwards from it, so projecting
+ * the vehicle onto the path costs amortised constant time however long the path is. It moves to the next segment once
+ * the vehicle has passed the end of the current one or is nearer to the next one.</p>
+ *
+ * <p>This class is not thread-safe. Use one instance per vehicle; the path itself can be shared.</p>
+ */
+public class PathCursor
+{
+    ///////////////////////////////////////////////////////////////////////////
+    // Fields
+
+    /**
+     * The path being followed.
+     */
+    protected Path path;
+
+    /**
+     * The index of the current segment.
+     */
+    protected int segment;
+
+    /**
+     * The distance along the path of the last projected position.
+     */
+    protected float distance;
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Constructor
+
+    /**
+     * Creates a new cursor at the start of a path.
+     *
+     * @param path the path to follow.
+     */
+    public PathCursor(Path path)
+    {
+        setPath(path);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Methods
+
+    /**
+     * Gets the path being followed.
+     *
+     * @return the path.
+     */
+    public Path getPath()
+    {
+        return path;
+    }
+
+    /**
+     * Sets the path to follow and moves back to its start.
+     *
+     * @param path the path.
+     */
+    public void setPath(Path path)
+    {
+        this.path = path;
+        reset();
+    }
+
+    /**
+     * Moves back to the start of the path.
+     */
+    public void reset()
+    {
+        segment = 0;
+        distance = 0;
+    }
+
+    /**
+     * Gets the index of the current segment.
+     *
+     * @return the segment.
+     */
+    public int getSegment()
+    {
+        return segment;
+    }
+
+    /**
+     * Gets the distance along the path of the last projected position.
+     *
+     * @return the distance.
+     */
+    public float getDistance()
+    {
+        return distance;
+    }
+
+    /**
+     * Gets the distance remaining to the end of the path from the last projected position.
+     *
+     * @return the remaining distance.
+     */
+    public float getRemainingDistance()
+    {
+        return path.getLength() - distance;
+    }
+
+    /**
+     * Projects a position onto the path, moving the cursor forwards if needed.
+     *
+     * @param position the position, e.g. the estimated position of the vehicle.
+     * @return the distance along the path of the nearest point on the path.
+     */
+    public float update(Vector2 position)
+    {
+        return update(position.x, position.y);
+    }
+
+    /**
+     * Projects a position onto the path, moving the cursor forwards if needed.
+     *
+     * @param x the x coordinate of the position.
+     * @param y the y coordinate of the position.
+     * @return the distance along the path of the nearest point on the path.
+     */
+    public float update(float x, float y)
+    {
+        int lastSegment = path.getSegmentCount() - 1;
+
+        float fraction = path.project(segment, x, y);
+        while (segment < lastSegment &&
+                (fraction >= 1 || path.getDistanceSquared(segment + 1, x, y) < path.getDistanceSquared(segment, x, y)))
+        {
+            segment++;
+            fraction = path.project(segment, x, y);
+        }
+
+        if (lastSegment < 0)
+        {
+            distance = 0;
+        }
+        else
+        {
+            float start = path.getDistance(segment);
+            distance = Math.max(distance, start + (path.getDistance(segment + 1) - start) * fraction);
+        }
+
+        return distance;
+    }
+
+    /**
+     * Gets the point a distance ahead of the last projected position, clamped to the end of the path.
+     *
+     * @param lookAhead the distance ahead along the path.
+     * @param result the vector to write the point into.
+     * @return the result.
+     */
+    public Vector2 getPointAhead(float lookAhead, Vector2 result)
+    {
+        float target = Math.min(distance + lookAhead, path.getLength());
+
+        // Usually a short walk from the current segment; fall back to the path's search for long look-aheads
+        int targetSegment = segment;
+        int lastSegment = path.getSegmentCount() - 1;
+        for (int i = 0; i < 4 && targetSegment < lastSegment && path.getDistance(targetSegment + 1) < target; i++)
+        {
+            targetSegment++;
+        }
+
+        if (targetSegment < lastSegment && path.getDistance(targetSegment + 1) < target)
+        {
+            targetSegment = path.findSegment(target);
+        }
+
+        return path.getPointAt(targetSegment, target, result);
+    }
+}
@@ -21,47 +21,97 @@ import com.badlogic.gdx.math.Vector2;
 
 /**
  * A steering strategy that preferences rotation over thrust.
+ *
+ * <p>This class holds no mutable state so a single instance can be shared by any number of {@link Steering} instances
+ * and threads.</p>
  */
-public class RotationPreferenceSteering implements GetSteeringComponents
+public class RotationPreferenceSteering implements GetSteeringComponents, GetBatchSteeringComponents
 {
     /**
      * The angle allowed before only rotation will be applied (in radians). E.g. don't only rotate if +/- 15 deg. of the
      * target.
      */
-    private float nonRotationWindow;
+    private final float nonRotationWindow;
+
+    /**
+     * Finds the rotation between the vehicle direction and the steering force.
+     */
+    private final GetAngleBetweenVectors angleBetweenVectors;
+
+    /**
+     * The sink for instrumentation, or {@code null} if instrumentation is disabled.
+     */
+    private final SteeringMetrics metrics;
 
     public RotationPreferenceSteering()
     {
-        nonRotationWindow = (float) Math.toRadians(15);
+        this(Vector2Utils.ACCURATE_ANGLE);
+    }
+
+    /**
+     * @param angleBetweenVectors finds the rotation between the vehicle direction and the steering force, e.g.
+     *                            {@link Vector2Utils#FAST_ANGLE} to trade a little accuracy for speed.
+     */
+    public RotationPreferenceSteering(GetAngleBetweenVectors angleBetweenVectors)
+    {
+        this(angleBetweenVectors, null);
+    }
+
+    /**
+     * @param angleBetweenVectors finds the rotation between the vehicle direction and the steering force.
+     * @param metrics the sink for instrumentation, or {@code null} to disable instrumentation.
+     */
+    public RotationPreferenceSteering(GetAngleBetweenVectors angleBetweenVectors, SteeringMetrics metrics)
+    {
+        this.angleBetweenVectors = angleBetweenVectors;
+        this.metrics = metrics;
+        // Math.toRadians() has changed between JDK versions, so convert explicitly for the same result everywhere
+        nonRotationWindow = (float) (15 * Math.PI / 180);
     }
 
     @Override
-    public SteeringComponents getComponents(Vehicle vehicle, String steeringObjective, Vector2 steeringForce,
+    public SteeringComponents getComponents(Vehicle vehicle, SteeringObjective steeringObjective, Vector2 steeringForce,
                                             float elapsedTime)
     {
-        float rotation = Vector2Utils.findAngleBetweenTwoVectors(vehicle.getDirection(), steeringForce);
+        return getComponents(vehicle, steeringObjective, steeringForce, elapsedTime, new SteeringComponents());
+    }
+
+    @Override
+    public SteeringComponents getComponents(Vehicle vehicle, SteeringObjective steeringObjective, Vector2 steeringForce,
+                                            float elapsedTime, SteeringComponents result)
+    {
+        float directionX = vehicle.getDirectionX();
+        float directionY = vehicle.getDirectionY();
+        float rotation = angleBetweenVectors.getAngle(directionX, directionY, steeringForce.x, steeringForce.y);
 
         float maxRotation = vehicle.getRotationRate() * elapsedTime;
         float clampedRotation = rotation;
 
-        if (Math.abs(rotation) > maxRotation)
+        boolean rotationClamped = Math.abs(rotation) > maxRotation;
+        if (rotationClamped)
         {
             clampedRotation = MathHelper.clamp(rotation, -maxRotation, maxRotation);
         }
 
-        Vector2 normalizedSteeringForce = steeringForce.cpy();
-        normalizedSteeringForce.nor();
+        if (metrics != null)
+        {
+            metrics.recordComponents(steeringObjective, rotationClamped);
+        }
+
+        result.set(steeringObjective, steeringForce, steeringForce, clampedRotation, 0);
+
+        Vector2 normalizedSteeringForce = result.getSteeringForce().nor();
 
         float thrust = 0;
 
         float nonRotationWindowFraction = nonRotationWindow * elapsedTime;
         if (Math.abs(rotation) < nonRotationWindowFraction || Math.abs(rotation - Math.PI) < nonRotationWindowFraction)
         {
-            thrust = vehicle.getDirection().dot(normalizedSteeringForce);
+            thrust = directionX * normalizedSteeringForce.x + directionY * normalizedSteeringForce.y;
 
             // How parallel is the steering force compared to the vehicle direction
             // 1 is parallel, 0 is perpendicular, -1 anti-parallel
-            float parallel = vehicle.getDirection().dot(normalizedSteeringForce);
+            float parallel = directionX * normalizedSteeringForce.x + directionY * normalizedSteeringForce.y;
 
             if (parallel > 0)
             {
@@ -74,24 +124,117 @@ public class RotationPreferenceSteering implements GetSteeringComponents
 
             thrust *= elapsedTime;
         }
-        return new SteeringComponents(steeringObjective, steeringForce, normalizedSteeringForce, clampedRotation,
-                thrust);
+
+        result.setThrust(thrust);
+        return result;
     }
 
     @Override
     public SteeringComponents arriveAtImpl(Vehicle vehicle, float distanceToTarget, float stoppingDistance,
                                            Vector2 steeringForce, float elapsedTime)
     {
-        SteeringComponents components = getComponents(vehicle, "Arrive at", steeringForce, elapsedTime);
+        return arriveAtImpl(vehicle, distanceToTarget, stoppingDistance, steeringForce, elapsedTime,
+                new SteeringComponents());
+    }
+
+    @Override
+    public SteeringComponents arriveAtImpl(Vehicle vehicle, float distanceToTarget, float stoppingDistance,
+                                           Vector2 steeringForce, float elapsedTime, SteeringComponents result)
+    {
+        SteeringComponents components = getComponents(vehicle, SteeringObjective.ARRIVE_AT, steeringForce, elapsedTime,
+                result);
 
-        float rampedSpeed = vehicle.getMaximumSpeed() * distanceToTarget / stoppingDistance;
+        float rampedSpeed = vehicle.getSpeedLimit() * distanceToTarget / stoppingDistance;
 
-        steeringForce = steeringForce.cpy().nor();
-        if (vehicle.getVelocity().dot(steeringForce) > rampedSpeed)
+        // The normalised steering force has already been stored in the components
+        Vector2 normalizedSteeringForce = components.getSteeringForce();
+        float velocityDotForce = vehicle.getVelocityX() * normalizedSteeringForce.x +
+                vehicle.getVelocityY() * normalizedSteeringForce.y;
+        if (velocityDotForce > rampedSpeed)
         {
             components.setThrust(-0.01f);
         }
 
         return components;
     }
+
+    @Override
+    public void getComponents(SteeringBatch batch, int start, int end, float elapsedTime)
+    {
+        float[] directionX = batch.getDirectionX();
+        float[] directionY = batch.getDirectionY();
+        float[] forceX = batch.getForceX();
+        float[] forceY = batch.getForceY();
+        float[] rotationRate = batch.getRotationRate();
+        float[] maximumThrust = batch.getMaximumThrust();
+        float[] maximumReverseThrust = batch.getMaximumReverseThrust();
+        byte[] objective = batch.getObjective();
+        float[] rotationOutput = batch.getRotation();
+        float[] thrustOutput = batch.getThrust();
+
+        float nonRotationWindowFraction = nonRotationWindow * elapsedTime;
+
+        for (int i = start; i < end; i++)
+        {
+            float rotation = angleBetweenVectors.getAngle(directionX[i], directionY[i], forceX[i], forceY[i]);
+
+            float maxRotation = rotationRate[i] * elapsedTime;
+            float clampedRotation = rotation;
+
+            boolean rotationClamped = Math.abs(rotation) > maxRotation;
+            if (rotationClamped)
+            {
+                clampedRotation = MathHelper.clamp(rotation, -maxRotation, maxRotation);
+            }
+
+            if (metrics != null)
+            {
+                metrics.recordComponents(SteeringObjective.forCode(objective[i]), rotationClamped);
+            }
+
+            float thrust = 0;
+
+            if (Math.abs(rotation) < nonRotationWindowFraction ||
+                    Math.abs(rotation - Math.PI) < nonRotationWindowFraction)
+            {
+                float normalizedX = forceX[i];
+                float normalizedY = forceY[i];
+                float length = Vector2.len(normalizedX, normalizedY);
+                if (length != 0)
+                {
+                    normalizedX /= length;
+                    normalizedY /= length;
+                }
+
+                float parallel = directionX[i] * normalizedX + directionY[i] * normalizedY;
+                thrust = parallel * (parallel > 0 ? maximumThrust[i] : maximumReverseThrust[i]);
+                thrust *= elapsedTime;
+            }
+
+            rotationOutput[i] = clampedRotation;
+            thrustOutput[i] = thrust;
+        }
+    }
+
+    @Override
+    public void arriveAtImpl(SteeringBatch batch, int index, float distanceToTarget, float stoppingDistance,
+                             float elapsedTime)
+    {
+        float rampedSpeed = batch.getMaximumSpeed()[index] * distanceToTarget / stoppingDistance;
+
+        float normalizedX = batch.getForceX()[index];
+        float normalizedY = batch.getForceY()[index];
+        float length = Vector2.len(normalizedX, normalizedY);
+        if (length != 0)
+        {
+            normalizedX /= length;
+            normalizedY /= length;
+        }
+
+        float velocityDotForce = batch.getVelocityX()[index] * normalizedX + batch.getVelocityY()[index] * normalizedY;
+        if (velocityDotForce > rampedSpeed)
+        {
+            batch.getThrust()[index] = -0.01f;
+        }
+    }
 }
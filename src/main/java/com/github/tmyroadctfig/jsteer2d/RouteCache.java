@@ -0,0 +1,327 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+/**
+ * A cache of shared, read-only {@link Path paths} keyed by route id, so vehicles following the same route share a
+ * single copy of it and each only keeps a small {@link PathCursor}.
+ *
+ * <p>The cache is bounded by the estimated memory of its paths and evicts the least recently used routes once the
+ * bound is exceeded. Evicting a route doesn't affect vehicles already following it since paths are immutable; it is
+ * only loaded again on the next lookup.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ *
+ * @param <K> the type of the route ids.
+ */
+public class RouteCache<K>
+{
+    /**
+     * Loads a route on a cache miss.
+     *
+     * @param <K> the type of the route ids.
+     */
+    public interface Loader<K>
+    {
+        /**
+         * Loads a route.
+         *
+         * @param routeId the id of the route.
+         * @return the path of the route, or {@code null} if there is no such route.
+         */
+        Path load(K routeId);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Fields
+
+    /**
+     * The routes in least recently used order.
+     */
+    private final LinkedHashMap<K, Path> routes = new LinkedHashMap<K, Path>(16, 0.75f, true);
+
+    /**
+     * The routes being loaded, so concurrent lookups of a missing route wait for a single load.
+     */
+    private final Map<K, FutureTask<Path>> loading = new HashMap<K, FutureTask<Path>>();
+
+    /**
+     * The maximum estimated memory of the cached paths in bytes.
+     */
+    private final long maximumMemory;
+
+    /**
+     * The estimated memory of the cached paths in bytes.
+     */
+    private long memoryUsage;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Constructor
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maximumMemory the maximum estimated memory of the cached paths in bytes. The most recently added route is
+     *                      always kept even if it alone exceeds this.
+     */
+    public RouteCache(long maximumMemory)
+    {
+        if (maximumMemory < 0)
+        {
+            throw new IllegalArgumentException("Maximum memory must not be negative: " + maximumMemory);
+        }
+
+        this.maximumMemory = maximumMemory;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Methods
+
+    /**
+     * Gets a cached route.
+     *
+     * @param routeId the id of the route.
+     * @return the path, or {@code null} if the route isn't cached.
+     */
+    public synchronized Path get(K routeId)
+    {
+        Path path = routes.get(routeId);
+        if (path != null)
+        {
+            hits++;
+        }
+        else
+        {
+            misses++;
+        }
+
+        return path;
+    }
+
+    /**
+     * Gets a route, loading and caching it if it isn't cached.
+     *
+     * <p>The loader is called without holding the cache's lock, so other routes can be looked up meanwhile, and
+     * concurrent lookups of the same missing route wait for the one load. A load that was overtaken by
+     * {@link #put(Object, Path)}, {@link #remove(Object)} or {@link #clear()} is returned but not cached.</p>
+     *
+     * @param routeId the id of the route.
+     * @param loader the loader for missing routes.
+     * @return the path, or {@code null} if the route isn't cached and the loader has no such route.
+     */
+    public Path get(final K routeId, final Loader<K> loader)
+    {
+        FutureTask<Path> load;
+        boolean owner;
+
+        synchronized (this)
+        {
+            Path path = get(routeId);
+            if (path != null)
+            {
+                return path;
+            }
+
+            load = loading.get(routeId);
+            if (load != null)
+            {
+                // Another thread is loading the route, wait for it below
+                owner = false;
+            }
+            else
+            {
+                load = new FutureTask<Path>(new Callable<Path>()
+                {
+                    @Override
+                    public Path call()
+                    {
+                        return loader.load(routeId);
+                    }
+                });
+
+                loading.put(routeId, load);
+                owner = true;
+            }
+        }
+
+        if (owner)
+        {
+            load.run();
+            Path path = null;
+
+            try
+            {
+                path = FutureUtils.getUninterruptibly(load);
+            }
+            finally
+            {
+                synchronized (this)
+                {
+                    if (loading.get(routeId) == load)
+                    {
+                        loading.remove(routeId);
+
+                        if (path != null)
+                        {
+                            put(routeId, path);
+                        }
+                    }
+                }
+            }
+
+            return path;
+        }
+
+        return FutureUtils.getUninterruptibly(load);
+    }
+
+    /**
+     * Caches a route, replacing any existing path for it and evicting least recently used routes if needed.
+     *
+     * @param routeId the id of the route.
+     * @param path the path.
+     */
+    public synchronized void put(K routeId, Path path)
+    {
+        loading.remove(routeId);
+
+        Path previous = routes.put(routeId, path);
+        if (previous != null)
+        {
+            memoryUsage -= previous.getMemoryUsage();
+        }
+
+        memoryUsage += path.getMemoryUsage();
+
+        Iterator<Map.Entry<K, Path>> iterator = routes.entrySet().iterator();
+        while (memoryUsage > maximumMemory && routes.size() > 1)
+        {
+            Map.Entry<K, Path> eldest = iterator.next();
+            memoryUsage -= eldest.getValue().getMemoryUsage();
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Removes a route.
+     *
+     * @param routeId the id of the route.
+     * @return the removed path, or {@code null} if the route wasn't cached.
+     */
+    public synchronized Path remove(K routeId)
+    {
+        loading.remove(routeId);
+
+        Path path = routes.remove(routeId);
+        if (path != null)
+        {
+            memoryUsage -= path.getMemoryUsage();
+        }
+
+        return path;
+    }
+
+    /**
+     * Removes all the routes.
+     */
+    public synchronized void clear()
+    {
+        routes.clear();
+        loading.clear();
+        memoryUsage = 0;
+    }
+
+    /**
+     * Gets the number of cached routes.
+     *
+     * @return the number of routes.
+     */
+    public synchronized int size()
+    {
+        return routes.size();
+    }
+
+    /**
+     * Gets the estimated memory of the cached paths.
+     *
+     * @return the estimated size in bytes.
+     */
+    public synchronized long getMemoryUsage()
+    {
+        return memoryUsage;
+    }
+
+    /**
+     * Gets the maximum estimated memory of the cached paths.
+     *
+     * @return the maximum size in bytes.
+     */
+    public long getMaximumMemory()
+    {
+        return maximumMemory;
+    }
+
+    /**
+     * Gets the number of lookups that found a cached route.
+     *
+     * @return the number of hits.
+     */
+    public synchronized long getHitCount()
+    {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that didn't find a cached route.
+     *
+     * @return the number of misses.
+     */
+    public synchronized long getMissCount()
+    {
+        return misses;
+    }
+
+    /**
+     * Gets the number of routes evicted to stay within the maximum memory.
+     *
+     * @return the number of evictions.
+     */
+    public synchronized long getEvictionCount()
+    {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return "RouteCache[routes:" + routes.size() + " memory:" + memoryUsage + "/" + maximumMemory + " hits:" +
+                hits + " misses:" + misses + " evictions:" + evictions + "]";
+    }
+}
@@ -0,0 +1,475 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.LongMap;
+
+import java.util.Iterator;
+
+/**
+ * A potential collision detector that indexes obstacles in a uniform grid (a spatial hash). Only the cells swept by
+ * the vehicle's path are tested so the cost of a query depends on the local obstacle density rather than the total
+ * number of obstacles.
+ *
+ * <p>The detector is also an {@link Iterable} of its obstacles so it can be passed straight to
+ * {@link Steering#avoidObstacles(Iterable, float, float)}. Obstacles that move must be passed to
+ * {@link #update(Obstacle)} after moving. This class is not thread-safe, but queries don't modify it so several threads
+ * can query it at once, e.g. in a parallel {@link FleetSteering#tick}, as long as it isn't modified meanwhile.</p>
+ */
+public class SpatialGridCollisionDetector implements PotentialCollisionDetector, ObstacleBroadPhase
+{
+    ///////////////////////////////////////////////////////////////////////////
+    // Fields
+
+    /**
+     * The width and height of each cell.
+     */
+    protected final float cellSize;
+
+    /**
+     * The obstacles in each cell, keyed by {@link #getCellKey(int, int)}. Cells that become empty are retained so that
+     * obstacles moving back and forth don't cause allocation.
+     */
+    protected final LongMap<Array<GridEntry>> cells = new LongMap<Array<GridEntry>>();
+
+    /**
+     * The grid entry for each obstacle.
+     */
+    protected final IdentityMap<Obstacle, GridEntry> entries = new IdentityMap<Obstacle, GridEntry>();
+
+    /**
+     * The sink for instrumentation, or {@code null} if instrumentation is disabled.
+     */
+    protected SteeringMetrics metrics;
+
+    /**
+     * Incremented whenever an obstacle is added, updated or removed.
+     */
+    protected int modificationCount;
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Constructor
+
+    /**
+     * Creates a new instance.
+     *
+     * @param cellSize the width and height of each cell. A good starting point is a little larger than the typical
+     *                 distance a vehicle covers in the detection period.
+     */
+    public SpatialGridCollisionDetector(float cellSize)
+    {
+        if (cellSize <= 0)
+        {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        }
+
+        this.cellSize = cellSize;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Methods
+
+    /**
+     * Adds an obstacle to the grid.
+     *
+     * @param obstacle the obstacle to add.
+     */
+    public void add(Obstacle obstacle)
+    {
+        if (entries.containsKey(obstacle))
+        {
+            update(obstacle);
+            return;
+        }
+
+        GridEntry entry = new GridEntry(obstacle);
+        entry.capture();
+        entries.put(obstacle, entry);
+        insertIntoCells(entry);
+        modificationCount++;
+    }
+
+    /**
+     * Updates the cells of an obstacle after it has moved or changed size.
+     *
+     * @param obstacle the obstacle to update.
+     */
+    public void update(Obstacle obstacle)
+    {
+        GridEntry entry = entries.get(obstacle);
+        if (entry == null)
+        {
+            throw new IllegalArgumentException("Obstacle is not in the grid: " + obstacle);
+        }
+
+        int minColumn = entry.minColumn;
+        int minRow = entry.minRow;
+        int maxColumn = entry.maxColumn;
+        int maxRow = entry.maxRow;
+
+        entry.capture();
+        modificationCount++;
+
+        if (minColumn != entry.minColumn || minRow != entry.minRow ||
+            maxColumn != entry.maxColumn || maxRow != entry.maxRow)
+        {
+            removeFromCells(entry, minColumn, minRow, maxColumn, maxRow);
+            insertIntoCells(entry);
+        }
+    }
+
+    /**
+     * Removes an obstacle from the grid.
+     *
+     * @param obstacle the obstacle to remove.
+     * @return {@code true} if the obstacle was in the grid.
+     */
+    public boolean remove(Obstacle obstacle)
+    {
+        GridEntry entry = entries.remove(obstacle);
+        if (entry == null)
+        {
+            return false;
+        }
+
+        removeFromCells(entry, entry.minColumn, entry.minRow, entry.maxColumn, entry.maxRow);
+        modificationCount++;
+        return true;
+    }
+
+    /**
+     * Removes all obstacles from the grid.
+     */
+    public void clear()
+    {
+        entries.clear();
+        cells.clear();
+        modificationCount++;
+    }
+
+    /**
+     * Gets the number of obstacles in the grid.
+     *
+     * @return the number of obstacles.
+     */
+    public int size()
+    {
+        return entries.size;
+    }
+
+    /**
+     * Sets the sink to record each query with.
+     *
+     * @param metrics the metrics, or {@code null} to disable instrumentation.
+     */
+    public void setMetrics(SteeringMetrics metrics)
+    {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Gets an iterator over the obstacles. Each call returns a new iterator, unlike {@link IdentityMap#keys()}, so the
+     * grid can be iterated in nested loops and by several threads at once while it isn't modified.
+     *
+     * @return the iterator.
+     */
+    @Override
+    public Iterator<Obstacle> iterator()
+    {
+        return new IdentityMap.Keys<Obstacle>(entries);
+    }
+
+    @Override
+    public int findObstacles(float minX, float minY, float maxX, float maxY, Array<Obstacle> result)
+    {
+        int minColumn = getCell(minX);
+        int minRow = getCell(minY);
+        int maxColumn = getCell(maxX);
+        int maxRow = getCell(maxY);
+        int found = 0;
+
+        for (int row = minRow; row <= maxRow; row++)
+        {
+            for (int column = minColumn; column <= maxColumn; column++)
+            {
+                Array<GridEntry> cell = cells.get(getCellKey(column, row));
+                if (cell == null)
+                {
+                    continue;
+                }
+
+                for (int i = 0; i < cell.size; i++)
+                {
+                    GridEntry entry = cell.items[i];
+
+                    // An obstacle covering several cells is only reported from the first cell both ranges share
+                    if (column != Math.max(entry.minColumn, minColumn) || row != Math.max(entry.minRow, minRow))
+                    {
+                        continue;
+                    }
+
+                    if (CollisionUtils.circleOverlapsRectangle(entry.x, entry.y, entry.radius, minX, minY, maxX,
+                            maxY))
+                    {
+                        result.add(entry.obstacle);
+                        found++;
+                    }
+                }
+            }
+        }
+
+        return found;
+    }
+
+    @Override
+    public int getModificationCount()
+    {
+        return modificationCount;
+    }
+
+    /**
+     * Finds the nearest obstacle that will potentially collide with the vehicle.
+     *
+     * @param vehicle the vehicle that detection is being performed for.
+     * @param obstacles the possible obstacles. If this is {@code null} or this grid then the grid is queried,
+     *                  otherwise the given obstacles are tested directly.
+     * @param detectionPeriod the time window to perform detection in (in milliseconds). E.g. 500ms from current
+     *                        position.
+     * @return the nearest potential obstacle or null if no obstacles are in the vehicle's path.
+     */
+    @Override
+    public Obstacle findNearestPotentialCollision(Vehicle vehicle, Iterable<Obstacle> obstacles, float detectionPeriod)
+    {
+        if (obstacles != null && obstacles != this)
+        {
+            return CollisionUtils.findNearestObstacleInPath(vehicle, obstacles, detectionPeriod, metrics);
+        }
+
+        float startX = vehicle.getPositionX();
+        float startY = vehicle.getPositionY();
+        float deltaX = vehicle.getVelocityX() * detectionPeriod;
+        float deltaY = vehicle.getVelocityY() * detectionPeriod;
+        float vehicleRadius = vehicle.getRadius();
+
+        float endY = startY + deltaY;
+        int minRow = getCell(Math.min(startY, endY) - vehicleRadius);
+        int maxRow = getCell(Math.max(startY, endY) + vehicleRadius);
+
+        Obstacle nearest = null;
+        float nearestFraction = Float.POSITIVE_INFINITY;
+        int candidates = 0;
+
+        // The columns swept in the previous row, or an empty range if it wasn't swept
+        int previousMinColumn = Integer.MAX_VALUE;
+        int previousMaxColumn = Integer.MIN_VALUE;
+
+        for (int row = minRow; row <= maxRow; row++)
+        {
+            // Find the part of the path that passes through this row (inflated by the vehicle's radius)
+            float minX;
+            float maxX;
+
+            if (deltaY == 0)
+            {
+                minX = Math.min(startX, startX + deltaX);
+                maxX = Math.max(startX, startX + deltaX);
+            }
+            else
+            {
+                float t0 = (row * cellSize - vehicleRadius - startY) / deltaY;
+                float t1 = ((row + 1) * cellSize + vehicleRadius - startY) / deltaY;
+
+                float entry = Math.max(Math.min(t0, t1), 0);
+                float exit = Math.min(Math.max(t0, t1), 1);
+                if (entry > exit)
+                {
+                    previousMinColumn = Integer.MAX_VALUE;
+                    previousMaxColumn = Integer.MIN_VALUE;
+                    continue;
+                }
+
+                float entryX = startX + deltaX * entry;
+                float exitX = startX + deltaX * exit;
+                minX = Math.min(entryX, exitX);
+                maxX = Math.max(entryX, exitX);
+            }
+
+            int minColumn = getCell(minX - vehicleRadius);
+            int maxColumn = getCell(maxX + vehicleRadius);
+            for (int column = minColumn; column <= maxColumn; column++)
+            {
+                Array<GridEntry> cell = cells.get(getCellKey(column, row));
+                if (cell == null)
+                {
+                    continue;
+                }
+
+                for (int i = 0; i < cell.size; i++)
+                {
+                    GridEntry candidate = cell.items[i];
+
+                    // An obstacle covering several cells is only tested in the first swept cell it covers. The swept
+                    // columns shift steadily from row to row, so if the obstacle was in an earlier row it was also in
+                    // the columns swept in the previous row
+                    if (column > Math.max(candidate.minColumn, minColumn) || candidate.minRow < row &&
+                            candidate.minColumn <= previousMaxColumn && candidate.maxColumn >= previousMinColumn)
+                    {
+                        continue;
+                    }
+
+                    if (VehicleUtils.isSameVehicle(vehicle, candidate.obstacle))
+                    {
+                        continue;
+                    }
+
+                    candidates++;
+                    float fraction = CollisionUtils.findSegmentCircleIntersection(startX, startY, deltaX, deltaY,
+                            candidate.x, candidate.y, candidate.radius + vehicleRadius);
+
+                    if (fraction < nearestFraction)
+                    {
+                        nearest = candidate.obstacle;
+                        nearestFraction = fraction;
+                    }
+                }
+            }
+
+            previousMinColumn = minColumn;
+            previousMaxColumn = maxColumn;
+        }
+
+        if (metrics != null)
+        {
+            metrics.recordCollisionQuery(candidates, nearest != null);
+        }
+
+        return nearest;
+    }
+
+    /**
+     * Gets the cell index for a coordinate.
+     *
+     * @param coordinate the x or y coordinate.
+     * @return the column or row.
+     */
+    protected int getCell(float coordinate)
+    {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    /**
+     * Gets the key for a cell.
+     *
+     * @param column the column.
+     * @param row the row.
+     * @return the key.
+     */
+    protected static long getCellKey(int column, int row)
+    {
+        return ((long) column << 32) | (row & 0xffffffffL);
+    }
+
+    /**
+     * Inserts an entry into all the cells its bounds overlap.
+     *
+     * @param entry the entry to insert.
+     */
+    protected void insertIntoCells(GridEntry entry)
+    {
+        for (int row = entry.minRow; row <= entry.maxRow; row++)
+        {
+            for (int column = entry.minColumn; column <= entry.maxColumn; column++)
+            {
+                long key = getCellKey(column, row);
+                Array<GridEntry> cell = cells.get(key);
+                if (cell == null)
+                {
+                    cell = new Array<GridEntry>(false, 4, GridEntry.class);
+                    cells.put(key, cell);
+                }
+                cell.add(entry);
+            }
+        }
+    }
+
+    /**
+     * Removes an entry from the given cells.
+     *
+     * @param entry the entry to remove.
+     * @param minColumn the first column.
+     * @param minRow the first row.
+     * @param maxColumn the last column.
+     * @param maxRow the last row.
+     */
+    protected void removeFromCells(GridEntry entry, int minColumn, int minRow, int maxColumn, int maxRow)
+    {
+        for (int row = minRow; row <= maxRow; row++)
+        {
+            for (int column = minColumn; column <= maxColumn; column++)
+            {
+                Array<GridEntry> cell = cells.get(getCellKey(column, row));
+                if (cell != null)
+                {
+                    cell.removeValue(entry, true);
+                }
+            }
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Grid entry
+
+    /**
+     * An obstacle in the grid along with a copy of its position and the cells it covers.
+     */
+    protected class GridEntry
+    {
+        protected final Obstacle obstacle;
+
+        protected float x;
+        protected float y;
+        protected float radius;
+
+        protected int minColumn;
+        protected int minRow;
+        protected int maxColumn;
+        protected int maxRow;
+
+        protected GridEntry(Obstacle obstacle)
+        {
+            this.obstacle = obstacle;
+        }
+
+        /**
+         * Captures the obstacle's current position and radius and calculates the cells it covers.
+         */
+        protected void capture()
+        {
+            x = obstacle.getPositionX();
+            y = obstacle.getPositionY();
+            radius = obstacle.getRadius();
+
+            minColumn = getCell(x - radius);
+            minRow = getCell(y - radius);
+            maxColumn = getCell(x + radius);
+            maxRow = getCell(y + radius);
+        }
+    }
+}
@@ -21,6 +21,9 @@ import com.badlogic.gdx.math.Vector2;
 
 /**
  * Provides vehicle steering.
+ *
+ * <p>Instances are not thread-safe since they reuse scratch vectors between calls. Use one instance per vehicle and
+ * don't share it between threads; see {@link FleetSteering} for steering many vehicles in parallel.</p>
  */
 public class Steering
 {
@@ -64,6 +67,47 @@ public class Steering
      */
     protected float avoidanceFactor;
 
+    /**
+     * The close boids found for flocking, closest first. The length of the array is the maximum number of close boids
+     * considered.
+     */
+    protected BoidDistance[] closeBoids;
+
+    /**
+     * Scratch vector for the estimated position of the vehicle. Reused between calls to avoid allocation.
+     */
+    protected final Vector2 estimatedPosition = new Vector2();
+
+    /**
+     * Scratch vector for the estimated position of a target. Reused between calls to avoid allocation.
+     */
+    protected final Vector2 estimatedTargetPosition = new Vector2();
+
+    /**
+     * Scratch vector for the steering force. Reused between calls to avoid allocation.
+     */
+    protected final Vector2 steeringForce = new Vector2();
+
+    /**
+     * Scratch vector for intermediate calculations. Reused between calls to avoid allocation.
+     */
+    protected final Vector2 scratch = new Vector2();
+
+    /**
+     * The sink for instrumentation, or {@code null} if instrumentation is disabled.
+     */
+    protected SteeringMetrics metrics;
+
+    /**
+     * The blend returned from {@link #blend(float)}, created on first use.
+     */
+    protected SteeringBlend blend;
+
+    /**
+     * The reciprocal collision avoidance used by {@link #avoidNeighbours}, created on first use.
+     */
+    protected OrcaAvoidance orca;
+
     ///////////////////////////////////////////////////////////////////////////
     // Constructor
 
@@ -97,6 +141,8 @@ public class Steering
         maximumBoidDistance = 400;
         minimumBoidDistance = 50;
         boidCohesionDistance = 100;
+
+        closeBoids = new BoidDistance[5];
     }
 
     ///////////////////////////////////////////////////////////////////////////
@@ -112,6 +158,109 @@ public class Steering
         return vehicle;
     }
 
+    public float getMaximumBoidDistance()
+    {
+        return maximumBoidDistance;
+    }
+
+    public void setMaximumBoidDistance(float maximumBoidDistance)
+    {
+        this.maximumBoidDistance = maximumBoidDistance;
+    }
+
+    public float getMinimumBoidDistance()
+    {
+        return minimumBoidDistance;
+    }
+
+    public void setMinimumBoidDistance(float minimumBoidDistance)
+    {
+        this.minimumBoidDistance = minimumBoidDistance;
+    }
+
+    public float getBoidCohesionDistance()
+    {
+        return boidCohesionDistance;
+    }
+
+    public void setBoidCohesionDistance(float boidCohesionDistance)
+    {
+        this.boidCohesionDistance = boidCohesionDistance;
+    }
+
+    public float getAvoidanceFactor()
+    {
+        return avoidanceFactor;
+    }
+
+    public void setAvoidanceFactor(float avoidanceFactor)
+    {
+        this.avoidanceFactor = avoidanceFactor;
+    }
+
+    /**
+     * Gets the maximum number of close boids considered in flocking calculations.
+     *
+     * @return the maximum number of close boids.
+     */
+    public int getMaximumCloseBoids()
+    {
+        return closeBoids.length;
+    }
+
+    /**
+     * Sets the maximum number of close boids considered in flocking calculations.
+     *
+     * @param maximumCloseBoids the maximum number of close boids.
+     */
+    public void setMaximumCloseBoids(int maximumCloseBoids)
+    {
+        closeBoids = new BoidDistance[maximumCloseBoids];
+    }
+
+    /**
+     * Gets the sink for instrumentation.
+     *
+     * @return the metrics, or {@code null} if instrumentation is disabled.
+     */
+    public SteeringMetrics getMetrics()
+    {
+        return metrics;
+    }
+
+    /**
+     * Sets the sink for instrumentation. Each behaviour call is timed and recorded against the objective of its
+     * result.
+     *
+     * @param metrics the metrics, or {@code null} to disable instrumentation.
+     */
+    public void setMetrics(SteeringMetrics metrics)
+    {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Starts blending several behaviours into a single steering force, e.g.
+     * {@code steering.blend(elapsedTime).avoidObstacles(obstacles, 500, 1).priority().seek(target, 1)
+     * .separate(neighbours, 2).getComponents(result)}. The estimated position is calculated once and the force is
+     * only converted into steering components at the end.
+     *
+     * <p>The blend is owned by this instance and reused by every call, so only one blend can be in progress at a
+     * time.</p>
+     *
+     * @param elapsedTime the elapsed time.
+     * @return the blend.
+     */
+    public SteeringBlend blend(float elapsedTime)
+    {
+        if (blend == null)
+        {
+            blend = new SteeringBlend(this);
+        }
+
+        return blend.begin(elapsedTime);
+    }
+
     /**
      * Seeks to a target point.
      *
@@ -121,10 +270,25 @@ public class Steering
      */
     public SteeringComponents seek(Vector2 target, float elapsedTime)
     {
-        Vector2 estimatedPosition = vehicle.getPosition().cpy().add(vehicle.getVelocity().cpy().scl(elapsedTime));
-        Vector2 steeringForce = SteeringHelper.seek(estimatedPosition, target);
+        return seek(target, elapsedTime, new SteeringComponents());
+    }
 
-        return getComponents("Seek", steeringForce, elapsedTime);
+    /**
+     * Seeks to a target point.
+     *
+     * @param target the target to seek to.
+     * @param elapsedTime the elapsed time.
+     * @param result the steering components to write the result into.
+     * @return the result.
+     */
+    public SteeringComponents seek(Vector2 target, float elapsedTime, SteeringComponents result)
+    {
+        long start = startTiming();
+
+        SteeringHelper.estimatePosition(vehicle, elapsedTime, estimatedPosition);
+        SteeringHelper.seek(estimatedPosition, target, steeringForce);
+
+        return recordBehaviour(start, getComponents(SteeringObjective.SEEK, steeringForce, elapsedTime, result));
     }
 
     /**
@@ -136,11 +300,26 @@ public class Steering
      */
     public SteeringComponents pursue(Vehicle target, float elapsedTime)
     {
-        Vector2 estimatedPosition = vehicle.getPosition().cpy().add(vehicle.getVelocity().cpy().scl(elapsedTime));
-        Vector2 estimatedTargetPosition = target.getPosition().cpy().add(target.getVelocity().cpy().scl(elapsedTime));
-        Vector2 steeringForce = SteeringHelper.seek(estimatedPosition, estimatedTargetPosition);
+        return pursue(target, elapsedTime, new SteeringComponents());
+    }
 
-        return getComponents("Pursue", steeringForce, elapsedTime);
+    /**
+     * Pursues another vehicle.
+     *
+     * @param target the target to pursue.
+     * @param elapsedTime the elapsed time.
+     * @param result the steering components to write the result into.
+     * @return the result.
+     */
+    public SteeringComponents pursue(Vehicle target, float elapsedTime, SteeringComponents result)
+    {
+        long start = startTiming();
+
+        SteeringHelper.estimatePosition(vehicle, elapsedTime, estimatedPosition);
+        SteeringHelper.estimatePosition(target, elapsedTime, estimatedTargetPosition);
+        SteeringHelper.seek(estimatedPosition, estimatedTargetPosition, steeringForce);
+
+        return recordBehaviour(start, getComponents(SteeringObjective.PURSUE, steeringForce, elapsedTime, result));
     }
 
     /**
@@ -152,11 +331,27 @@ public class Steering
      */
     public SteeringComponents evade(Vehicle target, float elapsedTime)
     {
-        Vector2 estimatedPosition = vehicle.getPosition().cpy().add(vehicle.getVelocity().cpy().scl(elapsedTime));
-        Vector2 estimatedTargetPosition = vehicle.getPosition().cpy().add(target.getVelocity().cpy().scl(elapsedTime));
-        Vector2 steeringForce = SteeringHelper.flee(estimatedPosition, estimatedTargetPosition);
+        return evade(target, elapsedTime, new SteeringComponents());
+    }
+
+    /**
+     * Evades another vehicle.
+     *
+     * @param target the target to evade.
+     * @param elapsedTime the elapsed time.
+     * @param result the steering components to write the result into.
+     * @return the result.
+     */
+    public SteeringComponents evade(Vehicle target, float elapsedTime, SteeringComponents result)
+    {
+        long start = startTiming();
 
-        return getComponents("Evade", steeringForce, elapsedTime);
+        SteeringHelper.estimatePosition(vehicle, elapsedTime, estimatedPosition);
+        estimatedTargetPosition.set(target.getVelocityX(), target.getVelocityY()).scl(elapsedTime)
+                .add(vehicle.getPositionX(), vehicle.getPositionY());
+        SteeringHelper.flee(estimatedPosition, estimatedTargetPosition, steeringForce);
+
+        return recordBehaviour(start, getComponents(SteeringObjective.EVADE, steeringForce, elapsedTime, result));
     }
 
     /**
@@ -168,157 +363,488 @@ public class Steering
      * @return the steering components.
      */
     public SteeringComponents avoidObstacles(Iterable<Obstacle> obstacles, float detectionPeriod, float elapsedTime)
+    {
+        SteeringComponents result = new SteeringComponents();
+        avoidObstacles(obstacles, detectionPeriod, elapsedTime, result);
+
+        return result.isValid() ? result : SteeringComponents.NO_STEERING;
+    }
+
+    /**
+     * Steers to avoid the given obstacles.
+     *
+     * @param obstacles the obstacles to avoid.
+     * @param detectionPeriod The time window to perform detection in (in milliseconds). E.g. 500ms from current position.
+     * @param elapsedTime the elapsed time.
+     * @param result the steering components to write the result into. Set to no steering if there is no obstacle to
+     *               avoid.
+     * @return the result.
+     */
+    public SteeringComponents avoidObstacles(Iterable<Obstacle> obstacles, float detectionPeriod, float elapsedTime,
+                                             SteeringComponents result)
+    {
+        long start = startTiming();
+
+        if (findAvoidanceTarget(obstacles, detectionPeriod, steeringForce))
+        {
+            return recordBehaviour(start, getComponents(SteeringObjective.AVOID_OBSTACLE, steeringForce, elapsedTime,
+                    result));
+        }
+
+        return recordBehaviour(start, result.setNoSteering());
+    }
+
+    /**
+     * Finds the point to seek to in order to steer past the nearest obstacle in the vehicle's path.
+     *
+     * @param obstacles the obstacles to avoid.
+     * @param detectionPeriod the time window to perform detection in (in milliseconds).
+     * @param result the vector to write the point into.
+     * @return {@code true} if there is an obstacle to avoid.
+     */
+    protected boolean findAvoidanceTarget(Iterable<Obstacle> obstacles, float detectionPeriod, Vector2 result)
     {
         Obstacle nearestObstacle = potentialCollisionDetector
                 .findNearestPotentialCollision(vehicle, obstacles, detectionPeriod);
 
-        if (nearestObstacle != null)
+        if (nearestObstacle == null)
+        {
+            return false;
+        }
+
+        // Find the steering direction
+        float directionX = vehicle.getDirectionX();
+        float directionY = vehicle.getDirectionY();
+        float obstacleX = nearestObstacle.getPositionX();
+        float obstacleY = nearestObstacle.getPositionY();
+        Vector2 obstacleOffset = scratch.set(vehicle.getPositionX(), vehicle.getPositionY()).sub(obstacleX, obstacleY);
+        float parallel = obstacleOffset.dot(directionX, directionY);
+        Vector2 perpendicular = obstacleOffset.sub(directionX * parallel, directionY * parallel);
+
+        // Offset to be past the obstacle's edge
+        perpendicular.nor();
+        result.set(obstacleX, obstacleY)
+                .add(perpendicular.scl(nearestObstacle.getRadius() + (vehicle.getRadius() * avoidanceFactor)));
+        return true;
+    }
+
+    /**
+     * Steers to stay aligned and cohesive to the flock. The flock is scanned linearly, for large flocks use
+     * {@link #flock(BoidNeighbourSource, float, SteeringComponents)} with a shared {@link BoidNeighbourIndex}.
+     *
+     * @param flock the flock of vehicles to stay with.
+     * @param elapsedTime the elapsed time.
+     * @return the steering components.
+     */
+    public SteeringComponents flock(Iterable<? extends Vehicle> flock, float elapsedTime)
+    {
+        SteeringComponents result = new SteeringComponents();
+        flock(flock, elapsedTime, result);
+
+        return result.isValid() ? result : SteeringComponents.NO_STEERING;
+    }
+
+    /**
+     * Steers to stay aligned and cohesive to the flock.
+     *
+     * @param flock the flock of vehicles to stay with.
+     * @param elapsedTime the elapsed time.
+     * @param result the steering components to write the result into.
+     * @return the result.
+     */
+    public SteeringComponents flock(Iterable<? extends Vehicle> flock, float elapsedTime, SteeringComponents result)
+    {
+        long start = startTiming();
+
+        int count = findCloseBoids(flock, closeBoids);
+        return recordBehaviour(start, flockImpl(count, elapsedTime, result));
+    }
+
+    /**
+     * Steers to stay aligned and cohesive to the flock.
+     *
+     * @param neighbours the source of neighbouring boids, e.g. a {@link BoidNeighbourIndex} built for this tick.
+     * @param elapsedTime the elapsed time.
+     * @return the steering components.
+     */
+    public SteeringComponents flock(BoidNeighbourSource neighbours, float elapsedTime)
+    {
+        SteeringComponents result = new SteeringComponents();
+        flock(neighbours, elapsedTime, result);
+
+        return result.isValid() ? result : SteeringComponents.NO_STEERING;
+    }
+
+    /**
+     * Steers to stay aligned and cohesive to the flock.
+     *
+     * @param neighbours the source of neighbouring boids, e.g. a {@link BoidNeighbourIndex} built for this tick.
+     * @param elapsedTime the elapsed time.
+     * @param result the steering components to write the result into.
+     * @return the result.
+     */
+    public SteeringComponents flock(BoidNeighbourSource neighbours, float elapsedTime, SteeringComponents result)
+    {
+        long start = startTiming();
+
+        int count = neighbours.findCloseBoids(vehicle, maximumBoidDistance, closeBoids);
+        return recordBehaviour(start, flockImpl(count, elapsedTime, result));
+    }
+
+    /**
+     * Steers to separate from neighbours.
+     *
+     * @param neighbours the vehicles to separate from.
+     * @param elapsedTime the elapsed time.
+     * @return the steering components.
+     */
+    public SteeringComponents separate(Iterable<? extends Vehicle> neighbours, float elapsedTime)
+    {
+        SteeringComponents result = new SteeringComponents();
+        separate(neighbours, elapsedTime, result);
+
+        return result.isValid() ? result : SteeringComponents.NO_STEERING;
+    }
+
+    /**
+     * Steers to separate from neighbours.
+     *
+     * @param neighbours the vehicles to separate from.
+     * @param elapsedTime the elapsed time.
+     * @param result the steering components to write the result into.
+     * @return the result.
+     */
+    public SteeringComponents separate(Iterable<? extends Vehicle> neighbours, float elapsedTime,
+                                       SteeringComponents result)
+    {
+        long start = startTiming();
+
+        int count = findCloseBoids(neighbours, closeBoids);
+        return recordBehaviour(start, separateImpl(count, elapsedTime, result));
+    }
+
+    /**
+     * Steers to separate from neighbours.
+     *
+     * @param neighbours the source of neighbouring boids, e.g. a {@link BoidNeighbourIndex} built for this tick.
+     * @param elapsedTime the elapsed time.
+     * @param result the steering components to write the result into.
+     * @return the result.
+     */
+    public SteeringComponents separate(BoidNeighbourSource neighbours, float elapsedTime, SteeringComponents result)
+    {
+        long start = startTiming();
+
+        int count = neighbours.findCloseBoids(vehicle, maximumBoidDistance, closeBoids);
+        return recordBehaviour(start, separateImpl(count, elapsedTime, result));
+    }
+
+    /**
+     * Steers towards the velocity closest to a preferred velocity that avoids colliding with any neighbour within the
+     * time horizon, taking the neighbours' velocities into account. See {@link OrcaAvoidance}. The steering force is
+     * the change from the vehicle's velocity to the new velocity, so a slower velocity on the same heading brakes.
+     *
+     * <p>Up to {@link #getMaximumCloseBoids()} neighbours within the {@link #getMaximumBoidDistance() maximum boid
+     * distance} are considered, so the distance should be at least the distance vehicles can close within the time
+     * horizon.</p>
+     *
+     * @param neighbours the source of neighbouring vehicles, e.g. a {@link BoidNeighbourIndex} built for this tick.
+     * @param preferredVelocity the velocity the vehicle would take without any neighbours, e.g. towards its goal.
+     * @param timeHorizon the time ahead that collisions are avoided for (in milliseconds).
+     * @param elapsedTime the elapsed time.
+     * @return the steering components.
+     */
+    public SteeringComponents avoidNeighbours(BoidNeighbourSource neighbours, Vector2 preferredVelocity,
+                                              float timeHorizon, float elapsedTime)
+    {
+        return avoidNeighbours(neighbours, preferredVelocity, timeHorizon, elapsedTime, new SteeringComponents());
+    }
+
+    /**
+     * Steers towards the velocity closest to a preferred velocity that avoids colliding with any neighbour within the
+     * time horizon, taking the neighbours' velocities into account. See {@link OrcaAvoidance}. The steering force is
+     * the change from the vehicle's velocity to the new velocity, so a slower velocity on the same heading brakes.
+     *
+     * @param neighbours the source of neighbouring vehicles, e.g. a {@link BoidNeighbourIndex} built for this tick.
+     * @param preferredVelocity the velocity the vehicle would take without any neighbours, e.g. towards its goal.
+     * @param timeHorizon the time ahead that collisions are avoided for (in milliseconds).
+     * @param elapsedTime the elapsed time.
+     * @param result the steering components to write the result into.
+     * @return the result.
+     */
+    public SteeringComponents avoidNeighbours(BoidNeighbourSource neighbours, Vector2 preferredVelocity,
+                                              float timeHorizon, float elapsedTime, SteeringComponents result)
+    {
+        long start = startTiming();
+
+        int count = neighbours.findCloseBoids(vehicle, maximumBoidDistance, closeBoids);
+        getOrcaAvoidance().findVelocity(vehicle, closeBoids, count, preferredVelocity, timeHorizon, elapsedTime,
+                steeringForce);
+
+        // Steer with the change in velocity so that slowing down along the same heading brakes rather than being
+        // normalised into full forward thrust
+        steeringForce.sub(vehicle.getVelocityX(), vehicle.getVelocityY());
+
+        return recordBehaviour(start, getComponents(SteeringObjective.AVOID_NEIGHBOURS, steeringForce, elapsedTime,
+                result));
+    }
+
+    /**
+     * Gets the reciprocal collision avoidance used by {@link #avoidNeighbours}, e.g. to change its responsibility.
+     *
+     * @return the collision avoidance.
+     */
+    public OrcaAvoidance getOrcaAvoidance()
+    {
+        if (orca == null)
         {
-            // Find the steering direction
-            Vector2 obstacleOffset = vehicle.getPosition().cpy().sub(nearestObstacle.getPosition());
-            Vector2 parallel = vehicle.getDirection().cpy().scl(obstacleOffset.dot(vehicle.getDirection()));
-            Vector2 perpendicular = obstacleOffset.sub(parallel);
+            orca = new OrcaAvoidance();
+        }
 
-            // Offset to be past the obstacle's edge
-            perpendicular.nor();
-            Vector2 seekTo = nearestObstacle.getPosition().cpy().add(perpendicular.scl(nearestObstacle.getRadius() + (vehicle.getRadius() * avoidanceFactor)));
+        return orca;
+    }
 
-            return getComponents("Avoid obstacle", seekTo, elapsedTime);
+    /**
+     * Finds close boids for flocking by scanning the flock. Any boids further than the maximum boid distance will be
+     * filtered.
+     *
+     * @param flock the flock to find close boids in.
+     * @param closeBoids the array to fill with the close boids, closest first. At most {@code closeBoids.length}
+     *                   boids are found.
+     * @return the number of close boids found.
+     */
+    public int findCloseBoids(Iterable<? extends Vehicle> flock, BoidDistance[] closeBoids)
+    {
+        float maximumBoidDistanceSquared = maximumBoidDistance * maximumBoidDistance;
+        float positionX = vehicle.getPositionX();
+        float positionY = vehicle.getPositionY();
+        int count = 0;
+
+        for (Vehicle boid : flock)
+        {
+            if (VehicleUtils.isSameVehicle(vehicle, boid))
+            {
+                continue;
+            }
+
+            float distanceSquared = Vector2.dst2(positionX, positionY, boid.getPositionX(), boid.getPositionY());
+            if (distanceSquared < maximumBoidDistanceSquared)
+            {
+                count = BoidDistance.offer(closeBoids, count, boid, distanceSquared);
+            }
         }
 
-        return SteeringComponents.NO_STEERING;
-    }
-
-//    /// <summary>
-//    /// Steers to stay aligned and cohesive to the flock.
-//    /// </summary>
-//    /// <param name="flock">The flock of vehicles to stay with.</param>
-//    /// <param name="elapsedTime">The elapsed time.</param>
-//    /// <returns>The steering force.</returns>
-//    public SteeringComponents flock(Iterable<Vehicle> flock, float elapsedTime)
-//    {
-//        var closeBoids = FindCloseBoids(flock);
-//
-//        if (!closeBoids.Any())
-//        {
-//            // Found no other boids!
-//            return SteeringComponents.NoSteering;
-//        }
-//
-//        if (closeBoids.First().DistanceSquared < MinimumBoidDistance)
-//        {
-//            // Steer to separate
-//            return SeparationImpl(closeBoids, elapsedTime);
-//        }
-//        else if (closeBoids.First().DistanceSquared > BoidCohesionDistance)
-//        {
-//            // Steer for cohension
-//            return CohesionImpl(closeBoids, elapsedTime);
-//        }
-//        else
-//        {
-//            // Steer for alignment
-//            return AlignmentImpl(closeBoids, elapsedTime);
-//        }
-//    }
-//
-//    /// <summary>
-//    /// Steers to separate from neighbours.
-//    /// </summary>
-//    /// <param name="neighbours">The vehicles to separate from.</param>
-//    /// <param name="elapsedTime">The elapsed time.</param>
-//    /// <returns>The steering force.</returns>
-//    public SteeringComponents separate(Iterable<Vehicle> neighbours, float elapsedTime)
-//    {
-//        var closeBoids = FindCloseBoids(neighbours);
-//
-//        if (closeBoids.Any() && closeBoids.First().DistanceSquared < MinimumBoidDistance)
-//        {
-//            // Steer to separate
-//            return SeparationImpl(closeBoids, elapsedTime);
-//        }
-//
-//        return SteeringComponents.NO_STEERING;
-//    }
-//
-//    /// <summary>
-//    /// Separates from nearby neighbours.
-//    /// </summary>
-//    /// <param name="closeBoids">The close boids.</param>
-//    /// <param name="elapsedTime">The elapsed time.</param>
-//    /// <returns>The steering force.</returns>
-//    protected SteeringComponents separationImpl(Iterable<BoidDistance> closeBoids, float elapsedTime)
-//    {
-//        Vector2 direction = closeBoids.Aggregate(Vector2.Zero, (p, b) => p + b.Boid.Position);
-//        direction /= closeBoids.Count();
-//        direction.Normalize();
-//
-//        return getComponents("Flocking: separation", direction, elapsedTime);
-//    }
-//
-//    /// <summary>
-//    /// Steers for cohesion.
-//    /// </summary>
-//    /// <param name="closeBoids">The close boids.</param>
-//    /// <param name="elapsedTime">The elapsed time.</param>
-//    /// <returns>The steering force.</returns>
-//    protected SteeringComponents cohesionImpl(Iterable<BoidDistance> closeBoids, float elapsedTime)
-//    {
-//        Vector2 direction = closeBoids.Aggregate(Vector2.Zero, (p, b) => p + b.Boid.Position);
-//
-//        direction /= closeBoids.Count();
-//        direction -= vehicle.Position;
-//        direction.Normalize();
-//
-//        return getComponents("Flocking: cohesion", direction, elapsedTime);
-//    }
-//
-//    /// <summary>
-//    /// Steers for alignment.
-//    /// </summary>
-//    /// <param name="closeBoids">The close boids.</param>
-//    /// <param name="elapsedTime">The elapsed time.</param>
-//    /// <returns>The steering force.</returns>
-//    protected SteeringComponents alignmentImpl(Iterable<BoidDistance> closeBoids, float elapsedTime)
-//    {
-//        Vector2 direction = closeBoids.Aggregate(Vector2.Zero, (p, b) => p + b.Boid.Direction);
-//
-//        direction /= closeBoids.Count();
-//        direction -= vehicle.Direction;
-//        direction.Normalize();
-//
-//        return getComponents("Flocking: alignment", direction, elapsedTime);
-//    }
-//
-//    /// <summary>
-//    /// Finds close boids for flocking. Any boids further than "MaximumBoidDistance" will be filtered.
-//    /// </summary>
-//    /// <param name="flock">The flock to find close boids in.</param>
-//    /// <returns>The close boids ordered by closest boid first.</returns>
-//    public IEnumerable<BoidDistance> findCloseBoids(IEnumerable<IVehicle> flock)
-//    {
-//        // Filter out any boids that are too distance
-//        var maxBoidDistanceSquared = MaximumBoidDistance * MaximumBoidDistance;
-//
-//        var closeBoids = flock
-//                .Where(b => !vehicle.Equals(b))
-//        .Select(b => new BoidDistance
-//        {
-//            Boid = b,
-//                    DistanceSquared = (b.Position - vehicle.Position).LengthSquared()
-//        });
-//
-//        closeBoids = closeBoids
-//                .OrderBy(bd => bd.DistanceSquared);
-//
-//        closeBoids = closeBoids
-//                .Where(bd => bd.DistanceSquared < MaximumBoidDistance);
-//
-//        closeBoids = closeBoids
-//                .Take(5);
-//
-//        return closeBoids;
-//    }
+        BoidDistance.sortHeap(closeBoids, count);
+        return count;
+    }
+
+    /**
+     * Steers to separate, cohere or align with the close boids depending on how close the nearest one is.
+     *
+     * @param count the number of close boids in {@link #closeBoids}.
+     * @param elapsedTime the elapsed time.
+     * @param result the steering components to write the result into.
+     * @return the result.
+     */
+    protected SteeringComponents flockImpl(int count, float elapsedTime, SteeringComponents result)
+    {
+        SteeringObjective objective = flockForce(count, steeringForce);
+
+        if (objective == SteeringObjective.NO_STEERING)
+        {
+            return result.setNoSteering();
+        }
+
+        return getComponents(objective, steeringForce, elapsedTime, result);
+    }
+
+    /**
+     * Finds the force to separate, cohere or align with the close boids depending on how close the nearest one is.
+     *
+     * @param count the number of close boids in {@link #closeBoids}.
+     * @param result the vector to write the force into.
+     * @return the objective of the force, or {@link SteeringObjective#NO_STEERING} if there are no close boids.
+     */
+    protected SteeringObjective flockForce(int count, Vector2 result)
+    {
+        if (count == 0)
+        {
+            // Found no other boids!
+            return SteeringObjective.NO_STEERING;
+        }
+
+        float closestDistanceSquared = closeBoids[0].getDistanceSquared();
+
+        if (closestDistanceSquared < minimumBoidDistance * minimumBoidDistance)
+        {
+            // Steer to separate
+            separationForce(closeBoids, count, result);
+            return SteeringObjective.FLOCKING_SEPARATION;
+        }
+        else if (closestDistanceSquared > boidCohesionDistance * boidCohesionDistance)
+        {
+            // Steer for cohesion
+            cohesionForce(closeBoids, count, result);
+            return SteeringObjective.FLOCKING_COHESION;
+        }
+        else
+        {
+            // Steer for alignment
+            alignmentForce(closeBoids, count, result);
+            return SteeringObjective.FLOCKING_ALIGNMENT;
+        }
+    }
+
+    /**
+     * Steers to separate if the nearest close boid is within the minimum boid distance.
+     *
+     * @param count the number of close boids in {@link #closeBoids}.
+     * @param elapsedTime the elapsed time.
+     * @param result the steering components to write the result into.
+     * @return the result.
+     */
+    protected SteeringComponents separateImpl(int count, float elapsedTime, SteeringComponents result)
+    {
+        if (isTooClose(count))
+        {
+            // Steer to separate
+            return separationImpl(closeBoids, count, elapsedTime, result);
+        }
+
+        return result.setNoSteering();
+    }
+
+    /**
+     * Checks whether the nearest close boid is within the minimum boid distance.
+     *
+     * @param count the number of close boids in {@link #closeBoids}.
+     * @return {@code true} if the vehicle should separate.
+     */
+    protected boolean isTooClose(int count)
+    {
+        return count > 0 && closeBoids[0].getDistanceSquared() < minimumBoidDistance * minimumBoidDistance;
+    }
+
+    /**
+     * Separates from nearby neighbours.
+     *
+     * @param closeBoids the close boids.
+     * @param count the number of close boids.
+     * @param elapsedTime the elapsed time.
+     * @param result the steering components to write the result into.
+     * @return the result.
+     */
+    protected SteeringComponents separationImpl(BoidDistance[] closeBoids, int count, float elapsedTime,
+                                                SteeringComponents result)
+    {
+        return getComponents(SteeringObjective.FLOCKING_SEPARATION, separationForce(closeBoids, count, steeringForce),
+                elapsedTime, result);
+    }
+
+    /**
+     * Finds the unit force to separate from nearby neighbours, pointing from the centre of the close boids to this
+     * vehicle. The C# version used the centre's absolute position as the force, which steered towards it.
+     *
+     * @param closeBoids the close boids.
+     * @param count the number of close boids.
+     * @param result the vector to write the force into.
+     * @return the result.
+     */
+    protected Vector2 separationForce(BoidDistance[] closeBoids, int count, Vector2 result)
+    {
+        Vector2 direction = averagePosition(closeBoids, count, result);
+        direction.scl(-1).add(vehicle.getPositionX(), vehicle.getPositionY());
+        return direction.nor();
+    }
+
+    /**
+     * Steers for cohesion.
+     *
+     * @param closeBoids the close boids.
+     * @param count the number of close boids.
+     * @param elapsedTime the elapsed time.
+     * @param result the steering components to write the result into.
+     * @return the result.
+     */
+    protected SteeringComponents cohesionImpl(BoidDistance[] closeBoids, int count, float elapsedTime,
+                                              SteeringComponents result)
+    {
+        return getComponents(SteeringObjective.FLOCKING_COHESION, cohesionForce(closeBoids, count, steeringForce),
+                elapsedTime, result);
+    }
+
+    /**
+     * Finds the unit force for cohesion.
+     *
+     * @param closeBoids the close boids.
+     * @param count the number of close boids.
+     * @param result the vector to write the force into.
+     * @return the result.
+     */
+    protected Vector2 cohesionForce(BoidDistance[] closeBoids, int count, Vector2 result)
+    {
+        Vector2 direction = averagePosition(closeBoids, count, result);
+        direction.sub(vehicle.getPositionX(), vehicle.getPositionY());
+        return direction.nor();
+    }
+
+    /**
+     * Steers for alignment.
+     *
+     * @param closeBoids the close boids.
+     * @param count the number of close boids.
+     * @param elapsedTime the elapsed time.
+     * @param result the steering components to write the result into.
+     * @return the result.
+     */
+    protected SteeringComponents alignmentImpl(BoidDistance[] closeBoids, int count, float elapsedTime,
+                                               SteeringComponents result)
+    {
+        return getComponents(SteeringObjective.FLOCKING_ALIGNMENT, alignmentForce(closeBoids, count, steeringForce),
+                elapsedTime, result);
+    }
+
+    /**
+     * Finds the unit force for alignment.
+     *
+     * @param closeBoids the close boids.
+     * @param count the number of close boids.
+     * @param result the vector to write the force into.
+     * @return the result.
+     */
+    protected Vector2 alignmentForce(BoidDistance[] closeBoids, int count, Vector2 result)
+    {
+        Vector2 direction = result.setZero();
+        for (int i = 0; i < count; i++)
+        {
+            Vehicle boid = closeBoids[i].getBoid();
+            direction.add(boid.getDirectionX(), boid.getDirectionY());
+        }
+
+        direction.scl(1f / count);
+        direction.sub(vehicle.getDirectionX(), vehicle.getDirectionY());
+        return direction.nor();
+    }
+
+    /**
+     * Gets the average position of the close boids.
+     *
+     * @param closeBoids the close boids.
+     * @param count the number of close boids.
+     * @param result the vector to write the average position into.
+     * @return the result.
+     */
+    protected static Vector2 averagePosition(BoidDistance[] closeBoids, int count, Vector2 result)
+    {
+        result.setZero();
+        for (int i = 0; i < count; i++)
+        {
+            Vehicle boid = closeBoids[i].getBoid();
+            result.add(boid.getPositionX(), boid.getPositionY());
+        }
+
+        return result.scl(1f / count);
+    }
 
     /**
      * Arrives at a target point, stopping on arrival.
@@ -329,32 +855,170 @@ public class Steering
      */
     public SteeringComponents arriveAt(Vector2 target, float elapsedTime)
     {
-        Vector2 estimatedPosition = vehicle.getPosition().cpy().add(vehicle.getVelocity().cpy().scl(elapsedTime));
-        float distanceToTarget = target.cpy().sub(estimatedPosition).len();
+        return arriveAt(target, elapsedTime, new SteeringComponents());
+    }
+
+    /**
+     * Arrives at a target point, stopping on arrival.
+     *
+     * @param target the target to arrive at.
+     * @param elapsedTime the elapsed time.
+     * @param result the steering components to write the result into.
+     * @return the result.
+     */
+    public SteeringComponents arriveAt(Vector2 target, float elapsedTime, SteeringComponents result)
+    {
+        long start = startTiming();
+
+        SteeringHelper.estimatePosition(vehicle, elapsedTime, estimatedPosition);
+        float distanceToTarget = estimatedPosition.dst(target);
         float stoppingDistance = VehicleUtils.getStoppingDistance(vehicle);
 
+        SteeringHelper.seek(estimatedPosition, target, steeringForce);
+
         if (distanceToTarget > stoppingDistance)
         {
-            Vector2 steeringForce = SteeringHelper.seek(estimatedPosition, target);
-            return getComponents("Arrive at: seek", steeringForce, elapsedTime);
+            return recordBehaviour(start, getComponents(SteeringObjective.ARRIVE_AT_SEEK, steeringForce, elapsedTime,
+                    result));
         }
         else
         {
-            return getSteeringComponents.arriveAtImpl(vehicle, distanceToTarget, stoppingDistance,
-                    SteeringHelper.seek(estimatedPosition, target), elapsedTime);
+            return recordBehaviour(start, getSteeringComponents.arriveAtImpl(vehicle, distanceToTarget,
+                    stoppingDistance, steeringForce, elapsedTime, result));
+        }
+    }
+
+    /**
+     * Follows a path by seeking a point a distance ahead of the vehicle's estimated position along the path.
+     *
+     * @param cursor the vehicle's progress along the path, updated with the vehicle's estimated position.
+     * @param lookAhead the distance ahead along the path to seek to.
+     * @param elapsedTime the elapsed time.
+     * @return the steering components.
+     */
+    public SteeringComponents followPath(PathCursor cursor, float lookAhead, float elapsedTime)
+    {
+        return followPath(cursor, lookAhead, elapsedTime, new SteeringComponents());
+    }
+
+    /**
+     * Follows a path by seeking a point a distance ahead of the vehicle's estimated position along the path.
+     *
+     * @param cursor the vehicle's progress along the path, updated with the vehicle's estimated position.
+     * @param lookAhead the distance ahead along the path to seek to.
+     * @param elapsedTime the elapsed time.
+     * @param result the steering components to write the result into.
+     * @return the result.
+     */
+    public SteeringComponents followPath(PathCursor cursor, float lookAhead, float elapsedTime,
+                                         SteeringComponents result)
+    {
+        long start = startTiming();
+
+        SteeringHelper.estimatePosition(vehicle, elapsedTime, estimatedPosition);
+        cursor.update(estimatedPosition);
+        cursor.getPointAhead(lookAhead, estimatedTargetPosition);
+        SteeringHelper.seek(estimatedPosition, estimatedTargetPosition, steeringForce);
+
+        return recordBehaviour(start, getComponents(SteeringObjective.FOLLOW_PATH, steeringForce, elapsedTime,
+                result));
+    }
+
+    /**
+     * Follows a flow field towards its goal. Once the goal is within the vehicle's stopping distance, or the field
+     * has no direction for the vehicle's estimated position (e.g. it is in the goal's cell or outside the grid), this
+     * arrives at the goal directly instead.
+     *
+     * @param field the flow field, e.g. from a {@link FlowFieldCache}.
+     * @param elapsedTime the elapsed time.
+     * @return the steering components.
+     */
+    public SteeringComponents followFlowField(FlowField field, float elapsedTime)
+    {
+        return followFlowField(field, elapsedTime, new SteeringComponents());
+    }
+
+    /**
+     * Follows a flow field towards its goal. Once the goal is within the vehicle's stopping distance, or the field
+     * has no direction for the vehicle's estimated position (e.g. it is in the goal's cell or outside the grid), this
+     * arrives at the goal directly instead.
+     *
+     * @param field the flow field, e.g. from a {@link FlowFieldCache}.
+     * @param elapsedTime the elapsed time.
+     * @param result the steering components to write the result into.
+     * @return the result.
+     */
+    public SteeringComponents followFlowField(FlowField field, float elapsedTime, SteeringComponents result)
+    {
+        long start = startTiming();
+
+        SteeringHelper.estimatePosition(vehicle, elapsedTime, estimatedPosition);
+        float distanceToGoal = field.getDistance(estimatedPosition.x, estimatedPosition.y);
+
+        if (distanceToGoal > VehicleUtils.getStoppingDistance(vehicle) &&
+                field.getDirection(estimatedPosition.x, estimatedPosition.y, steeringForce))
+        {
+            return recordBehaviour(start, getComponents(SteeringObjective.FOLLOW_FLOW_FIELD, steeringForce,
+                    elapsedTime, result));
         }
+
+        estimatedTargetPosition.set(field.getGoalX(), field.getGoalY());
+        return arriveAt(estimatedTargetPosition, elapsedTime, result);
     }
 
     /**
      * Gets the steering components for the steering force and vehicle.
      *
-     * @param steeringObjective a string describing the steering force.
+     * @param steeringObjective the objective of the steering force.
      * @param steeringForce the steering force.
      * @param elapsedTime the elapsed time.
      * @return the steering components.
      */
-    protected SteeringComponents getComponents(String steeringObjective, Vector2 steeringForce, float elapsedTime)
+    protected SteeringComponents getComponents(SteeringObjective steeringObjective, Vector2 steeringForce,
+                                               float elapsedTime)
     {
         return getSteeringComponents.getComponents(vehicle, steeringObjective, steeringForce, elapsedTime);
     }
+
+    /**
+     * Gets the steering components for the steering force and vehicle.
+     *
+     * @param steeringObjective the objective of the steering force.
+     * @param steeringForce the steering force.
+     * @param elapsedTime the elapsed time.
+     * @param result the steering components to write the result into.
+     * @return the result.
+     */
+    protected SteeringComponents getComponents(SteeringObjective steeringObjective, Vector2 steeringForce,
+                                               float elapsedTime, SteeringComponents result)
+    {
+        return getSteeringComponents.getComponents(vehicle, steeringObjective, steeringForce, elapsedTime, result);
+    }
+
+    /**
+     * Starts timing a behaviour call.
+     *
+     * @return the start time in nanoseconds, or 0 if instrumentation is disabled.
+     */
+    protected long startTiming()
+    {
+        return metrics != null ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records a behaviour call with the metrics, if instrumentation is enabled.
+     *
+     * @param start the start time from {@link #startTiming()}.
+     * @param result the result of the behaviour.
+     * @return the result.
+     */
+    protected SteeringComponents recordBehaviour(long start, SteeringComponents result)
+    {
+        if (metrics != null)
+        {
+            metrics.recordBehaviour(result.getSteeringObjective(), System.nanoTime() - start);
+        }
+
+        return result;
+    }
 }
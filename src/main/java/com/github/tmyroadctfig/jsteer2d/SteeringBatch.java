@@ -0,0 +1,606 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.math.Vector2;
+
+import java.util.Arrays;
+
+/**
+ * Provides steering for a whole fleet of vehicles at once. The vehicle state is held in primitive columns (a
+ * struct-of-arrays layout) so each behaviour is a tight loop over contiguous memory instead of a call through the
+ * {@link Vehicle} interface per vehicle.
+ *
+ * <p>Use {@link #set(int, Vehicle)} or the column accessors to load the vehicle state, call a behaviour and then read
+ * the results from {@link #getRotation()} and {@link #getThrust()}. {@link #getVehicle(int)} gives a {@link Vehicle}
+ * view over a single row so the per-vehicle {@link Steering} API can operate on the same data.</p>
+ */
+public class SteeringBatch
+{
+    ///////////////////////////////////////////////////////////////////////////
+    // Fields
+
+    /**
+     * The utility for getting the steering components.
+     */
+    protected GetBatchSteeringComponents getSteeringComponents;
+
+    /**
+     * The number of vehicles in the batch.
+     */
+    protected int size;
+
+    protected float[] positionX;
+    protected float[] positionY;
+    protected float[] velocityX;
+    protected float[] velocityY;
+    protected float[] directionX;
+    protected float[] directionY;
+    protected float[] radius;
+    protected float[] maximumThrust;
+    protected float[] maximumReverseThrust;
+    protected float[] rotationRate;
+
+    /**
+     * The maximum speed of each vehicle, {@link Float#POSITIVE_INFINITY} for no maximum.
+     */
+    protected float[] maximumSpeed;
+
+    /**
+     * The steering force calculated by the last behaviour.
+     */
+    protected float[] forceX;
+    protected float[] forceY;
+
+    /**
+     * The code of the objective of the last behaviour, see {@link SteeringObjective#forCode(int)}.
+     */
+    protected byte[] objective;
+
+    /**
+     * The rotation output (in radians).
+     */
+    protected float[] rotation;
+
+    /**
+     * The thrust output.
+     */
+    protected float[] thrust;
+
+    /**
+     * Scratch vector for intermediate calculations. Reused between calls to avoid allocation.
+     */
+    protected final Vector2 scratch = new Vector2();
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Constructor
+
+    /**
+     * Creates a new instance.
+     *
+     * @param capacity the initial capacity.
+     * @param getSteeringComponents the utility for getting the steering components.
+     */
+    public SteeringBatch(int capacity, GetBatchSteeringComponents getSteeringComponents)
+    {
+        this.getSteeringComponents = getSteeringComponents;
+
+        positionX = new float[capacity];
+        positionY = new float[capacity];
+        velocityX = new float[capacity];
+        velocityY = new float[capacity];
+        directionX = new float[capacity];
+        directionY = new float[capacity];
+        radius = new float[capacity];
+        maximumThrust = new float[capacity];
+        maximumReverseThrust = new float[capacity];
+        rotationRate = new float[capacity];
+        maximumSpeed = new float[capacity];
+        forceX = new float[capacity];
+        forceY = new float[capacity];
+        objective = new byte[capacity];
+        rotation = new float[capacity];
+        thrust = new float[capacity];
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Methods
+
+    /**
+     * Gets the number of vehicles in the batch.
+     *
+     * @return the size.
+     */
+    public int getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Sets the number of vehicles in the batch, growing the columns if required.
+     *
+     * @param size the new size.
+     */
+    public void setSize(int size)
+    {
+        ensureCapacity(size);
+        this.size = size;
+    }
+
+    /**
+     * Removes all vehicles from the batch. The columns are retained for reuse.
+     */
+    public void clear()
+    {
+        size = 0;
+    }
+
+    /**
+     * Adds a vehicle to the end of the batch, copying its current state.
+     *
+     * @param vehicle the vehicle to add.
+     * @return the index of the vehicle in the batch.
+     */
+    public int add(Vehicle vehicle)
+    {
+        int index = size;
+        setSize(size + 1);
+        set(index, vehicle);
+        return index;
+    }
+
+    /**
+     * Copies the current state of a vehicle into the batch.
+     *
+     * @param index the index to copy into.
+     * @param vehicle the vehicle to copy.
+     */
+    public void set(int index, Vehicle vehicle)
+    {
+        positionX[index] = vehicle.getPositionX();
+        positionY[index] = vehicle.getPositionY();
+        velocityX[index] = vehicle.getVelocityX();
+        velocityY[index] = vehicle.getVelocityY();
+        directionX[index] = vehicle.getDirectionX();
+        directionY[index] = vehicle.getDirectionY();
+        radius[index] = vehicle.getRadius();
+        maximumThrust[index] = vehicle.getMaximumThrust();
+        maximumReverseThrust[index] = vehicle.getMaximumReverseThrust();
+        rotationRate[index] = vehicle.getRotationRate();
+        maximumSpeed[index] = vehicle.getSpeedLimit();
+    }
+
+    /**
+     * Gets a view of a single vehicle in the batch. The view reads straight from the batch columns, so it can be
+     * handed to a {@link Steering} instance and will always see the current state of the batch.
+     *
+     * @param index the index of the vehicle.
+     * @return the view.
+     */
+    public Vehicle getVehicle(int index)
+    {
+        return new BatchVehicle(index);
+    }
+
+    /**
+     * Seeks each vehicle to a target point.
+     *
+     * @param targetX the x position of each vehicle's target.
+     * @param targetY the y position of each vehicle's target.
+     * @param elapsedTime the elapsed time.
+     */
+    public void seek(float[] targetX, float[] targetY, float elapsedTime)
+    {
+        seekForces(targetX, targetY, elapsedTime);
+        Arrays.fill(objective, 0, size, SteeringObjective.SEEK.getByteCode());
+
+        getSteeringComponents.getComponents(this, 0, size, elapsedTime);
+    }
+
+    /**
+     * Pursues another vehicle in the batch.
+     *
+     * @param targetIndex the index of each vehicle's target in this batch.
+     * @param elapsedTime the elapsed time.
+     */
+    public void pursue(int[] targetIndex, float elapsedTime)
+    {
+        for (int i = 0; i < size; i++)
+        {
+            int target = targetIndex[i];
+            forceX[i] = (velocityX[target] * elapsedTime + positionX[target]) -
+                    (velocityX[i] * elapsedTime + positionX[i]);
+            forceY[i] = (velocityY[target] * elapsedTime + positionY[target]) -
+                    (velocityY[i] * elapsedTime + positionY[i]);
+        }
+
+        Arrays.fill(objective, 0, size, SteeringObjective.PURSUE.getByteCode());
+        getSteeringComponents.getComponents(this, 0, size, elapsedTime);
+    }
+
+    /**
+     * Evades another vehicle in the batch.
+     *
+     * @param targetIndex the index of each vehicle's target in this batch.
+     * @param elapsedTime the elapsed time.
+     */
+    public void evade(int[] targetIndex, float elapsedTime)
+    {
+        for (int i = 0; i < size; i++)
+        {
+            // Same as Steering.evade(), the target's velocity is applied from this vehicle's position
+            int target = targetIndex[i];
+            forceX[i] = -((velocityX[target] * elapsedTime + positionX[i]) -
+                    (velocityX[i] * elapsedTime + positionX[i]));
+            forceY[i] = -((velocityY[target] * elapsedTime + positionY[i]) -
+                    (velocityY[i] * elapsedTime + positionY[i]));
+        }
+
+        Arrays.fill(objective, 0, size, SteeringObjective.EVADE.getByteCode());
+        getSteeringComponents.getComponents(this, 0, size, elapsedTime);
+    }
+
+    /**
+     * Arrives at a target point, stopping on arrival.
+     *
+     * @param targetX the x position of each vehicle's target.
+     * @param targetY the y position of each vehicle's target.
+     * @param elapsedTime the elapsed time.
+     */
+    public void arriveAt(float[] targetX, float[] targetY, float elapsedTime)
+    {
+        seekForces(targetX, targetY, elapsedTime);
+        Arrays.fill(objective, 0, size, SteeringObjective.ARRIVE_AT_SEEK.getByteCode());
+
+        getSteeringComponents.getComponents(this, 0, size, elapsedTime);
+
+        for (int i = 0; i < size; i++)
+        {
+            float distanceToTarget = Vector2.len(forceX[i], forceY[i]);
+
+            // See VehicleUtils.getStoppingDistance()
+            float stoppingDistance = Vector2.len2(velocityX[i], velocityY[i]) / 2 * -maximumReverseThrust[i];
+            stoppingDistance = Math.max(stoppingDistance, 0);
+
+            if (distanceToTarget <= stoppingDistance)
+            {
+                objective[i] = SteeringObjective.ARRIVE_AT.getByteCode();
+                getSteeringComponents.arriveAtImpl(this, i, distanceToTarget, stoppingDistance, elapsedTime);
+            }
+        }
+    }
+
+    /**
+     * Follows a flow field towards its goal, the same as {@link Steering#followFlowField(FlowField, float)}.
+     *
+     * @param field the flow field.
+     * @param elapsedTime the elapsed time.
+     */
+    public void followFlowField(FlowField field, float elapsedTime)
+    {
+        Vector2 direction = scratch;
+        float goalX = field.getGoalX();
+        float goalY = field.getGoalY();
+
+        for (int i = 0; i < size; i++)
+        {
+            float x = velocityX[i] * elapsedTime + positionX[i];
+            float y = velocityY[i] * elapsedTime + positionY[i];
+
+            // See VehicleUtils.getStoppingDistance()
+            float stoppingDistance = Vector2.len2(velocityX[i], velocityY[i]) / 2 * -maximumReverseThrust[i];
+            stoppingDistance = Math.max(stoppingDistance, 0);
+
+            if (field.getDistance(x, y) > stoppingDistance && field.getDirection(x, y, direction))
+            {
+                forceX[i] = direction.x;
+                forceY[i] = direction.y;
+                objective[i] = SteeringObjective.FOLLOW_FLOW_FIELD.getByteCode();
+            }
+            else
+            {
+                forceX[i] = goalX - x;
+                forceY[i] = goalY - y;
+                objective[i] = SteeringObjective.ARRIVE_AT_SEEK.getByteCode();
+            }
+        }
+
+        getSteeringComponents.getComponents(this, 0, size, elapsedTime);
+
+        for (int i = 0; i < size; i++)
+        {
+            if (objective[i] != SteeringObjective.ARRIVE_AT_SEEK.getByteCode())
+            {
+                continue;
+            }
+
+            float distanceToTarget = Vector2.len(forceX[i], forceY[i]);
+            float stoppingDistance = Vector2.len2(velocityX[i], velocityY[i]) / 2 * -maximumReverseThrust[i];
+            stoppingDistance = Math.max(stoppingDistance, 0);
+
+            if (distanceToTarget <= stoppingDistance)
+            {
+                objective[i] = SteeringObjective.ARRIVE_AT.getByteCode();
+                getSteeringComponents.arriveAtImpl(this, i, distanceToTarget, stoppingDistance, elapsedTime);
+            }
+        }
+    }
+
+    /**
+     * Calculates the force to seek each vehicle to a target point.
+     *
+     * @param targetX the x position of each vehicle's target.
+     * @param targetY the y position of each vehicle's target.
+     * @param elapsedTime the elapsed time.
+     */
+    protected void seekForces(float[] targetX, float[] targetY, float elapsedTime)
+    {
+        for (int i = 0; i < size; i++)
+        {
+            forceX[i] = targetX[i] - (velocityX[i] * elapsedTime + positionX[i]);
+            forceY[i] = targetY[i] - (velocityY[i] * elapsedTime + positionY[i]);
+        }
+    }
+
+    /**
+     * Gets the objective of the last behaviour for a vehicle.
+     *
+     * @param index the index of the vehicle.
+     * @return the objective.
+     */
+    public SteeringObjective getSteeringObjective(int index)
+    {
+        return SteeringObjective.forCode(objective[index]);
+    }
+
+    /**
+     * Ensures the columns can hold at least the given number of vehicles.
+     *
+     * @param capacity the required capacity.
+     */
+    protected void ensureCapacity(int capacity)
+    {
+        if (capacity <= positionX.length)
+        {
+            return;
+        }
+
+        int newCapacity = Math.max(capacity, positionX.length * 3 / 2 + 1);
+
+        positionX = Arrays.copyOf(positionX, newCapacity);
+        positionY = Arrays.copyOf(positionY, newCapacity);
+        velocityX = Arrays.copyOf(velocityX, newCapacity);
+        velocityY = Arrays.copyOf(velocityY, newCapacity);
+        directionX = Arrays.copyOf(directionX, newCapacity);
+        directionY = Arrays.copyOf(directionY, newCapacity);
+        radius = Arrays.copyOf(radius, newCapacity);
+        maximumThrust = Arrays.copyOf(maximumThrust, newCapacity);
+        maximumReverseThrust = Arrays.copyOf(maximumReverseThrust, newCapacity);
+        rotationRate = Arrays.copyOf(rotationRate, newCapacity);
+        maximumSpeed = Arrays.copyOf(maximumSpeed, newCapacity);
+        forceX = Arrays.copyOf(forceX, newCapacity);
+        forceY = Arrays.copyOf(forceY, newCapacity);
+        objective = Arrays.copyOf(objective, newCapacity);
+        rotation = Arrays.copyOf(rotation, newCapacity);
+        thrust = Arrays.copyOf(thrust, newCapacity);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Columns
+
+    public float[] getPositionX()
+    {
+        return positionX;
+    }
+
+    public float[] getPositionY()
+    {
+        return positionY;
+    }
+
+    public float[] getVelocityX()
+    {
+        return velocityX;
+    }
+
+    public float[] getVelocityY()
+    {
+        return velocityY;
+    }
+
+    public float[] getDirectionX()
+    {
+        return directionX;
+    }
+
+    public float[] getDirectionY()
+    {
+        return directionY;
+    }
+
+    public float[] getRadius()
+    {
+        return radius;
+    }
+
+    public float[] getMaximumThrust()
+    {
+        return maximumThrust;
+    }
+
+    public float[] getMaximumReverseThrust()
+    {
+        return maximumReverseThrust;
+    }
+
+    public float[] getRotationRate()
+    {
+        return rotationRate;
+    }
+
+    public float[] getMaximumSpeed()
+    {
+        return maximumSpeed;
+    }
+
+    public float[] getForceX()
+    {
+        return forceX;
+    }
+
+    public float[] getForceY()
+    {
+        return forceY;
+    }
+
+    /**
+     * Gets the objective column, holding the code of the objective of the last behaviour for each vehicle.
+     *
+     * @return the objective codes.
+     */
+    public byte[] getObjective()
+    {
+        return objective;
+    }
+
+    public float[] getRotation()
+    {
+        return rotation;
+    }
+
+    public float[] getThrust()
+    {
+        return thrust;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Vehicle view
+
+    /**
+     * A {@link Vehicle} view over a single row of the batch. The vectors returned are owned by the view and refreshed
+     * from the columns on every call, so they are only valid until the next call. Threads reading the view at the same
+     * time must use the primitive accessors such as {@link #getPositionX()}, which only read the columns.
+     */
+    protected class BatchVehicle implements Vehicle
+    {
+        /**
+         * The index of the vehicle in the batch.
+         */
+        private final int index;
+
+        private final Vector2 position = new Vector2();
+        private final Vector2 velocity = new Vector2();
+        private final Vector2 direction = new Vector2();
+
+        public BatchVehicle(int index)
+        {
+            this.index = index;
+        }
+
+        @Override
+        public Vector2 getDirection()
+        {
+            return direction.set(directionX[index], directionY[index]);
+        }
+
+        @Override
+        public float getDirectionX()
+        {
+            return directionX[index];
+        }
+
+        @Override
+        public float getDirectionY()
+        {
+            return directionY[index];
+        }
+
+        @Override
+        public float getMaximumThrust()
+        {
+            return maximumThrust[index];
+        }
+
+        @Override
+        public float getMaximumReverseThrust()
+        {
+            return maximumReverseThrust[index];
+        }
+
+        @Override
+        public float getRotationRate()
+        {
+            return rotationRate[index];
+        }
+
+        @Override
+        public Float getMaximumSpeed()
+        {
+            float speed = maximumSpeed[index];
+            return speed == NO_MAXIMUM_SPEED ? null : speed;
+        }
+
+        @Override
+        public float getSpeedLimit()
+        {
+            return maximumSpeed[index];
+        }
+
+        @Override
+        public Vector2 getVelocity()
+        {
+            return velocity.set(velocityX[index], velocityY[index]);
+        }
+
+        @Override
+        public float getVelocityX()
+        {
+            return velocityX[index];
+        }
+
+        @Override
+        public float getVelocityY()
+        {
+            return velocityY[index];
+        }
+
+        @Override
+        public float getRadius()
+        {
+            return radius[index];
+        }
+
+        @Override
+        public Vector2 getPosition()
+        {
+            return position.set(positionX[index], positionY[index]);
+        }
+
+        @Override
+        public float getPositionX()
+        {
+            return positionX[index];
+        }
+
+        @Override
+        public float getPositionY()
+        {
+            return positionY[index];
+        }
+    }
+}
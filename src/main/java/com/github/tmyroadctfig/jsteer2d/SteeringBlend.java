@@ -0,0 +1,428 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Blends the forces from several behaviours of a {@link Steering} instance and converts the result into steering
+ * components once. Get an instance from {@link Steering#blend(float)}.
+ *
+ * <p>The steering strategies only use the direction of the steering force, so each behaviour's force is normalised
+ * before being scaled by its weight. The weights then give the relative importance of each behaviour regardless of
+ * e.g. how far away a seek target is.</p>
+ *
+ * <p>Behaviours can be split into priority groups with {@link #priority()}. The first group whose combined force
+ * exceeds the {@link #getPriorityThreshold() priority threshold} is used and the behaviours in later groups are
+ * skipped without being evaluated. Without any groups all the behaviours are simply blended by weight.</p>
+ *
+ * <p>This class is not thread-safe.</p>
+ */
+public class SteeringBlend
+{
+    ///////////////////////////////////////////////////////////////////////////
+    // Fields
+
+    /**
+     * The steering instance providing the behaviours.
+     */
+    protected final Steering steering;
+
+    /**
+     * The elapsed time for the blend.
+     */
+    protected float elapsedTime;
+
+    /**
+     * The estimated position of the vehicle after the elapsed time, calculated once per blend.
+     */
+    protected final Vector2 estimatedPosition = new Vector2();
+
+    /**
+     * The combined force of the current priority group.
+     */
+    protected final Vector2 groupForce = new Vector2();
+
+    /**
+     * The force of the behaviour being added.
+     */
+    protected final Vector2 force = new Vector2();
+
+    /**
+     * The objective with the largest absolute weight in the current priority group.
+     */
+    protected SteeringObjective groupObjective;
+
+    /**
+     * The weight of {@link #groupObjective}.
+     */
+    protected float groupObjectiveWeight;
+
+    /**
+     * Whether a priority group has been chosen, in which case later behaviours are skipped.
+     */
+    protected boolean decided;
+
+    /**
+     * The minimum length of a priority group's force for it to be chosen.
+     */
+    protected float priorityThreshold = 0.001f;
+
+    /**
+     * The start time of the blend for the metrics.
+     */
+    protected long start;
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Constructor
+
+    /**
+     * Creates a new instance.
+     *
+     * @param steering the steering instance providing the behaviours.
+     */
+    public SteeringBlend(Steering steering)
+    {
+        this.steering = steering;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Methods
+
+    /**
+     * Starts a new blend, discarding any behaviours already added.
+     *
+     * @param elapsedTime the elapsed time.
+     * @return this instance.
+     */
+    public SteeringBlend begin(float elapsedTime)
+    {
+        start = steering.startTiming();
+
+        this.elapsedTime = elapsedTime;
+        SteeringHelper.estimatePosition(steering.getVehicle(), elapsedTime, estimatedPosition);
+
+        decided = false;
+        resetGroup();
+        return this;
+    }
+
+    /**
+     * Adds a force to seek to a target point.
+     *
+     * @param target the target to seek to.
+     * @param weight the weight of the force.
+     * @return this instance.
+     */
+    public SteeringBlend seek(Vector2 target, float weight)
+    {
+        if (isSkipped(weight))
+        {
+            return this;
+        }
+
+        return add(SteeringObjective.SEEK, SteeringHelper.seek(estimatedPosition, target, force), weight);
+    }
+
+    /**
+     * Adds a force to follow a path.
+     *
+     * @param cursor the vehicle's progress along the path, updated with the vehicle's estimated position.
+     * @param lookAhead the distance ahead along the path to seek to.
+     * @param weight the weight of the force.
+     * @return this instance.
+     */
+    public SteeringBlend followPath(PathCursor cursor, float lookAhead, float weight)
+    {
+        if (isSkipped(weight))
+        {
+            return this;
+        }
+
+        cursor.update(estimatedPosition);
+        return add(SteeringObjective.FOLLOW_PATH, cursor.getPointAhead(lookAhead, force).sub(estimatedPosition),
+                weight);
+    }
+
+    /**
+     * Adds a force to pursue another vehicle.
+     *
+     * @param target the target to pursue.
+     * @param weight the weight of the force.
+     * @return this instance.
+     */
+    public SteeringBlend pursue(Vehicle target, float weight)
+    {
+        if (isSkipped(weight))
+        {
+            return this;
+        }
+
+        SteeringHelper.estimatePosition(target, elapsedTime, force);
+        return add(SteeringObjective.PURSUE, force.sub(estimatedPosition), weight);
+    }
+
+    /**
+     * Adds a force to evade another vehicle, calculated the same as {@link Steering#evade(Vehicle, float)}.
+     *
+     * @param target the target to evade.
+     * @param weight the weight of the force.
+     * @return this instance.
+     */
+    public SteeringBlend evade(Vehicle target, float weight)
+    {
+        if (isSkipped(weight))
+        {
+            return this;
+        }
+
+        Vehicle vehicle = steering.getVehicle();
+        force.set(target.getVelocityX(), target.getVelocityY()).scl(elapsedTime)
+                .add(vehicle.getPositionX(), vehicle.getPositionY());
+        return add(SteeringObjective.EVADE, SteeringHelper.flee(estimatedPosition, force, force), weight);
+    }
+
+    /**
+     * Adds a force to steer past the nearest obstacle in the vehicle's path, if there is one. The force seeks from the
+     * estimated position to the point past the obstacle's edge.
+     *
+     * @param obstacles the obstacles to avoid.
+     * @param detectionPeriod the time window to perform detection in (in milliseconds).
+     * @param weight the weight of the force.
+     * @return this instance.
+     */
+    public SteeringBlend avoidObstacles(Iterable<Obstacle> obstacles, float detectionPeriod, float weight)
+    {
+        if (isSkipped(weight) || !steering.findAvoidanceTarget(obstacles, detectionPeriod, force))
+        {
+            return this;
+        }
+
+        return add(SteeringObjective.AVOID_OBSTACLE, force.sub(estimatedPosition), weight);
+    }
+
+    /**
+     * Adds a force to stay aligned and cohesive to the flock, see
+     * {@link Steering#flock(BoidNeighbourSource, float, SteeringComponents)}.
+     *
+     * @param neighbours the source of neighbouring boids.
+     * @param weight the weight of the force.
+     * @return this instance.
+     */
+    public SteeringBlend flock(BoidNeighbourSource neighbours, float weight)
+    {
+        if (isSkipped(weight))
+        {
+            return this;
+        }
+
+        int count = neighbours.findCloseBoids(steering.getVehicle(), steering.getMaximumBoidDistance(),
+                steering.closeBoids);
+        return add(steering.flockForce(count, force), force, weight);
+    }
+
+    /**
+     * Adds a force to stay aligned and cohesive to the flock by scanning the flock linearly.
+     *
+     * @param flock the flock of vehicles to stay with.
+     * @param weight the weight of the force.
+     * @return this instance.
+     */
+    public SteeringBlend flock(Iterable<? extends Vehicle> flock, float weight)
+    {
+        if (isSkipped(weight))
+        {
+            return this;
+        }
+
+        int count = steering.findCloseBoids(flock, steering.closeBoids);
+        return add(steering.flockForce(count, force), force, weight);
+    }
+
+    /**
+     * Adds a force to separate from neighbours, if any are within the minimum boid distance.
+     *
+     * @param neighbours the source of neighbouring boids.
+     * @param weight the weight of the force.
+     * @return this instance.
+     */
+    public SteeringBlend separate(BoidNeighbourSource neighbours, float weight)
+    {
+        if (isSkipped(weight))
+        {
+            return this;
+        }
+
+        int count = neighbours.findCloseBoids(steering.getVehicle(), steering.getMaximumBoidDistance(),
+                steering.closeBoids);
+        return addSeparation(count, weight);
+    }
+
+    /**
+     * Adds a force to separate from neighbours by scanning them linearly.
+     *
+     * @param neighbours the vehicles to separate from.
+     * @param weight the weight of the force.
+     * @return this instance.
+     */
+    public SteeringBlend separate(Iterable<? extends Vehicle> neighbours, float weight)
+    {
+        if (isSkipped(weight))
+        {
+            return this;
+        }
+
+        int count = steering.findCloseBoids(neighbours, steering.closeBoids);
+        return addSeparation(count, weight);
+    }
+
+    /**
+     * Adds a force calculated by the caller, e.g. for a user-defined behaviour.
+     *
+     * @param objective the objective of the force. {@link SteeringObjective#NO_STEERING} is ignored.
+     * @param force the force, only the direction is used.
+     * @param weight the weight of the force.
+     * @return this instance.
+     */
+    public SteeringBlend add(SteeringObjective objective, Vector2 force, float weight)
+    {
+        if (isSkipped(weight) || objective == SteeringObjective.NO_STEERING)
+        {
+            return this;
+        }
+
+        float length = force.len();
+        if (length == 0)
+        {
+            return this;
+        }
+
+        groupForce.mulAdd(force, weight / length);
+
+        if (Math.abs(weight) > groupObjectiveWeight)
+        {
+            groupObjective = objective;
+            groupObjectiveWeight = Math.abs(weight);
+        }
+
+        return this;
+    }
+
+    /**
+     * Ends the current priority group. If the group's combined force is longer than the priority threshold it is
+     * chosen and all later behaviours are skipped, otherwise the group is discarded.
+     *
+     * @return this instance.
+     */
+    public SteeringBlend priority()
+    {
+        if (!decided)
+        {
+            if (groupForce.len2() > priorityThreshold * priorityThreshold)
+            {
+                decided = true;
+            }
+            else
+            {
+                resetGroup();
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Converts the blended force into steering components.
+     *
+     * @param result the steering components to write the result into. Set to no steering if no behaviour produced a
+     *               force.
+     * @return the result.
+     */
+    public SteeringComponents getComponents(SteeringComponents result)
+    {
+        if (groupForce.isZero())
+        {
+            result.setNoSteering();
+        }
+        else
+        {
+            steering.getComponents(groupObjective, groupForce, elapsedTime, result);
+        }
+
+        return steering.recordBehaviour(start, result);
+    }
+
+    /**
+     * Gets the estimated position of the vehicle that the behaviours are calculated from.
+     *
+     * @return the estimated position.
+     */
+    public Vector2 getEstimatedPosition()
+    {
+        return estimatedPosition;
+    }
+
+    /**
+     * Gets the blended force so far, the chosen priority group's force if one has been chosen.
+     *
+     * @return the force.
+     */
+    public Vector2 getForce()
+    {
+        return groupForce;
+    }
+
+    public float getPriorityThreshold()
+    {
+        return priorityThreshold;
+    }
+
+    public void setPriorityThreshold(float priorityThreshold)
+    {
+        this.priorityThreshold = priorityThreshold;
+    }
+
+    /**
+     * Checks whether a behaviour can be skipped.
+     *
+     * @param weight the weight of the behaviour.
+     * @return {@code true} if a priority group has already been chosen or the weight is zero.
+     */
+    protected boolean isSkipped(float weight)
+    {
+        return decided || weight == 0;
+    }
+
+    private SteeringBlend addSeparation(int count, float weight)
+    {
+        if (!steering.isTooClose(count))
+        {
+            return this;
+        }
+
+        return add(SteeringObjective.FLOCKING_SEPARATION,
+                steering.separationForce(steering.closeBoids, count, force), weight);
+    }
+
+    private void resetGroup()
+    {
+        groupForce.setZero();
+        groupObjective = SteeringObjective.NO_STEERING;
+        groupObjectiveWeight = 0;
+    }
+}
@@ -21,6 +21,8 @@ import com.badlogic.gdx.math.Vector2;
 
 /**
  * The components returned from a steering operation.
+ *
+ * <p>Instances are mutable and not thread-safe, except for the read-only {@link #NO_STEERING}.</p>
  */
 public class SteeringComponents
 {
@@ -28,14 +30,17 @@ public class SteeringComponents
     // Fields
 
     /**
-     * A instance to represent no steering force.
+     * A instance to represent no steering force. This instance is shared so it is read-only, any attempt to modify it
+     * throws an {@link UnsupportedOperationException}.
      */
-    public static SteeringComponents NO_STEERING = new SteeringComponents("No steering", Float.NaN, Float.NaN);
+    public static final SteeringComponents NO_STEERING = new ReadOnlySteeringComponents(
+            SteeringObjective.NO_STEERING, Float.NaN, Float.NaN);
 
     /**
-     * A tag describing the objective of the steering force (for debugging). E.g. "Flock: cohesion", "No steering", etc.
+     * The objective of the steering force. E.g. {@link SteeringObjective#FLOCKING_COHESION},
+     * {@link SteeringObjective#NO_STEERING}, etc.
      */
-    private String steeringObjective;
+    private SteeringObjective steeringObjective;
 
     /**
      * The target position that relates to the steering force. E.g. the destination point the steering is aiming for.
@@ -57,16 +62,38 @@ public class SteeringComponents
      */
     private float rotation;
 
+    /**
+     * The vector reused to hold copies of the steering target.
+     */
+    private Vector2 steeringTargetStorage;
+
+    /**
+     * The vector reused to hold copies of the steering force.
+     */
+    private Vector2 steeringForceStorage;
+
     ///////////////////////////////////////////////////////////////////////////
     // Constructors
 
-    public SteeringComponents(String steeringObjective, float rotation, float  thrust)
+    /**
+     * Creates a new instance representing no steering. Intended for callers that want to reuse a single instance
+     * across steering calls, e.g. {@link Steering#seek(Vector2, float, SteeringComponents)}.
+     */
+    public SteeringComponents()
+    {
+        this(SteeringObjective.NO_STEERING, Float.NaN, Float.NaN);
+
+        steeringTargetStorage = new Vector2();
+        steeringForceStorage = new Vector2();
+    }
+
+    public SteeringComponents(SteeringObjective steeringObjective, float rotation, float  thrust)
     {
         this(steeringObjective, null, null, rotation, thrust);
     }
 
-    public SteeringComponents(String steeringObjective, Vector2 steeringTarget, Vector2 steeringForce, float rotation,
-                              float thrust)
+    public SteeringComponents(SteeringObjective steeringObjective, Vector2 steeringTarget, Vector2 steeringForce,
+                              float rotation, float thrust)
     {
         this.steeringObjective = steeringObjective;
         this.steeringTarget = steeringTarget;
@@ -78,6 +105,68 @@ public class SteeringComponents
     ///////////////////////////////////////////////////////////////////////////
     // Methods
 
+    /**
+     * Sets all the values of the steering components. The vectors are copied into storage owned by this instance so
+     * the caller is free to reuse them.
+     *
+     * @param steeringObjective the objective of the steering force.
+     * @param steeringTarget the target position that relates to the steering force.
+     * @param steeringForce the steering force.
+     * @param rotation the rotation quantity (in radians).
+     * @param thrust the thrust component.
+     * @return this instance.
+     */
+    public SteeringComponents set(SteeringObjective steeringObjective, Vector2 steeringTarget, Vector2 steeringForce,
+                                  float rotation, float thrust)
+    {
+        this.steeringObjective = steeringObjective;
+        this.steeringTarget = null;
+        this.steeringForce = null;
+
+        if (steeringTarget != null)
+        {
+            if (steeringTargetStorage == null)
+            {
+                steeringTargetStorage = new Vector2();
+            }
+            this.steeringTarget = steeringTargetStorage.set(steeringTarget);
+        }
+
+        if (steeringForce != null)
+        {
+            if (steeringForceStorage == null)
+            {
+                steeringForceStorage = new Vector2();
+            }
+            this.steeringForce = steeringForceStorage.set(steeringForce);
+        }
+
+        this.rotation = rotation;
+        this.thrust = thrust;
+        return this;
+    }
+
+    /**
+     * Sets the values of the steering components from another instance.
+     *
+     * @param other the steering components to copy.
+     * @return this instance.
+     */
+    public SteeringComponents set(SteeringComponents other)
+    {
+        return set(other.steeringObjective, other.steeringTarget, other.steeringForce, other.rotation, other.thrust);
+    }
+
+    /**
+     * Resets the steering components to represent no steering force, see {@link #NO_STEERING}.
+     *
+     * @return this instance.
+     */
+    public SteeringComponents setNoSteering()
+    {
+        return set(NO_STEERING);
+    }
+
     /**
      * Checks whether the values of the steering components are valid.
      *
@@ -88,6 +177,11 @@ public class SteeringComponents
         return !Float.isNaN(thrust) && !Float.isNaN(rotation);
     }
 
+    public SteeringObjective getSteeringObjective()
+    {
+        return steeringObjective;
+    }
+
     public float getThrust()
     {
         return thrust;
@@ -103,14 +197,61 @@ public class SteeringComponents
         return rotation;
     }
 
+    public void setRotation(float rotation)
+    {
+        this.rotation = rotation;
+    }
+
     public Vector2 getSteeringTarget()
     {
         return steeringTarget;
     }
 
+    public Vector2 getSteeringForce()
+    {
+        return steeringForce;
+    }
+
     @Override
     public String toString()
     {
-        return String.format("steering:[rotation:%.2f thrust:%.2f]  - %s", rotation, thrust, steeringObjective);
+        return new StringBuilder(64)
+                .append("steering:[rotation:").append(rotation)
+                .append(" thrust:").append(thrust)
+                .append("]  - ").append(steeringObjective)
+                .toString();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Read-only steering components
+
+    /**
+     * Steering components that can't be modified after construction.
+     */
+    private static class ReadOnlySteeringComponents extends SteeringComponents
+    {
+        public ReadOnlySteeringComponents(SteeringObjective steeringObjective, float rotation, float thrust)
+        {
+            super(steeringObjective, rotation, thrust);
+        }
+
+        @Override
+        public SteeringComponents set(SteeringObjective steeringObjective, Vector2 steeringTarget,
+                                      Vector2 steeringForce, float rotation, float thrust)
+        {
+            throw new UnsupportedOperationException("Read-only steering components");
+        }
+
+        @Override
+        public void setThrust(float thrust)
+        {
+            throw new UnsupportedOperationException("Read-only steering components");
+        }
+
+        @Override
+        public void setRotation(float rotation)
+        {
+            throw new UnsupportedOperationException("Read-only steering components");
+        }
     }
-}
\ No newline at end of file
+}
@@ -74,4 +74,54 @@ public class SteeringHelper
         Vector2 desiredDirection = seek(position, target).scl(-1);
         return desiredDirection;
     }
+
+    /**
+     * Steers towards a target.
+     *
+     * @param position the current position.
+     * @param target the target position.
+     * @param result the vector to write the direction into.
+     * @return the result.
+     */
+    public static Vector2 seek(Vector2 position, Vector2 target, Vector2 result)
+    {
+        return result.set(target).sub(position);
+    }
+
+    /**
+     * Steers away from a target.
+     *
+     * @param position the current position.
+     * @param target the target position.
+     * @param result the vector to write the direction into.
+     * @return the result.
+     */
+    public static Vector2 flee(Vector2 position, Vector2 target, Vector2 result)
+    {
+        return seek(position, target, result).scl(-1);
+    }
+
+    /**
+     * Estimates the position of a moving obstacle after the elapsed time. The estimate is reused if the obstacle is a
+     * {@link VehicleKinematics} captured for the same elapsed time.
+     *
+     * @param obstacle the obstacle.
+     * @param elapsedTime the elapsed time.
+     * @param result the vector to write the estimated position into.
+     * @return the result.
+     */
+    public static Vector2 estimatePosition(MovingObstacle obstacle, float elapsedTime, Vector2 result)
+    {
+        if (obstacle instanceof VehicleKinematics)
+        {
+            VehicleKinematics kinematics = (VehicleKinematics) obstacle;
+            if (kinematics.getElapsedTime() == elapsedTime)
+            {
+                return result.set(kinematics.getEstimatedPosition());
+            }
+        }
+
+        return result.set(obstacle.getVelocityX(), obstacle.getVelocityY()).scl(elapsedTime)
+                .add(obstacle.getPositionX(), obstacle.getPositionY());
+    }
 }
@@ -0,0 +1,58 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+/**
+ * A sink for steering instrumentation. Pass an implementation to {@link Steering#setMetrics(SteeringMetrics)}, the
+ * steering strategies and the collision detectors to forward to another metrics system, or use
+ * {@link SteeringTelemetry} to aggregate in memory.
+ *
+ * <p>Instrumentation is disabled by leaving the metrics {@code null}. Each call site is guarded by a single null
+ * check, so when disabled no timing is taken and the JIT removes the instrumentation.</p>
+ *
+ * <p>Implementations shared between threads, e.g. by the {@link Steering} instances of a {@link FleetSteering}, must
+ * be thread-safe. Implementations should not allocate or block as they are called on the steering hot path.</p>
+ */
+public interface SteeringMetrics
+{
+    /**
+     * Records a call to a steering behaviour, e.g. {@link Steering#seek(com.badlogic.gdx.math.Vector2, float)}.
+     *
+     * @param steeringObjective the objective of the resulting steering components, e.g.
+     *                          {@link SteeringObjective#NO_STEERING} if the behaviour resulted in no steering.
+     * @param durationNanos the time taken by the behaviour in nanoseconds.
+     */
+    void recordBehaviour(SteeringObjective steeringObjective, long durationNanos);
+
+    /**
+     * Records a steering force being converted into steering components by a {@link GetSteeringComponents} or
+     * {@link GetBatchSteeringComponents} strategy.
+     *
+     * @param steeringObjective the steering objective.
+     * @param rotationClamped {@code true} if the rotation was clamped to the vehicle's rotation rate.
+     */
+    void recordComponents(SteeringObjective steeringObjective, boolean rotationClamped);
+
+    /**
+     * Records a query of a {@link PotentialCollisionDetector}.
+     *
+     * @param candidatesExamined the number of obstacles tested.
+     * @param collisionFound {@code true} if a potential collision was found.
+     */
+    void recordCollisionQuery(int candidatesExamined, boolean collisionFound);
+}
@@ -0,0 +1,211 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An interned tag describing the objective of a steering force. Each objective has a unique name and a small integer
+ * code so objectives can be compared by identity and stored in a {@code byte[]}, e.g. by {@link SteeringBatch}.
+ *
+ * <p>User-defined behaviours register their own objectives with {@link #register(String)}, typically once in a static
+ * field. At most {@link #MAXIMUM_OBJECTIVES} objectives (including the built-in ones) can be registered. This class is
+ * thread-safe.</p>
+ */
+public final class SteeringObjective
+{
+    ///////////////////////////////////////////////////////////////////////////
+    // Fields
+
+    /**
+     * The maximum number of objectives, so that a code fits in an unsigned byte.
+     */
+    public static final int MAXIMUM_OBJECTIVES = 256;
+
+    /**
+     * The registered objectives by code. Replaced rather than modified when an objective is registered.
+     */
+    private static volatile SteeringObjective[] objectivesByCode = new SteeringObjective[0];
+
+    /**
+     * The registered objectives by name. Guarded by the class lock.
+     */
+    private static final Map<String, SteeringObjective> objectivesByName = new HashMap<String, SteeringObjective>();
+
+    /**
+     * No steering force. Always has the code 0.
+     */
+    public static final SteeringObjective NO_STEERING = register("No steering");
+
+    public static final SteeringObjective SEEK = register("Seek");
+
+    public static final SteeringObjective PURSUE = register("Pursue");
+
+    public static final SteeringObjective EVADE = register("Evade");
+
+    public static final SteeringObjective AVOID_OBSTACLE = register("Avoid obstacle");
+
+    public static final SteeringObjective ARRIVE_AT_SEEK = register("Arrive at: seek");
+
+    public static final SteeringObjective ARRIVE_AT = register("Arrive at");
+
+    public static final SteeringObjective FLOCKING_SEPARATION = register("Flocking: separation");
+
+    public static final SteeringObjective FLOCKING_COHESION = register("Flocking: cohesion");
+
+    public static final SteeringObjective FLOCKING_ALIGNMENT = register("Flocking: alignment");
+
+    public static final SteeringObjective FOLLOW_PATH = register("Follow path");
+
+    public static final SteeringObjective AVOID_NEIGHBOURS = register("Avoid neighbours");
+
+    public static final SteeringObjective FOLLOW_FLOW_FIELD = register("Follow flow field");
+
+    /**
+     * The code.
+     */
+    private final int code;
+
+    /**
+     * The name, for debugging and telemetry.
+     */
+    private final String name;
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Constructor
+
+    private SteeringObjective(int code, String name)
+    {
+        this.code = code;
+        this.name = name;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Methods
+
+    /**
+     * Registers an objective, or returns the existing objective if one with the same name is already registered.
+     *
+     * @param name the name of the objective.
+     * @return the objective.
+     * @throws IllegalStateException if {@link #MAXIMUM_OBJECTIVES} objectives are already registered.
+     */
+    public static synchronized SteeringObjective register(String name)
+    {
+        if (name == null)
+        {
+            throw new IllegalArgumentException("Name is required");
+        }
+
+        SteeringObjective objective = objectivesByName.get(name);
+        if (objective != null)
+        {
+            return objective;
+        }
+
+        SteeringObjective[] existing = objectivesByCode;
+        if (existing.length >= MAXIMUM_OBJECTIVES)
+        {
+            throw new IllegalStateException("Too many steering objectives, can't register: " + name);
+        }
+
+        objective = new SteeringObjective(existing.length, name);
+
+        SteeringObjective[] objectives = new SteeringObjective[existing.length + 1];
+        System.arraycopy(existing, 0, objectives, 0, existing.length);
+        objectives[existing.length] = objective;
+
+        objectivesByName.put(name, objective);
+        objectivesByCode = objectives;
+        return objective;
+    }
+
+    /**
+     * Gets a registered objective by name without registering it.
+     *
+     * @param name the name of the objective.
+     * @return the objective, or {@code null} if no objective is registered with the name.
+     */
+    public static synchronized SteeringObjective forName(String name)
+    {
+        return objectivesByName.get(name);
+    }
+
+    /**
+     * Gets an objective from its code.
+     *
+     * @param code the code, a byte code is treated as unsigned.
+     * @return the objective.
+     * @throws IllegalArgumentException if no objective is registered with the code.
+     */
+    public static SteeringObjective forCode(int code)
+    {
+        SteeringObjective[] objectives = objectivesByCode;
+        int index = code & 0xFF;
+
+        if (index != code && (byte) index != code || index >= objectives.length)
+        {
+            throw new IllegalArgumentException("Unknown steering objective code: " + code);
+        }
+
+        return objectives[index];
+    }
+
+    /**
+     * Gets the number of registered objectives. The codes of the registered objectives are {@code 0} to
+     * {@code getCount() - 1}.
+     *
+     * @return the number of objectives.
+     */
+    public static int getCount()
+    {
+        return objectivesByCode.length;
+    }
+
+    /**
+     * Gets the code, in the range [0, {@link #MAXIMUM_OBJECTIVES}).
+     *
+     * @return the code.
+     */
+    public int getCode()
+    {
+        return code;
+    }
+
+    /**
+     * Gets the code as a byte for compact storage. Use {@link #forCode(int)} to convert back.
+     *
+     * @return the code.
+     */
+    public byte getByteCode()
+    {
+        return (byte) code;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    @Override
+    public String toString()
+    {
+        return name;
+    }
+}
@@ -0,0 +1,359 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.math.Vector2;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Records the inputs to steering each tick, so they can be replayed offline with {@link SteeringReplay} to reproduce
+ * performance problems or compare strategies on real workloads.
+ *
+ * <p>Each tick holds the elapsed time, the kinematics of every vehicle with an optional target, and the obstacles. It
+ * is encoded little-endian into reused buffers and appended to the channel when the tick ends, with one gathering write
+ * if the channel supports it, so recording costs a few stores per vehicle and no allocation. The file starts with a
+ * small versioned header.</p>
+ *
+ * <p>Usage: {@code recorder.beginTick(elapsedTime)}, then {@link #addVehicle(Vehicle, Vector2)} and
+ * {@link #addObstacle(Obstacle)} in any order, then {@link #endTick()}. This class is not thread-safe.</p>
+ */
+public class SteeringRecorder implements Closeable
+{
+    ///////////////////////////////////////////////////////////////////////////
+    // Fields
+
+    /**
+     * The first four bytes of a recording: "JS2R".
+     */
+    public static final int MAGIC = 0x5232534A;
+
+    /**
+     * The current version of the format.
+     */
+    public static final short VERSION = 1;
+
+    /**
+     * The size of the file header in bytes.
+     */
+    static final int HEADER_SIZE = 8;
+
+    /**
+     * The size of the tick header in bytes: the size of the rest of the tick, the elapsed time, the number of vehicles
+     * and the number of obstacles.
+     */
+    static final int TICK_HEADER_SIZE = 16;
+
+    /**
+     * The size of a vehicle record in bytes: position, velocity, direction, radius, maximum thrust, maximum reverse
+     * thrust, rotation rate, maximum speed (NaN for none) and target (NaN for none).
+     */
+    static final int VEHICLE_SIZE = 52;
+
+    /**
+     * The size of an obstacle record in bytes: position, radius and velocity (zero for a static obstacle).
+     */
+    static final int OBSTACLE_SIZE = 20;
+
+    /**
+     * The channel to append to.
+     */
+    private final WritableByteChannel channel;
+
+    /**
+     * The tick header followed by the vehicles of the current tick.
+     */
+    private ByteBuffer vehicles = ByteBuffer.allocateDirect(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * The obstacles of the current tick.
+     */
+    private ByteBuffer obstacles = ByteBuffer.allocateDirect(16 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * The vehicles and obstacles buffers, for gathering writes.
+     */
+    private final ByteBuffer[] tick = new ByteBuffer[2];
+
+    private float elapsedTime;
+    private int vehicleCount;
+    private int obstacleCount;
+    private boolean inTick;
+    private long tickCount;
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Constructor
+
+    /**
+     * Creates a recorder that appends to a channel.
+     *
+     * @param channel the channel.
+     * @param writeHeader whether to write the file header first, i.e. {@code false} if appending to an existing
+     *                    recording.
+     * @throws IOException if the header can't be written.
+     */
+    public SteeringRecorder(WritableByteChannel channel, boolean writeHeader) throws IOException
+    {
+        this.channel = channel;
+
+        if (writeHeader)
+        {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC);
+            header.putShort(VERSION);
+            header.putShort((short) 0);
+            header.flip();
+            writeFully(header);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Methods
+
+    /**
+     * Opens a file for recording, appending to it if it already holds a recording. A final tick left incomplete by
+     * e.g. the recording process being killed is dropped first, since replay would stop at it.
+     *
+     * @param file the file.
+     * @return the recorder.
+     * @throws IOException if the file can't be opened.
+     * @throws IllegalArgumentException if the file isn't empty and doesn't hold a recording in this version.
+     */
+    public static SteeringRecorder open(File file) throws IOException
+    {
+        long end = 0;
+        if (file.length() > 0)
+        {
+            // Checks the header and finds the end of the last complete tick
+            SteeringReplay replay = SteeringReplay.open(file);
+            try
+            {
+                end = replay.skipToEnd();
+            }
+            finally
+            {
+                replay.close();
+            }
+        }
+
+        FileChannel channel = new FileOutputStream(file, true).getChannel();
+        try
+        {
+            if (end > 0 && channel.size() > end)
+            {
+                channel.truncate(end);
+            }
+
+            return new SteeringRecorder(channel, channel.size() == 0);
+        }
+        catch (IOException e)
+        {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Starts recording a tick.
+     *
+     * @param elapsedTime the elapsed time of the tick.
+     */
+    public void beginTick(float elapsedTime)
+    {
+        if (inTick)
+        {
+            throw new IllegalStateException("The previous tick hasn't ended");
+        }
+
+        this.elapsedTime = elapsedTime;
+        vehicleCount = 0;
+        obstacleCount = 0;
+        inTick = true;
+
+        vehicles.clear();
+        vehicles.position(TICK_HEADER_SIZE);
+        obstacles.clear();
+    }
+
+    /**
+     * Records a vehicle without a target in the current tick.
+     *
+     * @param vehicle the vehicle.
+     */
+    public void addVehicle(Vehicle vehicle)
+    {
+        addVehicle(vehicle, null);
+    }
+
+    /**
+     * Records a vehicle in the current tick.
+     *
+     * @param vehicle the vehicle.
+     * @param target the vehicle's target, e.g. what it is seeking, or {@code null} for none.
+     */
+    public void addVehicle(Vehicle vehicle, Vector2 target)
+    {
+        checkInTick();
+        vehicles = ensureRemaining(vehicles, VEHICLE_SIZE);
+
+        float maximumSpeed = vehicle.getSpeedLimit();
+
+        putVector(vehicles, vehicle.getPositionX(), vehicle.getPositionY());
+        putVector(vehicles, vehicle.getVelocityX(), vehicle.getVelocityY());
+        putVector(vehicles, vehicle.getDirectionX(), vehicle.getDirectionY());
+        vehicles.putFloat(vehicle.getRadius());
+        vehicles.putFloat(vehicle.getMaximumThrust());
+        vehicles.putFloat(vehicle.getMaximumReverseThrust());
+        vehicles.putFloat(vehicle.getRotationRate());
+        vehicles.putFloat(maximumSpeed != Vehicle.NO_MAXIMUM_SPEED ? maximumSpeed : Float.NaN);
+        vehicles.putFloat(target != null ? target.x : Float.NaN);
+        vehicles.putFloat(target != null ? target.y : Float.NaN);
+
+        vehicleCount++;
+    }
+
+    /**
+     * Records an obstacle in the current tick.
+     *
+     * @param obstacle the obstacle.
+     */
+    public void addObstacle(Obstacle obstacle)
+    {
+        checkInTick();
+        obstacles = ensureRemaining(obstacles, OBSTACLE_SIZE);
+
+        putVector(obstacles, obstacle.getPositionX(), obstacle.getPositionY());
+        obstacles.putFloat(obstacle.getRadius());
+
+        if (obstacle instanceof MovingObstacle)
+        {
+            MovingObstacle movingObstacle = (MovingObstacle) obstacle;
+            putVector(obstacles, movingObstacle.getVelocityX(), movingObstacle.getVelocityY());
+        }
+        else
+        {
+            obstacles.putFloat(0);
+            obstacles.putFloat(0);
+        }
+
+        obstacleCount++;
+    }
+
+    /**
+     * Ends the current tick and appends it to the channel.
+     *
+     * @throws IOException if the tick can't be written.
+     */
+    public void endTick() throws IOException
+    {
+        checkInTick();
+        inTick = false;
+
+        int size = vehicles.position() + obstacles.position();
+        vehicles.putInt(0, size - 4);
+        vehicles.putFloat(4, elapsedTime);
+        vehicles.putInt(8, vehicleCount);
+        vehicles.putInt(12, obstacleCount);
+
+        vehicles.flip();
+        obstacles.flip();
+
+        if (channel instanceof GatheringByteChannel)
+        {
+            tick[0] = vehicles;
+            tick[1] = obstacles;
+            while (vehicles.hasRemaining() || obstacles.hasRemaining())
+            {
+                ((GatheringByteChannel) channel).write(tick);
+            }
+        }
+        else
+        {
+            writeFully(vehicles);
+            writeFully(obstacles);
+        }
+
+        tickCount++;
+    }
+
+    /**
+     * Gets the number of ticks recorded by this instance.
+     *
+     * @return the number of ticks.
+     */
+    public long getTickCount()
+    {
+        return tickCount;
+    }
+
+    /**
+     * Closes the channel. A tick in progress is discarded.
+     *
+     * @throws IOException if the channel can't be closed.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        inTick = false;
+        channel.close();
+    }
+
+    private void checkInTick()
+    {
+        if (!inTick)
+        {
+            throw new IllegalStateException("No tick has begun");
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            channel.write(buffer);
+        }
+    }
+
+    private static ByteBuffer ensureRemaining(ByteBuffer buffer, int required)
+    {
+        if (buffer.remaining() >= required)
+        {
+            return buffer;
+        }
+
+        ByteBuffer grown = ByteBuffer.allocateDirect(Math.max(buffer.capacity() * 2, buffer.position() + required))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.flip();
+        grown.put(buffer);
+        return grown;
+    }
+
+    private static void putVector(ByteBuffer buffer, float x, float y)
+    {
+        buffer.putFloat(x);
+        buffer.putFloat(y);
+    }
+}
@@ -0,0 +1,587 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replays a recording from {@link SteeringRecorder}, either tick by tick or through
+ * {@link #run(FleetSteering.Behaviour, GetSteeringComponents, PotentialCollisionDetector)}, which drives every tick
+ * through {@link Steering} and measures the throughput.
+ *
+ * <p>A recording in a buffer is read in place. A file from {@link #open(File)} is read one tick at a time into a reused
+ * buffer, so recordings of any length can be replayed. Each tick's vehicles are loaded into a {@link SteeringBatch}
+ * and its obstacles into reused instances, so replaying doesn't allocate per tick once the buffers have grown to the
+ * largest tick. This class is not thread-safe.</p>
+ */
+public class SteeringReplay implements Closeable
+{
+    /**
+     * The throughput of a replay.
+     */
+    public static class Result
+    {
+        private final int ticks;
+        private final long steps;
+        private final long nanos;
+
+        public Result(int ticks, long steps, long nanos)
+        {
+            this.ticks = ticks;
+            this.steps = steps;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Gets the number of ticks replayed.
+         *
+         * @return the number of ticks.
+         */
+        public int getTicks()
+        {
+            return ticks;
+        }
+
+        /**
+         * Gets the number of times a vehicle was steered.
+         *
+         * @return the number of steps.
+         */
+        public long getSteps()
+        {
+            return steps;
+        }
+
+        /**
+         * Gets the total time spent steering, excluding reading the recording.
+         *
+         * @return the time in nanoseconds.
+         */
+        public long getNanos()
+        {
+            return nanos;
+        }
+
+        /**
+         * Gets the average time to steer a vehicle.
+         *
+         * @return the time in nanoseconds.
+         */
+        public double getNanosPerStep()
+        {
+            return steps == 0 ? 0 : (double) nanos / steps;
+        }
+
+        /**
+         * Gets the number of vehicles steered per second.
+         *
+         * @return the throughput.
+         */
+        public double getStepsPerSecond()
+        {
+            return nanos == 0 ? 0 : steps * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%d ticks, %d steps in %.3f ms: %.1f ns/step", ticks, steps, nanos / 1e6,
+                    getNanosPerStep());
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Fields
+
+    /**
+     * The recording when replaying from a buffer, otherwise {@code null}.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * The recording when replaying from a file, otherwise {@code null}.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The buffer holding the current tick: the recording itself or the reused read buffer.
+     */
+    private ByteBuffer current;
+
+    /**
+     * The offset of the current tick's header in {@link #current}.
+     */
+    private int base;
+
+    /**
+     * The size of the recording in bytes, read again on each rewind when replaying from a file.
+     */
+    private long end;
+
+    /**
+     * The offset of the next tick in the recording.
+     */
+    private long nextTick;
+
+    /**
+     * The current tick.
+     */
+    private float elapsedTime;
+    private int vehicleCount;
+    private final Array<Vector2> targets = new Array<Vector2>(true, 16, Vector2.class);
+    private final List<Obstacle> obstacles = new ArrayList<Obstacle>();
+    private final List<SimpleMovingObstacle> obstaclePool = new ArrayList<SimpleMovingObstacle>();
+
+    /**
+     * The offset of the current tick's vehicles.
+     */
+    private int vehiclesOffset;
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Constructor
+
+    /**
+     * Wraps a recording without copying it.
+     *
+     * @param buffer the recording, from its position onwards. The buffer's position and byte order aren't changed.
+     * @throws IllegalArgumentException if the buffer doesn't hold a recording in a supported version.
+     */
+    public SteeringReplay(ByteBuffer buffer)
+    {
+        this.buffer = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        this.channel = null;
+
+        checkHeader(this.buffer);
+        rewind();
+    }
+
+    private SteeringReplay(FileChannel channel) throws IOException
+    {
+        this.buffer = null;
+        this.channel = channel;
+        current = ByteBuffer.allocateDirect(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+
+        if (!read(0, SteeringRecorder.HEADER_SIZE))
+        {
+            throw new IllegalArgumentException("Not a steering recording");
+        }
+
+        checkHeader(current);
+        rewind();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Methods
+
+    /**
+     * Opens a recording for replaying. The file is read a tick at a time and stays open until the replay is closed.
+     *
+     * @param file the file.
+     * @return the replay.
+     * @throws IOException if the file can't be read.
+     * @throws IllegalArgumentException if the file doesn't hold a recording in a supported version.
+     */
+    public static SteeringReplay open(File file) throws IOException
+    {
+        FileChannel channel = new RandomAccessFile(file, "r").getChannel();
+        try
+        {
+            return new SteeringReplay(channel);
+        }
+        catch (IOException | RuntimeException e)
+        {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Checks a recording's file header.
+     *
+     * @param header the buffer holding the header from offset 0, little-endian.
+     * @throws IllegalArgumentException if the header isn't for a recording in a supported version.
+     */
+    static void checkHeader(ByteBuffer header)
+    {
+        if (header.limit() < SteeringRecorder.HEADER_SIZE || header.getInt(0) != SteeringRecorder.MAGIC)
+        {
+            throw new IllegalArgumentException("Not a steering recording");
+        }
+
+        short version = header.getShort(4);
+        if (version != SteeringRecorder.VERSION)
+        {
+            throw new IllegalArgumentException("Unsupported steering recording version: " + version);
+        }
+    }
+
+    /**
+     * Moves back to before the first tick. When replaying from a file, ticks appended since it was opened are included.
+     */
+    public void rewind()
+    {
+        nextTick = SteeringRecorder.HEADER_SIZE;
+        vehicleCount = 0;
+        obstacles.clear();
+
+        if (channel == null)
+        {
+            current = buffer;
+            end = buffer.limit();
+        }
+        else
+        {
+            try
+            {
+                end = channel.size();
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Moves to the next tick. A tick truncated by e.g. the recording process being killed is treated as the end.
+     *
+     * @return {@code false} if there are no more ticks.
+     * @throws UncheckedIOException if the file can't be read.
+     */
+    public boolean nextTick()
+    {
+        if (nextTick + SteeringRecorder.TICK_HEADER_SIZE > end)
+        {
+            return false;
+        }
+
+        if (channel == null)
+        {
+            base = (int) nextTick;
+        }
+        else if (!read(nextTick, SteeringRecorder.TICK_HEADER_SIZE))
+        {
+            return false;
+        }
+
+        int size = current.getInt(base);
+        if (size < SteeringRecorder.TICK_HEADER_SIZE - 4 || nextTick + 4L + size > end ||
+                channel != null && !read(nextTick, 4 + size))
+        {
+            return false;
+        }
+
+        elapsedTime = current.getFloat(base + 4);
+        vehicleCount = current.getInt(base + 8);
+        int obstacleCount = current.getInt(base + 12);
+        vehiclesOffset = base + SteeringRecorder.TICK_HEADER_SIZE;
+
+        readTargets();
+        readObstacles(vehiclesOffset + vehicleCount * SteeringRecorder.VEHICLE_SIZE, obstacleCount);
+
+        nextTick += 4 + size;
+        return true;
+    }
+
+    /**
+     * Skips the remaining complete ticks, only reading their sizes.
+     *
+     * @return the offset just after the last complete tick, i.e. where a truncated tick starts if there is one.
+     * @throws UncheckedIOException if the file can't be read.
+     */
+    long skipToEnd()
+    {
+        while (nextTick + SteeringRecorder.TICK_HEADER_SIZE <= end)
+        {
+            int size;
+            if (channel == null)
+            {
+                size = buffer.getInt((int) nextTick);
+            }
+            else if (read(nextTick, 4))
+            {
+                size = current.getInt(0);
+            }
+            else
+            {
+                break;
+            }
+
+            if (size < SteeringRecorder.TICK_HEADER_SIZE - 4 || nextTick + 4L + size > end)
+            {
+                break;
+            }
+
+            nextTick += 4 + size;
+        }
+
+        vehicleCount = 0;
+        obstacles.clear();
+        return nextTick;
+    }
+
+    /**
+     * Gets the elapsed time of the current tick.
+     *
+     * @return the elapsed time.
+     */
+    public float getElapsedTime()
+    {
+        return elapsedTime;
+    }
+
+    /**
+     * Gets the number of vehicles in the current tick.
+     *
+     * @return the number of vehicles.
+     */
+    public int getVehicleCount()
+    {
+        return vehicleCount;
+    }
+
+    /**
+     * Gets the target of a vehicle in the current tick.
+     *
+     * @param index the index of the vehicle.
+     * @return the target, or {@code null} if the vehicle had no target. The vector is reused by later ticks.
+     */
+    public Vector2 getTarget(int index)
+    {
+        Vector2 target = targets.items[index];
+        return Float.isNaN(target.x) ? null : target;
+    }
+
+    /**
+     * Gets the obstacles of the current tick.
+     *
+     * @return the obstacles. The list and obstacles are reused by later ticks.
+     */
+    public List<Obstacle> getObstacles()
+    {
+        return obstacles;
+    }
+
+    /**
+     * Loads the vehicles of the current tick into a batch, replacing its contents.
+     *
+     * @param batch the batch.
+     */
+    public void loadVehicles(SteeringBatch batch)
+    {
+        batch.setSize(vehicleCount);
+
+        float[] positionX = batch.getPositionX();
+        float[] positionY = batch.getPositionY();
+        float[] velocityX = batch.getVelocityX();
+        float[] velocityY = batch.getVelocityY();
+        float[] directionX = batch.getDirectionX();
+        float[] directionY = batch.getDirectionY();
+        float[] radius = batch.getRadius();
+        float[] maximumThrust = batch.getMaximumThrust();
+        float[] maximumReverseThrust = batch.getMaximumReverseThrust();
+        float[] rotationRate = batch.getRotationRate();
+        float[] maximumSpeed = batch.getMaximumSpeed();
+
+        int offset = vehiclesOffset;
+        for (int i = 0; i < vehicleCount; i++, offset += SteeringRecorder.VEHICLE_SIZE)
+        {
+            positionX[i] = current.getFloat(offset);
+            positionY[i] = current.getFloat(offset + 4);
+            velocityX[i] = current.getFloat(offset + 8);
+            velocityY[i] = current.getFloat(offset + 12);
+            directionX[i] = current.getFloat(offset + 16);
+            directionY[i] = current.getFloat(offset + 20);
+            radius[i] = current.getFloat(offset + 24);
+            maximumThrust[i] = current.getFloat(offset + 28);
+            maximumReverseThrust[i] = current.getFloat(offset + 32);
+            rotationRate[i] = current.getFloat(offset + 36);
+
+            float speed = current.getFloat(offset + 40);
+            maximumSpeed[i] = Float.isNaN(speed) ? Float.POSITIVE_INFINITY : speed;
+        }
+    }
+
+    /**
+     * Replays every tick from the start of the recording, steering each vehicle with a behaviour. The behaviour can
+     * use {@link #getTarget(int)} and {@link #getObstacles()} for the current tick.
+     *
+     * @param behaviour the behaviour to apply to each vehicle.
+     * @param getSteeringComponents the strategy to steer with.
+     * @param potentialCollisionDetector the collision detector, or {@code null} if the behaviour doesn't avoid
+     *                                   obstacles.
+     * @return the throughput.
+     */
+    public Result run(FleetSteering.Behaviour behaviour, GetSteeringComponents getSteeringComponents,
+                      PotentialCollisionDetector potentialCollisionDetector)
+    {
+        SteeringBatch batch = new SteeringBatch(16, null);
+        Array<Steering> steerings = new Array<Steering>(true, 16, Steering.class);
+        SteeringComponents result = new SteeringComponents();
+
+        int ticks = 0;
+        long steps = 0;
+        long nanos = 0;
+
+        rewind();
+        while (nextTick())
+        {
+            loadVehicles(batch);
+            while (steerings.size < vehicleCount)
+            {
+                steerings.add(new Steering(batch.getVehicle(steerings.size), getSteeringComponents,
+                        potentialCollisionDetector));
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < vehicleCount; i++)
+            {
+                behaviour.steer(i, steerings.items[i], elapsedTime, result);
+            }
+            nanos += System.nanoTime() - start;
+
+            ticks++;
+            steps += vehicleCount;
+        }
+
+        return new Result(ticks, steps, nanos);
+    }
+
+    /**
+     * Closes the file, if replaying from one.
+     *
+     * @throws IOException if the file can't be closed.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if (channel != null)
+        {
+            channel.close();
+        }
+    }
+
+    /**
+     * Reads part of the file into the start of the read buffer, growing it if needed.
+     *
+     * @param offset the offset in the file.
+     * @param length the number of bytes to read.
+     * @return {@code false} if the file ends first.
+     */
+    private boolean read(long offset, int length)
+    {
+        if (current.capacity() < length)
+        {
+            current = ByteBuffer.allocateDirect(Math.max(length, current.capacity() * 2));
+            current.order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        base = 0;
+        current.clear();
+        current.limit(length);
+
+        try
+        {
+            while (current.hasRemaining())
+            {
+                if (channel.read(current, offset + current.position()) < 0)
+                {
+                    return false;
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+
+        return true;
+    }
+
+    private void readTargets()
+    {
+        while (targets.size < vehicleCount)
+        {
+            targets.add(new Vector2());
+        }
+
+        int offset = vehiclesOffset + 44;
+        for (int i = 0; i < vehicleCount; i++, offset += SteeringRecorder.VEHICLE_SIZE)
+        {
+            targets.items[i].set(current.getFloat(offset), current.getFloat(offset + 4));
+        }
+    }
+
+    private void readObstacles(int offset, int count)
+    {
+        while (obstaclePool.size() < count)
+        {
+            obstaclePool.add(new SimpleMovingObstacle());
+        }
+
+        obstacles.clear();
+        for (int i = 0; i < count; i++, offset += SteeringRecorder.OBSTACLE_SIZE)
+        {
+            SimpleMovingObstacle obstacle = obstaclePool.get(i);
+            obstacle.position.set(current.getFloat(offset), current.getFloat(offset + 4));
+            obstacle.radius = current.getFloat(offset + 8);
+            obstacle.velocity.set(current.getFloat(offset + 12), current.getFloat(offset + 16));
+            obstacles.add(obstacle);
+        }
+    }
+
+    /**
+     * A replayed obstacle.
+     */
+    private static class SimpleMovingObstacle implements MovingObstacle
+    {
+        private final Vector2 position = new Vector2();
+        private final Vector2 velocity = new Vector2();
+        private float radius;
+
+        @Override
+        public Vector2 getVelocity()
+        {
+            return velocity;
+        }
+
+        @Override
+        public float getRadius()
+        {
+            return radius;
+        }
+
+        @Override
+        public Vector2 getPosition()
+        {
+            return position;
+        }
+    }
+}
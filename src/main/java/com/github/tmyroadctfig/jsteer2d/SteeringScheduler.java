@@ -0,0 +1,431 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Steers a population of vehicles with a level of detail, so that far away or unimportant vehicles aren't steered
+ * every tick.
+ *
+ * <p>Each tick a {@link LevelOfDetail} gives the update period of each vehicle: 1 to steer it every tick, N to steer
+ * it every Nth tick. Vehicles with the same period are staggered by their index so the work is spread evenly across
+ * ticks. In between updates the last result is reused, with its rotation and thrust scaled by the ratio of the
+ * current elapsed time to the elapsed time it was calculated for.</p>
+ *
+ * <p>A time budget can also cap the steering work done per tick. Vehicles are visited round-robin, and once the budget
+ * is spent the remaining due vehicles are deferred to the next tick, where they are visited first. At least one
+ * vehicle is always steered per tick so the population keeps making progress.</p>
+ *
+ * <p>This class is not thread-safe.</p>
+ */
+public class SteeringScheduler
+{
+    /**
+     * Decides how often each vehicle is steered.
+     */
+    public interface LevelOfDetail
+    {
+        /**
+         * Gets the update period of a vehicle.
+         *
+         * @param index the index of the vehicle in the scheduler.
+         * @param vehicle the vehicle.
+         * @return the number of ticks between updates, 1 to update every tick.
+         */
+        int getUpdatePeriod(int index, Vehicle vehicle);
+    }
+
+    /**
+     * A level of detail based on the distance from a focus point, e.g. the camera or the player.
+     */
+    public static class DistanceLevelOfDetail implements LevelOfDetail
+    {
+        /**
+         * The focus point.
+         */
+        protected final Vector2 focus = new Vector2();
+
+        /**
+         * The squared distance thresholds, in increasing order.
+         */
+        protected final float[] distancesSquared;
+
+        /**
+         * The update period for vehicles within each threshold, and one more for vehicles beyond the last.
+         */
+        protected final int[] periods;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param distances the distance thresholds, in increasing order.
+         * @param periods the update period for vehicles within each threshold, followed by the period for vehicles
+         *                beyond the last threshold. E.g. distances {@code {500, 2000}} and periods {@code {1, 4, 16}}.
+         */
+        public DistanceLevelOfDetail(float[] distances, int[] periods)
+        {
+            if (periods.length != distances.length + 1)
+            {
+                throw new IllegalArgumentException("Need one more period than distances");
+            }
+
+            distancesSquared = new float[distances.length];
+            for (int i = 0; i < distances.length; i++)
+            {
+                if (i > 0 && distances[i] < distances[i - 1])
+                {
+                    throw new IllegalArgumentException("Distances must be increasing");
+                }
+
+                distancesSquared[i] = distances[i] * distances[i];
+            }
+
+            for (int period : periods)
+            {
+                if (period < 1)
+                {
+                    throw new IllegalArgumentException("Periods must be at least 1: " + period);
+                }
+            }
+
+            this.periods = periods.clone();
+        }
+
+        /**
+         * Gets the focus point. The point can be modified directly between ticks.
+         *
+         * @return the focus point.
+         */
+        public Vector2 getFocus()
+        {
+            return focus;
+        }
+
+        @Override
+        public int getUpdatePeriod(int index, Vehicle vehicle)
+        {
+            float distanceSquared = Vector2.dst2(focus.x, focus.y, vehicle.getPositionX(), vehicle.getPositionY());
+
+            for (int i = 0; i < distancesSquared.length; i++)
+            {
+                if (distanceSquared <= distancesSquared[i])
+                {
+                    return periods[i];
+                }
+            }
+
+            return periods[periods.length - 1];
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Fields
+
+    /**
+     * The steering for each vehicle.
+     */
+    protected final Array<Steering> steerings = new Array<Steering>(true, 16, Steering.class);
+
+    /**
+     * The last steering components calculated for each vehicle.
+     */
+    protected final Array<SteeringComponents> calculated = new Array<SteeringComponents>(true, 16,
+            SteeringComponents.class);
+
+    /**
+     * The result for each vehicle from the last tick, either just calculated or scaled from {@link #calculated}.
+     */
+    protected final Array<SteeringComponents> results = new Array<SteeringComponents>(true, 16,
+            SteeringComponents.class);
+
+    /**
+     * The elapsed time each vehicle's {@link #calculated} components were calculated for.
+     */
+    protected final FloatArray calculatedElapsedTime = new FloatArray(true, 16);
+
+    /**
+     * The tick each vehicle was last steered in, or -1 if never.
+     */
+    protected final IntArray lastUpdate = new IntArray(true, 16);
+
+    /**
+     * The level of detail, or {@code null} to steer every vehicle every tick.
+     */
+    protected LevelOfDetail levelOfDetail;
+
+    /**
+     * The maximum time to spend steering per tick in nanoseconds, or 0 for no limit.
+     */
+    protected long timeBudgetNanos;
+
+    /**
+     * The number of ticks so far.
+     */
+    protected int tick;
+
+    /**
+     * The index to start visiting vehicles from in the next tick.
+     */
+    protected int cursor;
+
+    /**
+     * The number of vehicles steered in the last tick.
+     */
+    protected int updatedCount;
+
+    /**
+     * The number of due vehicles deferred in the last tick because the time budget was spent.
+     */
+    protected int deferredCount;
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Methods
+
+    /**
+     * Adds a vehicle to the scheduler. It is steered in the next tick.
+     *
+     * @param steering the steering for the vehicle.
+     * @return the index of the vehicle in the scheduler.
+     */
+    public int add(Steering steering)
+    {
+        steerings.add(steering);
+        calculated.add(new SteeringComponents());
+        results.add(new SteeringComponents());
+        calculatedElapsedTime.add(0);
+        lastUpdate.add(-1);
+
+        return steerings.size - 1;
+    }
+
+    /**
+     * Gets the number of vehicles in the scheduler.
+     *
+     * @return the number of vehicles.
+     */
+    public int size()
+    {
+        return steerings.size;
+    }
+
+    /**
+     * Gets the steering for a vehicle.
+     *
+     * @param index the index of the vehicle.
+     * @return the steering.
+     */
+    public Steering getSteering(int index)
+    {
+        return steerings.get(index);
+    }
+
+    /**
+     * Gets the result for a vehicle from the last tick. This is no steering until the vehicle has been steered once.
+     *
+     * @param index the index of the vehicle.
+     * @return the steering components.
+     */
+    public SteeringComponents getResult(int index)
+    {
+        return results.get(index);
+    }
+
+    /**
+     * Checks whether a vehicle was steered in the last tick, rather than reusing an earlier result.
+     *
+     * @param index the index of the vehicle.
+     * @return {@code true} if the vehicle was steered.
+     */
+    public boolean isUpdated(int index)
+    {
+        return lastUpdate.get(index) == tick - 1;
+    }
+
+    public LevelOfDetail getLevelOfDetail()
+    {
+        return levelOfDetail;
+    }
+
+    /**
+     * Sets the level of detail.
+     *
+     * @param levelOfDetail the level of detail, or {@code null} to steer every vehicle every tick.
+     */
+    public void setLevelOfDetail(LevelOfDetail levelOfDetail)
+    {
+        this.levelOfDetail = levelOfDetail;
+    }
+
+    public long getTimeBudgetNanos()
+    {
+        return timeBudgetNanos;
+    }
+
+    /**
+     * Sets the maximum time to spend steering per tick. Which vehicles are deferred then depends on timing, so leave
+     * the budget disabled in lockstep simulations that must be deterministic.
+     *
+     * @param timeBudgetNanos the time budget in nanoseconds, or 0 for no limit.
+     */
+    public void setTimeBudgetNanos(long timeBudgetNanos)
+    {
+        if (timeBudgetNanos < 0)
+        {
+            throw new IllegalArgumentException("Time budget can't be negative: " + timeBudgetNanos);
+        }
+
+        this.timeBudgetNanos = timeBudgetNanos;
+    }
+
+    /**
+     * Gets the number of vehicles steered in the last tick.
+     *
+     * @return the number of vehicles.
+     */
+    public int getUpdatedCount()
+    {
+        return updatedCount;
+    }
+
+    /**
+     * Gets the number of due vehicles that were deferred in the last tick because the time budget was spent.
+     *
+     * @return the number of vehicles.
+     */
+    public int getDeferredCount()
+    {
+        return deferredCount;
+    }
+
+    /**
+     * Steers the due vehicles and updates the result of every vehicle.
+     *
+     * @param behaviour the behaviour to apply to each vehicle that is due. The vehicle's steering operates on the live
+     *                  vehicle.
+     * @param elapsedTime the elapsed time.
+     */
+    public void tick(FleetSteering.Behaviour behaviour, float elapsedTime)
+    {
+        int size = steerings.size;
+        long start = timeBudgetNanos > 0 ? System.nanoTime() : 0;
+        boolean budgetSpent = false;
+
+        updatedCount = 0;
+        deferredCount = 0;
+
+        int index = cursor < size ? cursor : 0;
+        int nextCursor = index;
+
+        for (int visited = 0; visited < size; visited++, index = index + 1 < size ? index + 1 : 0)
+        {
+            boolean due = isDue(index);
+
+            if (due && !budgetSpent)
+            {
+                SteeringComponents components = calculated.items[index];
+                behaviour.steer(index, steerings.items[index], elapsedTime, components);
+
+                calculatedElapsedTime.items[index] = elapsedTime;
+                lastUpdate.items[index] = tick;
+                results.items[index].set(components);
+                updatedCount++;
+
+                if (timeBudgetNanos > 0 && System.nanoTime() - start >= timeBudgetNanos)
+                {
+                    budgetSpent = true;
+                    nextCursor = index + 1 < size ? index + 1 : 0;
+                }
+
+                continue;
+            }
+
+            if (due)
+            {
+                deferredCount++;
+            }
+
+            reuse(index, elapsedTime);
+        }
+
+        cursor = nextCursor;
+        tick++;
+    }
+
+    /**
+     * Checks whether a vehicle is due to be steered this tick.
+     *
+     * @param index the index of the vehicle.
+     * @return {@code true} if the vehicle should be steered.
+     */
+    protected boolean isDue(int index)
+    {
+        int last = lastUpdate.items[index];
+        if (last < 0)
+        {
+            return true;
+        }
+
+        int period = getUpdatePeriod(index);
+
+        // Stagger vehicles with the same period across ticks, and catch up any that were deferred or changed period
+        return period <= 1 || (tick + index) % period == 0 || tick - last > period;
+    }
+
+    /**
+     * Gets the update period of a vehicle from the level of detail.
+     *
+     * @param index the index of the vehicle.
+     * @return the update period, at least 1.
+     */
+    protected int getUpdatePeriod(int index)
+    {
+        if (levelOfDetail == null)
+        {
+            return 1;
+        }
+
+        return Math.max(1, levelOfDetail.getUpdatePeriod(index, steerings.items[index].getVehicle()));
+    }
+
+    /**
+     * Reuses the last calculated components of a vehicle, scaled to the elapsed time.
+     *
+     * @param index the index of the vehicle.
+     * @param elapsedTime the elapsed time.
+     */
+    protected void reuse(int index, float elapsedTime)
+    {
+        SteeringComponents components = calculated.items[index];
+        SteeringComponents result = results.items[index];
+        float calculatedFor = calculatedElapsedTime.items[index];
+
+        result.set(components);
+
+        if (calculatedFor != 0 && calculatedFor != elapsedTime)
+        {
+            // Rotation and thrust are both per elapsed time
+            float scale = elapsedTime / calculatedFor;
+            result.setRotation(components.getRotation() * scale);
+            result.setThrust(components.getThrust() * scale);
+        }
+    }
+}
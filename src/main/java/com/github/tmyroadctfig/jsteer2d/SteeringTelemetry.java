@@ -0,0 +1,367 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link SteeringMetrics} that aggregates counters and latency histograms in memory, indexed by the code of each
+ * {@link SteeringObjective}.
+ *
+ * <p>Latencies are recorded in power of two buckets: bucket {@code b} holds durations in the range
+ * {@code [2^(b-1), 2^b)} nanoseconds, with bucket 0 holding zero durations.</p>
+ *
+ * <p>This class is thread-safe and doesn't allocate once each objective has been seen.</p>
+ */
+public class SteeringTelemetry implements SteeringMetrics
+{
+    ///////////////////////////////////////////////////////////////////////////
+    // Fields
+
+    /**
+     * The number of latency histogram buckets.
+     */
+    public static final int HISTOGRAM_BUCKETS = 64;
+
+    /**
+     * The statistics for each steering objective, indexed by code. Created the first time each objective is seen.
+     */
+    protected final AtomicReferenceArray<ObjectiveTelemetry> objectives =
+            new AtomicReferenceArray<ObjectiveTelemetry>(SteeringObjective.MAXIMUM_OBJECTIVES);
+
+    /**
+     * The number of steering components calculated.
+     */
+    protected final LongAdder components = new LongAdder();
+
+    /**
+     * The number of steering components where the rotation was clamped.
+     */
+    protected final LongAdder rotationClamps = new LongAdder();
+
+    /**
+     * The number of collision detector queries.
+     */
+    protected final LongAdder collisionQueries = new LongAdder();
+
+    /**
+     * The number of collision detector queries that found a potential collision.
+     */
+    protected final LongAdder collisionHits = new LongAdder();
+
+    /**
+     * The number of obstacles tested by collision detector queries.
+     */
+    protected final LongAdder collisionCandidates = new LongAdder();
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Methods
+
+    @Override
+    public void recordBehaviour(SteeringObjective steeringObjective, long durationNanos)
+    {
+        ObjectiveTelemetry telemetry = getOrCreate(steeringObjective);
+        telemetry.calls.increment();
+        telemetry.totalNanos.add(durationNanos);
+        telemetry.histogram.incrementAndGet(getBucket(durationNanos));
+    }
+
+    @Override
+    public void recordComponents(SteeringObjective steeringObjective, boolean rotationClamped)
+    {
+        components.increment();
+
+        ObjectiveTelemetry telemetry = getOrCreate(steeringObjective);
+        telemetry.components.increment();
+
+        if (rotationClamped)
+        {
+            rotationClamps.increment();
+            telemetry.rotationClamps.increment();
+        }
+    }
+
+    @Override
+    public void recordCollisionQuery(int candidatesExamined, boolean collisionFound)
+    {
+        collisionQueries.increment();
+        collisionCandidates.add(candidatesExamined);
+
+        if (collisionFound)
+        {
+            collisionHits.increment();
+        }
+    }
+
+    /**
+     * Gets the steering objectives that have been recorded, in code order.
+     *
+     * @return the objectives.
+     */
+    public List<SteeringObjective> getObjectives()
+    {
+        List<SteeringObjective> recorded = new ArrayList<SteeringObjective>();
+
+        for (int code = 0; code < objectives.length(); code++)
+        {
+            if (objectives.get(code) != null)
+            {
+                recorded.add(SteeringObjective.forCode(code));
+            }
+        }
+
+        return recorded;
+    }
+
+    /**
+     * Gets the number of behaviour calls for an objective.
+     *
+     * @param steeringObjective the steering objective.
+     * @return the number of calls.
+     */
+    public long getCalls(SteeringObjective steeringObjective)
+    {
+        ObjectiveTelemetry telemetry = get(steeringObjective);
+        return telemetry == null ? 0 : telemetry.calls.sum();
+    }
+
+    /**
+     * Gets the total time spent in behaviour calls for an objective.
+     *
+     * @param steeringObjective the steering objective.
+     * @return the total time in nanoseconds.
+     */
+    public long getTotalNanos(SteeringObjective steeringObjective)
+    {
+        ObjectiveTelemetry telemetry = get(steeringObjective);
+        return telemetry == null ? 0 : telemetry.totalNanos.sum();
+    }
+
+    /**
+     * Gets a copy of the latency histogram for an objective.
+     *
+     * @param steeringObjective the steering objective.
+     * @return the count in each of the {@link #HISTOGRAM_BUCKETS} buckets.
+     */
+    public long[] getLatencyHistogram(SteeringObjective steeringObjective)
+    {
+        long[] counts = new long[HISTOGRAM_BUCKETS];
+
+        ObjectiveTelemetry telemetry = get(steeringObjective);
+        if (telemetry != null)
+        {
+            for (int i = 0; i < HISTOGRAM_BUCKETS; i++)
+            {
+                counts[i] = telemetry.histogram.get(i);
+            }
+        }
+
+        return counts;
+    }
+
+    /**
+     * Estimates a latency percentile for an objective from its histogram.
+     *
+     * @param steeringObjective the steering objective.
+     * @param percentile the percentile in the range [0, 100].
+     * @return the upper bound of the bucket holding the percentile in nanoseconds, or 0 if there are no calls.
+     */
+    public long getLatencyPercentile(SteeringObjective steeringObjective, double percentile)
+    {
+        long[] counts = getLatencyHistogram(steeringObjective);
+
+        long total = 0;
+        for (long count : counts)
+        {
+            total += count;
+        }
+
+        if (total == 0)
+        {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+
+        for (int bucket = 0; bucket < HISTOGRAM_BUCKETS; bucket++)
+        {
+            seen += counts[bucket];
+            if (seen >= rank)
+            {
+                return bucket == 0 ? 0 : (bucket >= 63 ? Long.MAX_VALUE : (1L << bucket) - 1);
+            }
+        }
+
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Gets the number of steering components calculated.
+     *
+     * @return the number of components.
+     */
+    public long getComponents()
+    {
+        return components.sum();
+    }
+
+    /**
+     * Gets the fraction of steering components where the rotation was clamped to the vehicle's rotation rate.
+     *
+     * @return the fraction in the range [0, 1], or 0 if no components have been calculated.
+     */
+    public double getRotationClampFraction()
+    {
+        return fraction(rotationClamps.sum(), components.sum());
+    }
+
+    /**
+     * Gets the fraction of steering components for an objective where the rotation was clamped.
+     *
+     * @param steeringObjective the steering objective.
+     * @return the fraction in the range [0, 1], or 0 if no components have been calculated.
+     */
+    public double getRotationClampFraction(SteeringObjective steeringObjective)
+    {
+        ObjectiveTelemetry telemetry = get(steeringObjective);
+        return telemetry == null ? 0 : fraction(telemetry.rotationClamps.sum(), telemetry.components.sum());
+    }
+
+    /**
+     * Gets the number of collision detector queries.
+     *
+     * @return the number of queries.
+     */
+    public long getCollisionQueries()
+    {
+        return collisionQueries.sum();
+    }
+
+    /**
+     * Gets the fraction of collision detector queries that found a potential collision.
+     *
+     * @return the fraction in the range [0, 1], or 0 if there have been no queries.
+     */
+    public double getCollisionHitRate()
+    {
+        return fraction(collisionHits.sum(), collisionQueries.sum());
+    }
+
+    /**
+     * Gets the average number of obstacles tested per collision detector query.
+     *
+     * @return the average, or 0 if there have been no queries.
+     */
+    public double getAverageCollisionCandidates()
+    {
+        return fraction(collisionCandidates.sum(), collisionQueries.sum());
+    }
+
+    /**
+     * Resets all counters. Calls recorded concurrently with a reset may be partly retained.
+     */
+    public void reset()
+    {
+        for (int code = 0; code < objectives.length(); code++)
+        {
+            objectives.set(code, null);
+        }
+
+        components.reset();
+        rotationClamps.reset();
+        collisionQueries.reset();
+        collisionHits.reset();
+        collisionCandidates.reset();
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder("SteeringTelemetry[");
+
+        for (SteeringObjective objective : getObjectives())
+        {
+            ObjectiveTelemetry telemetry = get(objective);
+            long calls = telemetry.calls.sum();
+
+            builder.append(objective)
+                    .append(": calls=").append(calls)
+                    .append(" mean=").append(calls == 0 ? 0 : telemetry.totalNanos.sum() / calls).append("ns")
+                    .append(" p99<=").append(getLatencyPercentile(objective, 99)).append("ns; ");
+        }
+
+        return builder.append("rotation clamped=").append(getRotationClampFraction())
+                .append(" collision queries=").append(getCollisionQueries())
+                .append(" hit rate=").append(getCollisionHitRate())
+                .append(" candidates/query=").append(getAverageCollisionCandidates())
+                .append(']').toString();
+    }
+
+    /**
+     * Gets the histogram bucket for a duration.
+     *
+     * @param durationNanos the duration in nanoseconds.
+     * @return the bucket.
+     */
+    protected static int getBucket(long durationNanos)
+    {
+        return durationNanos <= 0 ? 0 : Math.min(HISTOGRAM_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(durationNanos));
+    }
+
+    private ObjectiveTelemetry get(SteeringObjective steeringObjective)
+    {
+        return objectives.get(steeringObjective.getCode());
+    }
+
+    private ObjectiveTelemetry getOrCreate(SteeringObjective steeringObjective)
+    {
+        int code = steeringObjective.getCode();
+
+        ObjectiveTelemetry telemetry = objectives.get(code);
+        while (telemetry == null)
+        {
+            // Loop in case a concurrent reset clears the slot again
+            objectives.compareAndSet(code, null, new ObjectiveTelemetry());
+            telemetry = objectives.get(code);
+        }
+
+        return telemetry;
+    }
+
+    private static double fraction(long count, long total)
+    {
+        return total == 0 ? 0 : (double) count / total;
+    }
+
+    /**
+     * The statistics for a single steering objective.
+     */
+    protected static class ObjectiveTelemetry
+    {
+        final LongAdder calls = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAdder components = new LongAdder();
+        final LongAdder rotationClamps = new LongAdder();
+        final AtomicLongArray histogram = new AtomicLongArray(HISTOGRAM_BUCKETS);
+    }
+}
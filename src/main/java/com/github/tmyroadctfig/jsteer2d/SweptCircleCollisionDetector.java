@@ -0,0 +1,105 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+/**
+ * A potential collision detector that accounts for the motion of both the vehicle and any {@link MovingObstacle}s.
+ * The time to collision is solved analytically for each pair of circles, and the obstacle with the earliest impact
+ * within the detection period is returned. Obstacles that don't implement {@link MovingObstacle} are treated as
+ * stationary.
+ *
+ * <p>This class is stateless and thread-safe.</p>
+ */
+public class SweptCircleCollisionDetector implements PotentialCollisionDetector
+{
+    /**
+     * The sink for instrumentation, or {@code null} if instrumentation is disabled.
+     */
+    private final SteeringMetrics metrics;
+
+    public SweptCircleCollisionDetector()
+    {
+        this(null);
+    }
+
+    /**
+     * @param metrics the sink to record each query with, or {@code null} to disable instrumentation.
+     */
+    public SweptCircleCollisionDetector(SteeringMetrics metrics)
+    {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Obstacle findNearestPotentialCollision(Vehicle vehicle, Iterable<Obstacle> obstacles, float detectionPeriod)
+    {
+        float positionX = vehicle.getPositionX();
+        float positionY = vehicle.getPositionY();
+        float velocityX = vehicle.getVelocityX();
+        float velocityY = vehicle.getVelocityY();
+        float vehicleRadius = vehicle.getRadius();
+
+        Obstacle nearest = null;
+        float nearestTime = detectionPeriod;
+        int candidates = 0;
+
+        for (Obstacle obstacle : obstacles)
+        {
+            if (VehicleUtils.isSameVehicle(vehicle, obstacle))
+            {
+                continue;
+            }
+
+            candidates++;
+
+            float relativeVelocityX = -velocityX;
+            float relativeVelocityY = -velocityY;
+
+            if (obstacle instanceof MovingObstacle)
+            {
+                MovingObstacle movingObstacle = (MovingObstacle) obstacle;
+                relativeVelocityX += movingObstacle.getVelocityX();
+                relativeVelocityY += movingObstacle.getVelocityY();
+            }
+
+            // Only impacts sooner than the nearest so far are of interest
+            float time = CollisionUtils.findTimeToCollision(obstacle.getPositionX() - positionX,
+                    obstacle.getPositionY() - positionY, relativeVelocityX, relativeVelocityY,
+                    obstacle.getRadius() + vehicleRadius, nearestTime);
+
+            if (time <= nearestTime && (nearest == null || time < nearestTime))
+            {
+                nearest = obstacle;
+                nearestTime = time;
+
+                if (time == 0)
+                {
+                    // Nothing can be nearer than an existing overlap
+                    break;
+                }
+            }
+        }
+
+        if (metrics != null)
+        {
+            metrics.recordCollisionQuery(candidates, nearest != null);
+        }
+
+        return nearest;
+    }
+}
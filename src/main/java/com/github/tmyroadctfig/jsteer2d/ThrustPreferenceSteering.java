@@ -21,29 +21,82 @@ import com.badlogic.gdx.math.Vector2;
 
 /**
  * A steering strategy that preferences thrust over rotation.
+ *
+ * <p>This class holds no mutable state so a single instance can be shared by any number of {@link Steering} instances
+ * and threads.</p>
  */
-public class ThrustPreferenceSteering implements GetSteeringComponents
+public class ThrustPreferenceSteering implements GetSteeringComponents, GetBatchSteeringComponents
 {
+    /**
+     * Finds the rotation between the vehicle direction and the steering force.
+     */
+    private final GetAngleBetweenVectors angleBetweenVectors;
+
+    /**
+     * The sink for instrumentation, or {@code null} if instrumentation is disabled.
+     */
+    private final SteeringMetrics metrics;
+
+    public ThrustPreferenceSteering()
+    {
+        this(Vector2Utils.ACCURATE_ANGLE);
+    }
+
+    /**
+     * @param angleBetweenVectors finds the rotation between the vehicle direction and the steering force, e.g.
+     *                            {@link Vector2Utils#FAST_ANGLE} to trade a little accuracy for speed.
+     */
+    public ThrustPreferenceSteering(GetAngleBetweenVectors angleBetweenVectors)
+    {
+        this(angleBetweenVectors, null);
+    }
+
+    /**
+     * @param angleBetweenVectors finds the rotation between the vehicle direction and the steering force.
+     * @param metrics the sink for instrumentation, or {@code null} to disable instrumentation.
+     */
+    public ThrustPreferenceSteering(GetAngleBetweenVectors angleBetweenVectors, SteeringMetrics metrics)
+    {
+        this.angleBetweenVectors = angleBetweenVectors;
+        this.metrics = metrics;
+    }
+
     @Override
-    public SteeringComponents getComponents(Vehicle vehicle, String steeringObjective, Vector2 steeringForce,
+    public SteeringComponents getComponents(Vehicle vehicle, SteeringObjective steeringObjective, Vector2 steeringForce,
                                             float elapsedTime)
     {
-        float rotation = Vector2Utils.findAngleBetweenTwoVectors(vehicle.getDirection(), steeringForce);
+        return getComponents(vehicle, steeringObjective, steeringForce, elapsedTime, new SteeringComponents());
+    }
+
+    @Override
+    public SteeringComponents getComponents(Vehicle vehicle, SteeringObjective steeringObjective, Vector2 steeringForce,
+                                            float elapsedTime, SteeringComponents result)
+    {
+        float directionX = vehicle.getDirectionX();
+        float directionY = vehicle.getDirectionY();
+        float rotation = angleBetweenVectors.getAngle(directionX, directionY, steeringForce.x, steeringForce.y);
 
         float maxRotation = vehicle.getRotationRate() * elapsedTime;
 
-        if (Math.abs(rotation) > maxRotation)
+        boolean rotationClamped = Math.abs(rotation) > maxRotation;
+        if (rotationClamped)
         {
             rotation = MathHelper.clamp(rotation, -maxRotation, maxRotation);
         }
 
-        Vector2 normalizedSteeringForce = steeringForce.cpy();
-        normalizedSteeringForce.nor();
-        float thrust = vehicle.getDirection().dot(normalizedSteeringForce);
+        if (metrics != null)
+        {
+            metrics.recordComponents(steeringObjective, rotationClamped);
+        }
+
+        result.set(steeringObjective, steeringForce, steeringForce, rotation, 0);
+
+        Vector2 normalizedSteeringForce = result.getSteeringForce().nor();
+        float thrust = directionX * normalizedSteeringForce.x + directionY * normalizedSteeringForce.y;
 
         // How parallel is the steering force compared to the vehicle direction
         // 1 is parallel, 0 is perpendicular, -1 anti-parallel
-        float parallel = vehicle.getDirection().dot(normalizedSteeringForce);
+        float parallel = directionX * normalizedSteeringForce.x + directionY * normalizedSteeringForce.y;
 
         if (parallel > 0)
         {
@@ -56,23 +109,95 @@ public class ThrustPreferenceSteering implements GetSteeringComponents
 
         thrust *= elapsedTime;
 
-        return new SteeringComponents(steeringObjective, steeringForce, normalizedSteeringForce, rotation, thrust);
+        result.setThrust(thrust);
+        return result;
     }
 
     @Override
     public SteeringComponents arriveAtImpl(Vehicle vehicle, float distanceToTarget, float stoppingDistance,
                                            Vector2 steeringForce, float elapsedTime)
     {
-        SteeringComponents components = getComponents(vehicle, "Arrive at", steeringForce, elapsedTime);
+        return arriveAtImpl(vehicle, distanceToTarget, stoppingDistance, steeringForce, elapsedTime,
+                new SteeringComponents());
+    }
 
-        float rampedSpeed = vehicle.getMaximumSpeed() * distanceToTarget / stoppingDistance;
+    @Override
+    public SteeringComponents arriveAtImpl(Vehicle vehicle, float distanceToTarget, float stoppingDistance,
+                                           Vector2 steeringForce, float elapsedTime, SteeringComponents result)
+    {
+        SteeringComponents components = getComponents(vehicle, SteeringObjective.ARRIVE_AT, steeringForce, elapsedTime,
+                result);
+
+        float rampedSpeed = vehicle.getSpeedLimit() * distanceToTarget / stoppingDistance;
 
-        steeringForce.cpy().nor();
-        if (vehicle.getVelocity().dot(steeringForce) > rampedSpeed)
+        float velocityDotForce = vehicle.getVelocityX() * steeringForce.x + vehicle.getVelocityY() * steeringForce.y;
+        if (velocityDotForce > rampedSpeed)
         {
             components.setThrust(-0.01f);
         }
 
         return components;
     }
+
+    @Override
+    public void getComponents(SteeringBatch batch, int start, int end, float elapsedTime)
+    {
+        float[] directionX = batch.getDirectionX();
+        float[] directionY = batch.getDirectionY();
+        float[] forceX = batch.getForceX();
+        float[] forceY = batch.getForceY();
+        float[] rotationRate = batch.getRotationRate();
+        float[] maximumThrust = batch.getMaximumThrust();
+        float[] maximumReverseThrust = batch.getMaximumReverseThrust();
+        byte[] objective = batch.getObjective();
+        float[] rotationOutput = batch.getRotation();
+        float[] thrustOutput = batch.getThrust();
+
+        for (int i = start; i < end; i++)
+        {
+            float rotation = angleBetweenVectors.getAngle(directionX[i], directionY[i], forceX[i], forceY[i]);
+
+            float maxRotation = rotationRate[i] * elapsedTime;
+
+            boolean rotationClamped = Math.abs(rotation) > maxRotation;
+            if (rotationClamped)
+            {
+                rotation = MathHelper.clamp(rotation, -maxRotation, maxRotation);
+            }
+
+            if (metrics != null)
+            {
+                metrics.recordComponents(SteeringObjective.forCode(objective[i]), rotationClamped);
+            }
+
+            float normalizedX = forceX[i];
+            float normalizedY = forceY[i];
+            float length = Vector2.len(normalizedX, normalizedY);
+            if (length != 0)
+            {
+                normalizedX /= length;
+                normalizedY /= length;
+            }
+
+            float parallel = directionX[i] * normalizedX + directionY[i] * normalizedY;
+            float thrust = parallel * (parallel > 0 ? maximumThrust[i] : maximumReverseThrust[i]);
+
+            rotationOutput[i] = rotation;
+            thrustOutput[i] = thrust * elapsedTime;
+        }
+    }
+
+    @Override
+    public void arriveAtImpl(SteeringBatch batch, int index, float distanceToTarget, float stoppingDistance,
+                             float elapsedTime)
+    {
+        float rampedSpeed = batch.getMaximumSpeed()[index] * distanceToTarget / stoppingDistance;
+
+        float velocityDotForce = batch.getVelocityX()[index] * batch.getForceX()[index] +
+                batch.getVelocityY()[index] * batch.getForceY()[index];
+        if (velocityDotForce > rampedSpeed)
+        {
+            batch.getThrust()[index] = -0.01f;
+        }
+    }
 }
@@ -17,38 +17,181 @@
 
 package com.github.tmyroadctfig.jsteer2d;
 
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 
 /**
  * {@link Vector2} utilities.
+ *
+ * <p>For lockstep simulations that must produce bit identical results on every JVM and platform use
+ * {@link #DETERMINISTIC_ANGLE} or {@link #FAST_ANGLE} in the steering strategies. {@link Math#atan2(double, double)}
+ * may differ by an ulp between platforms and JIT tiers, whereas the other steering calculations only use basic float
+ * arithmetic and {@link Math#sqrt(double)}, which are exactly specified. Float arithmetic is always strict from Java
+ * 17, and in practice on earlier x86-64 (SSE2), ARM and Android JVMs too, so the classes aren't declared
+ * {@code strictfp}; only the x87 unit of 32-bit x86 JVMs before Java 17 could differ.</p>
  */
 public class Vector2Utils
 {
+    /**
+     * Finds the angle between two vectors with {@link #findAngleBetweenTwoVectors(float, float, float, float)}.
+     */
+    public static final GetAngleBetweenVectors ACCURATE_ANGLE = new GetAngleBetweenVectors()
+    {
+        @Override
+        public float getAngle(float x1, float y1, float x2, float y2)
+        {
+            return findAngleBetweenTwoVectors(x1, y1, x2, y2);
+        }
+    };
+
+    /**
+     * Finds the angle between two vectors with {@link #findAngleBetweenTwoVectorsFast(float, float, float, float)}.
+     */
+    public static final GetAngleBetweenVectors FAST_ANGLE = new GetAngleBetweenVectors()
+    {
+        @Override
+        public float getAngle(float x1, float y1, float x2, float y2)
+        {
+            return findAngleBetweenTwoVectorsFast(x1, y1, x2, y2);
+        }
+    };
+
+    /**
+     * Finds the angle between two vectors with {@link #findAngleBetweenTwoVectorsStrict(float, float, float, float)}.
+     * The result is identical on every JVM and platform.
+     */
+    public static final GetAngleBetweenVectors DETERMINISTIC_ANGLE = new GetAngleBetweenVectors()
+    {
+        @Override
+        public float getAngle(float x1, float y1, float x2, float y2)
+        {
+            return findAngleBetweenTwoVectorsStrict(x1, y1, x2, y2);
+        }
+    };
+
+    /**
+     * The maximum error of {@link #fastAtan2(float, float)} in radians.
+     */
+    public static final float FAST_ATAN2_MAXIMUM_ERROR = 1.5e-5f;
+
     public static float findAngleBetweenTwoVectors(Vector2 v1, Vector2 v2)
     {
-        // turn vectors into unit vectors
-        v1 = v1.cpy().nor();
-        v2 = v2.cpy().nor();
+        return findAngleBetweenTwoVectors(v1.x, v1.y, v2.x, v2.y);
+    }
 
-        float angle1 = v1.angle();
-        float angle2 = v2.angle();
+    /**
+     * Finds the signed angle to rotate the second vector by to line it up with the first. Neither vector needs to be
+     * a unit vector.
+     *
+     * @param x1 the x component of the first vector.
+     * @param y1 the y component of the first vector.
+     * @param x2 the x component of the second vector.
+     * @param y2 the y component of the second vector.
+     * @return the angle in radians in the range (-PI, PI], positive is anti-clockwise. 0 if either vector is zero.
+     */
+    public static float findAngleBetweenTwoVectors(float x1, float y1, float x2, float y2)
+    {
+        // atan2(|v2||v1| sin, |v2||v1| cos), the lengths cancel so one atan2 gives the angle directly
+        float cross = x2 * y1 - y2 * x1;
+        float dot = x1 * x2 + y1 * y2;
+
+        return wrapAngle((float) Math.atan2(cross, dot));
+    }
 
-        float result = angle1 - angle2;
+    /**
+     * Finds the angle between two vectors the same as
+     * {@link #findAngleBetweenTwoVectors(float, float, float, float)}, but using
+     * {@link StrictMath#atan2(double, double)} so the result is identical on every JVM and platform.
+     *
+     * @param x1 the x component of the first vector.
+     * @param y1 the y component of the first vector.
+     * @param x2 the x component of the second vector.
+     * @param y2 the y component of the second vector.
+     * @return the angle in radians in the range (-PI, PI].
+     */
+    public static float findAngleBetweenTwoVectorsStrict(float x1, float y1, float x2, float y2)
+    {
+        float cross = x2 * y1 - y2 * x1;
+        float dot = x1 * x2 + y1 * y2;
 
-        if (result > 180)
+        return wrapAngle((float) StrictMath.atan2(cross, dot));
+    }
+
+    /**
+     * Finds the angle between two vectors the same as
+     * {@link #findAngleBetweenTwoVectors(float, float, float, float)}, but using {@link #fastAtan2(float, float)}.
+     *
+     * @param x1 the x component of the first vector.
+     * @param y1 the y component of the first vector.
+     * @param x2 the x component of the second vector.
+     * @param y2 the y component of the second vector.
+     * @return the angle in radians in the range (-PI, PI], accurate to within {@link #FAST_ATAN2_MAXIMUM_ERROR}.
+     */
+    public static float findAngleBetweenTwoVectorsFast(float x1, float y1, float x2, float y2)
+    {
+        float cross = x2 * y1 - y2 * x1;
+        float dot = x1 * x2 + y1 * y2;
+
+        return wrapAngle(fastAtan2(cross, dot));
+    }
+
+    /**
+     * Approximates {@link Math#atan2(double, double)} with a polynomial. The arctangent of the ratio of the smaller
+     * to the larger component is approximated on [0, 1] with the minimax polynomial from Abramowitz and Stegun
+     * (4.4.49, |error| &lt;= 1e-5), then mapped to the correct octant. Allowing for float rounding the result is within
+     * {@link #FAST_ATAN2_MAXIMUM_ERROR} radians of the exact value. Only basic float arithmetic is used so the result
+     * is also identical on every JVM and platform.
+     *
+     * @param y the y component.
+     * @param x the x component.
+     * @return the angle in radians in the range [-PI, PI]. 0 if both components are zero.
+     */
+    public static float fastAtan2(float y, float x)
+    {
+        float absoluteX = Math.abs(x);
+        float absoluteY = Math.abs(y);
+
+        float maximum = Math.max(absoluteX, absoluteY);
+        if (maximum == 0)
+        {
+            return 0;
+        }
+
+        float ratio = Math.min(absoluteX, absoluteY) / maximum;
+        float ratioSquared = ratio * ratio;
+
+        float angle = ratio * (0.9998660f + ratioSquared * (-0.3302995f + ratioSquared * (0.1801410f +
+                ratioSquared * (-0.0851330f + ratioSquared * 0.0208351f))));
+
+        if (absoluteY > absoluteX)
         {
-            result -= 360;
+            angle = MathUtils.PI / 2 - angle;
         }
-        else if (result <= -180)
+        if (x < 0)
         {
-            result += 360;
+            angle = MathUtils.PI - angle;
         }
+        if (y < 0)
+        {
+            angle = -angle;
+        }
+
+        return angle;
+    }
 
-        return (float) Math.toRadians(result);
+    /**
+     * Wraps an angle from [-PI, PI] into (-PI, PI].
+     *
+     * @param angle the angle in radians.
+     * @return the wrapped angle.
+     */
+    private static float wrapAngle(float angle)
+    {
+        return angle <= -MathUtils.PI ? MathUtils.PI : angle;
     }
 
     public static boolean equalsWithin(Vector2 v1, Vector2 v2, float margin)
     {
-        return (v1.cpy().sub(v2).len()) < margin;
+        return v1.dst(v2) < margin;
     }
 }
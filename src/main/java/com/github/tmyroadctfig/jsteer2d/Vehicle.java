@@ -24,6 +24,11 @@ import com.badlogic.gdx.math.Vector2;
  */
 public interface Vehicle extends MovingObstacle
 {
+    /**
+     * The value of {@link #getSpeedLimit()} for a vehicle with no maximum speed.
+     */
+    float NO_MAXIMUM_SPEED = Float.POSITIVE_INFINITY;
+
     /**
      * Gets the current direction of the vehicle (as a unit vector).
      *
@@ -31,6 +36,26 @@ public interface Vehicle extends MovingObstacle
      */
     Vector2 getDirection();
 
+    /**
+     * Gets the x component of the direction of the vehicle.
+     *
+     * @return the x component.
+     */
+    default float getDirectionX()
+    {
+        return getDirection().x;
+    }
+
+    /**
+     * Gets the y component of the direction of the vehicle.
+     *
+     * @return the y component.
+     */
+    default float getDirectionY()
+    {
+        return getDirection().y;
+    }
+
     /**
      * Gets the maximum forward thrust.
      *
@@ -58,4 +83,16 @@ public interface Vehicle extends MovingObstacle
      * @return the maximum speed the vehicle can move at, or {@code null} for no maximum.
      */
     Float getMaximumSpeed();
+
+    /**
+     * Gets the maximum speed the vehicle can move at without boxing it. Implementations should override this when
+     * {@link #getMaximumSpeed()} would box a new {@code Float}.
+     *
+     * @return the maximum speed the vehicle can move at, or {@link #NO_MAXIMUM_SPEED} for no maximum.
+     */
+    default float getSpeedLimit()
+    {
+        Float maximumSpeed = getMaximumSpeed();
+        return maximumSpeed == null ? NO_MAXIMUM_SPEED : maximumSpeed;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,315 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * A snapshot of a vehicle's kinematics for a single tick, with the derived values that steering needs calculated
+ * once: the estimated position, speed, unit velocity, stopping distance and the forward/right basis.
+ *
+ * <p>The snapshot is itself a {@link Vehicle} whose getters just return the captured values, so it can be passed
+ * anywhere a vehicle is accepted: a {@link Steering} created over the snapshot, {@link VehicleUtils}, the
+ * {@link PotentialCollisionDetector}s and so on. For vehicles backed by e.g. a physics body where each getter is
+ * costly, call {@link #capture(Vehicle, float)} once at the start of each tick and the vehicle is only read once.
+ * {@link SteeringHelper#estimatePosition(MovingObstacle, float, Vector2)} and
+ * {@link VehicleUtils#getStoppingDistance(Vehicle)} use the cached values when given a snapshot.</p>
+ *
+ * <p>The snapshot is read-only between captures; the vectors returned must not be modified. A snapshot is
+ * recognised as the same vehicle as the one it was captured from, see
+ * {@link VehicleUtils#isSameVehicle(Obstacle, Obstacle)}.
+ * This class is not thread-safe, but a snapshot can be read by many threads once captured.</p>
+ */
+public class VehicleKinematics implements Vehicle
+{
+    ///////////////////////////////////////////////////////////////////////////
+    // Fields
+
+    /**
+     * The vehicle the snapshot was captured from.
+     */
+    private Vehicle vehicle;
+
+    /**
+     * The elapsed time the estimated position was calculated for.
+     */
+    private float elapsedTime;
+
+    private final Vector2 position = new Vector2();
+    private final Vector2 velocity = new Vector2();
+    private final Vector2 direction = new Vector2();
+
+    /**
+     * The position after the elapsed time, {@code velocity * elapsedTime + position}.
+     */
+    private final Vector2 estimatedPosition = new Vector2();
+
+    /**
+     * The velocity as a unit vector, or zero if the vehicle is stationary.
+     */
+    private final Vector2 unitVelocity = new Vector2();
+
+    /**
+     * The direction rotated 90 degrees clockwise.
+     */
+    private final Vector2 right = new Vector2();
+
+    private float speed;
+    private float speedSquared;
+    private float stoppingDistance;
+    private float radius;
+    private float maximumThrust;
+    private float maximumReverseThrust;
+    private float rotationRate;
+    private float maximumSpeed;
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Constructors
+
+    /**
+     * Creates an empty snapshot, call {@link #capture(Vehicle, float)} before use.
+     */
+    public VehicleKinematics()
+    {
+    }
+
+    /**
+     * Creates a snapshot of the vehicle.
+     *
+     * @param vehicle the vehicle to capture.
+     * @param elapsedTime the elapsed time to estimate the position for.
+     */
+    public VehicleKinematics(Vehicle vehicle, float elapsedTime)
+    {
+        capture(vehicle, elapsedTime);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Methods
+
+    /**
+     * Captures the current state of the vehicle, replacing any earlier snapshot. Each of the vehicle's primitive
+     * getters is called exactly once.
+     *
+     * @param vehicle the vehicle to capture.
+     * @param elapsedTime the elapsed time to estimate the position for.
+     * @return this instance.
+     */
+    public VehicleKinematics capture(Vehicle vehicle, float elapsedTime)
+    {
+        this.vehicle = vehicle instanceof VehicleKinematics ? ((VehicleKinematics) vehicle).vehicle : vehicle;
+        this.elapsedTime = elapsedTime;
+
+        position.set(vehicle.getPositionX(), vehicle.getPositionY());
+        velocity.set(vehicle.getVelocityX(), vehicle.getVelocityY());
+        direction.set(vehicle.getDirectionX(), vehicle.getDirectionY());
+        radius = vehicle.getRadius();
+        maximumThrust = vehicle.getMaximumThrust();
+        maximumReverseThrust = vehicle.getMaximumReverseThrust();
+        rotationRate = vehicle.getRotationRate();
+        maximumSpeed = vehicle.getSpeedLimit();
+
+        // Same as SteeringHelper.estimatePosition()
+        estimatedPosition.set(velocity).scl(elapsedTime).add(position);
+
+        speedSquared = velocity.len2();
+        speed = (float) Math.sqrt(speedSquared);
+        unitVelocity.set(velocity);
+        if (speed != 0)
+        {
+            unitVelocity.scl(1 / speed);
+        }
+
+        right.set(direction.y, -direction.x);
+
+        // Same as VehicleUtils.getStoppingDistance()
+        stoppingDistance = Math.max(speedSquared / 2 * -maximumReverseThrust, 0);
+
+        return this;
+    }
+
+    /**
+     * Gets the vehicle the snapshot was captured from.
+     *
+     * @return the vehicle.
+     */
+    public Vehicle getVehicle()
+    {
+        return vehicle;
+    }
+
+    /**
+     * Gets the elapsed time that the estimated position was calculated for.
+     *
+     * @return the elapsed time.
+     */
+    public float getElapsedTime()
+    {
+        return elapsedTime;
+    }
+
+    /**
+     * Gets the estimated position after the elapsed time.
+     *
+     * @return the estimated position.
+     */
+    public Vector2 getEstimatedPosition()
+    {
+        return estimatedPosition;
+    }
+
+    public float getSpeed()
+    {
+        return speed;
+    }
+
+    public float getSpeedSquared()
+    {
+        return speedSquared;
+    }
+
+    /**
+     * Gets the velocity as a unit vector.
+     *
+     * @return the unit velocity, or zero if the vehicle is stationary.
+     */
+    public Vector2 getUnitVelocity()
+    {
+        return unitVelocity;
+    }
+
+    /**
+     * Gets the stopping distance, see {@link VehicleUtils#getStoppingDistance(Vehicle)}.
+     *
+     * @return the stopping distance.
+     */
+    public float getStoppingDistance()
+    {
+        return stoppingDistance;
+    }
+
+    /**
+     * Gets the forward axis of the vehicle's local basis, the same as {@link #getDirection()}.
+     *
+     * @return the forward axis.
+     */
+    public Vector2 getForward()
+    {
+        return direction;
+    }
+
+    /**
+     * Gets the right axis of the vehicle's local basis, the direction rotated 90 degrees clockwise.
+     *
+     * @return the right axis.
+     */
+    public Vector2 getRight()
+    {
+        return right;
+    }
+
+    @Override
+    public Vector2 getPosition()
+    {
+        return position;
+    }
+
+    @Override
+    public float getPositionX()
+    {
+        return position.x;
+    }
+
+    @Override
+    public float getPositionY()
+    {
+        return position.y;
+    }
+
+    @Override
+    public Vector2 getVelocity()
+    {
+        return velocity;
+    }
+
+    @Override
+    public float getVelocityX()
+    {
+        return velocity.x;
+    }
+
+    @Override
+    public float getVelocityY()
+    {
+        return velocity.y;
+    }
+
+    @Override
+    public Vector2 getDirection()
+    {
+        return direction;
+    }
+
+    @Override
+    public float getDirectionX()
+    {
+        return direction.x;
+    }
+
+    @Override
+    public float getDirectionY()
+    {
+        return direction.y;
+    }
+
+    @Override
+    public float getRadius()
+    {
+        return radius;
+    }
+
+    @Override
+    public float getMaximumThrust()
+    {
+        return maximumThrust;
+    }
+
+    @Override
+    public float getMaximumReverseThrust()
+    {
+        return maximumReverseThrust;
+    }
+
+    @Override
+    public float getRotationRate()
+    {
+        return rotationRate;
+    }
+
+    @Override
+    public Float getMaximumSpeed()
+    {
+        return maximumSpeed == NO_MAXIMUM_SPEED ? null : maximumSpeed;
+    }
+
+    @Override
+    public float getSpeedLimit()
+    {
+        return maximumSpeed;
+    }
+}
@@ -32,9 +32,15 @@ public class VehicleUtils
      */
     public static float getStoppingDistance(Vehicle vehicle)
     {
+        if (vehicle instanceof VehicleKinematics)
+        {
+            return ((VehicleKinematics) vehicle).getStoppingDistance();
+        }
+
         // From: v^2 = u^2 + 2as, and since v = 0 and 'a' is negative (backwards):
         // s = u^2 / 2a
-        float distance = vehicle.getVelocity().len2() / 2 * -vehicle.getMaximumReverseThrust();
+        float distance = Vector2.len2(vehicle.getVelocityX(), vehicle.getVelocityY()) / 2 *
+                -vehicle.getMaximumReverseThrust();
         return Math.max(distance, 0);
     }
 
@@ -60,9 +66,7 @@ public class VehicleUtils
      */
     public static boolean isAhead(Vehicle vehicle, Vector2 target, float cosineThreshold)
     {
-        Vector2 targetDirection = target.cpy().sub(vehicle.getPosition());
-        targetDirection.nor();
-        return vehicle.getDirection().dot(targetDirection) > cosineThreshold;
+        return dotToTarget(vehicle, target) > cosineThreshold;
     }
 
     /**
@@ -87,8 +91,62 @@ public class VehicleUtils
      */
     public static boolean isBehind(Vehicle vehicle, Vector2 target, float cosineThreshold)
     {
-        Vector2 targetDirection = target.cpy().sub(vehicle.getPosition());
-        targetDirection.nor();
-        return vehicle.getDirection().dot(targetDirection) < cosineThreshold;
+        return dotToTarget(vehicle, target) < cosineThreshold;
+    }
+
+    /**
+     * Checks whether an obstacle is the vehicle itself, also recognising a {@link VehicleKinematics} snapshot as the
+     * vehicle it was captured from.
+     *
+     * @param vehicle the vehicle.
+     * @param obstacle the obstacle to check.
+     * @return {@code true} if the obstacle is the vehicle.
+     */
+    public static boolean isSameVehicle(Obstacle vehicle, Obstacle obstacle)
+    {
+        return obstacle == vehicle || unwrap(obstacle) == unwrap(vehicle);
+    }
+
+    /**
+     * Gets the vehicle a snapshot was captured from.
+     *
+     * @param obstacle the obstacle or snapshot.
+     * @return the captured vehicle if the obstacle is a {@link VehicleKinematics} that has captured one, otherwise the
+     *         obstacle.
+     */
+    static Obstacle unwrap(Obstacle obstacle)
+    {
+        if (obstacle instanceof VehicleKinematics)
+        {
+            Vehicle vehicle = ((VehicleKinematics) obstacle).getVehicle();
+            if (vehicle != null)
+            {
+                return vehicle;
+            }
+        }
+
+        return obstacle;
+    }
+
+    /**
+     * Gets the dot product between the vehicle's direction and the unit direction from the vehicle to the target.
+     *
+     * @param vehicle the vehicle.
+     * @param target the target.
+     * @return the dot product.
+     */
+    private static float dotToTarget(Vehicle vehicle, Vector2 target)
+    {
+        float x = target.x - vehicle.getPositionX();
+        float y = target.y - vehicle.getPositionY();
+
+        float length = Vector2.len(x, y);
+        if (length != 0)
+        {
+            x /= length;
+            y /= length;
+        }
+
+        return vehicle.getDirectionX() * x + vehicle.getDirectionY() * y;
     }
 }
@@ -0,0 +1,323 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * A neighbour source for flocking that keeps a list of neighbours for each boid between ticks (a Verlet list).
+ *
+ * <p>The lists hold every boid within the cutoff distance plus a skin margin. They are only rebuilt, with a
+ * {@link BoidNeighbourIndex}, when a boid has moved more than half the skin since the last build or the flock has
+ * changed. No pair of boids can then have closed by more than the skin, so any boid now within the cutoff is still
+ * in the list. Between rebuilds each query only measures the distance to the boids in the list. The lists are stored
+ * in two int arrays, the neighbours of boid {@code i} being {@code neighbours[neighbourStart[i]]} up to
+ * {@code neighbours[neighbourStart[i + 1]]} (compressed sparse rows).</p>
+ *
+ * <p>Call {@link #update(Iterable)} once per tick before querying. Queries don't modify the lists so they can be run
+ * from several threads once it has returned.</p>
+ */
+public class VerletNeighbourList implements BoidNeighbourSource
+{
+    ///////////////////////////////////////////////////////////////////////////
+    // Fields
+
+    /**
+     * The largest distance that can be queried, usually the maximum boid distance.
+     */
+    protected final float cutoff;
+
+    /**
+     * The margin added to the cutoff when building the lists.
+     */
+    protected final float skin;
+
+    /**
+     * Builds the lists.
+     */
+    protected final BoidNeighbourIndex index;
+
+    /**
+     * The boids, in the order the flock was last updated with.
+     */
+    protected final Array<Vehicle> boids = new Array<Vehicle>(false, 16, Vehicle.class);
+
+    /**
+     * The index of each boid.
+     */
+    protected final IdentityMap<Vehicle, Integer> boidIndices = new IdentityMap<Vehicle, Integer>();
+
+    /**
+     * The position of each boid at the last update.
+     */
+    protected float[] positionX = new float[0];
+    protected float[] positionY = new float[0];
+
+    /**
+     * The position of each boid when the lists were built.
+     */
+    protected float[] builtX = new float[0];
+    protected float[] builtY = new float[0];
+
+    /**
+     * The offset into {@link #neighbours} of the first neighbour of each boid, with an extra trailing entry.
+     */
+    protected int[] neighbourStart = new int[1];
+
+    /**
+     * The indices of the neighbours of every boid.
+     */
+    protected final IntArray neighbours = new IntArray();
+
+    /**
+     * Set when the flock has changed and the lists must be rebuilt.
+     */
+    protected boolean stale = true;
+
+    private int rebuildCount;
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Constructor
+
+    /**
+     * Creates a new instance.
+     *
+     * @param cutoff the largest distance that will be queried, usually the maximum boid distance.
+     * @param skin the margin added to the cutoff. A larger skin rebuilds less often but each query measures the
+     *             distance to more boids. A good starting point is a few ticks' travel.
+     */
+    public VerletNeighbourList(float cutoff, float skin)
+    {
+        if (cutoff <= 0)
+        {
+            throw new IllegalArgumentException("Cutoff must be positive: " + cutoff);
+        }
+        if (skin < 0)
+        {
+            throw new IllegalArgumentException("Skin must not be negative: " + skin);
+        }
+
+        this.cutoff = cutoff;
+        this.skin = skin;
+        index = new BoidNeighbourIndex(cutoff + skin);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Methods
+
+    /**
+     * Captures the current positions of the flock, rebuilding the lists if needed. This should be called once per
+     * tick before querying.
+     *
+     * @param flock the flock.
+     * @return {@code true} if the lists were rebuilt.
+     */
+    public boolean update(Iterable<? extends Vehicle> flock)
+    {
+        int size = 0;
+        for (Vehicle boid : flock)
+        {
+            if (size == boids.size)
+            {
+                boids.add(boid);
+                stale = true;
+            }
+            else if (boids.items[size] != boid)
+            {
+                boids.items[size] = boid;
+                stale = true;
+            }
+            size++;
+        }
+
+        if (size != boids.size)
+        {
+            boids.truncate(size);
+            stale = true;
+        }
+
+        if (positionX.length < size)
+        {
+            positionX = new float[size];
+            positionY = new float[size];
+            builtX = new float[size];
+            builtY = new float[size];
+        }
+
+        float maximumDisplacementSquared = skin * skin / 4;
+        boolean rebuild = stale;
+
+        for (int i = 0; i < size; i++)
+        {
+            Vehicle boid = boids.items[i];
+            float x = boid.getPositionX();
+            float y = boid.getPositionY();
+            positionX[i] = x;
+            positionY[i] = y;
+
+            if (!rebuild)
+            {
+                float offsetX = x - builtX[i];
+                float offsetY = y - builtY[i];
+                rebuild = offsetX * offsetX + offsetY * offsetY > maximumDisplacementSquared;
+            }
+        }
+
+        if (rebuild)
+        {
+            rebuild();
+        }
+
+        return rebuild;
+    }
+
+    /**
+     * Gets the number of boids.
+     *
+     * @return the number of boids.
+     */
+    public int size()
+    {
+        return boids.size;
+    }
+
+    /**
+     * Gets the number of times the lists have been rebuilt.
+     *
+     * @return the number of rebuilds.
+     */
+    public int getRebuildCount()
+    {
+        return rebuildCount;
+    }
+
+    /**
+     * Gets the total length of the lists.
+     *
+     * @return the number of neighbours summed over every boid.
+     */
+    public int getNeighbourCount()
+    {
+        return neighbours.size;
+    }
+
+    /**
+     * Gets the index of a boid, as used by {@link #findCloseBoids(int, float, BoidDistance[])}.
+     *
+     * @param boid the boid, or a {@link VehicleKinematics} snapshot of it.
+     * @return the index, or -1 if the boid isn't in the flock.
+     */
+    public int indexOf(Vehicle boid)
+    {
+        Integer boidIndex = boidIndices.get((Vehicle) VehicleUtils.unwrap(boid));
+        return boidIndex != null ? boidIndex : -1;
+    }
+
+    /**
+     * Finds the boids closest to the given boid. Boids that aren't in the flock have no neighbours.
+     *
+     * @param boid the boid to find the neighbours of.
+     * @param maximumDistance the distance beyond which boids are ignored, at most the cutoff.
+     * @param closeBoids the array to fill with the close boids, closest first.
+     * @return the number of close boids found.
+     */
+    @Override
+    public int findCloseBoids(Vehicle boid, float maximumDistance, BoidDistance[] closeBoids)
+    {
+        int boidIndex = indexOf(boid);
+        return boidIndex >= 0 ? findCloseBoids(boidIndex, maximumDistance, closeBoids) : 0;
+    }
+
+    /**
+     * Finds the boids closest to the boid at an index.
+     *
+     * @param boidIndex the index of the boid, in the order the flock was passed to {@link #update(Iterable)}.
+     * @param maximumDistance the distance beyond which boids are ignored, at most the cutoff.
+     * @param closeBoids the array to fill with the close boids, closest first. At most {@code closeBoids.length}
+     *                   boids are found. Any {@code null} elements are filled with new instances.
+     * @return the number of close boids found.
+     */
+    public int findCloseBoids(int boidIndex, float maximumDistance, BoidDistance[] closeBoids)
+    {
+        if (maximumDistance > cutoff)
+        {
+            throw new IllegalArgumentException("Distance " + maximumDistance + " is beyond the cutoff " + cutoff);
+        }
+
+        float x = positionX[boidIndex];
+        float y = positionY[boidIndex];
+        float maximumDistanceSquared = maximumDistance * maximumDistance;
+        int[] items = neighbours.items;
+        int count = 0;
+
+        for (int i = neighbourStart[boidIndex], end = neighbourStart[boidIndex + 1]; i < end; i++)
+        {
+            int other = items[i];
+            float offsetX = positionX[other] - x;
+            float offsetY = positionY[other] - y;
+            float distanceSquared = offsetX * offsetX + offsetY * offsetY;
+
+            if (distanceSquared < maximumDistanceSquared)
+            {
+                count = BoidDistance.offer(closeBoids, count, boids.items[other], distanceSquared);
+            }
+        }
+
+        BoidDistance.sortHeap(closeBoids, count);
+        return count;
+    }
+
+    /**
+     * Rebuilds the lists from the captured positions.
+     */
+    protected void rebuild()
+    {
+        int size = boids.size;
+
+        if (stale)
+        {
+            boidIndices.clear();
+            for (int i = 0; i < size; i++)
+            {
+                boidIndices.put(boids.items[i], i);
+            }
+            stale = false;
+        }
+
+        index.build(boids);
+
+        if (neighbourStart.length < size + 1)
+        {
+            neighbourStart = new int[size + 1];
+        }
+
+        neighbours.clear();
+        for (int i = 0; i < size; i++)
+        {
+            neighbourStart[i] = neighbours.size;
+            index.findBoidsWithin(i, cutoff + skin, neighbours);
+        }
+        neighbourStart[size] = neighbours.size;
+
+        System.arraycopy(positionX, 0, builtX, 0, size);
+        System.arraycopy(positionY, 0, builtY, 0, size);
+        rebuildCount++;
+    }
+}
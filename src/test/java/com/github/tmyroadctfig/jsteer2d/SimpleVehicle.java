@@ -0,0 +1,98 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * A simple {@link Vehicle} implementation for tests.
+ */
+public class SimpleVehicle implements Vehicle
+{
+    public final Vector2 position = new Vector2();
+    public final Vector2 velocity = new Vector2();
+    public final Vector2 direction = new Vector2(1, 0);
+    public float radius = 10;
+    public float maximumThrust = 1;
+    public float maximumReverseThrust = 0.5f;
+    public float rotationRate = 0.01f;
+    public Float maximumSpeed = 5f;
+
+    public SimpleVehicle()
+    {
+    }
+
+    public SimpleVehicle(float x, float y, float velocityX, float velocityY)
+    {
+        position.set(x, y);
+        velocity.set(velocityX, velocityY);
+
+        if (!velocity.isZero())
+        {
+            direction.set(velocity).nor();
+        }
+    }
+
+    @Override
+    public Vector2 getDirection()
+    {
+        return direction;
+    }
+
+    @Override
+    public float getMaximumThrust()
+    {
+        return maximumThrust;
+    }
+
+    @Override
+    public float getMaximumReverseThrust()
+    {
+        return maximumReverseThrust;
+    }
+
+    @Override
+    public float getRotationRate()
+    {
+        return rotationRate;
+    }
+
+    @Override
+    public Float getMaximumSpeed()
+    {
+        return maximumSpeed;
+    }
+
+    @Override
+    public Vector2 getVelocity()
+    {
+        return velocity;
+    }
+
+    @Override
+    public float getRadius()
+    {
+        return radius;
+    }
+
+    @Override
+    public Vector2 getPosition()
+    {
+        return position;
+    }
+}
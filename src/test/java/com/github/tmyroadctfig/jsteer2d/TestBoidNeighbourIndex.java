@@ -0,0 +1,105 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link BoidNeighbourIndex} and flocking in {@link Steering}.
+ */
+public class TestBoidNeighbourIndex
+{
+    @Test
+    public void testMatchesLinearScan()
+    {
+        Random random = new Random(1);
+        List<SimpleVehicle> flock = new ArrayList<SimpleVehicle>();
+
+        for (int i = 0; i < 3000; i++)
+        {
+            flock.add(new SimpleVehicle(random.nextFloat() * 5000, random.nextFloat() * 3000, 0, 0));
+        }
+
+        // A far away straggler stretches the bounding box so the cell size has to grow
+        flock.add(new SimpleVehicle(1e6f, -1e6f, 0, 0));
+
+        BoidNeighbourIndex index = new BoidNeighbourIndex(100);
+        index.build(flock);
+        assertThat(index.size(), is(flock.size()));
+
+        BoidDistance[] expected = new BoidDistance[7];
+        BoidDistance[] actual = new BoidDistance[7];
+
+        for (SimpleVehicle boid : flock)
+        {
+            Steering steering = new Steering(boid, new ThrustPreferenceSteering());
+            steering.setMaximumBoidDistance(150);
+
+            int expectedCount = steering.findCloseBoids(flock, expected);
+            int actualCount = index.findCloseBoids(boid, 150, actual);
+
+            assertThat(actualCount, is(expectedCount));
+            for (int i = 0; i < actualCount; i++)
+            {
+                assertThat(actual[i].getDistanceSquared(), is(expected[i].getDistanceSquared()));
+                assertThat(actual[i].getBoid(), is(not(sameInstance((Vehicle) boid))));
+
+                if (i > 0)
+                {
+                    assertThat(actual[i].getDistanceSquared(),
+                            is(greaterThanOrEqualTo(actual[i - 1].getDistanceSquared())));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFlockSelectsBehaviourByDistance()
+    {
+        SimpleVehicle boid = new SimpleVehicle(0, 0, 0, 1);
+        SimpleVehicle close = new SimpleVehicle(30, 0, 0, 1);
+        SimpleVehicle far = new SimpleVehicle(300, 0, 0, 1);
+        SimpleVehicle outOfRange = new SimpleVehicle(1000, 0, 0, 1);
+
+        BoidNeighbourIndex index = new BoidNeighbourIndex(400);
+        Steering steering = new Steering(boid, new ThrustPreferenceSteering());
+
+        index.build(Arrays.asList(boid, close, far));
+        SteeringComponents separation = steering.flock(index, 16);
+        assertThat(separation.getSteeringObjective(), is(SteeringObjective.FLOCKING_SEPARATION));
+        assertThat(separation.getSteeringTarget().x, is(lessThan(0f)));
+
+        index.build(Arrays.asList(boid, far));
+        SteeringComponents cohesion = steering.flock(index, 16);
+        assertThat(cohesion.getSteeringObjective(), is(SteeringObjective.FLOCKING_COHESION));
+        assertThat(cohesion.getSteeringTarget().x, is(greaterThan(0f)));
+
+        index.build(Arrays.asList(boid, outOfRange));
+        assertThat(steering.flock(index, 16), is(sameInstance(SteeringComponents.NO_STEERING)));
+        assertThat(steering.separate(Arrays.asList(boid, far), 16),
+                is(sameInstance(SteeringComponents.NO_STEERING)));
+    }
+}
@@ -0,0 +1,128 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.math.Vector2;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link BvhCollisionDetector}.
+ */
+public class TestBvhCollisionDetector
+{
+    @Test
+    public void testMatchesLinearSearch()
+    {
+        Random random = new Random(1);
+        List<Obstacle> obstacles = new ArrayList<Obstacle>();
+
+        for (int i = 0; i < 2000; i++)
+        {
+            // Radii spanning two orders of magnitude
+            float radius = (float) Math.pow(10, random.nextFloat() * 2);
+            obstacles.add(new SimpleObstacle(random.nextFloat() * 5000, random.nextFloat() * 5000, radius));
+        }
+
+        BvhCollisionDetector detector = new BvhCollisionDetector(obstacles);
+        assertThat(detector.size(), is(obstacles.size()));
+
+        for (int i = 0; i < 2000; i++)
+        {
+            SimpleVehicle vehicle = new SimpleVehicle(random.nextFloat() * 5000, random.nextFloat() * 5000,
+                    random.nextFloat() * 4 - 2, random.nextFloat() * 4 - 2);
+
+            // Some vehicles are stationary or moving along an axis
+            if (i % 10 == 0)
+            {
+                vehicle.velocity.set(0, 0);
+            }
+            else if (i % 10 == 1)
+            {
+                vehicle.velocity.y = 0;
+            }
+
+            float period = random.nextFloat() * 500;
+            Obstacle expected = CollisionUtils.findNearestObstacleInPath(vehicle, obstacles, period);
+            Obstacle actual = detector.findNearestPotentialCollision(vehicle, detector, period);
+
+            if (expected == null)
+            {
+                assertThat(actual, is(nullValue()));
+            }
+            else
+            {
+                // Obstacles the vehicle is already inside tie at 0, so compare where the path is hit
+                assertThat(actual, is(notNullValue()));
+                assertThat(getFraction(vehicle, actual, period), is(getFraction(vehicle, expected, period)));
+            }
+        }
+    }
+
+    @Test
+    public void testExcludesSelf()
+    {
+        SimpleVehicle vehicle = new SimpleVehicle(0, 0, 1, 0);
+        SimpleObstacle ahead = new SimpleObstacle(100, 0, 5);
+
+        BvhCollisionDetector detector = new BvhCollisionDetector(Arrays.<Obstacle>asList(vehicle, ahead));
+
+        assertThat(detector.findNearestPotentialCollision(vehicle, null, 200), is((Obstacle) ahead));
+        assertThat(detector.findNearestPotentialCollision(vehicle, null, 50), is(nullValue()));
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        BvhCollisionDetector detector = new BvhCollisionDetector(Collections.<Obstacle>emptyList());
+
+        assertThat(detector.getNodeCount(), is(0));
+        assertThat(detector.findNearestPotentialCollision(new SimpleVehicle(0, 0, 1, 0), detector, 100),
+                is(nullValue()));
+    }
+
+    @Test
+    public void testTestsOtherObstaclesDirectly()
+    {
+        SimpleVehicle vehicle = new SimpleVehicle(0, 0, 1, 0);
+        SimpleObstacle ahead = new SimpleObstacle(100, 0, 5);
+
+        BvhCollisionDetector detector = new BvhCollisionDetector(Collections.<Obstacle>emptyList());
+
+        assertThat(detector.findNearestPotentialCollision(vehicle, Arrays.<Obstacle>asList(ahead), 200),
+                is((Obstacle) ahead));
+    }
+
+    private static float getFraction(Vehicle vehicle, Obstacle obstacle, float period)
+    {
+        Vector2 position = vehicle.getPosition();
+        Vector2 velocity = vehicle.getVelocity();
+
+        return CollisionUtils.findSegmentCircleIntersection(position.x, position.y, velocity.x * period,
+                velocity.y * period, obstacle.getPosition().x, obstacle.getPosition().y,
+                obstacle.getRadius() + vehicle.getRadius());
+    }
+}
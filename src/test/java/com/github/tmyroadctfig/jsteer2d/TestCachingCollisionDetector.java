@@ -0,0 +1,183 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.utils.Array;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link CachingCollisionDetector} and the {@link ObstacleBroadPhase} implementations.
+ */
+public class TestCachingCollisionDetector
+{
+    private static final float DETECTION_PERIOD = 100;
+
+    @Test
+    public void testFindObstacles()
+    {
+        List<Obstacle> obstacles = createObstacles();
+        SpatialGridCollisionDetector grid = createGrid(obstacles);
+        BvhCollisionDetector bvh = new BvhCollisionDetector(obstacles);
+        Random random = new Random(2);
+
+        for (int i = 0; i < 200; i++)
+        {
+            float minX = random.nextFloat() * 2000 - 200;
+            float minY = random.nextFloat() * 2000 - 200;
+            float maxX = minX + random.nextFloat() * 300;
+            float maxY = minY + random.nextFloat() * 300;
+
+            List<Obstacle> expected = new ArrayList<Obstacle>();
+            for (Obstacle obstacle : obstacles)
+            {
+                if (CollisionUtils.circleOverlapsRectangle(obstacle.getPositionX(), obstacle.getPositionY(),
+                        obstacle.getRadius(), minX, minY, maxX, maxY))
+                {
+                    expected.add(obstacle);
+                }
+            }
+
+            for (ObstacleBroadPhase broadPhase : new ObstacleBroadPhase[] { grid, bvh })
+            {
+                Array<Obstacle> found = new Array<Obstacle>();
+                assertThat(broadPhase.findObstacles(minX, minY, maxX, maxY, found), is(expected.size()));
+                assertThat(found.size, is(expected.size()));
+                for (Obstacle obstacle : expected)
+                {
+                    assertThat(found.contains(obstacle, true), is(true));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMatchesBroadPhase()
+    {
+        List<Obstacle> obstacles = createObstacles();
+        SpatialGridCollisionDetector grid = createGrid(obstacles);
+        CachingCollisionDetector caching = new CachingCollisionDetector(grid, 20);
+
+        Random random = new Random(3);
+        List<SimpleVehicle> vehicles = new ArrayList<SimpleVehicle>();
+        for (int i = 0; i < 100; i++)
+        {
+            vehicles.add(new SimpleVehicle(random.nextFloat() * 2000, random.nextFloat() * 2000,
+                    random.nextFloat() - 0.5f, random.nextFloat() - 0.5f));
+        }
+
+        for (int tick = 0; tick < 200; tick++)
+        {
+            for (SimpleVehicle vehicle : vehicles)
+            {
+                // Occasionally turn sharply
+                if (random.nextInt(50) == 0)
+                {
+                    vehicle.velocity.rotate(90);
+                }
+
+                assertSameCollision(vehicle, caching.findNearestPotentialCollision(vehicle, grid, DETECTION_PERIOD),
+                        grid.findNearestPotentialCollision(vehicle, grid, DETECTION_PERIOD));
+
+                vehicle.position.mulAdd(vehicle.velocity, 2);
+            }
+        }
+
+        assertThat(caching.getQueryCount(), is(20000L));
+        assertThat(caching.getRebuildCount(), is(lessThan(caching.getQueryCount() / 5)));
+    }
+
+    @Test
+    public void testRebuildsWhenObstaclesChange()
+    {
+        BvhCollisionDetector bvh = new BvhCollisionDetector(new ArrayList<Obstacle>());
+        CachingCollisionDetector caching = new CachingCollisionDetector(bvh, 50);
+        SimpleVehicle vehicle = new SimpleVehicle(0, 0, 1, 0);
+
+        assertThat(caching.findNearestPotentialCollision(vehicle, bvh, DETECTION_PERIOD), is(nullValue()));
+        assertThat(caching.findNearestPotentialCollision(vehicle, null, DETECTION_PERIOD), is(nullValue()));
+        assertThat(caching.getRebuildCount(), is(1L));
+
+        List<Obstacle> obstacles = new ArrayList<Obstacle>();
+        obstacles.add(new SimpleObstacle(50, 0, 5));
+        bvh.build(obstacles);
+
+        assertThat(caching.findNearestPotentialCollision(vehicle, bvh, DETECTION_PERIOD), is(obstacles.get(0)));
+        assertThat(caching.getRebuildCount(), is(2L));
+
+        // Snapshots share the cache of their vehicle
+        VehicleKinematics kinematics = new VehicleKinematics(vehicle, 16);
+        assertThat(caching.findNearestPotentialCollision(kinematics, bvh, DETECTION_PERIOD), is(obstacles.get(0)));
+        assertThat(caching.getRebuildCount(), is(2L));
+
+        caching.remove(vehicle);
+        caching.findNearestPotentialCollision(vehicle, bvh, DETECTION_PERIOD);
+        assertThat(caching.getRebuildCount(), is(3L));
+    }
+
+    private static void assertSameCollision(Vehicle vehicle, Obstacle actual, Obstacle expected)
+    {
+        if (expected == null)
+        {
+            assertThat(actual, is(nullValue()));
+            return;
+        }
+
+        // Obstacles the vehicle is already inside are all at fraction 0, so compare the fractions
+        assertThat(actual, is(notNullValue()));
+        assertThat(getFraction(vehicle, actual), is(getFraction(vehicle, expected)));
+    }
+
+    private static float getFraction(Vehicle vehicle, Obstacle obstacle)
+    {
+        return CollisionUtils.findSegmentCircleIntersection(vehicle.getPositionX(), vehicle.getPositionY(),
+                vehicle.getVelocityX() * DETECTION_PERIOD, vehicle.getVelocityY() * DETECTION_PERIOD,
+                obstacle.getPositionX(), obstacle.getPositionY(), obstacle.getRadius() + vehicle.getRadius());
+    }
+
+    private static List<Obstacle> createObstacles()
+    {
+        Random random = new Random(1);
+        List<Obstacle> obstacles = new ArrayList<Obstacle>();
+
+        for (int i = 0; i < 1000; i++)
+        {
+            obstacles.add(new SimpleObstacle(random.nextFloat() * 2000, random.nextFloat() * 2000,
+                    1 + random.nextFloat() * 60));
+        }
+
+        return obstacles;
+    }
+
+    private static SpatialGridCollisionDetector createGrid(List<Obstacle> obstacles)
+    {
+        SpatialGridCollisionDetector grid = new SpatialGridCollisionDetector(50);
+        for (Obstacle obstacle : obstacles)
+        {
+            grid.add(obstacle);
+        }
+
+        return grid;
+    }
+}
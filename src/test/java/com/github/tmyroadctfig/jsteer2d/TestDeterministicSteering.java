@@ -0,0 +1,190 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.math.Vector2;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Replays a recorded scenario with deterministic steering and checks the vehicle state is identical every time, and
+ * identical to the state recorded when the scenario was created.
+ */
+public class TestDeterministicSteering
+{
+    private static final int VEHICLES = 60;
+
+    private static final int TICKS = 500;
+
+    private static final float ELAPSED_TIME = 16;
+
+    /**
+     * A shorter tick for {@link RotationPreferenceSteering}, whose non-rotation window scales with the elapsed time and
+     * would cover every angle at {@link #ELAPSED_TIME}.
+     */
+    private static final float ROTATION_ELAPSED_TIME = 1;
+
+    /**
+     * The state hashes recorded when the scenario was created.
+     */
+    private static final long THRUST_DETERMINISTIC_HASH = 9046221245357625217L;
+    private static final long THRUST_FAST_HASH = -1432122929602576749L;
+    private static final long ROTATION_DETERMINISTIC_HASH = 8558266627503428293L;
+
+    @Test
+    public void testReplayIsIdentical()
+    {
+        long hash = replay(new ThrustPreferenceSteering(Vector2Utils.DETERMINISTIC_ANGLE), ELAPSED_TIME);
+
+        for (int i = 0; i < 3; i++)
+        {
+            assertThat(replay(new ThrustPreferenceSteering(Vector2Utils.DETERMINISTIC_ANGLE), ELAPSED_TIME), is(hash));
+        }
+    }
+
+    @Test
+    public void testMatchesRecordedState()
+    {
+        assertThat(replay(new ThrustPreferenceSteering(Vector2Utils.DETERMINISTIC_ANGLE), ELAPSED_TIME),
+                is(THRUST_DETERMINISTIC_HASH));
+        assertThat(replay(new ThrustPreferenceSteering(Vector2Utils.FAST_ANGLE), ELAPSED_TIME), is(THRUST_FAST_HASH));
+        assertThat(replay(new RotationPreferenceSteering(Vector2Utils.DETERMINISTIC_ANGLE), ROTATION_ELAPSED_TIME),
+                is(ROTATION_DETERMINISTIC_HASH));
+    }
+
+    /**
+     * Runs the scenario: vehicles seeking, arriving, flocking and avoiding obstacles and each other.
+     *
+     * @param strategy the steering strategy.
+     * @param elapsedTime the elapsed time of each tick.
+     * @return the hash of the vehicle state after every tick.
+     */
+    private static long replay(GetSteeringComponents strategy, float elapsedTime)
+    {
+        Random random = new Random(1);
+
+        List<SimpleVehicle> vehicles = new ArrayList<SimpleVehicle>();
+        List<Steering> steerings = new ArrayList<Steering>();
+        List<Vector2> targets = new ArrayList<Vector2>();
+
+        SpatialGridCollisionDetector obstacles = new SpatialGridCollisionDetector(100);
+        for (int i = 0; i < 30; i++)
+        {
+            obstacles.add(new SimpleObstacle(random.nextFloat() * 1000, random.nextFloat() * 1000,
+                    5 + random.nextFloat() * 30));
+        }
+
+        for (int i = 0; i < VEHICLES; i++)
+        {
+            SimpleVehicle vehicle = new SimpleVehicle(random.nextFloat() * 1000, random.nextFloat() * 1000,
+                    random.nextFloat() * 0.2f - 0.1f, random.nextFloat() * 0.2f - 0.1f);
+            vehicle.maximumSpeed = 0.2f;
+            vehicle.rotationRate = 0.005f;
+
+            vehicles.add(vehicle);
+            steerings.add(new Steering(vehicle, strategy, obstacles));
+            targets.add(new Vector2(random.nextFloat() * 1000, random.nextFloat() * 1000));
+        }
+
+        BoidNeighbourIndex index = new BoidNeighbourIndex(100);
+        SteeringComponents[] components = new SteeringComponents[VEHICLES];
+        Vector2 preferredVelocity = new Vector2();
+        long hash = 17;
+
+        for (int tick = 0; tick < TICKS; tick++)
+        {
+            index.build(vehicles);
+
+            for (int i = 0; i < VEHICLES; i++)
+            {
+                Steering steering = steerings.get(i);
+                Vector2 target = targets.get(i);
+                SteeringComponents result = new SteeringComponents();
+
+                switch (i % 5)
+                {
+                    case 0:
+                        components[i] = steering.seek(target, elapsedTime, result);
+                        break;
+                    case 1:
+                        components[i] = steering.arriveAt(target, elapsedTime, result);
+                        break;
+                    case 2:
+                        components[i] = steering.flock(index, elapsedTime, result);
+                        break;
+                    case 3:
+                        components[i] = steering.blend(elapsedTime)
+                                .avoidObstacles(obstacles, 500, 1)
+                                .priority()
+                                .seek(target, 1)
+                                .separate(index, 2)
+                                .getComponents(result);
+                        break;
+                    default:
+                        preferredVelocity.set(target).sub(vehicles.get(i).position).limit(0.2f);
+                        components[i] = steering.avoidNeighbours(index, preferredVelocity, 1000, elapsedTime, result);
+                        break;
+                }
+            }
+
+            for (int i = 0; i < VEHICLES; i++)
+            {
+                SimpleVehicle vehicle = vehicles.get(i);
+                apply(vehicle, components[i], elapsedTime);
+
+                hash = hash(hash, vehicle.position);
+                hash = hash(hash, vehicle.velocity);
+                hash = hash(hash, vehicle.direction);
+            }
+        }
+
+        return hash;
+    }
+
+    /**
+     * Moves a vehicle by its steering components, using only exactly specified arithmetic.
+     */
+    private static void apply(SimpleVehicle vehicle, SteeringComponents components, float elapsedTime)
+    {
+        if (!components.isValid())
+        {
+            return;
+        }
+
+        float rotation = components.getRotation();
+        float cos = (float) StrictMath.cos(rotation);
+        float sin = (float) StrictMath.sin(rotation);
+        Vector2 direction = vehicle.direction;
+        direction.set(direction.x * cos - direction.y * sin, direction.x * sin + direction.y * cos).nor();
+
+        vehicle.velocity.mulAdd(direction, components.getThrust() * 0.0005f).limit(vehicle.maximumSpeed);
+        vehicle.position.mulAdd(vehicle.velocity, elapsedTime);
+    }
+
+    private static long hash(long hash, Vector2 vector)
+    {
+        hash = hash * 31 + Float.floatToIntBits(vector.x);
+        return hash * 31 + Float.floatToIntBits(vector.y);
+    }
+}
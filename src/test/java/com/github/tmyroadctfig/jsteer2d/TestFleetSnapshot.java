@@ -0,0 +1,199 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.math.Vector2;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link FleetSnapshot}.
+ */
+public class TestFleetSnapshot
+{
+    private static final SteeringObjective PATROL = SteeringObjective.register("Snapshot test: patrol");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip()
+    {
+        FleetSteering fleet = createFleet();
+
+        ByteBuffer buffer = ByteBuffer.allocate(FleetSnapshot.getSize(fleet) + 8);
+        buffer.position(8);
+        FleetSnapshot.write(fleet, buffer);
+        assertThat(buffer.remaining(), is(0));
+
+        buffer.position(8);
+        FleetSnapshot snapshot = new FleetSnapshot(buffer);
+        assertSnapshot(snapshot);
+
+        FleetSteering restored = createFleet();
+        restored.getSteering(0).setAvoidanceFactor(1);
+        restored.getResult(1).setNoSteering();
+
+        snapshot.restore(restored);
+
+        assertThat(restored.getSteering(0).getAvoidanceFactor(), is(1.5f));
+        assertThat(restored.getSteering(1).getMaximumCloseBoids(), is(8));
+        assertThat(restored.getResult(1).getSteeringObjective(), is(PATROL));
+        assertThat(restored.getResult(1).getSteeringForce(), is(new Vector2(0, 1)));
+        assertThat(restored.getResult(1).getSteeringTarget(), is(nullValue()));
+    }
+
+    @Test
+    public void testMappedFile() throws Exception
+    {
+        File file = folder.newFile("fleet.snapshot");
+        FleetSnapshot.write(createFleet(), file);
+
+        assertSnapshot(FleetSnapshot.map(file));
+    }
+
+    @Test
+    public void testLittleEndianHeader()
+    {
+        FleetSteering fleet = createFleet();
+        ByteBuffer buffer = ByteBuffer.allocate(FleetSnapshot.getSize(fleet));
+        FleetSnapshot.write(fleet, buffer);
+
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        assertThat(buffer.get(0), is((byte) 'J'));
+        assertThat(buffer.getShort(4), is(FleetSnapshot.VERSION));
+        assertThat(buffer.getInt(8), is(2));
+        assertThat(buffer.getInt(12), is(FleetSnapshot.RECORD_SIZE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsUnknownVersion()
+    {
+        FleetSteering fleet = createFleet();
+        ByteBuffer buffer = ByteBuffer.allocate(FleetSnapshot.getSize(fleet));
+        FleetSnapshot.write(fleet, buffer);
+
+        buffer.order(ByteOrder.LITTLE_ENDIAN).putShort(4, (short) 99);
+        buffer.position(0);
+        new FleetSnapshot(buffer);
+    }
+
+    @Test
+    public void testUnknownObjectivesAreNotRegistered() throws Exception
+    {
+        FleetSteering fleet = createFleet();
+        ByteBuffer buffer = ByteBuffer.allocate(FleetSnapshot.getSize(fleet));
+        FleetSnapshot.write(fleet, buffer);
+
+        // Rename the patrol objective in the name table to one this node has never registered
+        byte[] bytes = buffer.array();
+        String renamed = new String(bytes, "ISO-8859-1").replace(PATROL.getName(), "Snapshot test: ??????");
+        System.arraycopy(renamed.getBytes("ISO-8859-1"), 0, bytes, 0, bytes.length);
+
+        int objectiveCount = SteeringObjective.getCount();
+        buffer.position(0);
+        FleetSnapshot snapshot = new FleetSnapshot(buffer);
+        assertThat(SteeringObjective.getCount(), is(objectiveCount));
+        assertThat(SteeringObjective.forName("Snapshot test: ??????"), is(nullValue()));
+        assertThat(snapshot.getObjective(0), is(SteeringObjective.SEEK));
+
+        try
+        {
+            snapshot.getObjective(1);
+            fail("Expected an unregistered objective to be rejected");
+        }
+        catch (IllegalStateException e)
+        {
+            assertThat(e.getMessage(), containsString("Snapshot test: ??????"));
+        }
+
+        // A code outside the name table is rejected too
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(buffer.getInt(16) + 64, 1000);
+        try
+        {
+            snapshot.getObjective(0);
+            fail("Expected an invalid objective code to be rejected");
+        }
+        catch (IllegalArgumentException e)
+        {
+            assertThat(e.getMessage(), containsString("1000"));
+        }
+    }
+
+    private static FleetSteering createFleet()
+    {
+        FleetSteering fleet = new FleetSteering(new ThrustPreferenceSteering());
+
+        SimpleVehicle first = new SimpleVehicle(1, 2, 3, 4);
+        first.maximumSpeed = null;
+        fleet.add(first);
+        fleet.add(new SimpleVehicle(5, 6, 0, 0));
+
+        fleet.getSteering(0).setAvoidanceFactor(1.5f);
+        fleet.getSteering(1).setMaximumCloseBoids(8);
+
+        fleet.tick(new FleetSteering.Behaviour()
+        {
+            @Override
+            public void steer(int index, Steering steering, float elapsedTime, SteeringComponents result)
+            {
+                if (index == 0)
+                {
+                    steering.seek(new Vector2(100, 0), elapsedTime, result);
+                }
+                else
+                {
+                    result.set(PATROL, null, new Vector2(0, 1), 0.25f, 0.5f);
+                }
+            }
+        }, 16);
+
+        return fleet;
+    }
+
+    private static void assertSnapshot(FleetSnapshot snapshot)
+    {
+        Vector2 vector = new Vector2();
+
+        assertThat(snapshot.size(), is(2));
+        assertThat(snapshot.getPosition(0, vector), is(new Vector2(1, 2)));
+        assertThat(snapshot.getVelocity(0, vector), is(new Vector2(3, 4)));
+        assertThat(snapshot.getDirection(0, vector), is(new Vector2(0.6f, 0.8f)));
+        assertThat(snapshot.getMaximumSpeed(0), is(nullValue()));
+        assertThat(snapshot.getMaximumSpeed(1), is(5f));
+        assertThat(snapshot.getRadius(1), is(10f));
+        assertThat(snapshot.getRotationRate(1), is(0.01f));
+
+        assertThat(snapshot.getObjective(0), is(SteeringObjective.SEEK));
+        assertThat(snapshot.getObjective(1), is(PATROL));
+
+        SteeringComponents result = snapshot.getResult(1, new SteeringComponents());
+        assertThat(result.getRotation(), is(0.25f));
+        assertThat(result.getThrust(), is(0.5f));
+    }
+}
@@ -0,0 +1,135 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.math.Vector2;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link FleetSteering}.
+ */
+public class TestFleetSteering
+{
+    private static final int FLEET_SIZE = 3000;
+
+    private static final int TICKS = 20;
+
+    @Test
+    public void testParallelTicksMatchSerialTicks() throws Exception
+    {
+        long expected = run(null, null);
+
+        for (int threads : new int[] { 1, 3, 8 })
+        {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try
+            {
+                assertThat("fork-join " + threads, run(pool, null), is(expected));
+            }
+            finally
+            {
+                pool.shutdown();
+            }
+
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try
+            {
+                assertThat("executor " + threads, run(null, executor), is(expected));
+            }
+            finally
+            {
+                executor.shutdown();
+            }
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testNoSteeringIsReadOnly()
+    {
+        SteeringComponents.NO_STEERING.setThrust(1);
+    }
+
+    private long run(ForkJoinPool pool, ExecutorService executor)
+    {
+        Random random = new Random(1);
+        final FleetSteering fleet = new FleetSteering(new ThrustPreferenceSteering());
+        final Vector2 target = new Vector2(500, 500);
+
+        for (int i = 0; i < FLEET_SIZE; i++)
+        {
+            fleet.add(new SimpleVehicle(random.nextFloat() * 1000, random.nextFloat() * 1000,
+                    random.nextFloat() * 2 - 1, random.nextFloat() * 2 - 1));
+        }
+
+        FleetSteering.Behaviour behaviour = new FleetSteering.Behaviour()
+        {
+            @Override
+            public void steer(int index, Steering steering, float elapsedTime, SteeringComponents result)
+            {
+                if (index % 2 == 0)
+                {
+                    steering.arriveAt(target, elapsedTime, result);
+                }
+                else
+                {
+                    steering.pursue(fleet.getSnapshotVehicle((index * 31) % FLEET_SIZE), elapsedTime, result);
+                }
+            }
+        };
+
+        long hash = 17;
+        for (int tick = 0; tick < TICKS; tick++)
+        {
+            if (pool != null)
+            {
+                fleet.tick(behaviour, 1, pool);
+            }
+            else if (executor != null)
+            {
+                fleet.tick(behaviour, 1, executor);
+            }
+            else
+            {
+                fleet.tick(behaviour, 1);
+            }
+
+            for (int i = 0; i < FLEET_SIZE; i++)
+            {
+                SimpleVehicle vehicle = (SimpleVehicle) fleet.getVehicle(i);
+                SteeringComponents result = fleet.getResult(i);
+
+                vehicle.direction.rotateRad(result.getRotation());
+                vehicle.velocity.mulAdd(vehicle.direction, result.getThrust() * 0.1f);
+                vehicle.position.add(vehicle.velocity);
+
+                hash = hash * 31 + Float.floatToIntBits(vehicle.position.x);
+                hash = hash * 31 + Float.floatToIntBits(vehicle.position.y);
+            }
+        }
+
+        return hash;
+    }
+}
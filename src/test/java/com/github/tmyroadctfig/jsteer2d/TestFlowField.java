@@ -0,0 +1,356 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.math.Vector2;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link FlowField}, {@link FlowFieldCache} and the flow field behaviours.
+ */
+public class TestFlowField
+{
+    @Test
+    public void testOpenGrid()
+    {
+        FlowField field = new FlowField(0, 0, 10, 10, 10).build(95, 55, Collections.<Obstacle>emptyList(), 0);
+        Vector2 direction = new Vector2();
+
+        // Straight along a row, then along a diagonal
+        assertThat((double) field.getDistance(5, 55), is(closeTo(90, 1e-4)));
+        assertThat(field.getDirection(5, 55, direction), is(true));
+        assertThat(direction, is(new Vector2(1, 0)));
+
+        assertThat((double) field.getDistance(45, 5), is(closeTo(50 * Math.sqrt(2), 1e-4)));
+        assertThat(field.getDirection(45, 5, direction), is(true));
+        assertThat((double) direction.x, is(closeTo(Math.sqrt(0.5), 1e-6)));
+        assertThat((double) direction.y, is(closeTo(Math.sqrt(0.5), 1e-6)));
+
+        // The goal's cell and outside the grid have no direction
+        direction.set(3, 4);
+        assertThat(field.getDistance(91, 51), is(0f));
+        assertThat(field.getDirection(91, 51, direction), is(false));
+        assertThat(field.getDirection(-1, 50, direction), is(false));
+        assertThat(field.getDirection(100, 50, direction), is(false));
+        assertThat(field.getDistance(50, Float.NaN), is(Float.POSITIVE_INFINITY));
+        assertThat(direction, is(new Vector2(3, 4)));
+    }
+
+    @Test
+    public void testRoutesThroughGapInWall()
+    {
+        // A wall across x = 100 with a gap at the top
+        List<Obstacle> obstacles = new ArrayList<Obstacle>();
+        for (int y = 5; y < 160; y += 10)
+        {
+            obstacles.add(new SimpleObstacle(105, y, 5));
+        }
+
+        FlowField field = new FlowField(0, 0, 20, 20, 10).build(195, 5, obstacles, 0);
+        assertThat(field.getDistance(105, 55), is(Float.POSITIVE_INFINITY));
+
+        // Walk from the far bottom corner by following the directions
+        Vector2 position = new Vector2(5, 5);
+        Vector2 direction = new Vector2();
+        float travelled = 0;
+        float expectedDistance = field.getDistance(5, 5);
+
+        while (field.getDirection(position.x, position.y, direction))
+        {
+            position.mulAdd(direction, direction.x != 0 && direction.y != 0 ? 10 * (float) Math.sqrt(2) : 10);
+            travelled += direction.x != 0 && direction.y != 0 ? 10 * (float) Math.sqrt(2) : 10;
+
+            assertThat(field.getDistance(position.x, position.y), is(lessThan(Float.POSITIVE_INFINITY)));
+            assertThat(travelled, is(lessThanOrEqualTo(expectedDistance + 1e-3f)));
+        }
+
+        assertThat(position.y, is(lessThan(10f)));
+        assertThat(position.x, is(greaterThan(190f)));
+        assertThat(expectedDistance, is(greaterThan(2 * 150f)));
+    }
+
+    @Test
+    public void testEnclosedCellsAreUnreachable()
+    {
+        // Four blocked cells around (15, 15) with only diagonal gaps, which can't be squeezed through
+        List<Obstacle> obstacles = new ArrayList<Obstacle>();
+        obstacles.add(new SimpleObstacle(5, 15, 1));
+        obstacles.add(new SimpleObstacle(25, 15, 1));
+        obstacles.add(new SimpleObstacle(15, 5, 1));
+        obstacles.add(new SimpleObstacle(15, 25, 1));
+
+        FlowField field = new FlowField(0, 0, 5, 5, 10).build(45, 45, obstacles, 4);
+        assertThat(field.getDistance(15, 15), is(Float.POSITIVE_INFINITY));
+        assertThat(field.getDirection(15, 15, new Vector2()), is(false));
+        assertThat(field.getDistance(35, 5), is(lessThan(Float.POSITIVE_INFINITY)));
+
+        // A clearance that covers the goal still leaves the goal reachable
+        field.build(15, 15, Collections.singletonList(new SimpleObstacle(45, 45, 1)), 5);
+        assertThat(field.getDistance(45, 45), is(Float.POSITIVE_INFINITY));
+        field.build(45, 45, Collections.singletonList(new SimpleObstacle(45, 45, 1)), 5);
+        assertThat(field.getDistance(45, 45), is(0f));
+        assertThat(field.getDistance(35, 45), is(10f));
+    }
+
+    @Test
+    public void testSteering()
+    {
+        FlowField field = new FlowField(-500, -500, 100, 100, 10).build(300, 0, Collections.<Obstacle>emptyList(), 0);
+
+        SimpleVehicle far = new SimpleVehicle(0, -16, 0, 1);
+        Steering steering = new Steering(far, new ThrustPreferenceSteering());
+        SteeringComponents components = steering.followFlowField(field, 16);
+        assertThat(components.getSteeringObjective(), is(SteeringObjective.FOLLOW_FLOW_FIELD));
+
+        // The field points straight along +x from the estimated position (0, 0)
+        SteeringComponents seek = steering.seek(new Vector2(1000, 0), 16);
+        assertThat(components.getRotation(), is(seek.getRotation()));
+        assertThat(components.getThrust(), is(seek.getThrust()));
+
+        // Close to the goal this arrives at the goal directly
+        SimpleVehicle close = new SimpleVehicle(302, 0, 0, 0);
+        steering = new Steering(close, new ThrustPreferenceSteering());
+        assertThat(steering.followFlowField(field, 16).getSteeringObjective(), is(SteeringObjective.ARRIVE_AT_SEEK));
+
+        SimpleVehicle outside = new SimpleVehicle(-600, 0, 0, 0);
+        steering = new Steering(outside, new ThrustPreferenceSteering());
+        SteeringComponents expected = steering.arriveAt(new Vector2(300, 0), 16);
+        SteeringComponents actual = steering.followFlowField(field, 16);
+        assertThat(actual.getSteeringObjective(), is(expected.getSteeringObjective()));
+        assertThat(actual.getRotation(), is(expected.getRotation()));
+        assertThat(actual.getThrust(), is(expected.getThrust()));
+    }
+
+    @Test
+    public void testBatchMatchesSteering()
+    {
+        List<Obstacle> obstacles = new ArrayList<Obstacle>();
+        obstacles.add(new SimpleObstacle(0, 0, 60));
+        FlowField field = new FlowField(-200, -200, 40, 40, 10).build(150, 20, obstacles, 10);
+
+        for (GetBatchSteeringComponents strategy : new GetBatchSteeringComponents[] {
+                new ThrustPreferenceSteering(), new RotationPreferenceSteering() })
+        {
+            Random random = new Random(1);
+            List<SimpleVehicle> vehicles = new ArrayList<SimpleVehicle>();
+            SteeringBatch batch = new SteeringBatch(16, strategy);
+
+            for (int i = 0; i < 200; i++)
+            {
+                // Some vehicles start outside the grid and some close enough to the goal to arrive
+                SimpleVehicle vehicle = new SimpleVehicle(random.nextFloat() * 500 - 250,
+                        random.nextFloat() * 500 - 250, random.nextFloat() * 4 - 2, random.nextFloat() * 4 - 2);
+                vehicle.maximumReverseThrust = -2;
+                if (i % 10 == 0)
+                {
+                    vehicle.position.set(150 + random.nextFloat() * 8, 20 + random.nextFloat() * 8);
+                }
+
+                vehicles.add(vehicle);
+                batch.add(vehicle);
+            }
+
+            batch.followFlowField(field, 1);
+
+            for (int i = 0; i < vehicles.size(); i++)
+            {
+                Steering steering = new Steering(vehicles.get(i), (GetSteeringComponents) strategy);
+                SteeringComponents expected = steering.followFlowField(field, 1);
+
+                assertThat("rotation " + i, batch.getRotation()[i], is(expected.getRotation()));
+                assertThat("thrust " + i, batch.getThrust()[i], is(expected.getThrust()));
+                assertThat("objective " + i, batch.getSteeringObjective(i), is(expected.getSteeringObjective()));
+            }
+        }
+    }
+
+    @Test
+    public void testCache()
+    {
+        SpatialGridCollisionDetector grid = new SpatialGridCollisionDetector(50);
+        SimpleObstacle obstacle = new SimpleObstacle(50, 50, 10);
+        grid.add(obstacle);
+
+        FlowFieldCache cache = new FlowFieldCache(0, 0, 10, 10, 10, grid, 0, 2);
+        FlowField first = cache.get(5, 5);
+        assertThat(first.getDistance(55, 55), is(Float.POSITIVE_INFINITY));
+        assertThat(cache.get(5, 5), is(sameInstance(first)));
+
+        FlowField second = cache.get(95, 95);
+        assertThat(second, is(not(sameInstance(first))));
+        assertThat(second.getGoalX(), is(95f));
+
+        // Using the first goal makes the second the least recently used
+        cache.get(5, 5);
+        cache.get(50, 95);
+        assertThat(cache.size(), is(2));
+        assertThat(cache.get(5, 5), is(sameInstance(first)));
+        assertThat(cache.get(95, 95), is(not(sameInstance(second))));
+        assertThat(cache.getBuildCount(), is(4L));
+        assertThat(cache.getHitCount(), is(3L));
+
+        // Changing the broad phase throws the fields away
+        grid.remove(obstacle);
+        FlowField rebuilt = cache.get(5, 5);
+        assertThat(rebuilt, is(not(sameInstance(first))));
+        assertThat(rebuilt.getDistance(55, 55), is(lessThan(Float.POSITIVE_INFINITY)));
+        assertThat(cache.size(), is(1));
+    }
+
+    @Test
+    public void testCacheBuildsOutsideLock() throws Exception
+    {
+        final CountDownLatch building = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger reads = new AtomicInteger();
+
+        // The first build stalls reading the obstacle until released
+        SimpleObstacle obstacle = new SimpleObstacle(50, 50, 1)
+        {
+            @Override
+            public float getRadius()
+            {
+                if (reads.getAndIncrement() == 0)
+                {
+                    building.countDown();
+                    try
+                    {
+                        release.await();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        throw new IllegalStateException(e);
+                    }
+                }
+
+                return super.getRadius();
+            }
+        };
+        List<Obstacle> obstacles = Collections.<Obstacle>singletonList(obstacle);
+
+        final FlowFieldCache cache = new FlowFieldCache(0, 0, 10, 10, 10, obstacles, 0, 4);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try
+        {
+            Callable<FlowField> slow = new Callable<FlowField>()
+            {
+                @Override
+                public FlowField call()
+                {
+                    return cache.get(5, 5);
+                }
+            };
+
+            Future<FlowField> first = executor.submit(slow);
+            assertThat(building.await(5, TimeUnit.SECONDS), is(true));
+            Future<FlowField> second = executor.submit(slow);
+
+            // Other goals and hits don't wait for the slow build
+            FlowField other = cache.get(95, 95);
+            assertThat(cache.get(95, 95), is(sameInstance(other)));
+            assertThat(first.isDone(), is(false));
+
+            release.countDown();
+            assertThat(first.get(5, TimeUnit.SECONDS), is(sameInstance(second.get(5, TimeUnit.SECONDS))));
+            assertThat(cache.get(5, 5), is(sameInstance(first.get())));
+            assertThat(cache.getBuildCount(), is(2L));
+            assertThat(reads.get(), is(2));
+        }
+        finally
+        {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCacheBuildsConcurrentlyFromGrid() throws Exception
+    {
+        Random random = new Random(1);
+        SpatialGridCollisionDetector grid = new SpatialGridCollisionDetector(20);
+        for (int i = 0; i < 40; i++)
+        {
+            grid.add(new SimpleObstacle(random.nextFloat() * 200, random.nextFloat() * 200,
+                    2 + random.nextFloat() * 6));
+        }
+
+        final FlowFieldCache cache = new FlowFieldCache(0, 0, 40, 40, 5, grid, 1, 64);
+        List<Callable<FlowField>> lookups = new ArrayList<Callable<FlowField>>();
+        final List<Vector2> goals = new ArrayList<Vector2>();
+        for (int i = 0; i < 32; i++)
+        {
+            final Vector2 goal = new Vector2(2.5f + 25 * (i % 8), 2.5f + 50 * (i / 8));
+            goals.add(goal);
+            lookups.add(new Callable<FlowField>()
+            {
+                @Override
+                public FlowField call()
+                {
+                    return cache.get(goal.x, goal.y);
+                }
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try
+        {
+            List<Future<FlowField>> fields = executor.invokeAll(lookups);
+            for (int i = 0; i < goals.size(); i++)
+            {
+                FlowField expected = new FlowField(0, 0, 40, 40, 5).build(goals.get(i).x, goals.get(i).y, grid, 1);
+                FlowField actual = fields.get(i).get(5, TimeUnit.SECONDS);
+
+                for (int y = 0; y < 40; y++)
+                {
+                    for (int x = 0; x < 40; x++)
+                    {
+                        assertThat(actual.getDistance(2.5f + x * 5, 2.5f + y * 5),
+                                is(expected.getDistance(2.5f + x * 5, 2.5f + y * 5)));
+                    }
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        // Changing the grid copies the obstacles again
+        grid.add(new SimpleObstacle(goals.get(0).x, goals.get(0).y + 20, 8));
+        FlowField rebuilt = cache.get(goals.get(0).x, goals.get(0).y);
+        FlowField expected = new FlowField(0, 0, 40, 40, 5).build(goals.get(0).x, goals.get(0).y, grid, 1);
+        assertThat(rebuilt.getDistance(goals.get(0).x, goals.get(0).y + 40),
+                is(expected.getDistance(goals.get(0).x, goals.get(0).y + 40)));
+    }
+}
@@ -0,0 +1,262 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link OrcaAvoidance} and {@link Steering#avoidNeighbours(BoidNeighbourSource, Vector2, float, float)}.
+ */
+public class TestOrcaAvoidance
+{
+    private final OrcaAvoidance orca = new OrcaAvoidance();
+
+    @Test
+    public void testNoNeighboursKeepsPreferredVelocity()
+    {
+        SimpleVehicle vehicle = new SimpleVehicle(0, 0, 0, 0);
+
+        assertThat(orca.findVelocity(vehicle, new BoidDistance[0], 0, new Vector2(1, 2), 1000, 16, new Vector2()),
+                is(new Vector2(1, 2)));
+
+        // Clamped to the maximum speed
+        Vector2 velocity = orca.findVelocity(vehicle, new BoidDistance[0], 0, new Vector2(10, 0), 1000, 16,
+                new Vector2());
+        assertThat(velocity, is(new Vector2(5, 0)));
+    }
+
+    @Test
+    public void testHeadOnVehiclesPassOnOppositeSides()
+    {
+        SimpleVehicle first = new SimpleVehicle(0, 0, 0.1f, 0);
+        SimpleVehicle second = new SimpleVehicle(100, 1, -0.1f, 0);
+
+        Vector2 firstVelocity = orca.findVelocity(first, new BoidDistance[] { new BoidDistance(second, 0) }, 1,
+                first.velocity, 1000, 16, new Vector2());
+        Vector2 secondVelocity = orca.findVelocity(second, new BoidDistance[] { new BoidDistance(first, 0) }, 1,
+                second.velocity, 1000, 16, new Vector2());
+
+        assertThat(firstVelocity.y, is(lessThan(0f)));
+        assertThat(secondVelocity.y, is(greaterThan(0f)));
+    }
+
+    @Test
+    public void testStoppedVehicleWithoutSpeedLimitGivesWay()
+    {
+        SimpleVehicle stopped = new SimpleVehicle(0, 0, 0, 0);
+        stopped.maximumSpeed = null;
+        SimpleVehicle approaching = new SimpleVehicle(100, 1, -0.1f, 0);
+
+        Vector2 velocity = orca.findVelocity(stopped, new BoidDistance[] { new BoidDistance(approaching, 0) }, 1,
+                new Vector2(), 1000, 16, new Vector2());
+
+        // Takes its share of the avoidance by moving out of the way, no faster than the approaching vehicle
+        assertThat(velocity.len(), is(greaterThan(0f)));
+        assertThat(velocity.len(), is(lessThanOrEqualTo(0.1f)));
+        assertThat(velocity.y, is(lessThan(0f)));
+    }
+
+    @Test
+    public void testCrowdSwapsWithoutCollisions()
+    {
+        int count = 6;
+        float timeStep = 16;
+        List<SimpleVehicle> vehicles = new ArrayList<SimpleVehicle>();
+        List<Vector2> goals = new ArrayList<Vector2>();
+
+        // Each vehicle crosses the circle to the opposite side, so they all meet in the middle
+        for (int i = 0; i < count; i++)
+        {
+            float angle = MathUtils.PI2 * i / count;
+            SimpleVehicle vehicle = new SimpleVehicle(200 * MathUtils.cos(angle), 200 * MathUtils.sin(angle), 0, 0);
+            vehicle.maximumSpeed = 0.1f;
+            vehicles.add(vehicle);
+            goals.add(new Vector2(vehicle.position).scl(-1));
+        }
+
+        BoidNeighbourIndex index = new BoidNeighbourIndex(100);
+        BoidDistance[] neighbours = new BoidDistance[10];
+        Vector2[] velocities = new Vector2[count];
+        Vector2 preferredVelocity = new Vector2();
+        Random random = new Random(1);
+
+        for (int step = 0; step < 1000; step++)
+        {
+            index.build(vehicles);
+
+            for (int i = 0; i < count; i++)
+            {
+                SimpleVehicle vehicle = vehicles.get(i);
+                preferredVelocity.set(goals.get(i)).sub(vehicle.position).limit(0.1f);
+
+                // Perturb a little to break the symmetric equilibrium in the middle, as in the RVO2 examples
+                preferredVelocity.add(random.nextFloat() * 0.0002f - 0.0001f, random.nextFloat() * 0.0002f - 0.0001f);
+
+                int found = index.findCloseBoids(vehicle, 100, neighbours);
+                velocities[i] = orca.findVelocity(vehicle, neighbours, found, preferredVelocity, 1000, timeStep,
+                        new Vector2());
+            }
+
+            for (int i = 0; i < count; i++)
+            {
+                vehicles.get(i).velocity.set(velocities[i]);
+                vehicles.get(i).position.mulAdd(velocities[i], timeStep);
+            }
+
+            for (int i = 0; i < count; i++)
+            {
+                for (int j = i + 1; j < count; j++)
+                {
+                    assertThat(vehicles.get(i).position.dst(vehicles.get(j).position), is(greaterThan(19f)));
+                }
+            }
+        }
+
+        for (int i = 0; i < count; i++)
+        {
+            // Within a step of the goal
+            assertThat(vehicles.get(i).position.dst(goals.get(i)), is(lessThan(timeStep * 0.1f)));
+        }
+    }
+
+    @Test
+    public void testCrowdSwapsWithoutCollisionsThroughSteering()
+    {
+        int count = 6;
+        float timeStep = 16;
+        List<SimpleVehicle> vehicles = new ArrayList<SimpleVehicle>();
+        List<Steering> steerings = new ArrayList<Steering>();
+        List<Vector2> goals = new ArrayList<Vector2>();
+        ThrustPreferenceSteering strategy = new ThrustPreferenceSteering();
+
+        for (int i = 0; i < count; i++)
+        {
+            float angle = MathUtils.PI2 * i / count;
+            SimpleVehicle vehicle = new SimpleVehicle(200 * MathUtils.cos(angle), 200 * MathUtils.sin(angle), 0, 0);
+            vehicle.direction.set(vehicle.position).scl(-1).nor();
+            vehicle.maximumSpeed = 0.1f;
+            vehicle.maximumThrust = 0.001f;
+            vehicle.maximumReverseThrust = 0.001f;
+            vehicle.rotationRate = 0.01f;
+            vehicles.add(vehicle);
+            goals.add(new Vector2(vehicle.position).scl(-1));
+
+            Steering steering = new Steering(vehicle, strategy);
+            steering.setMaximumBoidDistance(100);
+            steerings.add(steering);
+        }
+
+        BoidNeighbourIndex index = new BoidNeighbourIndex(100);
+        SteeringComponents[] components = new SteeringComponents[count];
+        Vector2 preferredVelocity = new Vector2();
+        Random random = new Random(1);
+
+        for (int step = 0; step < 1500; step++)
+        {
+            index.build(vehicles);
+
+            for (int i = 0; i < count; i++)
+            {
+                SimpleVehicle vehicle = vehicles.get(i);
+                preferredVelocity.set(goals.get(i)).sub(vehicle.position).limit(0.1f);
+                preferredVelocity.add(random.nextFloat() * 0.0002f - 0.0001f, random.nextFloat() * 0.0002f - 0.0001f);
+
+                components[i] = steerings.get(i).avoidNeighbours(index, preferredVelocity, 1000, timeStep);
+            }
+
+            for (int i = 0; i < count; i++)
+            {
+                // Rotate, then apply the thrust along the new heading
+                SimpleVehicle vehicle = vehicles.get(i);
+                vehicle.direction.rotateRad(components[i].getRotation());
+                vehicle.velocity.mulAdd(vehicle.direction, components[i].getThrust()).limit(vehicle.maximumSpeed);
+                vehicle.position.mulAdd(vehicle.velocity, timeStep);
+            }
+
+            for (int i = 0; i < count; i++)
+            {
+                for (int j = i + 1; j < count; j++)
+                {
+                    assertThat(vehicles.get(i).position.dst(vehicles.get(j).position), is(greaterThan(19f)));
+                }
+            }
+        }
+
+        for (int i = 0; i < count; i++)
+        {
+            assertThat(vehicles.get(i).position.dst(goals.get(i)), is(lessThan(20f)));
+        }
+    }
+
+    @Test
+    public void testSteeringBrakes()
+    {
+        // Heading straight at a stationary vehicle: the new velocity is slower along the same heading
+        SimpleVehicle vehicle = new SimpleVehicle(0, 0, 0.1f, 0);
+        vehicle.direction.set(1, 0);
+        final SimpleVehicle stationary = new SimpleVehicle(40, 0, 0, 0);
+
+        BoidNeighbourSource neighbours = new BoidNeighbourSource()
+        {
+            @Override
+            public int findCloseBoids(Vehicle boid, float maximumDistance, BoidDistance[] closeBoids)
+            {
+                closeBoids[0] = new BoidDistance(stationary, boid.getPosition().dst2(stationary.getPosition()));
+                return 1;
+            }
+        };
+
+        Steering steering = new Steering(vehicle, new ThrustPreferenceSteering());
+        steering.getOrcaAvoidance().setResponsibility(1);
+        SteeringComponents components = steering.avoidNeighbours(neighbours, vehicle.velocity, 1000, 16);
+
+        assertThat(components.getThrust(), is(lessThan(0f)));
+    }
+
+    @Test
+    public void testSteering()
+    {
+        SimpleVehicle vehicle = new SimpleVehicle(0, 0, 0.1f, 0);
+        final SimpleVehicle oncoming = new SimpleVehicle(100, 1, -0.1f, 0);
+
+        BoidNeighbourSource neighbours = new BoidNeighbourSource()
+        {
+            @Override
+            public int findCloseBoids(Vehicle boid, float maximumDistance, BoidDistance[] closeBoids)
+            {
+                closeBoids[0] = new BoidDistance(oncoming, boid.getPosition().dst2(oncoming.getPosition()));
+                return 1;
+            }
+        };
+
+        Steering steering = new Steering(vehicle, new ThrustPreferenceSteering());
+        SteeringComponents components = steering.avoidNeighbours(neighbours, vehicle.velocity, 1000, 16);
+
+        assertThat(components.getSteeringObjective(), is(SteeringObjective.AVOID_NEIGHBOURS));
+        assertThat(components.getSteeringForce().y, is(lessThan(0f)));
+    }
+}
@@ -0,0 +1,126 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.math.Vector2;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link Path}, {@link PathCursor} and {@link Steering#followPath(PathCursor, float, float)}.
+ */
+public class TestPath
+{
+    /**
+     * An L shaped path: 100 along x then 50 along y, with a duplicate point.
+     */
+    private final Path path = new Path(0, 0, 100, 0, 100, 0, 100, 50);
+
+    @Test
+    public void testCumulativeLengths()
+    {
+        assertThat(path.getPointCount(), is(3));
+        assertThat(path.getSegmentCount(), is(2));
+        assertThat(path.getLength(), is(150f));
+        assertThat(path.getDistance(1), is(100f));
+    }
+
+    @Test
+    public void testPointAtDistance()
+    {
+        Vector2 point = new Vector2();
+
+        assertThat(path.getPointAt(50, point), is(new Vector2(50, 0)));
+        assertThat(path.getPointAt(125, point), is(new Vector2(100, 25)));
+        assertThat(path.getPointAt(-10, point), is(new Vector2(0, 0)));
+        assertThat(path.getPointAt(1000, point), is(new Vector2(100, 50)));
+
+        assertThat(path.findSegment(99), is(0));
+        assertThat(path.findSegment(100), is(1));
+    }
+
+    @Test
+    public void testSinglePoint()
+    {
+        Path point = new Path(5, 5);
+        PathCursor cursor = new PathCursor(point);
+
+        assertThat(point.getLength(), is(0f));
+        assertThat(cursor.update(100, 100), is(0f));
+        assertThat(cursor.getPointAhead(10, new Vector2()), is(new Vector2(5, 5)));
+    }
+
+    @Test
+    public void testCursorMovesForwards()
+    {
+        PathCursor cursor = new PathCursor(path);
+
+        assertThat(cursor.update(40, 10), is(40f));
+        assertThat(cursor.getSegment(), is(0));
+
+        // Past the corner
+        assertThat(cursor.update(110, 20), is(120f));
+        assertThat(cursor.getSegment(), is(1));
+        assertThat(cursor.getRemainingDistance(), is(30f));
+
+        // Never moves backwards along the path
+        assertThat(cursor.update(0, 0), is(120f));
+        assertThat(cursor.getSegment(), is(1));
+
+        assertThat(cursor.getPointAhead(10, new Vector2()).epsilonEquals(100, 30, 0.001f), is(true));
+        assertThat(cursor.getPointAhead(100, new Vector2()), is(new Vector2(100, 50)));
+    }
+
+    @Test
+    public void testLongLookAhead()
+    {
+        float[] coordinates = new float[200];
+        for (int i = 0; i < 100; i++)
+        {
+            coordinates[i * 2] = i;
+        }
+
+        PathCursor cursor = new PathCursor(new Path(coordinates));
+        cursor.update(10, 5);
+
+        assertThat(cursor.getPointAhead(50.5f, new Vector2()), is(new Vector2(60.5f, 0)));
+    }
+
+    @Test
+    public void testFollowPath()
+    {
+        SimpleVehicle vehicle = new SimpleVehicle(0, 0, 0, 0);
+        vehicle.direction.set(1, 0);
+        Steering steering = new Steering(vehicle, new ThrustPreferenceSteering());
+
+        PathCursor cursor = new PathCursor(path);
+        SteeringComponents components = steering.followPath(cursor, 20, 16);
+
+        assertThat(components.getSteeringObjective(), is(SteeringObjective.FOLLOW_PATH));
+        assertThat(components.getSteeringForce(), is(new Vector2(1, 0)));
+
+        // Near the corner the look-ahead point is around it
+        vehicle.position.set(95, 0);
+        components = steering.followPath(cursor, 20, 16);
+
+        assertThat(components.getSteeringForce().y, is(greaterThan(0f)));
+        assertThat(cursor.getDistance(), is(95f));
+    }
+}
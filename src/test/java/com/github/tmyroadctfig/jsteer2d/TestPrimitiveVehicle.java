@@ -0,0 +1,202 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.math.Vector2;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests that steering reads vehicles and obstacles through their primitive accessors.
+ */
+public class TestPrimitiveVehicle
+{
+    @Test
+    public void testDefaultAccessors()
+    {
+        SimpleVehicle vehicle = new SimpleVehicle(10, 20, 3, 4);
+        vehicle.direction.set(0, 1);
+
+        assertThat(vehicle.getPositionX(), is(10f));
+        assertThat(vehicle.getPositionY(), is(20f));
+        assertThat(vehicle.getVelocityX(), is(3f));
+        assertThat(vehicle.getVelocityY(), is(4f));
+        assertThat(vehicle.getDirectionX(), is(0f));
+        assertThat(vehicle.getDirectionY(), is(1f));
+        assertThat(vehicle.getSpeedLimit(), is(5f));
+
+        vehicle.maximumSpeed = null;
+        assertThat(vehicle.getSpeedLimit(), is(Vehicle.NO_MAXIMUM_SPEED));
+    }
+
+    @Test
+    public void testSteeringMatchesVectorVehicle()
+    {
+        SimpleVehicle vehicle = new SimpleVehicle(10, 20, 0.5f, 0.25f);
+        PrimitiveVehicle primitive = new PrimitiveVehicle(vehicle);
+        List<Obstacle> obstacles = Collections.<Obstacle>singletonList(new SimpleObstacle(60, 45, 10, -0.1f, 0));
+        List<Vehicle> flock = Arrays.<Vehicle>asList(new SimpleVehicle(40, 20, 0, 1), new SimpleVehicle(10, 70, 1, 0));
+        Vector2 target = new Vector2(100, 30);
+
+        for (GetSteeringComponents strategy : Arrays.asList(new ThrustPreferenceSteering(),
+                new RotationPreferenceSteering()))
+        {
+            Steering expected = new Steering(vehicle, strategy, new SweptCircleCollisionDetector());
+            Steering actual = new Steering(primitive, strategy, new SweptCircleCollisionDetector());
+
+            assertSameComponents(actual.seek(target, 16), expected.seek(target, 16));
+            assertSameComponents(actual.arriveAt(target, 16), expected.arriveAt(target, 16));
+            assertSameComponents(actual.avoidObstacles(obstacles, 1000, 16),
+                    expected.avoidObstacles(obstacles, 1000, 16));
+            assertSameComponents(actual.flock(flock, 16), expected.flock(flock, 16));
+        }
+    }
+
+    @Test
+    public void testNoMaximumSpeed()
+    {
+        SimpleVehicle vehicle = new SimpleVehicle(0, 0, 1, 0);
+        vehicle.maximumSpeed = null;
+
+        // Arriving used to unbox the maximum speed
+        SteeringComponents components = new Steering(vehicle, new ThrustPreferenceSteering())
+                .arriveAt(new Vector2(5, 0), 16);
+        assertThat(components.isValid(), is(true));
+
+        SteeringBatch batch = new SteeringBatch(1, null);
+        batch.add(new PrimitiveVehicle(vehicle));
+        assertThat(batch.getMaximumSpeed()[0], is(Vehicle.NO_MAXIMUM_SPEED));
+    }
+
+    private static void assertSameComponents(SteeringComponents actual, SteeringComponents expected)
+    {
+        assertThat(actual.getSteeringObjective(), is(expected.getSteeringObjective()));
+        assertThat(actual.getSteeringForce(), is(expected.getSteeringForce()));
+        assertThat(actual.getRotation(), is(expected.getRotation()));
+        assertThat(actual.getThrust(), is(expected.getThrust()));
+    }
+
+    /**
+     * A vehicle that only supports the primitive accessors, like one backed by a physics engine.
+     */
+    private static class PrimitiveVehicle implements Vehicle
+    {
+        private final SimpleVehicle vehicle;
+
+        public PrimitiveVehicle(SimpleVehicle vehicle)
+        {
+            this.vehicle = vehicle;
+        }
+
+        @Override
+        public Vector2 getDirection()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public float getDirectionX()
+        {
+            return vehicle.direction.x;
+        }
+
+        @Override
+        public float getDirectionY()
+        {
+            return vehicle.direction.y;
+        }
+
+        @Override
+        public float getMaximumThrust()
+        {
+            return vehicle.maximumThrust;
+        }
+
+        @Override
+        public float getMaximumReverseThrust()
+        {
+            return vehicle.maximumReverseThrust;
+        }
+
+        @Override
+        public float getRotationRate()
+        {
+            return vehicle.rotationRate;
+        }
+
+        @Override
+        public Float getMaximumSpeed()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public float getSpeedLimit()
+        {
+            return vehicle.maximumSpeed == null ? NO_MAXIMUM_SPEED : vehicle.maximumSpeed;
+        }
+
+        @Override
+        public Vector2 getVelocity()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public float getVelocityX()
+        {
+            return vehicle.velocity.x;
+        }
+
+        @Override
+        public float getVelocityY()
+        {
+            return vehicle.velocity.y;
+        }
+
+        @Override
+        public float getRadius()
+        {
+            return vehicle.radius;
+        }
+
+        @Override
+        public Vector2 getPosition()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public float getPositionX()
+        {
+            return vehicle.position.x;
+        }
+
+        @Override
+        public float getPositionY()
+        {
+            return vehicle.position.y;
+        }
+    }
+}
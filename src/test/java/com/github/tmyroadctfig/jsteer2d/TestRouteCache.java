@@ -0,0 +1,192 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.math.Vector2;
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link RouteCache}.
+ */
+public class TestRouteCache
+{
+    private static final Path ROUTE = new Path(0, 0, 100, 0, 100, 50);
+
+    private int loads;
+
+    private final RouteCache.Loader<String> loader = new RouteCache.Loader<String>()
+    {
+        @Override
+        public Path load(String routeId)
+        {
+            loads++;
+            return "missing".equals(routeId) ? null : new Path(0, 0, routeId.length(), 0);
+        }
+    };
+
+    @Test
+    public void testSharesLoadedRoutes()
+    {
+        RouteCache<String> cache = new RouteCache<String>(1 << 20);
+
+        Path first = cache.get("north", loader);
+        assertThat(cache.get("north", loader), is(sameInstance(first)));
+        assertThat(loads, is(1));
+        assertThat(cache.getHitCount(), is(1L));
+        assertThat(cache.getMissCount(), is(1L));
+
+        assertThat(cache.get("missing", loader), is(nullValue()));
+        assertThat(cache.size(), is(1));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed()
+    {
+        long routeMemory = ROUTE.getMemoryUsage();
+        RouteCache<String> cache = new RouteCache<String>(routeMemory * 2);
+
+        cache.put("a", ROUTE);
+        cache.put("b", ROUTE);
+        assertThat(cache.getMemoryUsage(), is(routeMemory * 2));
+
+        // Using a makes b the least recently used
+        cache.get("a");
+        cache.put("c", ROUTE);
+
+        assertThat(cache.get("b"), is(nullValue()));
+        assertThat(cache.get("a"), is(ROUTE));
+        assertThat(cache.get("c"), is(ROUTE));
+        assertThat(cache.getEvictionCount(), is(1L));
+        assertThat(cache.getMemoryUsage(), is(routeMemory * 2));
+
+        // A route larger than the cache is still kept on its own
+        float[] coordinates = new float[1000];
+        for (int i = 0; i < coordinates.length; i++)
+        {
+            coordinates[i] = i;
+        }
+        Path large = new Path(coordinates);
+
+        cache.put("large", large);
+        assertThat(cache.size(), is(1));
+        assertThat(cache.getMemoryUsage(), is(large.getMemoryUsage()));
+
+        cache.remove("large");
+        assertThat(cache.getMemoryUsage(), is(0L));
+    }
+
+    @Test
+    public void testLoadsOutsideLock() throws Exception
+    {
+        final RouteCache<String> cache = new RouteCache<String>(1 << 20);
+        final CountDownLatch loadStarted = new CountDownLatch(1);
+        final CountDownLatch finishLoad = new CountDownLatch(1);
+        final AtomicInteger slowLoads = new AtomicInteger();
+
+        final RouteCache.Loader<String> slowLoader = new RouteCache.Loader<String>()
+        {
+            @Override
+            public Path load(String routeId)
+            {
+                slowLoads.incrementAndGet();
+                loadStarted.countDown();
+
+                try
+                {
+                    finishLoad.await();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+
+                return ROUTE;
+            }
+        };
+
+        Callable<Path> lookup = new Callable<Path>()
+        {
+            @Override
+            public Path call()
+            {
+                return cache.get("slow", slowLoader);
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try
+        {
+            Future<Path> first = executor.submit(lookup);
+            assertThat(loadStarted.await(10, TimeUnit.SECONDS), is(true));
+            Future<Path> second = executor.submit(lookup);
+
+            // Other routes are served while the slow route loads
+            assertThat(cache.get("north", loader), is(notNullValue()));
+            assertThat(cache.size(), is(1));
+
+            finishLoad.countDown();
+            assertThat(first.get(10, TimeUnit.SECONDS), is(sameInstance(ROUTE)));
+            assertThat(second.get(10, TimeUnit.SECONDS), is(sameInstance(ROUTE)));
+            assertThat(slowLoads.get(), is(1));
+            assertThat(cache.get("slow"), is(sameInstance(ROUTE)));
+        }
+        finally
+        {
+            finishLoad.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRemovedLoadIsNotCached()
+    {
+        final RouteCache<String> cache = new RouteCache<String>(1 << 20);
+
+        Path path = cache.get("north", new RouteCache.Loader<String>()
+        {
+            @Override
+            public Path load(String routeId)
+            {
+                cache.remove(routeId);
+                return ROUTE;
+            }
+        });
+
+        assertThat(path, is(sameInstance(ROUTE)));
+        assertThat(cache.get("north"), is(nullValue()));
+        assertThat(cache.size(), is(0));
+    }
+
+    @Test
+    public void testTangents()
+    {
+        assertThat(ROUTE.getTangent(0, new Vector2()), is(new Vector2(1, 0)));
+        assertThat(ROUTE.getTangent(1, new Vector2()), is(new Vector2(0, 1)));
+    }
+}
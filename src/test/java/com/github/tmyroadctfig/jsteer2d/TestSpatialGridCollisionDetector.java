@@ -0,0 +1,143 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link SpatialGridCollisionDetector}.
+ */
+public class TestSpatialGridCollisionDetector
+{
+    @Test
+    public void testFindsObstacleInPath()
+    {
+        SpatialGridCollisionDetector grid = new SpatialGridCollisionDetector(50);
+        SimpleObstacle behind = new SimpleObstacle(-100, 0, 10);
+        SimpleObstacle near = new SimpleObstacle(200, 5, 10);
+        SimpleObstacle far = new SimpleObstacle(400, 0, 10);
+        SimpleObstacle beside = new SimpleObstacle(100, 100, 10);
+        grid.add(behind);
+        grid.add(near);
+        grid.add(far);
+        grid.add(beside);
+
+        SimpleVehicle vehicle = new SimpleVehicle(0, 0, 1, 0);
+
+        assertThat(grid.findNearestPotentialCollision(vehicle, grid, 500), is((Obstacle) near));
+        assertThat(grid.findNearestPotentialCollision(vehicle, null, 100), is(nullValue()));
+
+        grid.remove(near);
+        assertThat(grid.findNearestPotentialCollision(vehicle, grid, 500), is((Obstacle) far));
+
+        far.position.set(100, 50);
+        grid.update(far);
+        assertThat(grid.findNearestPotentialCollision(vehicle, grid, 500), is(nullValue()));
+        assertThat(grid.size(), is(3));
+    }
+
+    @Test
+    public void testLargeObstacleIsTestedOnce()
+    {
+        SpatialGridCollisionDetector grid = new SpatialGridCollisionDetector(10);
+        SteeringTelemetry telemetry = new SteeringTelemetry();
+        grid.setMetrics(telemetry);
+
+        // The obstacle covers many of the cells swept by the diagonal path
+        SimpleObstacle obstacle = new SimpleObstacle(100, 100, 60);
+        grid.add(obstacle);
+
+        SimpleVehicle vehicle = new SimpleVehicle(0, 0, 1, 1);
+        assertThat(grid.findNearestPotentialCollision(vehicle, grid, 200), is((Obstacle) obstacle));
+        assertThat(grid.findNearestPotentialCollision(vehicle, grid, 200), is((Obstacle) obstacle));
+
+        assertThat(telemetry.getCollisionQueries(), is(2L));
+        assertThat(telemetry.getAverageCollisionCandidates(), is(1.0));
+    }
+
+    @Test
+    public void testNestedIteration()
+    {
+        SpatialGridCollisionDetector grid = new SpatialGridCollisionDetector(50);
+        for (int i = 0; i < 5; i++)
+        {
+            grid.add(new SimpleObstacle(i * 100, 0, 10));
+        }
+
+        int triples = 0;
+        for (Obstacle first : grid)
+        {
+            for (Obstacle second : grid)
+            {
+                for (Obstacle third : grid)
+                {
+                    triples++;
+                }
+            }
+        }
+
+        assertThat(triples, is(125));
+    }
+
+    @Test
+    public void testMatchesLinearScan()
+    {
+        Random random = new Random(1);
+        SpatialGridCollisionDetector grid = new SpatialGridCollisionDetector(64);
+        List<Obstacle> obstacles = new ArrayList<Obstacle>();
+
+        for (int i = 0; i < 2000; i++)
+        {
+            // Radii vary so some obstacles span several cells
+            SimpleObstacle obstacle = new SimpleObstacle(random.nextFloat() * 4000 - 2000,
+                    random.nextFloat() * 4000 - 2000, 1 + random.nextFloat() * random.nextFloat() * 150);
+            obstacles.add(obstacle);
+            grid.add(obstacle);
+        }
+
+        for (int i = 0; i < 2000; i++)
+        {
+            SimpleVehicle vehicle = new SimpleVehicle(random.nextFloat() * 4000 - 2000,
+                    random.nextFloat() * 4000 - 2000, random.nextFloat() * 2 - 1, random.nextFloat() * 2 - 1);
+
+            Obstacle expected = CollisionUtils.findNearestObstacleInPath(vehicle, obstacles, 300);
+            Obstacle actual = grid.findNearestPotentialCollision(vehicle, grid, 300);
+
+            assertThat(getFraction(vehicle, actual, 300), is(getFraction(vehicle, expected, 300)));
+        }
+    }
+
+    private float getFraction(Vehicle vehicle, Obstacle obstacle, float detectionPeriod)
+    {
+        if (obstacle == null)
+        {
+            return Float.POSITIVE_INFINITY;
+        }
+
+        return CollisionUtils.findSegmentCircleIntersection(vehicle.getPosition().x, vehicle.getPosition().y,
+                vehicle.getVelocity().x * detectionPeriod, vehicle.getVelocity().y * detectionPeriod,
+                obstacle.getPosition().x, obstacle.getPosition().y, obstacle.getRadius() + vehicle.getRadius());
+    }
+}
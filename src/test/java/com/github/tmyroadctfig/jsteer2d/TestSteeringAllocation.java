@@ -0,0 +1,123 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.math.Vector2;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests that the steering behaviours which take a result {@link SteeringComponents} don't allocate.
+ */
+public class TestSteeringAllocation
+{
+    private static final int ITERATIONS = 20000;
+
+    @Test
+    public void testThrustPreferenceSteeringDoesNotAllocate()
+    {
+        assertThat(measureAllocatedBytes(new ThrustPreferenceSteering()), is(0L));
+    }
+
+    @Test
+    public void testRotationPreferenceSteeringDoesNotAllocate()
+    {
+        assertThat(measureAllocatedBytes(new RotationPreferenceSteering()), is(0L));
+    }
+
+    @Test
+    public void testResultMatchesAllocatingOverload()
+    {
+        SimpleVehicle vehicle = new SimpleVehicle(0, 0, 1, 1);
+        Steering steering = new Steering(vehicle, new ThrustPreferenceSteering());
+        Vector2 target = new Vector2(100, 20);
+
+        SteeringComponents expected = steering.seek(target, 16);
+        SteeringComponents actual = steering.seek(target, 16, new SteeringComponents());
+
+        assertThat(actual.getRotation(), is(expected.getRotation()));
+        assertThat(actual.getThrust(), is(expected.getThrust()));
+        assertThat(actual.getSteeringTarget(), is(expected.getSteeringTarget()));
+        assertThat(actual.getSteeringForce(), is(expected.getSteeringForce()));
+    }
+
+    private long measureAllocatedBytes(GetSteeringComponents getSteeringComponents)
+    {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        final Obstacle obstacle = new SimpleVehicle(50, 5, 0, 0);
+        PotentialCollisionDetector detector = new PotentialCollisionDetector()
+        {
+            @Override
+            public Obstacle findNearestPotentialCollision(Vehicle vehicle, Iterable<Obstacle> obstacles,
+                                                          float detectionPeriod)
+            {
+                return vehicle.getPosition().x < 0 ? null : obstacle;
+            }
+        };
+
+        SimpleVehicle vehicle = new SimpleVehicle(0, 0, 1, 0.5f);
+        SimpleVehicle other = new SimpleVehicle(30, 30, -1, 0);
+        Steering steering = new Steering(vehicle, getSteeringComponents, detector);
+        SteeringComponents result = new SteeringComponents();
+        Vector2 farTarget = new Vector2(1000, 1000);
+        Vector2 nearTarget = new Vector2(1, 1);
+
+        // Warm up, this also sizes any lazily allocated storage in the result
+        tick(steering, vehicle, other, result, farTarget, nearTarget);
+
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        long overhead = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        before = threadBean.getThreadAllocatedBytes(threadId);
+        tick(steering, vehicle, other, result, farTarget, nearTarget);
+        long after = threadBean.getThreadAllocatedBytes(threadId);
+
+        return Math.max(0, after - before - overhead);
+    }
+
+    private void tick(Steering steering, SimpleVehicle vehicle, Vehicle other, SteeringComponents result,
+                      Vector2 farTarget, Vector2 nearTarget)
+    {
+        for (int i = 0; i < ITERATIONS; i++)
+        {
+            // Alternate the detector between a hit and a miss
+            vehicle.position.x = (i & 1) == 0 ? 0 : -1;
+
+            steering.seek(farTarget, 16, result);
+            steering.pursue(other, 16, result);
+            steering.evade(other, 16, result);
+            steering.arriveAt(farTarget, 16, result);
+            steering.arriveAt(nearTarget, 16, result);
+            steering.avoidObstacles(null, 500, 16, result);
+            steering.blend(16).avoidObstacles(null, 500, 1).priority().seek(farTarget, 1).evade(other, 0.5f)
+                    .getComponents(result);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.math.Vector2;
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link SteeringBatch}.
+ */
+@RunWith(JUnitParamsRunner.class)
+public class TestSteeringBatch
+{
+    private static final int SIZE = 500;
+
+    private static final float ELAPSED_TIME = 16;
+
+    public Object[] strategies()
+    {
+        return new Object[]
+            {
+                new Object[] { new ThrustPreferenceSteering() },
+                new Object[] { new RotationPreferenceSteering() },
+            };
+    }
+
+    @Test
+    @Parameters(method = "strategies")
+    public void testSeekMatchesSteering(GetBatchSteeringComponents strategy)
+    {
+        SteeringBatch batch = createBatch(strategy);
+        float[] targetX = randomColumn(new Random(2), 1000);
+        float[] targetY = randomColumn(new Random(3), 1000);
+
+        batch.seek(targetX, targetY, ELAPSED_TIME);
+
+        for (int i = 0; i < SIZE; i++)
+        {
+            Steering steering = new Steering(batch.getVehicle(i), (GetSteeringComponents) strategy);
+            assertMatches(batch, i, steering.seek(new Vector2(targetX[i], targetY[i]), ELAPSED_TIME));
+        }
+    }
+
+    @Test
+    @Parameters(method = "strategies")
+    public void testArriveAtMatchesSteering(GetBatchSteeringComponents strategy)
+    {
+        SteeringBatch batch = createBatch(strategy);
+        float[] targetX = randomColumn(new Random(4), 10);
+        float[] targetY = randomColumn(new Random(5), 10);
+
+        batch.arriveAt(targetX, targetY, ELAPSED_TIME);
+
+        for (int i = 0; i < SIZE; i++)
+        {
+            Steering steering = new Steering(batch.getVehicle(i), (GetSteeringComponents) strategy);
+            assertMatches(batch, i, steering.arriveAt(new Vector2(targetX[i], targetY[i]), ELAPSED_TIME));
+        }
+    }
+
+    @Test
+    @Parameters(method = "strategies")
+    public void testPursueAndEvadeMatchSteering(GetBatchSteeringComponents strategy)
+    {
+        SteeringBatch batch = createBatch(strategy);
+        int[] targets = new int[SIZE];
+        for (int i = 0; i < SIZE; i++)
+        {
+            targets[i] = (i * 7 + 1) % SIZE;
+        }
+
+        batch.pursue(targets, ELAPSED_TIME);
+
+        for (int i = 0; i < SIZE; i++)
+        {
+            Steering steering = new Steering(batch.getVehicle(i), (GetSteeringComponents) strategy);
+            assertMatches(batch, i, steering.pursue(batch.getVehicle(targets[i]), ELAPSED_TIME));
+        }
+
+        batch.evade(targets, ELAPSED_TIME);
+
+        for (int i = 0; i < SIZE; i++)
+        {
+            Steering steering = new Steering(batch.getVehicle(i), (GetSteeringComponents) strategy);
+            assertMatches(batch, i, steering.evade(batch.getVehicle(targets[i]), ELAPSED_TIME));
+        }
+    }
+
+    private void assertMatches(SteeringBatch batch, int index, SteeringComponents expected)
+    {
+        assertThat("rotation " + index, batch.getRotation()[index], is(expected.getRotation()));
+        assertThat("thrust " + index, batch.getThrust()[index], is(expected.getThrust()));
+        assertThat("objective " + index, batch.getSteeringObjective(index), is(expected.getSteeringObjective()));
+    }
+
+    private SteeringBatch createBatch(GetBatchSteeringComponents strategy)
+    {
+        Random random = new Random(1);
+        SteeringBatch batch = new SteeringBatch(16, strategy);
+
+        for (int i = 0; i < SIZE; i++)
+        {
+            SimpleVehicle vehicle = new SimpleVehicle(random.nextFloat() * 20 - 10, random.nextFloat() * 20 - 10,
+                    random.nextFloat() * 20 - 10, random.nextFloat() * 20 - 10);
+            vehicle.maximumReverseThrust = -0.5f;
+            batch.add(vehicle);
+        }
+
+        assertThat(batch.getSize(), is(SIZE));
+        return batch;
+    }
+
+    private float[] randomColumn(Random random, float range)
+    {
+        float[] column = new float[SIZE];
+        for (int i = 0; i < SIZE; i++)
+        {
+            column[i] = random.nextFloat() * range * 2 - range;
+        }
+        return column;
+    }
+}
@@ -0,0 +1,100 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.math.Vector2;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.hamcrest.number.IsCloseTo.closeTo;
+
+/**
+ * Tests for {@link SteeringBlend}.
+ */
+public class TestSteeringBlend
+{
+    private final SimpleVehicle vehicle = new SimpleVehicle(0, 0, 1, 0);
+
+    private final Steering steering = new Steering(vehicle, new ThrustPreferenceSteering(),
+            new SweptCircleCollisionDetector());
+
+    private final SteeringComponents result = new SteeringComponents();
+
+    @Test
+    public void testSingleBehaviourMatchesSteering()
+    {
+        Vector2 target = new Vector2(30, 80);
+        SteeringComponents expected = steering.seek(target, 16);
+
+        steering.blend(16).seek(target, 3).getComponents(result);
+
+        assertThat(result.getSteeringObjective(), is(SteeringObjective.SEEK));
+        assertThat((double) result.getRotation(), is(closeTo(expected.getRotation(), 1e-6)));
+        assertThat((double) result.getThrust(), is(closeTo(expected.getThrust(), 1e-6)));
+    }
+
+    @Test
+    public void testWeightsBlendDirections()
+    {
+        // The forces are normalised so the distance to each target doesn't matter, only the weights
+        steering.blend(0).seek(new Vector2(1000, 0), 1).seek(new Vector2(0, 1), 1).getComponents(result);
+        assertThat((double) result.getSteeringForce().angle(), is(closeTo(45, 1e-3)));
+
+        steering.blend(0).seek(new Vector2(1000, 0), 1).add(SteeringObjective.EVADE, new Vector2(0, 1), 3)
+                .getComponents(result);
+        assertThat((double) result.getSteeringForce().angle(), is(closeTo(Math.toDegrees(Math.atan(3)), 1e-3)));
+
+        // The objective is the behaviour with the largest weight
+        assertThat(result.getSteeringObjective(), is(SteeringObjective.EVADE));
+    }
+
+    @Test
+    public void testPriorityGroups()
+    {
+        List<Obstacle> ahead = Collections.<Obstacle>singletonList(new SimpleObstacle(50, 5, 5));
+        List<Obstacle> behind = Collections.<Obstacle>singletonList(new SimpleObstacle(-50, 0, 5));
+        Vector2 target = new Vector2(0, 100);
+
+        steering.blend(16).avoidObstacles(ahead, 500, 1).priority().seek(target, 1).getComponents(result);
+        assertThat(result.getSteeringObjective(), is(SteeringObjective.AVOID_OBSTACLE));
+
+        // Nothing to avoid so the next group is used
+        steering.blend(16).avoidObstacles(behind, 500, 1).priority().seek(target, 1).getComponents(result);
+        assertThat(result.getSteeringObjective(), is(SteeringObjective.SEEK));
+    }
+
+    @Test
+    public void testSeparationOnlyWhenTooClose()
+    {
+        List<SimpleVehicle> neighbours = Arrays.asList(vehicle, new SimpleVehicle(0, 10, 1, 0));
+
+        steering.blend(0).separate(neighbours, 1).getComponents(result);
+        assertThat(result.getSteeringObjective(), is(SteeringObjective.FLOCKING_SEPARATION));
+        assertThat(result.getSteeringForce().y, is(lessThan(0f)));
+
+        steering.setMinimumBoidDistance(5);
+        steering.blend(0).separate(neighbours, 1).getComponents(result);
+        assertThat(result.isValid(), is(false));
+        assertThat(result.getSteeringObjective(), is(SteeringObjective.NO_STEERING));
+    }
+}
@@ -0,0 +1,68 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link SteeringObjective}.
+ */
+public class TestSteeringObjective
+{
+    @Test
+    public void testRegisterInternsByName()
+    {
+        SteeringObjective wander = SteeringObjective.register("Test: wander");
+
+        assertThat(SteeringObjective.register("Test: wander"), is(sameInstance(wander)));
+        assertThat(SteeringObjective.register("Seek"), is(sameInstance(SteeringObjective.SEEK)));
+        assertThat(wander.getName(), is("Test: wander"));
+        assertThat(wander.getCode(), is(lessThan(SteeringObjective.getCount())));
+    }
+
+    @Test
+    public void testCodesRoundTripThroughBytes()
+    {
+        assertThat(SteeringObjective.NO_STEERING.getCode(), is(0));
+
+        for (int code = 0; code < SteeringObjective.getCount(); code++)
+        {
+            SteeringObjective objective = SteeringObjective.forCode(code);
+
+            assertThat(objective.getCode(), is(code));
+            assertThat(SteeringObjective.forCode(objective.getByteCode()), is(sameInstance(objective)));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownCode()
+    {
+        SteeringObjective.forCode(SteeringObjective.MAXIMUM_OBJECTIVES);
+    }
+
+    @Test
+    public void testToString()
+    {
+        SteeringComponents components = new SteeringComponents(SteeringObjective.SEEK, 0.5f, 1);
+
+        assertThat(components.toString(), is("steering:[rotation:0.5 thrust:1.0]  - Seek"));
+    }
+}
@@ -0,0 +1,255 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.math.Vector2;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link SteeringRecorder} and {@link SteeringReplay}.
+ */
+public class TestSteeringReplay
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() throws Exception
+    {
+        File file = folder.newFile("steering.replay");
+
+        SimpleVehicle first = new SimpleVehicle(1, 2, 0.5f, 0);
+        SimpleVehicle second = new SimpleVehicle(-10, 20, 0, -1);
+        second.maximumSpeed = null;
+
+        SteeringRecorder recorder = SteeringRecorder.open(file);
+        recorder.beginTick(16);
+        recorder.addVehicle(first, new Vector2(100, 0));
+        recorder.addVehicle(second);
+        recorder.addObstacle(new SimpleObstacle(50, 0, 5, 1, 2));
+        recorder.endTick();
+        assertThat(recorder.getTickCount(), is(1L));
+        recorder.close();
+
+        // Appending to an existing recording doesn't write a second header
+        recorder = SteeringRecorder.open(file);
+        recorder.beginTick(17);
+        recorder.addVehicle(first);
+        recorder.endTick();
+        recorder.close();
+
+        SteeringReplay replay = SteeringReplay.open(file);
+        SteeringBatch batch = new SteeringBatch(1, null);
+
+        assertThat(replay.nextTick(), is(true));
+        assertThat(replay.getElapsedTime(), is(16f));
+        assertThat(replay.getVehicleCount(), is(2));
+        assertThat(replay.getTarget(0), is(new Vector2(100, 0)));
+        assertThat(replay.getTarget(1), is(nullValue()));
+        assertThat(replay.getObstacles().size(), is(1));
+
+        MovingObstacle obstacle = (MovingObstacle) replay.getObstacles().get(0);
+        assertThat(obstacle.getPosition(), is(new Vector2(50, 0)));
+        assertThat(obstacle.getRadius(), is(5f));
+        assertThat(obstacle.getVelocity(), is(new Vector2(1, 2)));
+
+        replay.loadVehicles(batch);
+        assertThat(batch.getSize(), is(2));
+        assertThat(batch.getPositionX()[1], is(-10f));
+        assertThat(batch.getPositionY()[1], is(20f));
+        assertThat(batch.getVelocityY()[1], is(-1f));
+        assertThat(batch.getMaximumSpeed()[0], is(5f));
+        assertThat(batch.getMaximumSpeed()[1], is(Float.POSITIVE_INFINITY));
+
+        assertThat(replay.nextTick(), is(true));
+        assertThat(replay.getElapsedTime(), is(17f));
+        assertThat(replay.getVehicleCount(), is(1));
+        assertThat(replay.getObstacles().isEmpty(), is(true));
+
+        assertThat(replay.nextTick(), is(false));
+
+        replay.rewind();
+        assertThat(replay.nextTick(), is(true));
+        assertThat(replay.getElapsedTime(), is(16f));
+        replay.close();
+    }
+
+    @Test
+    public void testFileMatchesBuffer() throws Exception
+    {
+        File file = folder.newFile("steering.replay");
+
+        // Ticks larger than the initial read buffer, and a final tick cut short
+        SteeringRecorder recorder = SteeringRecorder.open(file);
+        for (int tick = 0; tick < 3; tick++)
+        {
+            recorder.beginTick(16 + tick);
+            for (int i = 0; i < 2000 * (tick + 1); i++)
+            {
+                recorder.addVehicle(new SimpleVehicle(i, tick, 0, 0.1f), new Vector2(tick, i));
+            }
+            recorder.addObstacle(new SimpleObstacle(tick, 0, 5));
+            recorder.endTick();
+        }
+        recorder.close();
+
+        RandomAccessFile truncate = new RandomAccessFile(file, "rw");
+        truncate.setLength(truncate.length() - 10);
+        truncate.close();
+
+        SteeringReplay fromFile = SteeringReplay.open(file);
+        SteeringReplay fromBuffer = new SteeringReplay(ByteBuffer.wrap(Files.readAllBytes(file.toPath())));
+        SteeringBatch fileBatch = new SteeringBatch(1, null);
+        SteeringBatch bufferBatch = new SteeringBatch(1, null);
+
+        for (int tick = 0; tick < 2; tick++)
+        {
+            assertThat(fromFile.nextTick(), is(true));
+            assertThat(fromBuffer.nextTick(), is(true));
+            assertThat(fromFile.getElapsedTime(), is(16f + tick));
+            assertThat(fromFile.getVehicleCount(), is(2000 * (tick + 1)));
+            assertThat(fromFile.getObstacles().get(0).getPosition(), is(new Vector2(tick, 0)));
+
+            fromFile.loadVehicles(fileBatch);
+            fromBuffer.loadVehicles(bufferBatch);
+            for (int i = 0; i < fromFile.getVehicleCount(); i++)
+            {
+                assertThat(fileBatch.getPositionX()[i], is(bufferBatch.getPositionX()[i]));
+                assertThat(fileBatch.getPositionY()[i], is((float) tick));
+                assertThat(fromFile.getTarget(i), is(new Vector2(tick, i)));
+            }
+        }
+
+        assertThat(fromFile.nextTick(), is(false));
+        assertThat(fromBuffer.nextTick(), is(false));
+        fromFile.close();
+    }
+
+    @Test
+    public void testAppendsAfterTruncatedTick() throws Exception
+    {
+        File file = folder.newFile("steering.replay");
+
+        SteeringRecorder recorder = SteeringRecorder.open(file);
+        recordTicks(recorder, 16, 2);
+        recorder.close();
+
+        // A recorder killed while writing the second tick
+        RandomAccessFile truncate = new RandomAccessFile(file, "rw");
+        truncate.setLength(truncate.length() - 10);
+        truncate.close();
+
+        recorder = SteeringRecorder.open(file);
+        recordTicks(recorder, 20, 3);
+        recorder.close();
+
+        SteeringReplay replay = SteeringReplay.open(file);
+        try
+        {
+            for (float elapsedTime : new float[] { 16, 20, 21, 22 })
+            {
+                assertThat(replay.nextTick(), is(true));
+                assertThat(replay.getElapsedTime(), is(elapsedTime));
+                assertThat(replay.getVehicleCount(), is(1));
+                assertThat(replay.getObstacles().get(0).getPosition(), is(new Vector2(elapsedTime, 0)));
+            }
+
+            assertThat(replay.nextTick(), is(false));
+        }
+        finally
+        {
+            replay.close();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRecorderRejectsOtherFormats() throws Exception
+    {
+        File file = folder.newFile("other.bin");
+        FileOutputStream output = new FileOutputStream(file);
+        output.write(new byte[] { 'P', 'K', 3, 4, 0, 0, 0, 0, 0, 0 });
+        output.close();
+
+        SteeringRecorder.open(file);
+    }
+
+    @Test
+    public void testRun() throws Exception
+    {
+        File file = folder.newFile("steering.replay");
+
+        SteeringRecorder recorder = SteeringRecorder.open(file);
+        for (int tick = 0; tick < 10; tick++)
+        {
+            recorder.beginTick(16);
+            for (int i = 0; i < 5; i++)
+            {
+                recorder.addVehicle(new SimpleVehicle(i * 30, tick, 0, 0.1f), new Vector2(i * 30, 1000));
+            }
+            recorder.endTick();
+        }
+        recorder.close();
+
+        final SteeringReplay replay = SteeringReplay.open(file);
+        final int[] steered = new int[1];
+
+        SteeringReplay.Result result = replay.run(new FleetSteering.Behaviour()
+        {
+            @Override
+            public void steer(int index, Steering steering, float elapsedTime, SteeringComponents result)
+            {
+                steering.seek(replay.getTarget(index), elapsedTime, result);
+                assertThat(result.isValid(), is(true));
+                steered[0]++;
+            }
+        }, new ThrustPreferenceSteering(), null);
+
+        assertThat(result.getTicks(), is(10));
+        assertThat(result.getSteps(), is(50L));
+        assertThat(steered[0], is(50));
+        replay.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsOtherFormats()
+    {
+        new SteeringReplay(ByteBuffer.allocate(64));
+    }
+
+    private static void recordTicks(SteeringRecorder recorder, float firstElapsedTime, int ticks) throws Exception
+    {
+        for (int tick = 0; tick < ticks; tick++)
+        {
+            recorder.beginTick(firstElapsedTime + tick);
+            recorder.addVehicle(new SimpleVehicle(tick, 0, 1, 0));
+            recorder.addObstacle(new SimpleObstacle(firstElapsedTime + tick, 0, 5));
+            recorder.endTick();
+        }
+    }
+}
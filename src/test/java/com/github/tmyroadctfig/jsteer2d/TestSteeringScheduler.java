@@ -0,0 +1,150 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.math.Vector2;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.hamcrest.number.IsCloseTo.closeTo;
+
+/**
+ * Tests for {@link SteeringScheduler}.
+ */
+public class TestSteeringScheduler
+{
+    private static final int SIZE = 40;
+
+    private final Vector2 target = new Vector2(0, 1000);
+
+    private final SteeringScheduler scheduler = new SteeringScheduler();
+
+    private final FleetSteering.Behaviour seek = new FleetSteering.Behaviour()
+    {
+        @Override
+        public void steer(int index, Steering steering, float elapsedTime, SteeringComponents result)
+        {
+            steering.seek(target, elapsedTime, result);
+        }
+    };
+
+    @Before
+    public void setUp()
+    {
+        for (int i = 0; i < SIZE; i++)
+        {
+            // Half near the origin, half far away
+            float x = i < SIZE / 2 ? i : 10000 + i;
+            scheduler.add(new Steering(new SimpleVehicle(x, 0, 1, 0), new ThrustPreferenceSteering()));
+        }
+    }
+
+    @Test
+    public void testEveryVehicleSteeredWithoutLevelOfDetail()
+    {
+        scheduler.tick(seek, 16);
+
+        assertThat(scheduler.getUpdatedCount(), is(SIZE));
+        for (int i = 0; i < SIZE; i++)
+        {
+            SteeringComponents expected = scheduler.getSteering(i).seek(target, 16);
+            assertThat(scheduler.getResult(i).getRotation(), is(expected.getRotation()));
+            assertThat(scheduler.getResult(i).getThrust(), is(expected.getThrust()));
+        }
+    }
+
+    @Test
+    public void testFarVehiclesStaggered()
+    {
+        scheduler.setLevelOfDetail(new SteeringScheduler.DistanceLevelOfDetail(new float[] { 1000 },
+                new int[] { 1, 4 }));
+
+        // Everyone is steered in the first tick
+        scheduler.tick(seek, 16);
+        assertThat(scheduler.getUpdatedCount(), is(SIZE));
+
+        int[] updates = new int[SIZE];
+        for (int tick = 0; tick < 8; tick++)
+        {
+            scheduler.tick(seek, 16);
+
+            // The near half every tick and a quarter of the far half
+            assertThat(scheduler.getUpdatedCount(), is(SIZE / 2 + SIZE / 8));
+
+            for (int i = 0; i < SIZE; i++)
+            {
+                updates[i] += scheduler.isUpdated(i) ? 1 : 0;
+            }
+        }
+
+        for (int i = 0; i < SIZE; i++)
+        {
+            assertThat("vehicle " + i, updates[i], is(i < SIZE / 2 ? 8 : 2));
+        }
+    }
+
+    @Test
+    public void testReusedResultScaledByElapsedTime()
+    {
+        scheduler.setLevelOfDetail(new SteeringScheduler.LevelOfDetail()
+        {
+            @Override
+            public int getUpdatePeriod(int index, Vehicle vehicle)
+            {
+                return 1000;
+            }
+        });
+
+        scheduler.tick(seek, 16);
+        float rotation = scheduler.getResult(SIZE - 1).getRotation();
+        float thrust = scheduler.getResult(SIZE - 1).getThrust();
+
+        scheduler.tick(seek, 8);
+        assertThat(scheduler.isUpdated(SIZE - 1), is(false));
+        assertThat((double) scheduler.getResult(SIZE - 1).getRotation(), is(closeTo(rotation / 2, 1e-6)));
+        assertThat((double) scheduler.getResult(SIZE - 1).getThrust(), is(closeTo(thrust / 2, 1e-6)));
+    }
+
+    @Test
+    public void testTimeBudgetDefersRoundRobin()
+    {
+        scheduler.setTimeBudgetNanos(1);
+
+        // Only one vehicle fits in the budget each tick, the rest are visited in later ticks
+        boolean[] steered = new boolean[SIZE];
+        for (int tick = 0; tick < SIZE; tick++)
+        {
+            scheduler.tick(seek, 16);
+
+            assertThat(scheduler.getUpdatedCount(), is(1));
+            assertThat(scheduler.getDeferredCount(), is(SIZE - 1));
+
+            for (int i = 0; i < SIZE; i++)
+            {
+                steered[i] |= scheduler.isUpdated(i);
+            }
+        }
+
+        for (int i = 0; i < SIZE; i++)
+        {
+            assertThat("vehicle " + i, steered[i], is(true));
+        }
+    }
+}
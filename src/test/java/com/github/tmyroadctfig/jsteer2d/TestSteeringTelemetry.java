@@ -0,0 +1,105 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.math.Vector2;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.hamcrest.number.IsCloseTo.closeTo;
+
+/**
+ * Tests for {@link SteeringTelemetry}.
+ */
+public class TestSteeringTelemetry
+{
+    private final SteeringTelemetry telemetry = new SteeringTelemetry();
+
+    @Test
+    public void testRecordsBehavioursByObjective()
+    {
+        SimpleVehicle vehicle = new SimpleVehicle(0, 0, 1, 0);
+        Steering steering = new Steering(vehicle, new ThrustPreferenceSteering(Vector2Utils.ACCURATE_ANGLE, telemetry),
+                new SweptCircleCollisionDetector(telemetry));
+        steering.setMetrics(telemetry);
+
+        SteeringComponents result = new SteeringComponents();
+        steering.seek(new Vector2(100, 0), 1, result);
+        steering.seek(new Vector2(0, 100), 1, result);
+        steering.pursue(new SimpleVehicle(50, 50, 0, 1), 1, result);
+
+        List<Obstacle> obstacles = Arrays.<Obstacle>asList(new SimpleObstacle(50, 0, 5), new SimpleObstacle(0, 500, 5));
+        steering.avoidObstacles(obstacles, 100, 1, result);
+        steering.avoidObstacles(Arrays.<Obstacle>asList(new SimpleObstacle(0, 500, 5)), 100, 1, result);
+
+        assertThat(telemetry.getObjectives(), contains(SteeringObjective.NO_STEERING, SteeringObjective.SEEK,
+                SteeringObjective.PURSUE, SteeringObjective.AVOID_OBSTACLE));
+        assertThat(telemetry.getCalls(SteeringObjective.SEEK), is(2L));
+        assertThat(telemetry.getCalls(SteeringObjective.PURSUE), is(1L));
+        assertThat(telemetry.getCalls(SteeringObjective.NO_STEERING), is(1L));
+        assertThat(telemetry.getLatencyPercentile(SteeringObjective.SEEK, 100), is(greaterThanOrEqualTo(0L)));
+
+        // Seeking straight ahead needs no rotation; seeking at a right angle saturates the rotation rate
+        assertThat(telemetry.getComponents(), is(4L));
+        assertThat(telemetry.getRotationClampFraction(SteeringObjective.SEEK), is(closeTo(0.5, 0)));
+
+        assertThat(telemetry.getCollisionQueries(), is(2L));
+        assertThat(telemetry.getCollisionHitRate(), is(closeTo(0.5, 0)));
+        assertThat(telemetry.getAverageCollisionCandidates(), is(closeTo(1.5, 0)));
+    }
+
+    @Test
+    public void testLatencyPercentiles()
+    {
+        for (int i = 0; i < 99; i++)
+        {
+            telemetry.recordBehaviour(SteeringObjective.SEEK, 100);
+        }
+        telemetry.recordBehaviour(SteeringObjective.SEEK, 5000);
+
+        assertThat(telemetry.getLatencyPercentile(SteeringObjective.SEEK, 50), is(127L));
+        assertThat(telemetry.getLatencyPercentile(SteeringObjective.SEEK, 99), is(127L));
+        assertThat(telemetry.getLatencyPercentile(SteeringObjective.SEEK, 100), is(8191L));
+        assertThat(telemetry.getLatencyPercentile(SteeringObjective.EVADE, 50), is(0L));
+        assertThat(telemetry.getTotalNanos(SteeringObjective.SEEK), is(99 * 100L + 5000));
+
+        telemetry.reset();
+        assertThat(telemetry.getCalls(SteeringObjective.SEEK), is(0L));
+    }
+
+    @Test
+    public void testGridRecordsCandidates()
+    {
+        SpatialGridCollisionDetector grid = new SpatialGridCollisionDetector(50);
+        grid.setMetrics(telemetry);
+        grid.add(new SimpleObstacle(40, 0, 5));
+        grid.add(new SimpleObstacle(1000, 1000, 5));
+
+        grid.findNearestPotentialCollision(new SimpleVehicle(0, 0, 1, 0), grid, 100);
+
+        assertThat(telemetry.getCollisionQueries(), is(1L));
+        assertThat(telemetry.getCollisionHitRate(), is(closeTo(1, 0)));
+
+        // The near obstacle straddles two rows but is only tested once, the far obstacle is never tested
+        assertThat(telemetry.getAverageCollisionCandidates(), is(closeTo(1, 0)));
+    }
+}
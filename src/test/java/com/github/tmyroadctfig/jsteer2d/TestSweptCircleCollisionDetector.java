@@ -0,0 +1,105 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.hamcrest.number.IsCloseTo.closeTo;
+
+/**
+ * Tests for {@link SweptCircleCollisionDetector}.
+ */
+public class TestSweptCircleCollisionDetector
+{
+    private final SweptCircleCollisionDetector detector = new SweptCircleCollisionDetector();
+
+    @Test
+    public void testAccountsForObstacleMotion()
+    {
+        SimpleVehicle vehicle = new SimpleVehicle(0, 0, 1, 0);
+
+        // Crosses the vehicle's path from the side; a static path test would miss it
+        SimpleObstacle crossing = new SimpleObstacle(100, -100, 5, 0, 1);
+
+        // Directly ahead but moving away faster than the vehicle
+        SimpleObstacle fleeing = new SimpleObstacle(50, 0, 5, 2, 0);
+
+        assertThat(detector.findNearestPotentialCollision(vehicle, Arrays.<Obstacle>asList(fleeing, crossing), 200),
+                is((Obstacle) crossing));
+        assertThat(detector.findNearestPotentialCollision(vehicle, Arrays.<Obstacle>asList(fleeing, crossing), 50),
+                is(nullValue()));
+    }
+
+    @Test
+    public void testRanksByTimeOfImpact()
+    {
+        SimpleVehicle vehicle = new SimpleVehicle(0, 0, 1, 0);
+
+        // Further away but approaching quickly
+        SimpleObstacle fast = new SimpleObstacle(300, 0, 5, -5, 0);
+        SimpleObstacle slow = new SimpleObstacle(100, 0, 5, 0, 0);
+
+        assertThat(detector.findNearestPotentialCollision(vehicle, Arrays.<Obstacle>asList(slow, fast), 500),
+                is((Obstacle) fast));
+    }
+
+    @Test
+    public void testTimeToCollisionMatchesStepping()
+    {
+        Random random = new Random(1);
+
+        for (int i = 0; i < 1000; i++)
+        {
+            float offsetX = random.nextFloat() * 200 - 100;
+            float offsetY = random.nextFloat() * 200 - 100;
+            float velocityX = random.nextFloat() * 4 - 2;
+            float velocityY = random.nextFloat() * 4 - 2;
+            float radius = 5 + random.nextFloat() * 20;
+
+            float time = CollisionUtils.findTimeToCollision(offsetX, offsetY, velocityX, velocityY, radius, 100);
+            float steppedTime = Float.POSITIVE_INFINITY;
+
+            for (int step = 0; step <= 100000; step++)
+            {
+                float t = step * 0.001f;
+                float x = offsetX + velocityX * t;
+                float y = offsetY + velocityY * t;
+
+                if (x * x + y * y <= radius * radius)
+                {
+                    steppedTime = t;
+                    break;
+                }
+            }
+
+            if (Float.isInfinite(steppedTime))
+            {
+                assertThat(time, is(Float.POSITIVE_INFINITY));
+            }
+            else
+            {
+                assertThat((double) time, is(closeTo(steppedTime, 0.01)));
+            }
+        }
+    }
+}
@@ -23,6 +23,8 @@ import junitparams.Parameters;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.Random;
+
 import static org.hamcrest.MatcherAssert.*;
 import static org.hamcrest.Matchers.*;
 import static org.hamcrest.number.IsCloseTo.closeTo;
@@ -66,4 +68,66 @@ public class TestVector2Utils
 
         assertThat(message, angleInDeg, is(closeTo(angle, 0.001)));
     }
+
+    @Test
+    @Parameters(method = "findAngleBetweenTwoVectorsParam")
+    public void testFindAngleBetweenTwoVectorsFast(String description, Vector2 v1, Vector2 v2, double angle)
+    {
+        float angleInRad = Vector2Utils.findAngleBetweenTwoVectorsFast(v1.x, v1.y, v2.x, v2.y);
+        double angleInDeg = Math.toDegrees(angleInRad);
+        String message = String.format("%s {%s - %s}: %.2f", description, v1, v2, angle);
+
+        assertThat(message, angleInDeg, is(closeTo(angle, 0.001)));
+    }
+
+    @Test
+    public void testFindAngleBetweenTwoVectorsMatchesNormalisedAngles()
+    {
+        Random random = new Random(1234);
+
+        for (int i = 0; i < 100000; i++)
+        {
+            float x1 = random.nextFloat() * 200 - 100;
+            float y1 = random.nextFloat() * 200 - 100;
+            float x2 = random.nextFloat() * 200 - 100;
+            float y2 = random.nextFloat() * 200 - 100;
+
+            double expected = findAngleBetweenTwoVectorsWithAngles(x1, y1, x2, y2);
+
+            assertThat(wrappedDifference(Vector2Utils.findAngleBetweenTwoVectors(x1, y1, x2, y2), expected),
+                is(closeTo(0, 1e-5)));
+            assertThat(wrappedDifference(Vector2Utils.findAngleBetweenTwoVectorsFast(x1, y1, x2, y2), expected),
+                is(closeTo(0, Vector2Utils.FAST_ATAN2_MAXIMUM_ERROR + 1e-5)));
+        }
+    }
+
+    @Test
+    public void testFastAtan2()
+    {
+        assertThat(Vector2Utils.fastAtan2(0, 0), is(0f));
+
+        for (int i = 0; i <= 3600; i++)
+        {
+            double angle = Math.toRadians(i / 10.0 - 180);
+            float x = (float) Math.cos(angle);
+            float y = (float) Math.sin(angle);
+
+            assertThat((double) Vector2Utils.fastAtan2(y, x),
+                is(closeTo(Math.atan2(y, x), Vector2Utils.FAST_ATAN2_MAXIMUM_ERROR)));
+        }
+    }
+
+    /**
+     * The original approach: the difference between the angle of each vector from the x axis.
+     */
+    private static double findAngleBetweenTwoVectorsWithAngles(float x1, float y1, float x2, float y2)
+    {
+        double angle = Math.atan2(y1, x1) - Math.atan2(y2, x2);
+        return Math.IEEEremainder(angle, 2 * Math.PI);
+    }
+
+    private static double wrappedDifference(double angle1, double angle2)
+    {
+        return Math.IEEEremainder(angle1 - angle2, 2 * Math.PI);
+    }
 }
@@ -0,0 +1,99 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import com.badlogic.gdx.math.Vector2;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.hamcrest.number.IsCloseTo.closeTo;
+
+/**
+ * Tests for {@link VehicleKinematics}.
+ */
+public class TestVehicleKinematics
+{
+    @Test
+    public void testDerivedValues()
+    {
+        SimpleVehicle vehicle = new SimpleVehicle(10, 20, 3, 4);
+        vehicle.maximumReverseThrust = -0.5f;
+
+        VehicleKinematics kinematics = new VehicleKinematics(vehicle, 2);
+
+        assertThat(kinematics.getEstimatedPosition(), is(new Vector2(16, 28)));
+        assertThat(kinematics.getSpeed(), is(5f));
+        assertThat(kinematics.getSpeedSquared(), is(25f));
+        assertThat((double) kinematics.getUnitVelocity().x, is(closeTo(0.6, 1e-6)));
+        assertThat((double) kinematics.getUnitVelocity().y, is(closeTo(0.8, 1e-6)));
+        assertThat(kinematics.getStoppingDistance(), is(VehicleUtils.getStoppingDistance(vehicle)));
+        assertThat((double) kinematics.getRight().x, is(closeTo(0.8, 1e-6)));
+        assertThat((double) kinematics.getRight().y, is(closeTo(-0.6, 1e-6)));
+        assertThat(kinematics.getVehicle(), is((Vehicle) vehicle));
+    }
+
+    @Test
+    public void testSteeringMatchesLiveVehicle()
+    {
+        SimpleVehicle vehicle = new SimpleVehicle(10, 20, 1, 0.5f);
+        SimpleVehicle other = new SimpleVehicle(50, 60, -1, 0);
+        vehicle.maximumReverseThrust = -0.5f;
+        Vector2 target = new Vector2(12, 21);
+
+        Steering live = new Steering(vehicle, new ThrustPreferenceSteering());
+        Steering cached = new Steering(new VehicleKinematics(vehicle, 16), new ThrustPreferenceSteering());
+
+        assertMatches(cached.seek(target, 16), live.seek(target, 16));
+        assertMatches(cached.arriveAt(target, 16), live.arriveAt(target, 16));
+        assertMatches(cached.pursue(new VehicleKinematics(other, 16), 16), live.pursue(other, 16));
+        assertMatches(cached.evade(other, 16), live.evade(other, 16));
+    }
+
+    @Test
+    public void testSnapshotIsSameVehicle()
+    {
+        SimpleVehicle vehicle = new SimpleVehicle(0, 0, 1, 0);
+        VehicleKinematics kinematics = new VehicleKinematics(vehicle, 16);
+
+        assertThat(VehicleUtils.isSameVehicle(kinematics, vehicle), is(true));
+        assertThat(VehicleUtils.isSameVehicle(vehicle, kinematics), is(true));
+        assertThat(VehicleUtils.isSameVehicle(kinematics, new SimpleVehicle()), is(false));
+
+        // Snapshots that haven't captured a vehicle are only the same as themselves
+        VehicleKinematics uncaptured = new VehicleKinematics();
+        assertThat(VehicleUtils.isSameVehicle(uncaptured, uncaptured), is(true));
+        assertThat(VehicleUtils.isSameVehicle(uncaptured, new VehicleKinematics()), is(false));
+
+        // The live vehicle overlaps its own snapshot but must not be detected as an obstacle
+        List<Obstacle> obstacles = Arrays.<Obstacle>asList(vehicle);
+        assertThat(new SweptCircleCollisionDetector().findNearestPotentialCollision(kinematics, obstacles, 100),
+                is(nullValue()));
+        assertThat(CollisionUtils.findNearestObstacleInPath(kinematics, obstacles, 100), is(nullValue()));
+    }
+
+    private void assertMatches(SteeringComponents actual, SteeringComponents expected)
+    {
+        assertThat(actual.getSteeringObjective(), is(expected.getSteeringObjective()));
+        assertThat(actual.getRotation(), is(expected.getRotation()));
+        assertThat(actual.getThrust(), is(expected.getThrust()));
+    }
+}
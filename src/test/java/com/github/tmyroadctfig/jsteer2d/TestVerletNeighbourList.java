@@ -0,0 +1,124 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link VerletNeighbourList}.
+ */
+public class TestVerletNeighbourList
+{
+    @Test
+    public void testMatchesIndexAsFlockMoves()
+    {
+        Random random = new Random(1);
+        List<SimpleVehicle> flock = new ArrayList<SimpleVehicle>();
+
+        for (int i = 0; i < 1000; i++)
+        {
+            flock.add(new SimpleVehicle(random.nextFloat() * 2000, random.nextFloat() * 2000,
+                    random.nextFloat() * 4 - 2, random.nextFloat() * 4 - 2));
+        }
+
+        VerletNeighbourList list = new VerletNeighbourList(100, 20);
+        BoidNeighbourIndex index = new BoidNeighbourIndex(100);
+
+        BoidDistance[] expected = new BoidDistance[7];
+        BoidDistance[] actual = new BoidDistance[7];
+
+        int ticks = 50;
+        for (int tick = 0; tick < ticks; tick++)
+        {
+            list.update(flock);
+            index.build(flock);
+            assertThat(list.size(), is(flock.size()));
+
+            for (SimpleVehicle boid : flock)
+            {
+                int expectedCount = index.findCloseBoids(boid, 100, expected);
+                int actualCount = list.findCloseBoids(boid, 100, actual);
+
+                assertThat(actualCount, is(expectedCount));
+                for (int i = 0; i < actualCount; i++)
+                {
+                    assertThat(actual[i].getDistanceSquared(), is(expected[i].getDistanceSquared()));
+                }
+            }
+
+            for (SimpleVehicle boid : flock)
+            {
+                boid.position.add(boid.velocity);
+            }
+        }
+
+        // Boids move at most 2.83 units a tick so a skin of 20 should last at least 3 ticks
+        assertThat(list.getRebuildCount(), is(both(greaterThan(1)).and(lessThanOrEqualTo(ticks / 3 + 1))));
+    }
+
+    @Test
+    public void testRebuildsWhenFlockChanges()
+    {
+        SimpleVehicle boid = new SimpleVehicle(0, 0, 0, 0);
+        SimpleVehicle close = new SimpleVehicle(30, 0, 0, 0);
+        SimpleVehicle other = new SimpleVehicle(0, 40, 0, 0);
+
+        VerletNeighbourList list = new VerletNeighbourList(100, 10);
+        BoidDistance[] closeBoids = new BoidDistance[4];
+
+        assertThat(list.update(Arrays.asList(boid, close)), is(true));
+        assertThat(list.update(Arrays.asList(boid, close)), is(false));
+        assertThat(list.findCloseBoids(boid, 100, closeBoids), is(1));
+        assertThat(closeBoids[0].getBoid(), is(sameInstance((Vehicle) close)));
+        assertThat(list.getNeighbourCount(), is(2));
+
+        // Membership changes rebuild even though nothing has moved
+        assertThat(list.update(Arrays.asList(boid, other)), is(true));
+        assertThat(list.findCloseBoids(boid, 100, closeBoids), is(1));
+        assertThat(closeBoids[0].getBoid(), is(sameInstance((Vehicle) other)));
+        assertThat(list.indexOf(close), is(-1));
+        assertThat(list.findCloseBoids(close, 100, closeBoids), is(0));
+
+        // Snapshots are looked up by the vehicle they were taken of
+        assertThat(list.indexOf(new VehicleKinematics(other, 1)), is(1));
+
+        // Moving less than half the skin keeps the lists
+        boid.position.set(4, 0);
+        assertThat(list.update(Arrays.asList(boid, other)), is(false));
+        boid.position.set(6, 0);
+        assertThat(list.update(Arrays.asList(boid, other)), is(true));
+        assertThat(list.getRebuildCount(), is(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsDistanceBeyondCutoff()
+    {
+        SimpleVehicle boid = new SimpleVehicle(0, 0, 0, 0);
+        VerletNeighbourList list = new VerletNeighbourList(100, 10);
+        list.update(Arrays.asList(boid));
+        list.findCloseBoids(boid, 101, new BoidDistance[4]);
+    }
+}
@@ -0,0 +1,155 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d.vector;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.github.tmyroadctfig.jsteer2d.BatchKernels;
+import com.github.tmyroadctfig.jsteer2d.GetBatchSteeringComponents;
+import com.github.tmyroadctfig.jsteer2d.SteeringBatch;
+import com.github.tmyroadctfig.jsteer2d.ThrustPreferenceSteering;
+import com.github.tmyroadctfig.jsteer2d.Vector2Utils;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * A batch steering strategy that preferences thrust over rotation, vectorised with the Java Vector API. The results
+ * are identical to {@code new ThrustPreferenceSteering(Vector2Utils.FAST_ANGLE)}: each lane performs the same float
+ * operations in the same order as {@link Vector2Utils#fastAtan2(float, float)} and the scalar strategy, without fused
+ * multiply-adds.
+ *
+ * <p>Use {@link BatchKernels#createThrustPreferenceSteering()} rather than this class directly, so the scalar strategy
+ * is used where the Vector API isn't available. This class holds no mutable state so a single instance can be shared
+ * by any number of batches and threads.</p>
+ */
+public class VectorThrustPreferenceSteering implements GetBatchSteeringComponents
+{
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    /**
+     * Handles the vehicles after the last full vector, and arriving.
+     */
+    private final ThrustPreferenceSteering scalar = new ThrustPreferenceSteering(Vector2Utils.FAST_ANGLE);
+
+    /**
+     * Checks whether the CPU's vector registers are wide enough for this class to beat the scalar strategy.
+     *
+     * @return {@code true} if supported.
+     */
+    public static boolean isSupported()
+    {
+        return SPECIES.length() >= 4;
+    }
+
+    /**
+     * Gets the number of vehicles processed per vector.
+     *
+     * @return the number of lanes.
+     */
+    public static int getLaneCount()
+    {
+        return SPECIES.length();
+    }
+
+    @Override
+    public void getComponents(SteeringBatch batch, int start, int end, float elapsedTime)
+    {
+        float[] directionX = batch.getDirectionX();
+        float[] directionY = batch.getDirectionY();
+        float[] forceX = batch.getForceX();
+        float[] forceY = batch.getForceY();
+        float[] rotationRate = batch.getRotationRate();
+        float[] maximumThrust = batch.getMaximumThrust();
+        float[] maximumReverseThrust = batch.getMaximumReverseThrust();
+        float[] rotationOutput = batch.getRotation();
+        float[] thrustOutput = batch.getThrust();
+
+        int i = start;
+        for (int bound = start + SPECIES.loopBound(end - start); i < bound; i += SPECIES.length())
+        {
+            FloatVector dx = FloatVector.fromArray(SPECIES, directionX, i);
+            FloatVector dy = FloatVector.fromArray(SPECIES, directionY, i);
+            FloatVector fx = FloatVector.fromArray(SPECIES, forceX, i);
+            FloatVector fy = FloatVector.fromArray(SPECIES, forceY, i);
+
+            // Same as Vector2Utils.findAngleBetweenTwoVectorsFast()
+            FloatVector cross = fx.mul(dy).sub(fy.mul(dx));
+            FloatVector dot = dx.mul(fx).add(dy.mul(fy));
+            FloatVector rotation = fastAtan2(cross, dot);
+            rotation = rotation.blend(MathUtils.PI, rotation.compare(VectorOperators.LE, -MathUtils.PI));
+
+            // Clamp the rotation to the rotation rate
+            FloatVector maxRotation = FloatVector.fromArray(SPECIES, rotationRate, i).mul(elapsedTime);
+            rotation = rotation.blend(maxRotation, rotation.compare(VectorOperators.GT, maxRotation));
+            FloatVector minRotation = maxRotation.neg();
+            rotation = rotation.blend(minRotation, rotation.compare(VectorOperators.LT, minRotation));
+
+            // Thrust along the normalised steering force
+            FloatVector length = fx.mul(fx).add(fy.mul(fy)).sqrt();
+            VectorMask<Float> nonZero = length.compare(VectorOperators.NE, 0);
+            FloatVector normalizedX = fx.blend(fx.div(length), nonZero);
+            FloatVector normalizedY = fy.blend(fy.div(length), nonZero);
+
+            FloatVector parallel = dx.mul(normalizedX).add(dy.mul(normalizedY));
+            FloatVector thrust = FloatVector.fromArray(SPECIES, maximumReverseThrust, i)
+                    .blend(FloatVector.fromArray(SPECIES, maximumThrust, i), parallel.compare(VectorOperators.GT, 0));
+
+            rotation.intoArray(rotationOutput, i);
+            parallel.mul(thrust).mul(elapsedTime).intoArray(thrustOutput, i);
+        }
+
+        if (i < end)
+        {
+            scalar.getComponents(batch, i, end, elapsedTime);
+        }
+    }
+
+    @Override
+    public void arriveAtImpl(SteeringBatch batch, int index, float distanceToTarget, float stoppingDistance,
+                             float elapsedTime)
+    {
+        scalar.arriveAtImpl(batch, index, distanceToTarget, stoppingDistance, elapsedTime);
+    }
+
+    /**
+     * The lane-wise equivalent of {@link Vector2Utils#fastAtan2(float, float)}.
+     */
+    private static FloatVector fastAtan2(FloatVector y, FloatVector x)
+    {
+        FloatVector absoluteX = x.abs();
+        FloatVector absoluteY = y.abs();
+
+        FloatVector maximum = absoluteX.max(absoluteY);
+        FloatVector ratio = absoluteX.min(absoluteY).div(maximum);
+        FloatVector ratioSquared = ratio.mul(ratio);
+
+        FloatVector angle = ratioSquared.mul(0.0208351f).add(-0.0851330f)
+                .mul(ratioSquared).add(0.1801410f)
+                .mul(ratioSquared).add(-0.3302995f)
+                .mul(ratioSquared).add(0.9998660f)
+                .mul(ratio);
+
+        angle = angle.blend(angle.neg().add(MathUtils.PI / 2), absoluteY.compare(VectorOperators.GT, absoluteX));
+        angle = angle.blend(angle.neg().add(MathUtils.PI), x.compare(VectorOperators.LT, 0));
+        angle = angle.blend(angle.neg(), y.compare(VectorOperators.LT, 0));
+
+        // Both components zero gives 0 / 0 above
+        return angle.blend(0, maximum.compare(VectorOperators.EQ, 0));
+    }
+}
@@ -0,0 +1,112 @@
+/* Copyright (c) 2014 Luke Quinane
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.tmyroadctfig.jsteer2d.vector;
+
+import com.github.tmyroadctfig.jsteer2d.BatchKernels;
+import com.github.tmyroadctfig.jsteer2d.GetBatchSteeringComponents;
+import com.github.tmyroadctfig.jsteer2d.SteeringBatch;
+import com.github.tmyroadctfig.jsteer2d.ThrustPreferenceSteering;
+import com.github.tmyroadctfig.jsteer2d.Vector2Utils;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link VectorThrustPreferenceSteering}.
+ */
+public class TestVectorThrustPreferenceSteering
+{
+    @Test
+    public void testMatchesScalar()
+    {
+        // Sizes that leave a scalar tail after the last full vector
+        for (int size : new int[] { 1, 7, 64, 1001 })
+        {
+            SteeringBatch vector = createBatch(size, new VectorThrustPreferenceSteering());
+            SteeringBatch scalar = createBatch(size, new ThrustPreferenceSteering(Vector2Utils.FAST_ANGLE));
+
+            float[] targetX = new float[size];
+            float[] targetY = new float[size];
+            Random random = new Random(size);
+            for (int i = 0; i < size; i++)
+            {
+                targetX[i] = random.nextFloat() * 2000 - 1000;
+                targetY[i] = random.nextFloat() * 2000 - 1000;
+            }
+
+            // A zero force
+            targetX[0] = vector.getPositionX()[0];
+            targetY[0] = vector.getPositionY()[0];
+
+            vector.arriveAt(targetX, targetY, 16);
+            scalar.arriveAt(targetX, targetY, 16);
+
+            for (int i = 0; i < size; i++)
+            {
+                assertThat("rotation " + i, vector.getRotation()[i], is(scalar.getRotation()[i]));
+                assertThat("thrust " + i, vector.getThrust()[i], is(scalar.getThrust()[i]));
+            }
+        }
+    }
+
+    @Test
+    public void testSelectedAtRuntime()
+    {
+        assertThat(BatchKernels.isVectorised(), is(VectorThrustPreferenceSteering.isSupported()));
+
+        System.setProperty("jsteer2d.vector", "false");
+        try
+        {
+            assertThat(BatchKernels.createThrustPreferenceSteering(), is(instanceOf(ThrustPreferenceSteering.class)));
+        }
+        finally
+        {
+            System.clearProperty("jsteer2d.vector");
+        }
+    }
+
+    private static SteeringBatch createBatch(int size, GetBatchSteeringComponents strategy)
+    {
+        SteeringBatch batch = new SteeringBatch(size, strategy);
+        batch.setSize(size);
+
+        Random random = new Random(1);
+        for (int i = 0; i < size; i++)
+        {
+            float angle = random.nextFloat() * 2 * (float) Math.PI;
+            batch.getPositionX()[i] = random.nextFloat() * 2000 - 1000;
+            batch.getPositionY()[i] = random.nextFloat() * 2000 - 1000;
+            batch.getVelocityX()[i] = random.nextFloat() - 0.5f;
+            batch.getVelocityY()[i] = random.nextFloat() - 0.5f;
+            batch.getDirectionX()[i] = (float) Math.cos(angle);
+            batch.getDirectionY()[i] = (float) Math.sin(angle);
+            batch.getRotationRate()[i] = i % 2 == 0 ? 0.01f : 1;
+            batch.getMaximumThrust()[i] = 1;
+            batch.getMaximumReverseThrust()[i] = -0.5f;
+            batch.getMaximumSpeed()[i] = 5;
+        }
+
+        // The zero force vehicle is stationary so it stays zero
+        batch.getVelocityX()[0] = 0;
+        batch.getVelocityY()[0] = 0;
+        return batch;
+    }
+}